@@ -170,7 +170,7 @@ public final class Frame extends Header {
 		if (offset + length > headerLength())
 			length = headerLength() - offset;
 
-		buffer().get(dst, offset, length);
+		buffer().get(bufferOffset(), dst, offset, length);
 
 		return length;
 	}
@@ -215,4 +215,15 @@ public final class Frame extends Header {
 	public int wireLength() {
 		return descriptor.wireLength();
 	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
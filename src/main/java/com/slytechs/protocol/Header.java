@@ -51,6 +51,9 @@ public abstract class Header extends MemoryBinding implements DetailedString {
 	/** Some important header attributes. */
 	private int headerOffset, headerLength, payloadLength;
 
+	/** Offset of this header within the bound buffer, 0 if bound to a slice. */
+	private int bufferOffset;
+
 	/**
 	 * A pretty pring formatted, if will be used to generated {@code toString()}
 	 * output.
@@ -86,25 +89,94 @@ public abstract class Header extends MemoryBinding implements DetailedString {
 	 * @param descriptor the extension header lookup
 	 * @param meta       the meta data, such as descriptor/lookup specific data
 	 *                   which aids in extension header lookup
+	 * @param shared     if true, extensions are bound to the packet buffer instead
+	 *                   of a slice
 	 */
-	void bindExtensionsToPacket(ByteBuffer packet, PacketDescriptor descriptor, int meta) {
+	void bindExtensionsToPacket(ByteBuffer packet, PacketDescriptor descriptor, int meta, boolean shared) {
 		// Do nothing by default
 	}
 
 	/**
 	 * Bind header to packet.
 	 *
+	 * <p>
+	 * When {@code shared} is true and the header supports it (see
+	 * {@link #isSharedBindingSupported()}), the header is bound directly to the
+	 * packet buffer and {@link #bufferOffset()} is set to the header offset, so
+	 * binding is pure field assignment. Otherwise the header is bound to a new
+	 * slice of the packet buffer, starting at the header.
+	 * </p>
+	 *
 	 * @param packet     the packet
-	 * @param descriptor TODO
+	 * @param descriptor the packet descriptor
 	 * @param offset     the offset
 	 * @param length     the length
+	 * @param shared     if true, bind to the packet buffer instead of a slice
 	 */
-	final void bindHeaderToPacket(ByteBuffer packet, PacketDescriptor descriptor, int offset, int length) {
+	final void bindHeaderToPacket(ByteBuffer packet, PacketDescriptor descriptor, int offset, int length,
+			boolean shared) {
+		if (shared && isSharedBindingSupported()) {
+			super.bind(packet);
+			this.bufferOffset = offset;
+
+		} else {
+			super.bind(packet.slice(offset, length));
+			this.bufferOffset = 0;
+		}
+
+		/* Assign after bind, as rebinding resets the attributes in onUnbind */
 		this.headerOffset = offset;
 		this.headerLength = length;
 		this.payloadLength = calcPayloadLength(packet, descriptor, offset, length);
 
-		super.bind(packet.slice(offset, length));
+		onBindToPacket(descriptor);
+	}
+
+	/**
+	 * Called after the header is bound to a packet, with the packet's descriptor.
+	 * Headers which need information from other descriptors in the descriptor
+	 * chain, such as IP fragment reassembly, override this method. Default does
+	 * nothing.
+	 *
+	 * @param descriptor the packet descriptor
+	 */
+	protected void onBindToPacket(PacketDescriptor descriptor) {
+		// Do nothing by default
+	}
+
+	/**
+	 * Checks if this header can be bound directly to the packet buffer, without
+	 * allocating a slice. A header which supports shared binding, must access its
+	 * fields relative to {@link #bufferOffset()} and never use the buffer's
+	 * position or limit. Default is false, sub-classes which adhere to these rules
+	 * override it.
+	 *
+	 * @return true, if shared binding is supported
+	 */
+	protected boolean isSharedBindingSupported() {
+		return false;
+	}
+
+	/**
+	 * Offset of the beginning of this header within the currently bound
+	 * {@link #buffer()}. When the header is bound to a slice of the packet, the
+	 * offset is always 0, otherwise it is the same as {@link #headerOffset()}.
+	 *
+	 * @return offset in bytes
+	 */
+	public final int bufferOffset() {
+		return bufferOffset;
+	}
+
+	/**
+	 * Creates a new buffer view containing only this header's bytes, regardless
+	 * of the binding mode. This method allocates a new buffer on every call and
+	 * is intended for formatting and debugging purposes.
+	 *
+	 * @return the header buffer
+	 */
+	public final ByteBuffer headerBuffer() {
+		return buffer().slice(bufferOffset, headerLength);
 	}
 
 	/**
@@ -187,7 +259,7 @@ public abstract class Header extends MemoryBinding implements DetailedString {
 	 */
 	@Override
 	protected void onUnbind() {
-		headerOffset = headerLength = payloadLength = 0;
+		headerOffset = headerLength = payloadLength = bufferOffset = 0;
 	}
 
 	/**
@@ -263,7 +335,7 @@ public abstract class Header extends MemoryBinding implements DetailedString {
 				offset,
 				length,
 				HexStrings.toHexTextDump(
-						buffer(),
+						headerBuffer(),
 						i -> "%04X: ".formatted(i + offset)));
 
 		case DEBUG -> "%s [offset=%d, length=%d, payload=%d, id=%04X]"
@@ -43,6 +43,9 @@ public abstract class HeaderExtension<T extends Header>
 	/** The meta. */
 	private int meta;
 
+	/** Extensions are bound using the same binding mode as this header. */
+	private boolean shared;
+
 	/**
 	 * Reset this header extension instance, importantly reset the reference to
 	 * sourceBuffer to release it.
@@ -54,6 +57,7 @@ public abstract class HeaderExtension<T extends Header>
 		packet = null;
 		descriptor = null;
 		meta = 0;
+		shared = false;
 
 		super.onUnbind();
 	}
@@ -129,7 +133,7 @@ public abstract class HeaderExtension<T extends Header>
 		int offset = CompactDescriptor.decodeOffset(cp);
 		int length = CompactDescriptor.decodeLength(cp);
 
-		extension.bindHeaderToPacket(packet, descriptor, offset, length);
+		extension.bindHeaderToPacket(packet, descriptor, offset, length, shared);
 
 		return extension;
 	}
@@ -140,14 +144,16 @@ public abstract class HeaderExtension<T extends Header>
 	 * @param packet     the packet
 	 * @param descriptor the descriptor
 	 * @param meta       the meta
+	 * @param shared     the shared binding mode
 	 * @see com.slytechs.protocol.Header#bindExtensionsToPacket(java.nio.ByteBuffer,
-	 *      com.slytechs.protocol.HeaderLookup, int)
+	 *      com.slytechs.protocol.descriptor.PacketDescriptor, int, boolean)
 	 */
 	@Override
-	void bindExtensionsToPacket(ByteBuffer packet, PacketDescriptor descriptor, int meta) {
+	void bindExtensionsToPacket(ByteBuffer packet, PacketDescriptor descriptor, int meta, boolean shared) {
 		this.packet = packet;
 		this.descriptor = descriptor;
 		this.meta = meta;
+		this.shared = shared;
 	}
 
 }
@@ -37,7 +37,38 @@ public interface HeaderLookup {
 	boolean isHeaderExtensionSupported();
 
 	/**
-	 * List headers recorded within a descriptor or lookup source.
+	 * Number of headers recorded within a descriptor or lookup source. Together
+	 * with {@link #headerAt(int)}, iterates over the recorded headers without
+	 * allocating an array.
+	 *
+	 * <pre>
+	 * for (int i = 0; i &lt; lookup.headerCount(); i++) {
+	 * 	long compact = lookup.headerAt(i);
+	 * }
+	 * </pre>
+	 *
+	 * @return the header count
+	 */
+	default int headerCount() {
+		return listHeaders().length;
+	}
+
+	/**
+	 * Gets a recorded header in the order the headers were recorded.
+	 *
+	 * @param index the header index, from 0 to {@link #headerCount()} - 1
+	 * @return A {@link CompactDescriptor} encoded header ID and other auxilary
+	 *         information such as offset and length of the header
+	 * @throws IndexOutOfBoundsException if index is out of range
+	 */
+	default long headerAt(int index) throws IndexOutOfBoundsException {
+		return listHeaders()[index];
+	}
+
+	/**
+	 * List headers recorded within a descriptor or lookup source. A new array may
+	 * be allocated on every call, use {@link #headerCount()} and
+	 * {@link #headerAt(int)} to iterate without allocation.
 	 *
 	 * @return an array of {@link CompactDescriptor} encoded header IDs and other
 	 *         auxilary information such as offset and length of the header.
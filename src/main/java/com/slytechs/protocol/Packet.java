@@ -71,6 +71,9 @@ public final class Packet
 	/** The formatter. */
 	private PacketFormat formatter;
 
+	/** Bind headers directly to the packet buffer, instead of to slices. */
+	private boolean sharedHeaderBinding;
+
 	/**
 	 * Instantiates a new packet.
 	 */
@@ -156,8 +159,8 @@ public final class Packet
 	private <T extends Header> boolean bindHeader(T header, int offset, int length, int meta) {
 		ByteBuffer buffer = buffer();
 
-		header.bindHeaderToPacket(buffer, descriptor, offset, length);
-		header.bindExtensionsToPacket(buffer, descriptor, meta);
+		header.bindHeaderToPacket(buffer, descriptor, offset, length, sharedHeaderBinding);
+		header.bindExtensionsToPacket(buffer, descriptor, meta, sharedHeaderBinding);
 
 		header.setFormatter(formatter);
 
@@ -170,16 +173,7 @@ public final class Packet
 	 * @param payload the payload
 	 */
 	private void bindPayloadHeader(Payload payload) {
-		var headers = lookup.listHeaders();
-
-		if (headers.length == 0) {
-			bindHeader(payload, 0, captureLength(), 0);
-			return;
-		}
-
-		var lastHeader = headers[headers.length - 1];
-		int offset = CompactDescriptor.decodeOffset(lastHeader)
-				+ CompactDescriptor.decodeLength(lastHeader);
+		int offset = payloadOffset();
 		int length = captureLength() - offset;
 
 		bindHeader(payload, offset, length, 0);
@@ -316,7 +310,7 @@ public final class Packet
 	 * @return the long
 	 */
 	protected final long lookupHeader(int id, int depth) {
-		return lookup.lookupHeader(id, 0);
+		return lookup.lookupHeader(id, depth);
 	}
 
 	/**
@@ -325,17 +319,24 @@ public final class Packet
 	 * @return the int
 	 */
 	public int payloadLength() {
-		var headers = lookup.listHeaders();
+		return captureLength() - payloadOffset();
+	}
 
-		if (headers.length == 0)
-			return captureLength();
+	/**
+	 * Offset of the payload, the first byte past the last recorded header, or 0
+	 * if there are no recorded headers.
+	 *
+	 * @return offset in bytes
+	 */
+	private int payloadOffset() {
+		int count = lookup.headerCount();
+		if (count == 0)
+			return 0;
 
-		var lastHeader = headers[headers.length - 1];
-		int offset = CompactDescriptor.decodeOffset(lastHeader)
-				+ CompactDescriptor.decodeLength(lastHeader);
-		int length = captureLength() - offset;
+		long lastHeader = lookup.headerAt(count - 1);
 
-		return length;
+		return CompactDescriptor.decodeOffset(lastHeader)
+				+ CompactDescriptor.decodeLength(lastHeader);
 	}
 
 	/**
@@ -399,6 +400,38 @@ public final class Packet
 		this.formatter = formatter;
 	}
 
+	/**
+	 * Enables or disables shared header binding. When enabled, headers which
+	 * support it are bound directly to this packet's buffer and apply their own
+	 * offset when accessing fields. Binding a header then does not allocate a new
+	 * buffer slice, it only assigns a few header fields. Headers which do not
+	 * support shared binding are always bound to a slice.
+	 *
+	 * <p>
+	 * With shared binding, {@link Header#buffer()} returns the entire packet
+	 * buffer and header fields start at {@link Header#bufferOffset()}. Use
+	 * {@link Header#headerBuffer()} to get a view of only the header's bytes.
+	 * </p>
+	 *
+	 * @param enable if true, headers are bound to the packet buffer
+	 * @return this packet
+	 */
+	public Packet setSharedHeaderBinding(boolean enable) {
+		this.sharedHeaderBinding = enable;
+
+		return this;
+	}
+
+	/**
+	 * Checks if shared header binding is enabled.
+	 *
+	 * @return true, if headers are bound directly to the packet buffer
+	 * @see #setSharedHeaderBinding(boolean)
+	 */
+	public boolean isSharedHeaderBinding() {
+		return sharedHeaderBinding;
+	}
+
 	/**
 	 * Gets the currently assigned packet formatter.
 	 *
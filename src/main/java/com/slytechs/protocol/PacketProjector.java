@@ -0,0 +1,461 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.slytechs.protocol.descriptor.CompactDescriptor;
+import com.slytechs.protocol.pack.Pack;
+import com.slytechs.protocol.runtime.internal.layout.CarrierField;
+
+/**
+ * A precompiled projection of multiple protocol fields, which extracts field
+ * values directly from packet data into primitive rows or columns, without
+ * binding any {@code Header} objects.
+ * 
+ * <p>
+ * A projector is compiled once from a list of field paths, such as
+ * {@code "ip4.src"} or {@code "tcp.dstPort"}. The fields are grouped by their
+ * protocol header so that each header is looked up in the packet descriptor
+ * only once per packet, regardless of how many of its fields are projected.
+ * Field values are then read straight out of the packet buffer at the header
+ * offset recorded in the descriptor.
+ * </p>
+ * 
+ * <pre>
+ * PacketProjector projector = PacketProjector.of("ip4.src", "ip4.dst", "tcp.srcPort", "tcp.dstPort", "tcp.flags");
+ * long[] row = new long[projector.fieldCount()];
+ * 
+ * long present = projector.project(packet, row);
+ * </pre>
+ * 
+ * <p>
+ * Every projection returns a bitmask of fields whose header was found in the
+ * packet, bit {@code i} corresponding to field {@code i}. Fields whose header
+ * is not present are written as 0. Only the outermost header (depth 0) of each
+ * protocol is projected. A projector is immutable and may be shared between
+ * threads.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ * @author Mark Bednarczyk
+ */
+public final class PacketProjector {
+
+	/**
+	 * A projectable protocol field, located at a fixed offset within its protocol
+	 * header.
+	 */
+	public interface Field {
+
+		/**
+		 * Gets the field path, such as {@code "ip4.src"}.
+		 *
+		 * @return the path
+		 */
+		String path();
+
+		/**
+		 * Gets the numerical id of the protocol header containing the field.
+		 *
+		 * @return the header id
+		 */
+		int headerId();
+
+		/**
+		 * Extracts the unsigned field value from the packet.
+		 *
+		 * @param packet       the packet data
+		 * @param headerOffset the byte offset of the header within the packet
+		 * @return the field value
+		 */
+		long extract(ByteBuffer packet, int headerOffset);
+
+		/**
+		 * Gets the carrier layout of the field, if the field is a bit field at a
+		 * constant offset within its header. A projector reads such fields inline,
+		 * from precompiled primitive tables, instead of calling
+		 * {@link #extract(ByteBuffer, int)}.
+		 *
+		 * @return optional carrier field
+		 */
+		default Optional<CarrierField.OfByteBuffer> carrierField() {
+			return Optional.empty();
+		}
+	}
+
+	// @formatter:off
+	private static final VarHandle SHORT_BIG    = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_BIG      = MethodHandles.byteBufferViewVarHandle(int[].class,   ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BIG     = MethodHandles.byteBufferViewVarHandle(long[].class,  ByteOrder.BIG_ENDIAN);
+	private static final VarHandle SHORT_LITTLE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle INT_LITTLE   = MethodHandles.byteBufferViewVarHandle(int[].class,   ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG_LITTLE  = MethodHandles.byteBufferViewVarHandle(long[].class,  ByteOrder.LITTLE_ENDIAN);
+	// @formatter:on
+
+	/**
+	 * Writes a projected field value to a row or column target.
+	 *
+	 * @param <T> the target type
+	 */
+	private interface Sink<T> {
+
+		/**
+		 * Writes a field value.
+		 *
+		 * @param target the target array
+		 * @param index  the row offset or row index within the target
+		 * @param field  the field index
+		 * @param value  the field value
+		 */
+		void write(T target, int index, int field, long value);
+	}
+
+	/** Writes to a long row at a row offset. */
+	private static final Sink<long[]> LONG_ROW = (row, offset, i, value) -> row[offset + i] = value;
+
+	/** Writes to an int row at a row offset, truncating the value. */
+	private static final Sink<int[]> INT_ROW = (row, offset, i, value) -> row[offset + i] = (int) value;
+
+	/** Writes to the column of each field, at a row index. */
+	private static final Sink<long[][]> COLUMNS = (columns, row, i, value) -> columns[i][row] = value;
+
+	/** Maximum number of fields in a single projection, one per mask bit. */
+	public static final int MAX_FIELDS = Long.SIZE;
+
+	/**
+	 * Compiles a projector from field paths, resolved against all loaded protocol
+	 * packs.
+	 *
+	 * @param paths the field paths, such as {@code "ip4.src"}
+	 * @return the packet projector
+	 * @throws IllegalArgumentException if a path does not resolve to a field
+	 */
+	public static PacketProjector of(String... paths) throws IllegalArgumentException {
+		Field[] fields = new Field[paths.length];
+
+		for (int i = 0; i < paths.length; i++) {
+			String path = paths[i];
+
+			fields[i] = Pack.lookupField(path)
+					.orElseThrow(() -> new IllegalArgumentException("invalid field path [%s]".formatted(path)));
+		}
+
+		return new PacketProjector(fields);
+	}
+
+	/**
+	 * Compiles a projector from fields.
+	 *
+	 * @param fields the fields
+	 * @return the packet projector
+	 * @throws IllegalArgumentException if there are no fields or too many fields
+	 */
+	public static PacketProjector of(Field... fields) throws IllegalArgumentException {
+		return new PacketProjector(fields.clone());
+	}
+
+	/** The fields in projection order. */
+	private final Field[] fields;
+
+	/** The distinct header ids, one per group. */
+	private final int[] groupHeaderIds;
+
+	/** Start index into {@link #order} of each group, plus an end sentinel. */
+	private final int[] groupStart;
+
+	/** Field indexes, ordered by group. */
+	private final int[] order;
+
+	/** The fields ordered by group. */
+	private final Field[] orderedFields;
+
+	/** Carrier byte offset within header, per ordered field. */
+	private final int[] carrierOffsets;
+
+	/**
+	 * Carrier size in bits per ordered field, or 0 if the field is read using
+	 * {@link Field#extract(ByteBuffer, int)}.
+	 */
+	private final int[] carrierSizes;
+
+	/** Field bit shift within the carrier, per ordered field. */
+	private final int[] shifts;
+
+	/** Field mask, per ordered field. */
+	private final long[] masks;
+
+	/** Carrier byte order, per ordered field. */
+	private final boolean[] bigEndian;
+
+	/**
+	 * Instantiates a new packet projector.
+	 *
+	 * @param fields the fields
+	 */
+	private PacketProjector(Field[] fields) {
+		if (fields.length == 0 || fields.length > MAX_FIELDS)
+			throw new IllegalArgumentException("invalid field count [%d]".formatted(fields.length));
+
+		Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < fields.length; i++)
+			groups.computeIfAbsent(fields[i].headerId(), id -> new ArrayList<>()).add(i);
+
+		this.fields = fields;
+		this.groupHeaderIds = new int[groups.size()];
+		this.groupStart = new int[groups.size() + 1];
+		this.order = new int[fields.length];
+		this.orderedFields = new Field[fields.length];
+		this.carrierOffsets = new int[fields.length];
+		this.carrierSizes = new int[fields.length];
+		this.shifts = new int[fields.length];
+		this.masks = new long[fields.length];
+		this.bigEndian = new boolean[fields.length];
+
+		int g = 0, k = 0;
+		for (var e : groups.entrySet()) {
+			groupHeaderIds[g] = e.getKey();
+			groupStart[g++] = k;
+
+			for (int i : e.getValue()) {
+				order[k] = i;
+				orderedFields[k++] = fields[i];
+			}
+		}
+
+		groupStart[g] = k;
+
+		for (k = 0; k < orderedFields.length; k++) {
+			var carrier = orderedFields[k].carrierField();
+			if (carrier.isEmpty())
+				continue;
+
+			carrierOffsets[k] = carrier.get().byteOffset();
+			carrierSizes[k] = carrier.get().carrierSize();
+			shifts[k] = carrier.get().shift();
+			masks[k] = carrier.get().mask();
+			bigEndian[k] = carrier.get().big();
+		}
+	}
+
+	/**
+	 * Reads the unsigned value of an ordered field.
+	 *
+	 * @param k            the ordered field index
+	 * @param packet       the packet data
+	 * @param headerOffset the header offset
+	 * @return the field value
+	 */
+	private long read(int k, ByteBuffer packet, int headerOffset) {
+		int size = carrierSizes[k];
+		if (size == 0)
+			return orderedFields[k].extract(packet, headerOffset);
+
+		int index = headerOffset + carrierOffsets[k];
+		boolean big = bigEndian[k];
+
+		long carrier = switch (size) {
+		case 8 -> packet.get(index);
+		case 16 -> big ? (short) SHORT_BIG.get(packet, index) : (short) SHORT_LITTLE.get(packet, index);
+		case 32 -> big ? (int) INT_BIG.get(packet, index) : (int) INT_LITTLE.get(packet, index);
+		default -> big ? (long) LONG_BIG.get(packet, index) : (long) LONG_LITTLE.get(packet, index);
+		};
+
+		return (carrier >> shifts[k]) & masks[k];
+	}
+
+	/**
+	 * Gets the number of projected fields.
+	 *
+	 * @return the field count
+	 */
+	public int fieldCount() {
+		return fields.length;
+	}
+
+	/**
+	 * Gets the projected field at index.
+	 *
+	 * @param index the field index
+	 * @return the field
+	 */
+	public Field field(int index) {
+		return fields[index];
+	}
+
+	/**
+	 * Gets the index of a field path within this projection.
+	 *
+	 * @param path the field path
+	 * @return the field index or -1 if not projected
+	 */
+	public int indexOf(String path) {
+		for (int i = 0; i < fields.length; i++)
+			if (fields[i].path().equals(path))
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Projects the packet fields into a row.
+	 *
+	 * @param packet the packet
+	 * @param row    the row to receive field values, in field order
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(Packet packet, long[] row) {
+		return project(packet.buffer(), packet.descriptor(), row, 0);
+	}
+
+	/**
+	 * Projects the packet fields into a row.
+	 *
+	 * @param packet    the packet
+	 * @param row       the row array to receive field values, in field order
+	 * @param rowOffset the offset of the row within the array
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(Packet packet, long[] row, int rowOffset) {
+		return project(packet.buffer(), packet.descriptor(), row, rowOffset);
+	}
+
+	/**
+	 * Projects the packet fields into a row.
+	 *
+	 * @param packet    the packet data
+	 * @param lookup    the packet descriptor used to locate headers
+	 * @param row       the row array to receive field values, in field order
+	 * @param rowOffset the offset of the row within the array
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(ByteBuffer packet, HeaderLookup lookup, long[] row, int rowOffset) {
+		return project(packet, lookup, LONG_ROW, row, rowOffset);
+	}
+
+	/**
+	 * Projects the packet fields into an int row. Field values wider than 32 bits
+	 * are truncated.
+	 *
+	 * @param packet    the packet
+	 * @param row       the row array to receive field values, in field order
+	 * @param rowOffset the offset of the row within the array
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(Packet packet, int[] row, int rowOffset) {
+		return project(packet.buffer(), packet.descriptor(), row, rowOffset);
+	}
+
+	/**
+	 * Projects the packet fields into an int row. Field values wider than 32 bits
+	 * are truncated.
+	 *
+	 * @param packet    the packet data
+	 * @param lookup    the packet descriptor used to locate headers
+	 * @param row       the row array to receive field values, in field order
+	 * @param rowOffset the offset of the row within the array
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(ByteBuffer packet, HeaderLookup lookup, int[] row, int rowOffset) {
+		return project(packet, lookup, INT_ROW, row, rowOffset);
+	}
+
+	/**
+	 * Projects the packet fields into a columnar batch, where each column holds
+	 * the values of one field for consecutive packets.
+	 *
+	 * @param packet  the packet
+	 * @param columns the columns, one per field in field order
+	 * @param row     the row index within each column
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(Packet packet, long[][] columns, int row) {
+		return project(packet.buffer(), packet.descriptor(), columns, row);
+	}
+
+	/**
+	 * Projects the packet fields into a columnar batch, where each column holds
+	 * the values of one field for consecutive packets.
+	 *
+	 * @param packet  the packet data
+	 * @param lookup  the packet descriptor used to locate headers
+	 * @param columns the columns, one per field in field order
+	 * @param row     the row index within each column
+	 * @return the bitmask of fields present in the packet
+	 */
+	public long project(ByteBuffer packet, HeaderLookup lookup, long[][] columns, int row) {
+		return project(packet, lookup, COLUMNS, columns, row);
+	}
+
+	/**
+	 * Projects the packet fields through a sink. Each header is looked up once
+	 * and every field of its group is written, as 0 if the header is missing.
+	 *
+	 * @param <T>    the target type
+	 * @param packet the packet data
+	 * @param lookup the packet descriptor used to locate headers
+	 * @param sink   the sink which writes values to the target
+	 * @param target the target array
+	 * @param index  the row offset or row index within the target
+	 * @return the bitmask of fields present in the packet
+	 */
+	private <T> long project(ByteBuffer packet, HeaderLookup lookup, Sink<T> sink, T target, int index) {
+		long present = 0;
+
+		for (int g = 0; g < groupHeaderIds.length; g++) {
+			long compact = lookup.lookupHeader(groupHeaderIds[g], 0);
+			boolean found = (compact != CompactDescriptor.ID_NOT_FOUND);
+			int headerOffset = found ? CompactDescriptor.decodeOffset(compact) : 0;
+
+			for (int k = groupStart[g]; k < groupStart[g + 1]; k++) {
+				int i = order[k];
+
+				if (found) {
+					sink.write(target, index, i, read(k, packet, headerOffset));
+					present |= (1L << i);
+				} else {
+					sink.write(target, index, i, 0);
+				}
+			}
+		}
+
+		return present;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "PacketProjector"
+				+ Arrays.stream(fields).map(Field::path).toList();
+	}
+}
@@ -90,9 +90,19 @@ public sealed class Payload extends Header permits Other {
 		if (offset + length > headerLength())
 			length = headerLength() - offset;
 
-		buffer().get(dst, offset, length);
+		buffer().get(bufferOffset(), dst, offset, length);
 
 		return length;
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
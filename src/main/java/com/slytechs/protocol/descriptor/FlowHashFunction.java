@@ -0,0 +1,122 @@
+/*
+ * Sly Technologies Free License
+ *
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.slytechs.com/free-license-text
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import com.slytechs.protocol.runtime.util.ToeplitzHash;
+
+/**
+ * A hash algorithm applied by a dissector to the flow key selected by a
+ * {@link com.slytechs.protocol.pack.core.constants.HashType}.
+ *
+ * <p>
+ * The key is supplied as 32-bit words, in network byte order and in RSS input
+ * order: source address, destination address, followed by a single word
+ * containing the source port in the upper and destination port in the lower 16
+ * bits. Tunnel ids, MPLS labels and VLAN ids follow as additional words,
+ * depending on the hash type.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+@FunctionalInterface
+public interface FlowHashFunction {
+
+	/** The default, 32-bit murmur3 hash function, seeded with the hash type. */
+	FlowHashFunction MURMUR3 = FlowHashFunction::murmur3;
+
+	/**
+	 * Toeplitz hash function using the default Microsoft RSS key. The result
+	 * matches the RSS hash computed by network adapters using the default key.
+	 *
+	 * @return the flow hash function
+	 */
+	static FlowHashFunction toeplitz() {
+		return toeplitz(ToeplitzHash.microsoft());
+	}
+
+	/**
+	 * Toeplitz hash function using a user supplied RSS key.
+	 *
+	 * @param key the RSS key
+	 * @return the flow hash function
+	 */
+	static FlowHashFunction toeplitz(byte[] key) {
+		return toeplitz(new ToeplitzHash(key));
+	}
+
+	/**
+	 * Toeplitz hash function using the symmetric 0x6d5a RSS key. Both directions
+	 * of a flow produce the same hash, even with unsorted hash types.
+	 *
+	 * @return the flow hash function
+	 */
+	static FlowHashFunction toeplitzSymmetric() {
+		return toeplitz(ToeplitzHash.symmetric());
+	}
+
+	/**
+	 * Toeplitz hash function using a precomputed Toeplitz hash. The seed is not
+	 * used, as RSS hashes only depend on the key and the hashed tuple.
+	 *
+	 * @param toeplitz the toeplitz hash
+	 * @return the flow hash function
+	 */
+	static FlowHashFunction toeplitz(ToeplitzHash toeplitz) {
+		return (key, count, seed) -> toeplitz.hash(key, count);
+	}
+
+	/**
+	 * Hashes the key words using the 32-bit murmur3 algorithm.
+	 *
+	 * @param key   the key words
+	 * @param count number of words in the key
+	 * @param seed  the seed
+	 * @return the 32-bit hash
+	 */
+	static int murmur3(int[] key, int count, int seed) {
+		int h = seed;
+
+		for (int i = 0; i < count; i++) {
+			int k = key[i] * 0xcc9e2d51;
+			k = Integer.rotateLeft(k, 15) * 0x1b873593;
+
+			h ^= k;
+			h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+		}
+
+		h ^= (count << 2);
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+
+		return h;
+	}
+
+	/**
+	 * Hashes the flow key words.
+	 *
+	 * @param key   the key words
+	 * @param count number of words in the key
+	 * @param seed  the seed, the hash type ordinal when invoked by a dissector
+	 * @return the 32-bit hash
+	 */
+	int hashKey(int[] key, int count, int seed);
+}
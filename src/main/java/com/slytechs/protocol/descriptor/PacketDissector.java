@@ -17,10 +17,13 @@
  */
 package com.slytechs.protocol.descriptor;
 
+import java.lang.foreign.MemorySegment;
 import java.net.ProtocolException;
 import java.nio.ByteBuffer;
 
 import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.HashType;
 import com.slytechs.protocol.pack.core.constants.L2FrameType;
 import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
 import com.slytechs.protocol.runtime.time.TimestampSource;
@@ -78,6 +81,25 @@ public interface PacketDissector {
 
 	}
 
+	/**
+	 * Java dissector which reads packet data directly from memory segments, using
+	 * {@code MemorySegment} accessors instead of {@code ByteBuffer} ones. Packets
+	 * supplied as byte buffers are viewed as segments before dissection.
+	 *
+	 * @param type the type
+	 * @return the packet dissector
+	 */
+	static PacketDissector segmentDissector(PacketDescriptorType type) {
+
+		return switch (type) {
+		case TYPE2 -> new Type2SegmentPacketDissector();
+
+		default -> throw new UnsupportedOperationException("Not implemented yet, dissector [%s]".formatted(type
+				.name()));
+		};
+
+	}
+
 	/**
 	 * Native dissector.
 	 *
@@ -122,6 +144,125 @@ public interface PacketDissector {
 	 */
 	int dissectPacket(ByteBuffer buffer, long timestamp, int caplen, int wirelen);
 
+	/**
+	 * Dissect packet contained in a memory segment. The packet starts at segment
+	 * offset 0.
+	 *
+	 * @param packet    the packet segment
+	 * @param timestamp the timestamp
+	 * @param caplen    the caplen
+	 * @param wirelen   the wirelen
+	 * @return the int
+	 */
+	default int dissectPacket(MemorySegment packet, long timestamp, int caplen, int wirelen) {
+		return dissectPacket(packet.asByteBuffer(), timestamp, caplen, wirelen);
+	}
+
+	/**
+	 * Dissects a batch of packets and writes their descriptors back-to-back into a
+	 * single descriptor buffer, starting at the buffer's current position. Each
+	 * packet's data is taken from the packet buffer's position up to its limit
+	 * and, unlike {@link #dissectPacket(ByteBuffer)}, packet buffer positions are
+	 * not modified.
+	 * 
+	 * <p>
+	 * Each descriptor occupies exactly the number of bytes reported by its
+	 * {@code byteSize()} method, so a reader can walk the descriptor buffer by
+	 * binding a descriptor at the current offset and advancing by its byte size.
+	 * Dissection stops early if the descriptor buffer does not have enough space
+	 * remaining for another maximum sized descriptor. On return, the descriptor
+	 * buffer position is advanced past the last descriptor written.
+	 * </p>
+	 *
+	 * @param packets     the packet buffers to dissect
+	 * @param timestamps  the packet timestamps, one per packet
+	 * @param count       number of packets to dissect
+	 * @param descriptors the descriptor output buffer
+	 * @return number of packets dissected and descriptors written
+	 */
+	default int dissectPackets(ByteBuffer[] packets, long[] timestamps, int count, ByteBuffer descriptors) {
+		int i = 0;
+		for (; (i < count) && (descriptors.remaining() >= maxDescriptorLength()); i++) {
+			ByteBuffer packet = packets[i].slice();
+			int caplen = packet.remaining();
+
+			reset();
+			dissectPacket(packet, timestamps[i], caplen, caplen);
+
+			int len = writeDescriptor(descriptors.slice());
+			descriptors.position(descriptors.position() + len);
+		}
+
+		return i;
+	}
+
+	/**
+	 * Dissects a batch of packets which reside at specific offsets within a single
+	 * large buffer, such as a capture segment, and writes their descriptors
+	 * back-to-back into a single descriptor buffer. Packet offsets are absolute
+	 * within the segment buffer and its position is ignored and not modified.
+	 * 
+	 * <p>
+	 * Descriptors are laid out the same way as with
+	 * {@link #dissectPackets(ByteBuffer[], long[], int, ByteBuffer)}.
+	 * </p>
+	 *
+	 * @param segment     the buffer containing all of the packets
+	 * @param offsets     absolute packet offsets within the segment
+	 * @param caplens     packet capture lengths
+	 * @param wirelens    packet wire lengths
+	 * @param timestamps  the packet timestamps
+	 * @param count       number of packets to dissect
+	 * @param descriptors the descriptor output buffer
+	 * @return number of packets dissected and descriptors written
+	 */
+	default int dissectPackets(ByteBuffer segment, int[] offsets, int[] caplens, int[] wirelens, long[] timestamps,
+			int count, ByteBuffer descriptors) {
+		int i = 0;
+		for (; (i < count) && (descriptors.remaining() >= maxDescriptorLength()); i++) {
+			ByteBuffer packet = segment.slice(offsets[i], caplens[i]);
+
+			reset();
+			dissectPacket(packet, timestamps[i], caplens[i], wirelens[i]);
+
+			int len = writeDescriptor(descriptors.slice());
+			descriptors.position(descriptors.position() + len);
+		}
+
+		return i;
+	}
+
+	/**
+	 * Dissects a batch of packets which reside at specific offsets within a single
+	 * memory segment, such as a capture segment, and writes their descriptors
+	 * back-to-back into a single descriptor buffer.
+	 *
+	 * @param segment     the memory segment containing all of the packets
+	 * @param offsets     packet offsets within the segment
+	 * @param caplens     packet capture lengths
+	 * @param wirelens    packet wire lengths
+	 * @param timestamps  the packet timestamps
+	 * @param count       number of packets to dissect
+	 * @param descriptors the descriptor output buffer
+	 * @return number of packets dissected and descriptors written
+	 * @see #dissectPackets(ByteBuffer, int[], int[], int[], long[], int,
+	 *      ByteBuffer)
+	 */
+	default int dissectPackets(MemorySegment segment, int[] offsets, int[] caplens, int[] wirelens,
+			long[] timestamps, int count, ByteBuffer descriptors) {
+		return dissectPackets(segment.asByteBuffer(), offsets, caplens, wirelens, timestamps, count, descriptors);
+	}
+
+	/**
+	 * The maximum number of bytes a single descriptor written by this dissector
+	 * may occupy.
+	 *
+	 * @return the max descriptor length in bytes
+	 */
+	default int maxDescriptorLength() {
+		return CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+	}
+
 	/**
 	 * Checks if is native.
 	 *
@@ -143,6 +284,37 @@ public interface PacketDissector {
 	 */
 	PacketDissector setDatalinkType(L2FrameType l2Type) throws ProtocolException;
 
+	/**
+	 * Sets the flow hash type, computed by the dissector for every packet during
+	 * its pass over the packet headers. The hash is stored in the descriptor's
+	 * hash24 and hash type fields. A hash type of {@code NONE} disables hash
+	 * computation.
+	 *
+	 * @param type the hash type
+	 * @return the packet dissector
+	 * @throws UnsupportedOperationException if the dissector does not support
+	 *                                       computing hashes
+	 */
+	default PacketDissector setHashType(HashType type) {
+		return setHashType(type, FlowHashFunction.MURMUR3);
+	}
+
+	/**
+	 * Sets the flow hash type and the hash algorithm applied to the flow key. For
+	 * example, {@link FlowHashFunction#toeplitz()} produces the same hash as a
+	 * network adapter's RSS using the default key, so that flows distributed in
+	 * software agree with flows distributed by hardware.
+	 *
+	 * @param type     the hash type
+	 * @param function the hash function
+	 * @return the packet dissector
+	 * @throws UnsupportedOperationException if the dissector does not support
+	 *                                       computing hashes
+	 */
+	default PacketDissector setHashType(HashType type, FlowHashFunction function) {
+		throw new UnsupportedOperationException("hash computation not supported by this dissector");
+	}
+
 	/**
 	 * Write descriptor.
 	 *
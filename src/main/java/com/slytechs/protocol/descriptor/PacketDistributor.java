@@ -0,0 +1,607 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.pack.core.constants.HashType;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.internal.concurrent.ObjRing;
+import com.slytechs.protocol.runtime.internal.concurrent.Ring;
+import com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.Backpressure;
+
+/**
+ * Distributes packets to a number of worker rings based on their flow hash, so
+ * that all packets of a flow are processed by the same worker.
+ * 
+ * <p>
+ * The flow hash is read from the packet's type 2 descriptor, as computed by the
+ * dissector or network adapter. If the descriptor carries no hash, it is
+ * computed by dissecting the packet using the distributor's
+ * {@link #setHashType(HashType, FlowHashFunction) hash type}, and written back
+ * to the descriptor so that workers see it too. Packets without the headers
+ * required by the hash type, such as ARP, all map to the same worker.
+ * </p>
+ * 
+ * <p>
+ * Hashes are mapped to workers through an indirection table of
+ * {@value #TABLE_SIZE} entries, in the same way network adapters map RSS
+ * hashes to receive queues. The table is filled in proportion to the worker
+ * weights, evenly by default. With consistent hashing enabled, each worker owns
+ * a set of points on a hash circle instead, so that disabling or enabling a
+ * worker only moves the flows of that worker, while all other flows keep their
+ * worker.
+ * </p>
+ * 
+ * <p>
+ * Packets are either handed off as is, in which case the caller must not reuse
+ * the packet or its buffers, or copied along with their descriptor, which is
+ * required when packets are bound to capture buffers which are recycled.
+ * </p>
+ * 
+ * <p>
+ * {@link #distribute(Packet)} must only be called from a single thread, while
+ * each worker ring is consumed by a single worker thread.
+ * </p>
+ * 
+ * <pre>
+ *                         +--> ring-0 --> worker-0
+ *   distribute --> table -+--> ring-1 --> worker-1
+ *                         +--> ring-N --> worker-N
+ * </pre>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public class PacketDistributor {
+
+	/** How packets are handed off to worker rings. */
+	public enum Handoff {
+
+		/** The packet object itself is enqueued. */
+		SHARE,
+
+		/** A deep copy of the packet and its type 2 or pcap descriptor is enqueued. */
+		COPY,
+	}
+
+	/** Number of entries in the hash to worker indirection table. */
+	public static final int TABLE_SIZE = 4096;
+
+	/** Default number of points per unit of weight, with consistent hashing. */
+	public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+	/** The hash to worker indirection table, replaced when rebuilt. */
+	private volatile short[] table;
+
+	/** The worker rings. */
+	private final ObjRing<Packet>[] rings;
+
+	/** The worker weights, 0 for disabled workers. */
+	private final int[] weights;
+
+	/** Disabled workers. */
+	private final boolean[] disabled;
+
+	/** Packets enqueued, per worker. */
+	private final long[] distributedCounters;
+
+	/** Packets dropped, per worker. */
+	private final long[] droppedCounters;
+
+	/** The hash type used when the descriptor has no hash. */
+	private HashType hashType = HashType.TUPLE5_SORTED;
+
+	/** The hash function used when the descriptor has no hash. */
+	private FlowHashFunction hashFunction = FlowHashFunction.MURMUR3;
+
+	/** Lazily created dissector, for packets without a hash. */
+	private PacketDissector dissector;
+
+	/** Scratch descriptor, bound to the dissector's output. */
+	private Type2Descriptor scratch;
+
+	/** Scratch descriptor buffer. */
+	private ByteBuffer scratchBuffer;
+
+	/** Number of hashes computed, because packets had none. */
+	private long computedCount;
+
+	/** The handoff mode. */
+	private Handoff handoff = Handoff.SHARE;
+
+	/** The backpressure mode. */
+	private Backpressure backpressure = Backpressure.DROP;
+
+	/** Consistent hashing enabled. */
+	private boolean consistent;
+
+	/** Points per unit of weight, with consistent hashing. */
+	private int virtualNodes = DEFAULT_VIRTUAL_NODES;
+
+	/**
+	 * Instantiates a new packet distributor.
+	 *
+	 * @param workers      the number of workers
+	 * @param ringCapacity the capacity of each worker ring, rounded up to a power
+	 *                     of 2
+	 * @throws IllegalArgumentException if number of workers is not between 1 and
+	 *                                  {@value #TABLE_SIZE}
+	 */
+	@SuppressWarnings("unchecked")
+	public PacketDistributor(int workers, int ringCapacity) throws IllegalArgumentException {
+		if (workers <= 0 || workers > TABLE_SIZE)
+			throw new IllegalArgumentException("invalid number of workers [%d]"
+					.formatted(workers));
+
+		int capacity = Ring.alignCapacity(Math.min(ringCapacity, Ring.MAX_CAPACITY));
+
+		this.rings = (ObjRing<Packet>[]) new ObjRing<?>[workers];
+		for (int i = 0; i < workers; i++)
+			rings[i] = new ObjRing<>(capacity, Ring.SP_ENQ | Ring.SC_DEQ, Packet[]::new);
+
+		this.weights = new int[workers];
+		this.disabled = new boolean[workers];
+		this.distributedCounters = new long[workers];
+		this.droppedCounters = new long[workers];
+
+		Arrays.fill(weights, 1);
+		rebuild();
+	}
+
+	/**
+	 * Gets the hash of a packet, from its descriptor, computing it if the
+	 * descriptor has none.
+	 *
+	 * @param packet the packet
+	 * @return the 24-bit flow hash
+	 */
+	public int hashOf(Packet packet) {
+		PacketDescriptor desc = packet.descriptor();
+
+		if ((desc instanceof Type2Descriptor type2) && (type2.hashType() != HashType.NONE.ordinal()))
+			return type2.hash24();
+
+		return computeHash(packet, desc);
+	}
+
+	private int computeHash(Packet packet, PacketDescriptor desc) {
+		if (dissector == null) {
+			dissector = PacketDissector.dissector(PacketDescriptorType.TYPE2);
+			dissector.setHashType(hashType, hashFunction);
+
+			scratch = new Type2Descriptor();
+			scratchBuffer = ByteBuffer.allocate(dissector.maxDescriptorLength())
+					.order(ByteOrder.nativeOrder());
+		}
+
+		ByteBuffer buf = scratchBuffer.clear();
+
+		dissector.reset();
+		dissector.dissectPacket(packet.buffer().duplicate(), packet.timestamp(), packet.captureLength(),
+				packet.wireLength());
+		dissector.writeDescriptor(buf);
+
+		scratch.bind(buf.clear());
+		int type = scratch.hashType();
+		int hash = (type == HashType.NONE.ordinal()) ? 0 : scratch.hash24();
+		scratch.unbind();
+
+		if ((desc instanceof Type2Descriptor type2) && (type != HashType.NONE.ordinal()))
+			type2.hash24(hash, type);
+
+		computedCount++;
+
+		return hash;
+	}
+
+	/**
+	 * Maps a flow hash to a worker.
+	 *
+	 * @param hash24 the 24-bit flow hash
+	 * @return the worker index
+	 */
+	public int workerOf(int hash24) {
+		return table[hash24 & (TABLE_SIZE - 1)];
+	}
+
+	/**
+	 * Distributes a packet to its flow's worker ring.
+	 *
+	 * @param packet the packet
+	 * @return the worker index, or -1 if the packet was dropped because the ring
+	 *         was full
+	 */
+	public int distribute(Packet packet) {
+		final int worker = workerOf(hashOf(packet));
+		final ObjRing<Packet> ring = rings[worker];
+		final Packet p = (handoff == Handoff.COPY) ? copyOf(packet) : packet;
+
+		boolean ok = ring.enqueue(p);
+		for (int idle = 0; !ok && (backpressure == Backpressure.BLOCK);) {
+			idle = Ring.backoff(idle);
+
+			ok = ring.enqueue(p);
+		}
+
+		if (!ok) {
+			droppedCounters[worker]++;
+			return -1;
+		}
+
+		distributedCounters[worker]++;
+
+		return worker;
+	}
+
+	/**
+	 * Distributes a batch of packets.
+	 *
+	 * @param packets the packets
+	 * @param offset  the offset into the packets array
+	 * @param length  number of packets
+	 * @return number of packets distributed, not dropped
+	 */
+	public int distributeAll(Packet[] packets, int offset, int length) {
+		int count = 0;
+		for (int i = 0; i < length; i++)
+			if (distribute(packets[offset + i]) != -1)
+				count++;
+
+		return count;
+	}
+
+	/**
+	 * Copies a packet and its descriptor into new heap buffers, so that the
+	 * caller may reuse the original buffers as soon as the packet is handed off.
+	 *
+	 * @param packet the packet
+	 * @return the copy
+	 * @throws IllegalArgumentException if the packet's descriptor type can not be
+	 *                                  copied
+	 */
+	private static Packet copyOf(Packet packet) throws IllegalArgumentException {
+		final PacketDescriptor desc = switch (packet.descriptor()) {
+		case Type2Descriptor type2 -> type2.copy();
+		case PcapDescriptor pcap -> pcap.copy();
+		default -> throw new IllegalArgumentException("packet copy not supported for descriptor type [%s]"
+				.formatted(packet.descriptor().type()));
+		};
+
+		final int caplen = packet.captureLength();
+		ByteBuffer data = ByteBuffer.allocate(caplen).put(0, packet.buffer(), 0, caplen);
+
+		return new Packet(data, desc);
+	}
+
+	/**
+	 * Dequeues the next packet for a worker. Must only be called by the worker's
+	 * thread.
+	 *
+	 * @param worker the worker index
+	 * @return the packet, or null if none available
+	 */
+	public Packet poll(int worker) {
+		return rings[worker].dequeue();
+	}
+
+	/**
+	 * Dequeues up to count packets for a worker. Must only be called by the
+	 * worker's thread.
+	 *
+	 * @param worker the worker index
+	 * @param dst    the destination array
+	 * @param offset the offset into destination array
+	 * @param count  max number of packets
+	 * @return number of packets dequeued
+	 */
+	public int poll(int worker, Packet[] dst, int offset, int count) {
+		return rings[worker].burstDequeue(dst, offset, count);
+	}
+
+	/**
+	 * Gets a worker's ring.
+	 *
+	 * @param worker the worker index
+	 * @return the ring
+	 */
+	public ObjRing<Packet> ring(int worker) {
+		return rings[worker];
+	}
+
+	/**
+	 * Sets the hash type used for packets whose descriptor carries no hash,
+	 * hashed with the default murmur3 function. Sorted hash types map both
+	 * directions of a flow to the same worker.
+	 *
+	 * @param type the hash type
+	 * @return this distributor
+	 */
+	public PacketDistributor setHashType(HashType type) {
+		return setHashType(type, FlowHashFunction.MURMUR3);
+	}
+
+	/**
+	 * Sets the hash type and function used for packets whose descriptor carries
+	 * no hash. Should match the dissector's, so that computed and descriptor
+	 * hashes of the same flow agree.
+	 *
+	 * @param type     the hash type
+	 * @param function the hash function
+	 * @return this distributor
+	 */
+	public PacketDistributor setHashType(HashType type, FlowHashFunction function) {
+		this.hashType = Objects.requireNonNull(type, "type");
+		this.hashFunction = Objects.requireNonNull(function, "function");
+
+		if (dissector != null)
+			dissector.setHashType(type, function);
+
+		return this;
+	}
+
+	/**
+	 * Sets how packets are handed off to workers.
+	 *
+	 * @param handoff the handoff mode
+	 * @return this distributor
+	 */
+	public PacketDistributor setHandoff(Handoff handoff) {
+		this.handoff = Objects.requireNonNull(handoff, "handoff");
+
+		return this;
+	}
+
+	/**
+	 * Sets what to do when a worker's ring is full. The default is to drop the
+	 * packet.
+	 *
+	 * @param backpressure the backpressure mode
+	 * @return this distributor
+	 */
+	public PacketDistributor setBackpressure(Backpressure backpressure) {
+		this.backpressure = Objects.requireNonNull(backpressure, "backpressure");
+
+		return this;
+	}
+
+	/**
+	 * Sets relative worker weights. A worker with twice the weight receives
+	 * approximately twice as many flows.
+	 *
+	 * @param weights the weights, one per worker
+	 * @return this distributor
+	 * @throws IllegalArgumentException if number of weights does not match the
+	 *                                  number of workers, or a weight is not
+	 *                                  positive
+	 */
+	public PacketDistributor setWeights(int... weights) throws IllegalArgumentException {
+		if (weights.length != this.weights.length)
+			throw new IllegalArgumentException("expected %d weights [%d]"
+					.formatted(this.weights.length, weights.length));
+
+		for (int w : weights)
+			if (w <= 0)
+				throw new IllegalArgumentException("invalid weight [%d]".formatted(w));
+
+		System.arraycopy(weights, 0, this.weights, 0, weights.length);
+		rebuild();
+
+		return this;
+	}
+
+	/**
+	 * Enables or disables consistent hashing, using the default number of
+	 * virtual nodes.
+	 *
+	 * @param enable true to enable
+	 * @return this distributor
+	 */
+	public PacketDistributor setConsistentHashing(boolean enable) {
+		return setConsistentHashing(enable, DEFAULT_VIRTUAL_NODES);
+	}
+
+	/**
+	 * Enables or disables consistent hashing. More virtual nodes per worker
+	 * distribute flows more evenly.
+	 *
+	 * @param enable       true to enable
+	 * @param virtualNodes number of points on the hash circle per unit of weight
+	 * @return this distributor
+	 */
+	public PacketDistributor setConsistentHashing(boolean enable, int virtualNodes) {
+		if (virtualNodes <= 0)
+			throw new IllegalArgumentException("invalid number of virtual nodes [%d]"
+					.formatted(virtualNodes));
+
+		this.consistent = enable;
+		this.virtualNodes = virtualNodes;
+		rebuild();
+
+		return this;
+	}
+
+	/**
+	 * Enables or disables a worker. Flows of a disabled worker are remapped to
+	 * the remaining workers. Packets already in the worker's ring stay there.
+	 *
+	 * @param worker the worker index
+	 * @param enable true to enable
+	 * @return this distributor
+	 * @throws IllegalStateException if this would disable the last worker
+	 */
+	public PacketDistributor setWorkerEnabled(int worker, boolean enable) throws IllegalStateException {
+		boolean old = disabled[worker];
+		disabled[worker] = !enable;
+
+		try {
+			rebuild();
+		} catch (IllegalStateException e) {
+			disabled[worker] = old;
+			throw e;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Rebuilds the indirection table and publishes it.
+	 */
+	private void rebuild() {
+		short[] t = new short[TABLE_SIZE];
+
+		if (consistent)
+			fillConsistent(t);
+		else
+			fillWeighted(t);
+
+		this.table = t;
+	}
+
+	/**
+	 * Fills the table using smooth weighted round robin, which interleaves
+	 * workers instead of assigning long runs of entries to each.
+	 */
+	private void fillWeighted(short[] t) {
+		int total = 0;
+		for (int i = 0; i < weights.length; i++)
+			total += disabled[i] ? 0 : weights[i];
+
+		if (total == 0)
+			throw new IllegalStateException("no enabled workers");
+
+		int[] current = new int[weights.length];
+		for (int e = 0; e < TABLE_SIZE; e++) {
+			int best = -1;
+			for (int i = 0; i < weights.length; i++) {
+				if (disabled[i])
+					continue;
+
+				current[i] += weights[i];
+				if (best == -1 || current[i] > current[best])
+					best = i;
+			}
+
+			current[best] -= total;
+			t[e] = (short) best;
+		}
+	}
+
+	/**
+	 * Fills the table by placing each table entry on a hash circle, along with a
+	 * number of points per worker. Each entry is owned by the next worker point
+	 * clockwise. Point positions only depend on the worker and point number.
+	 */
+	private void fillConsistent(short[] t) {
+		int count = 0;
+		for (int i = 0; i < weights.length; i++)
+			count += disabled[i] ? 0 : weights[i] * virtualNodes;
+
+		if (count == 0)
+			throw new IllegalStateException("no enabled workers");
+
+		/* Position in upper 32 bits, worker in lower, so sorting orders by position */
+		long[] points = new long[count];
+		for (int i = 0, k = 0; i < weights.length; i++) {
+			if (disabled[i])
+				continue;
+
+			for (int v = 0; v < weights[i] * virtualNodes; v++)
+				points[k++] = (Integer.toUnsignedLong(mix(((long) i << 32) | v)) << 32) | i;
+		}
+
+		Arrays.sort(points);
+
+		for (int e = 0; e < TABLE_SIZE; e++) {
+			long position = Integer.toUnsignedLong(mix(~(long) e)) << 32;
+			int p = Arrays.binarySearch(points, position);
+			if (p < 0)
+				p = -p - 1;
+
+			t[e] = (short) points[(p == count) ? 0 : p];
+		}
+	}
+
+	private static int mix(long v) {
+		v = (v ^ (v >>> 33)) * 0xff51afd7ed558ccdL;
+		v = (v ^ (v >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+		return (int) (v ^ (v >>> 33));
+	}
+
+	/**
+	 * Gets the number of workers.
+	 *
+	 * @return the worker count
+	 */
+	public int workerCount() {
+		return rings.length;
+	}
+
+	/**
+	 * Number of packets distributed to a worker.
+	 *
+	 * @param worker the worker index
+	 * @return the count
+	 */
+	public long distributedCount(int worker) {
+		return distributedCounters[worker];
+	}
+
+	/**
+	 * Number of packets dropped because a worker's ring was full.
+	 *
+	 * @param worker the worker index
+	 * @return the count
+	 */
+	public long droppedCount(int worker) {
+		return droppedCounters[worker];
+	}
+
+	/**
+	 * Number of packets which had no hash in their descriptor and were hashed by
+	 * the distributor.
+	 *
+	 * @return the count
+	 */
+	public long computedHashCount() {
+		return computedCount;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("PacketDistributor [workers=%d, %s, %s, %s%s"
+				.formatted(rings.length, hashType, handoff, backpressure, consistent ? ", consistent" : ""));
+
+		for (int i = 0; i < rings.length; i++)
+			b.append(", worker-%d=%d/%d%s".formatted(i, distributedCounters[i], droppedCounters[i],
+					disabled[i] ? " disabled" : ""));
+
+		return b.append("]").toString();
+	}
+}
@@ -21,6 +21,7 @@ import java.lang.foreign.Addressable;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.MemorySession;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
 import com.slytechs.protocol.runtime.time.Timestamp;
@@ -29,6 +30,15 @@ import com.slytechs.protocol.runtime.util.Detail;
 
 /**
  * The Class PcapDescriptor.
+ * 
+ * <p>
+ * Pcap descriptor is bound to a pcap file record header, either directly
+ * within a memory mapped capture file or a copy of the header. The header
+ * fields are read using the byte order of the bound buffer, which must match
+ * the byte order of the capture file. The fraction of the second stored in the
+ * header is either in micro or nano seconds, as reported by
+ * {@link #timestampUnit()}.
+ * </p>
  */
 public final class PcapDescriptor extends PacketDescriptor {
 
@@ -38,6 +48,9 @@ public final class PcapDescriptor extends PacketDescriptor {
 	/** The Constant PCAP_DESCRIPTOR_LENGTH. */
 	public final static int PCAP_DESCRIPTOR_LENGTH = 24;
 
+	/** The length of a pcap file record header. */
+	public final static int PCAP_RECORD_HEADER_LENGTH = 16;
+
 	/**
 	 * Of address.
 	 *
@@ -66,6 +79,9 @@ public final class PcapDescriptor extends PacketDescriptor {
 	/** The Constant EMPTY_HEADER_ARRAY. */
 	private static final long[] EMPTY_HEADER_ARRAY = new long[0];
 
+	/** True if the bound buffer is not in native byte order. */
+	private boolean swapped;
+
 	/**
 	 * Instantiates a new pcap descriptor.
 	 */
@@ -73,6 +89,31 @@ public final class PcapDescriptor extends PacketDescriptor {
 		super(PacketDescriptorType.PCAP);
 	}
 
+	/**
+	 * Reads a 32-bit header field in the byte order the buffer had when bound.
+	 * The layout fields are read in native byte order, so swapped capture files
+	 * are corrected here.
+	 *
+	 * @param field the field
+	 * @return the field value
+	 */
+	private int getInt(PcapDescriptorLayout field) {
+		int value = field.getInt(buffer());
+
+		return swapped ? Integer.reverseBytes(value) : value;
+	}
+
+	/**
+	 * On bind, remembers the byte order of the bound buffer, before the layout
+	 * accessors reset it to native order.
+	 *
+	 * @see com.slytechs.protocol.runtime.MemoryBinding#onBind()
+	 */
+	@Override
+	protected void onBind() {
+		this.swapped = (buffer().order() != ByteOrder.nativeOrder());
+	}
+
 	/**
 	 * Capture length.
 	 *
@@ -81,7 +122,7 @@ public final class PcapDescriptor extends PacketDescriptor {
 	 */
 	@Override
 	public int captureLength() {
-		return PcapDescriptorLayout.CAPLEN.getUnsignedShort(buffer());
+		return getInt(PcapDescriptorLayout.CAPLEN);
 	}
 
 	/**
@@ -109,14 +150,19 @@ public final class PcapDescriptor extends PacketDescriptor {
 	}
 
 	/**
-	 * Timestamp.
+	 * Timestamp, with seconds in the upper and the fraction of the second in the
+	 * lower 32 bits, as defined by the {@code PCAP_MICRO} and {@code PCAP_NANO}
+	 * timestamp units.
 	 *
 	 * @return the long
 	 * @see com.slytechs.protocol.descriptor.PacketDescriptor#timestamp()
 	 */
 	@Override
 	public long timestamp() {
-		return PcapDescriptorLayout.CAPLEN.getLong(buffer());
+		long seconds = Integer.toUnsignedLong(getInt(PcapDescriptorLayout.TS_SECONDS));
+		long fraction = Integer.toUnsignedLong(getInt(PcapDescriptorLayout.TS_FRACTION));
+
+		return timestampUnit().ofSecond(seconds, fraction);
 	}
 
 	/**
@@ -130,7 +176,7 @@ public final class PcapDescriptor extends PacketDescriptor {
 	 */
 	@Override
 	public StringBuilder buildDetailedString(StringBuilder b, Detail detail) {
-		new Timestamp(TimestampUnit.EPOCH_MILLI.convert(timestamp(), TimestampUnit.PCAP_MICRO))
+		new Timestamp(timestamp(), timestampUnit())
 				.buildString(b, detail);
 		b.append(" caplen=");
 		b.append(captureLength());
@@ -148,7 +194,7 @@ public final class PcapDescriptor extends PacketDescriptor {
 	 */
 	@Override
 	public int wireLength() {
-		return PcapDescriptorLayout.WIRELEN.getUnsignedShort(buffer());
+		return getInt(PcapDescriptorLayout.WIRELEN);
 	}
 
 	/**
@@ -162,6 +208,36 @@ public final class PcapDescriptor extends PacketDescriptor {
 		return (PcapDescriptor) super.cloneTo(dst);
 	}
 
+	/**
+	 * Makes a copy of this descriptor, bound to a new heap buffer in the same
+	 * byte order as the capture file the original was read from.
+	 *
+	 * @return the copy
+	 */
+	public PcapDescriptor copy() {
+		final ByteBuffer dst = ByteBuffer.allocate(PCAP_RECORD_HEADER_LENGTH)
+				.put(0, buffer(), 0, PCAP_RECORD_HEADER_LENGTH)
+				.order(swapped ? swappedOrder() : ByteOrder.nativeOrder());
+
+		PcapDescriptor copy = new PcapDescriptor();
+		copy.bind(dst);
+		copy.frameNo(frameNo());
+		copy.timestampUnit(timestampUnit());
+
+		return copy;
+	}
+
+	/**
+	 * Gets the byte order opposite to the native order.
+	 *
+	 * @return the swapped byte order
+	 */
+	private static ByteOrder swappedOrder() {
+		return (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN)
+				? ByteOrder.LITTLE_ENDIAN
+				: ByteOrder.BIG_ENDIAN;
+	}
+
 	/**
 	 * Checks if is header extension supported.
 	 *
@@ -181,7 +257,7 @@ public final class PcapDescriptor extends PacketDescriptor {
 	 */
 	@Override
 	public int byteSize() {
-		return PCAP_DESCRIPTOR_LENGTH;
+		return PCAP_RECORD_HEADER_LENGTH;
 	}
 
 	/**
@@ -19,11 +19,11 @@ package com.slytechs.protocol.descriptor;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
 import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32;
-import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64;
-import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Padding;
 
 /**
  * The Enum PcapLayout.
@@ -34,14 +34,17 @@ import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Padding;
  */
 public enum PcapDescriptorLayout implements BitField.Proxy {
 
-	/** The timestamp. */
-	TIMESTAMP("bitmask"),
-	
+	/** The timestamp seconds. */
+	TS_SECONDS("ts_sec"),
+
+	/** The timestamp fraction, micro or nano seconds depending on file magic. */
+	TS_FRACTION("ts_frac"),
+
 	/** The caplen. */
-	CAPLEN("bitmask"),
-	
+	CAPLEN("caplen"),
+
 	/** The wirelen. */
-	WIRELEN("bitmask"),
+	WIRELEN("wirelen"),
 
 	;
 
@@ -50,13 +53,15 @@ public enum PcapDescriptorLayout implements BitField.Proxy {
 	 */
 	private static class Struct {
 		
-		/** The Constant PCAP_STRUCT. */
+		/**
+		 * The pcap file record header. All fields are in the byte order of the
+		 * capture file, which is the byte order of the bound buffer.
+		 */
 		private static final BinaryLayout PCAP_STRUCT = structLayout(
-				Int64.BITS_64.withName("timestamp"),
-				Int32.BITS_16.withName("caplen"),
-				Padding.BITS_16,
-				Int32.BITS_16.withName("wirelen"),
-				Padding.BITS_16);
+				Int32.BITS_32.withName("ts_sec"),
+				Int32.BITS_32.withName("ts_frac"),
+				Int32.BITS_32.withName("caplen"),
+				Int32.BITS_32.withName("wirelen"));
 	}
 
 	/** The field. */
@@ -68,7 +73,7 @@ public enum PcapDescriptorLayout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	PcapDescriptorLayout(String path) {
-		this.field = Struct.PCAP_STRUCT.bitField(path);
+		this.field = Struct.PCAP_STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
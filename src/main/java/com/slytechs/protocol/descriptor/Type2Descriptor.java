@@ -20,6 +20,7 @@ package com.slytechs.protocol.descriptor;
 import static com.slytechs.protocol.descriptor.Type2DescriptorLayout.*;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.slytechs.protocol.pack.Pack;
 import com.slytechs.protocol.pack.PackId;
@@ -51,8 +52,29 @@ public class Type2Descriptor extends PacketDescriptor {
 	/** The hash 32. */
 	private int hash24, hash32;
 
-	/** The expanded header arrays. */
-	private long[] expandedHeaderArrays;
+	/** Size of the header index, one entry for every possible header id. */
+	private static final int INDEX_SIZE = PackId.PACK_MAXCOUNT_PACKS * PackId.PACK_MAXCOUNT_ORDINALS;
+
+	/** Index is not built for the current binding. */
+	private static final int INDEX_NOT_BUILT = -1;
+
+	/**
+	 * Header id to first record index + 1 for that id, 0 if no record with that
+	 * id. Only entries for the currently indexed ids are non-zero.
+	 */
+	private final byte[] firstRecord = new byte[INDEX_SIZE];
+
+	/** Record index to next record index + 1 with the same id (next depth). */
+	private final byte[] nextRecord = new byte[CoreConstants.DESC_TYPE2_RECORD_MAX_COUNT];
+
+	/** Record index to index of the first record past any trailing options. */
+	private final byte[] optionsEnd = new byte[CoreConstants.DESC_TYPE2_RECORD_MAX_COUNT];
+
+	/** Ids added to the index, used to clear the index without a full sweep. */
+	private final short[] indexedIds = new short[CoreConstants.DESC_TYPE2_RECORD_MAX_COUNT];
+
+	/** Number of records indexed, or {@link #INDEX_NOT_BUILT}. */
+	private int indexedCount = INDEX_NOT_BUILT;
 
 	/**
 	 * Instantiates a new type 2 descriptor.
@@ -127,7 +149,7 @@ public class Type2Descriptor extends PacketDescriptor {
 		if (index >= count)
 			throw new IndexOutOfBoundsException();
 
-		return buffer().getInt((index << 2) + CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX);
+		return record(index);
 	}
 
 	/**
@@ -165,7 +187,7 @@ public class Type2Descriptor extends PacketDescriptor {
 		HASH_TYPE.setInt(hashType, buffer());
 
 		this.hash24 = hash24;
-		this.hash32 = (hashType << 27) | hash24;
+		this.hash32 = ((hashType & Bits.BITS_05) << 24) | (hash24 & Bits.BITS_24);
 		this.hashType = hashType;
 
 		return this;
@@ -194,7 +216,7 @@ public class Type2Descriptor extends PacketDescriptor {
 
 		this.hash32 = hash;
 		this.hash24 = hash & Bits.BITS_24;
-		this.hashType = (hash >> 27);
+		this.hashType = (hash >>> 24) & Bits.BITS_05;
 
 		return this;
 	}
@@ -253,7 +275,90 @@ public class Type2Descriptor extends PacketDescriptor {
 	}
 
 	/**
-	 * List headers.
+	 * Number of headers recorded in this descriptor.
+	 *
+	 * @return the header count
+	 * @see com.slytechs.protocol.HeaderLookup#headerCount()
+	 */
+	@Override
+	public int headerCount() {
+		return recordCount();
+	}
+
+	/**
+	 * Gets the header at the specified record index.
+	 *
+	 * @param index the record index
+	 * @return the compact descriptor for the header
+	 * @see com.slytechs.protocol.HeaderLookup#headerAt(int)
+	 */
+	@Override
+	public long headerAt(int index) {
+		return PackId.recordToCompactDescriptor(getRecord(index));
+	}
+
+	/**
+	 * Builds the header index for the current binding, if not already built.
+	 * Records are indexed in reverse order, so that the first record for an id
+	 * is at depth 0, and each chain of records with the same id is in ascending
+	 * order.
+	 */
+	private void indexHeaders() {
+		if (indexedCount != INDEX_NOT_BUILT)
+			return;
+
+		final int recordCount = Math.min(recordCount(), CoreConstants.DESC_TYPE2_RECORD_MAX_COUNT);
+		int end = recordCount;
+
+		for (int i = recordCount - 1; i >= 0; i--) {
+			final int record = record(i);
+			final int id = PackId.decodeRecordId(record);
+
+			nextRecord[i] = firstRecord[id];
+			firstRecord[id] = (byte) (i + 1);
+			indexedIds[i] = (short) id;
+
+			/* Options end wherever the first non-option record follows */
+			optionsEnd[i] = (byte) end;
+			if (PackId.decodeRecordPackId(record) != ProtocolPackTable.PACK_ID_OPTIONS)
+				end = i;
+		}
+
+		this.indexedCount = recordCount;
+	}
+
+	/**
+	 * Clears the header index, only touching the entries which were set.
+	 */
+	private void clearHeaderIndex() {
+		for (int i = 0; i < indexedCount; i++)
+			firstRecord[indexedIds[i]] = 0;
+
+		this.indexedCount = INDEX_NOT_BUILT;
+	}
+
+	/**
+	 * Finds the record index of a header at specific depth using the header
+	 * index.
+	 *
+	 * @param headerId the header id
+	 * @param depth    the depth
+	 * @return the record index or -1 if not found
+	 */
+	private int indexOf(int headerId, int depth) {
+		indexHeaders();
+
+		int next = firstRecord[headerId & PackId.PACK_MASK_UNPACK];
+		while ((next != 0) && (depth-- > 0))
+			next = nextRecord[next - 1];
+
+		return next - 1;
+	}
+
+	/**
+	 * List headers. This method allocates a new array on every call, use
+	 * {@link #headerCount()} and {@link #headerAt(int)} to iterate over headers
+	 * without allocation.
 	 *
 	 * @return the long[]
 	 * @see com.slytechs.protocol.HeaderLookup#listHeaders()
@@ -261,38 +366,39 @@ public class Type2Descriptor extends PacketDescriptor {
 	@Override
 	public long[] listHeaders() {
 		int recordCount = recordCount();
-		expandedHeaderArrays = new long[recordCount];
+		long[] headers = new long[recordCount];
 
 		for (int i = 0; i < recordCount; i++)
-			expandedHeaderArrays[i] = PackId.recordToCompactDescriptor(record(i));
+			headers[i] = headerAt(i);
 
-		return expandedHeaderArrays;
+		return headers;
 	}
 
 	/**
-	 * Lookup extension.
+	 * Lookup extension among the option records directly following a header
+	 * record.
 	 *
 	 * @param extId       the ext id
-	 * @param start       the start
-	 * @param recordCount the record count
+	 * @param headerIndex the record index of the header
 	 * @return the long
 	 */
-	private long lookupExtension(int extId, int start, int recordCount) {
+	private long lookupExtension(int extId, int headerIndex) {
+		indexHeaders();
 
-		for (int i = start; i < recordCount; i++) {
-			final int record = record(i);
-			final int id = PackId.decodeRecordId(record);
-			final int pack = PackId.decodeRecordPackId(record);
+		if (headerIndex >= indexedCount)
+			return CompactDescriptor.ID_NOT_FOUND;
 
-			/* Scan until we no longer see OPTIONS records */
-			if (pack != ProtocolPackTable.PACK_ID_OPTIONS)
-				break;
+		final int end = optionsEnd[headerIndex];
 
-			if (id == extId)
-				return PackId.recordToCompactDescriptor(record, extId, i);
-		}
+		int next = firstRecord[extId & PackId.PACK_MASK_UNPACK];
+		while ((next != 0) && (next - 1) <= headerIndex)
+			next = nextRecord[next - 1];
+
+		final int i = next - 1;
+		if ((i < 0) || (i >= end))
+			return CompactDescriptor.ID_NOT_FOUND;
 
-		return CompactDescriptor.ID_NOT_FOUND;
+		return PackId.recordToCompactDescriptor(record(i), extId, i);
 	}
 
 	/**
@@ -312,15 +418,11 @@ public class Type2Descriptor extends PacketDescriptor {
 		if (!PackId.bitmaskCheck(mask, headerId))
 			return CompactDescriptor.ID_NOT_FOUND;
 
-		final int recordCount = recordCount();
-		for (int i = 0; i < recordCount; i++) {
-			final int record = record(i);
-
-			if (PackId.recordEqualsId(record, headerId) && (depth-- == 0))
-				return PackId.recordToCompactDescriptor(record, headerId, i); // Record with a hint (i)!
-		}
+		final int i = indexOf(headerId, depth);
+		if (i < 0)
+			return CompactDescriptor.ID_NOT_FOUND;
 
-		return CompactDescriptor.ID_NOT_FOUND;
+		return PackId.recordToCompactDescriptor(record(i), headerId, i); // Record with a hint (i)!
 	}
 
 	/**
@@ -339,25 +441,22 @@ public class Type2Descriptor extends PacketDescriptor {
 
 		/* If we have a hint, then we can skip directly to extension lookup */
 		if (recordIndexHint > 0)
-			return lookupExtension(extId, recordIndexHint + 1, recordCount());
+			return (extId == CoreIdTable.CORE_ID_PAYLOAD)
+					? lookupPayload(record(recordIndexHint))
+					: lookupExtension(extId, recordIndexHint);
 
 		final int mask = bitmask();
 		if (!PackId.bitmaskCheck(mask, headerId))
 			return CompactDescriptor.ID_NOT_FOUND;
 
-		final int recordCount = recordCount();
-		for (int i = 0; i < recordCount; i++) {
-			final int record = record(i);
+		final int i = indexOf(headerId, depth);
+		if (i < 0)
+			return CompactDescriptor.ID_NOT_FOUND;
 
-			if (PackId.recordEqualsId(record, headerId) && (depth-- == 0)) {
-				if (extId == CoreIdTable.CORE_ID_PAYLOAD)
-					return lookupPayload(record);
+		if (extId == CoreIdTable.CORE_ID_PAYLOAD)
+			return lookupPayload(record(i));
 
-				return lookupExtension(extId, i + 1, recordCount);
-			}
-		}
-
-		return CompactDescriptor.ID_NOT_FOUND;
+		return lookupExtension(extId, i);
 	}
 
 	/**
@@ -391,7 +490,7 @@ public class Type2Descriptor extends PacketDescriptor {
 	@Override
 	protected void onBind() {
 		mask = hashType = hash24 = hash32 = -1;
-		expandedHeaderArrays = null;
+		clearHeaderIndex();
 	}
 
 	/**
@@ -681,6 +780,26 @@ public class Type2Descriptor extends PacketDescriptor {
 		return WIRELEN.getInt(buffer());
 	}
 
+	/**
+	 * Makes a deep copy of this descriptor, bound to a new heap buffer. Any
+	 * descriptors chained to this one are not copied.
+	 *
+	 * @return the copy
+	 */
+	public Type2Descriptor copy() {
+		final ByteBuffer src = buffer();
+		final ByteBuffer dst = ByteBuffer.allocate(src.limit())
+				.put(0, src, 0, src.limit())
+				.order(ByteOrder.nativeOrder());
+
+		Type2Descriptor copy = new Type2Descriptor();
+		copy.bind(dst);
+		copy.frameNo(frameNo());
+		copy.timestampUnit(timestampUnit());
+
+		return copy;
+	}
+
 	/**
 	 * With binding.
 	 *
@@ -703,5 +822,6 @@ public class Type2Descriptor extends PacketDescriptor {
 	protected void onUnbind() {
 		super.onUnbind();
 		hash24 = hash32 = hashType = mask = -1;
+		clearHeaderIndex();
 	}
 }
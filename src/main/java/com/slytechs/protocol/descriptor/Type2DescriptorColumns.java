@@ -0,0 +1,507 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import java.nio.ByteBuffer;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.PacketProjector;
+import com.slytechs.protocol.pack.PackId;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+
+/**
+ * A columnar (struct of arrays) store of type 2 descriptors for batch
+ * analytics. Each descriptor word, and each projected protocol field, is kept
+ * in its own primitive column indexed by row, so that scans and filters run as
+ * tight counted loops over primitive arrays, which the JIT compiler can unroll
+ * and vectorize, instead of going through a descriptor object per packet.
+ * 
+ * <p>
+ * Filters work on a selection vector of row indexes. A filter either selects
+ * from all rows or refines a previous selection in place, and returns the
+ * number of selected rows. Selections are built without branches on the
+ * filtered value. For example, all TCP SYN packets from 10.0.0.0/8:
+ * </p>
+ * 
+ * <pre>
+ * var columns = new Type2DescriptorColumns(4096, PacketProjector.of("ip4.src", "tcp.flags"));
+ * int[] sel = new int[columns.capacity()];
+ * 
+ * // for each dissected packet
+ * columns.add(packet);
+ * 
+ * int count = columns.filterHeader(CoreIdTable.CORE_ID_TCP, sel);
+ * count = columns.filterField(0, 0xFF000000L, 0x0A000000L, sel, count);
+ * count = columns.filterField(1, TCP_FLAG_SYN, TCP_FLAG_SYN, sel, count);
+ * </pre>
+ * 
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ * @author Mark Bednarczyk
+ */
+public final class Type2DescriptorColumns {
+
+	/** Record column stride, maximum number of records per descriptor. */
+	private static final int RECORD_STRIDE = CoreConstants.DESC_TYPE2_RECORD_MAX_COUNT;
+
+	/** The capacity. */
+	private final int capacity;
+
+	/** The optional field projector, or null. */
+	private final PacketProjector projector;
+
+	/** The timestamp column. */
+	private final long[] timestamps;
+
+	/** The capture length column. */
+	private final int[] captureLengths;
+
+	/** The wire length column. */
+	private final int[] wireLengths;
+
+	/** The 24-bit hash column. */
+	private final int[] hash24s;
+
+	/** The header bitmask column. */
+	private final int[] bitmasks;
+
+	/** The record count column. */
+	private final int[] recordCounts;
+
+	/** The records, {@link #RECORD_STRIDE} per row. */
+	private final int[] records;
+
+	/** The projected field columns. */
+	private final long[][] fields;
+
+	/** Bitmask of projected fields present in each row. */
+	private final long[] present;
+
+	/** Number of rows. */
+	private int size;
+
+	/**
+	 * Instantiates a new columnar store with descriptor columns only.
+	 *
+	 * @param capacity the maximum number of rows
+	 */
+	public Type2DescriptorColumns(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * Instantiates a new columnar store with descriptor columns and a column for
+	 * each projected field.
+	 *
+	 * @param capacity  the maximum number of rows
+	 * @param projector the field projector, or null for no field columns
+	 */
+	public Type2DescriptorColumns(int capacity, PacketProjector projector) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("invalid capacity [%d]".formatted(capacity));
+
+		int fieldCount = (projector == null) ? 0 : projector.fieldCount();
+
+		this.capacity = capacity;
+		this.projector = projector;
+		this.timestamps = new long[capacity];
+		this.captureLengths = new int[capacity];
+		this.wireLengths = new int[capacity];
+		this.hash24s = new int[capacity];
+		this.bitmasks = new int[capacity];
+		this.recordCounts = new int[capacity];
+		this.records = new int[capacity * RECORD_STRIDE];
+		this.fields = new long[fieldCount][capacity];
+		this.present = new long[capacity];
+	}
+
+	/**
+	 * Appends a dissected packet's descriptor and projected fields as a new row.
+	 *
+	 * @param packet the packet, with a type 2 descriptor
+	 * @return true if added, false if the store is full
+	 * @throws IllegalArgumentException if the packet descriptor is not a type 2
+	 *                                  descriptor
+	 */
+	public boolean add(Packet packet) throws IllegalArgumentException {
+		if (!(packet.descriptor() instanceof Type2Descriptor descriptor))
+			throw new IllegalArgumentException("invalid descriptor type [%s]"
+					.formatted(packet.descriptor().type()));
+
+		return add(descriptor, packet.buffer());
+	}
+
+	/**
+	 * Appends a descriptor and fields projected from its packet data as a new
+	 * row.
+	 *
+	 * @param descriptor the descriptor
+	 * @param packet     the packet data, may be null if there are no field
+	 *                   columns
+	 * @return true if added, false if the store is full
+	 */
+	public boolean add(Type2Descriptor descriptor, ByteBuffer packet) {
+		if (size == capacity)
+			return false;
+
+		int row = size++;
+		int count = Math.min(descriptor.recordCount(), RECORD_STRIDE);
+
+		timestamps[row] = descriptor.timestamp();
+		captureLengths[row] = descriptor.captureLength();
+		wireLengths[row] = descriptor.wireLength();
+		hash24s[row] = descriptor.hash24();
+		bitmasks[row] = descriptor.bitmask();
+		recordCounts[row] = count;
+
+		for (int i = 0; i < count; i++)
+			records[row * RECORD_STRIDE + i] = descriptor.record(i);
+
+		present[row] = (projector == null)
+				? 0
+				: projector.project(packet, descriptor, fields, row);
+
+		return true;
+	}
+
+	/**
+	 * Gets the maximum number of rows.
+	 *
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Clears all rows.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Checks if no more rows can be added.
+	 *
+	 * @return true, if full
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * Gets the number of rows.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the field projector.
+	 *
+	 * @return the projector, or null if there are no field columns
+	 */
+	public PacketProjector projector() {
+		return projector;
+	}
+
+	/**
+	 * Gets the timestamp column. Only the first {@link #size()} rows are valid.
+	 *
+	 * @return the timestamp column
+	 */
+	public long[] timestamps() {
+		return timestamps;
+	}
+
+	/**
+	 * Gets the capture length column. Only the first {@link #size()} rows are
+	 * valid.
+	 *
+	 * @return the capture length column
+	 */
+	public int[] captureLengths() {
+		return captureLengths;
+	}
+
+	/**
+	 * Gets the wire length column. Only the first {@link #size()} rows are valid.
+	 *
+	 * @return the wire length column
+	 */
+	public int[] wireLengths() {
+		return wireLengths;
+	}
+
+	/**
+	 * Gets the 24-bit hash column. Only the first {@link #size()} rows are valid.
+	 *
+	 * @return the hash column
+	 */
+	public int[] hash24s() {
+		return hash24s;
+	}
+
+	/**
+	 * Gets the header bitmask column. Only the first {@link #size()} rows are
+	 * valid.
+	 *
+	 * @return the bitmask column
+	 */
+	public int[] bitmasks() {
+		return bitmasks;
+	}
+
+	/**
+	 * Gets the record count column. Only the first {@link #size()} rows are
+	 * valid.
+	 *
+	 * @return the record count column
+	 */
+	public int[] recordCounts() {
+		return recordCounts;
+	}
+
+	/**
+	 * Gets a descriptor record.
+	 *
+	 * @param row   the row
+	 * @param index the record index within the row
+	 * @return the record
+	 */
+	public int record(int row, int index) {
+		return records[row * RECORD_STRIDE + index];
+	}
+
+	/**
+	 * Gets a projected field column. Only the first {@link #size()} rows are
+	 * valid.
+	 *
+	 * @param column the field index within the projector
+	 * @return the field column
+	 */
+	public long[] field(int column) {
+		return fields[column];
+	}
+
+	/**
+	 * Checks if a projected field is present in a row.
+	 *
+	 * @param column the field index within the projector
+	 * @param row    the row
+	 * @return true, if the field's header was found in the row's packet
+	 */
+	public boolean isPresent(int column, int row) {
+		return (present[row] & (1L << column)) != 0;
+	}
+
+	/**
+	 * Selects all rows.
+	 *
+	 * @param selection the selection vector to receive row indexes
+	 * @return the number of selected rows
+	 */
+	public int selectAll(int[] selection) {
+		for (int i = 0; i < size; i++)
+			selection[i] = i;
+
+		return size;
+	}
+
+	/**
+	 * Selects all rows which contain a protocol header.
+	 *
+	 * @param headerId  the header id
+	 * @param selection the selection vector to receive row indexes
+	 * @return the number of selected rows
+	 */
+	public int filterHeader(int headerId, int[] selection) {
+		final int bit = 1 << PackId.decodeIdOrdinal(headerId);
+		int count = 0;
+
+		/* Bitmask is a prefilter, ordinals from different packs share a bit */
+		for (int i = 0; i < size; i++) {
+			selection[count] = i;
+			count += ((bitmasks[i] & bit) != 0) ? 1 : 0;
+		}
+
+		return refineHeader(headerId, selection, count);
+	}
+
+	/**
+	 * Refines a selection to rows which contain a protocol header.
+	 *
+	 * @param headerId  the header id
+	 * @param selection the selection vector to refine in place
+	 * @param count     the number of selected rows
+	 * @return the number of rows remaining selected
+	 */
+	public int filterHeader(int headerId, int[] selection, int count) {
+		final int bit = 1 << PackId.decodeIdOrdinal(headerId);
+		int n = 0;
+
+		for (int j = 0; j < count; j++) {
+			int i = selection[j];
+
+			selection[n] = i;
+			n += ((bitmasks[i] & bit) != 0) ? 1 : 0;
+		}
+
+		return refineHeader(headerId, selection, n);
+	}
+
+	/**
+	 * Refines a bitmask prefiltered selection, by matching header ids in the
+	 * descriptor records.
+	 *
+	 * @param headerId  the header id
+	 * @param selection the selection vector
+	 * @param count     the number of selected rows
+	 * @return the number of rows remaining selected
+	 */
+	private int refineHeader(int headerId, int[] selection, int count) {
+		final int id = headerId & PackId.PACK_MASK_UNPACK;
+		int n = 0;
+
+		for (int j = 0; j < count; j++) {
+			int i = selection[j];
+			int base = i * RECORD_STRIDE;
+			int end = base + recordCounts[i];
+			boolean found = false;
+
+			for (int r = base; r < end && !found; r++)
+				found = (PackId.decodeRecordId(records[r]) == id);
+
+			selection[n] = i;
+			n += found ? 1 : 0;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Selects all rows where a projected field is present and
+	 * {@code (field & mask) == value}.
+	 *
+	 * @param column    the field index within the projector
+	 * @param mask      the mask applied to the field value
+	 * @param value     the value to match
+	 * @param selection the selection vector to receive row indexes
+	 * @return the number of selected rows
+	 */
+	public int filterField(int column, long mask, long value, int[] selection) {
+		final long[] col = fields[column];
+		final long bit = 1L << column;
+		int count = 0;
+
+		for (int i = 0; i < size; i++) {
+			selection[count] = i;
+			count += (((col[i] & mask) == value) & ((present[i] & bit) != 0)) ? 1 : 0;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Refines a selection to rows where a projected field is present and
+	 * {@code (field & mask) == value}. For example, an IPv4 source address within
+	 * 10.0.0.0/8 matches mask {@code 0xFF000000} and value {@code 0x0A000000}.
+	 *
+	 * @param column    the field index within the projector
+	 * @param mask      the mask applied to the field value
+	 * @param value     the value to match
+	 * @param selection the selection vector to refine in place
+	 * @param count     the number of selected rows
+	 * @return the number of rows remaining selected
+	 */
+	public int filterField(int column, long mask, long value, int[] selection, int count) {
+		final long[] col = fields[column];
+		final long bit = 1L << column;
+		int n = 0;
+
+		for (int j = 0; j < count; j++) {
+			int i = selection[j];
+
+			selection[n] = i;
+			n += (((col[i] & mask) == value) & ((present[i] & bit) != 0)) ? 1 : 0;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Refines a selection to rows where a projected field is present and within
+	 * a range.
+	 *
+	 * @param column    the field index within the projector
+	 * @param min       the minimum value, inclusive
+	 * @param max       the maximum value, inclusive
+	 * @param selection the selection vector to refine in place
+	 * @param count     the number of selected rows
+	 * @return the number of rows remaining selected
+	 */
+	public int filterFieldRange(int column, long min, long max, int[] selection, int count) {
+		final long[] col = fields[column];
+		final long bit = 1L << column;
+		int n = 0;
+
+		for (int j = 0; j < count; j++) {
+			int i = selection[j];
+			long v = col[i];
+
+			selection[n] = i;
+			n += ((v >= min) & (v <= max) & ((present[i] & bit) != 0)) ? 1 : 0;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Sums the capture lengths of selected rows.
+	 *
+	 * @param selection the selection vector
+	 * @param count     the number of selected rows
+	 * @return the total number of captured bytes
+	 */
+	public long sumCaptureLength(int[] selection, int count) {
+		long sum = 0;
+
+		for (int j = 0; j < count; j++)
+			sum += captureLengths[selection[j]];
+
+		return sum;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "Type2DescriptorColumns [size=%d, capacity=%d, projector=%s]"
+				.formatted(size, capacity, projector);
+	}
+}
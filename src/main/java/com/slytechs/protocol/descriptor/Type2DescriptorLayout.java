@@ -19,6 +19,8 @@ package com.slytechs.protocol.descriptor;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
 import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16;
@@ -154,7 +156,7 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	Type2DescriptorLayout(String path) {
-		this.field = Struct.TYPE2_STRUCT.bitField(path);
+		this.field = Struct.TYPE2_STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
@@ -169,7 +171,8 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	}
 
 	/**
-	 * Encode word 2 BE.
+	 * Encode word 2 BE. Word2 bit layout for big-endian native byte order, where
+	 * caplen occupies the upper 16 bits followed by rx and tx ports.
 	 *
 	 * @param captureLength the capture length
 	 * @param rxPort        the rx port
@@ -177,11 +180,14 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	 * @return the int
 	 */
 	public static int encodeWord2BE(int captureLength, int rxPort, int txPort) {
-		throw new UnsupportedOperationException("not implemented yet");
+		return ((captureLength & 0xFFFF) << 16)
+				| ((rxPort & 0xFF) << 8)
+				| ((txPort & 0xFF) << 0);
 	}
 
 	/**
-	 * Encode word 2 LE.
+	 * Encode word 2 LE. Word2 bit layout for little-endian native byte order,
+	 * where caplen occupies the lower 16 bits followed by rx and tx ports.
 	 *
 	 * @param captureLength the capture length
 	 * @param rxPort        the rx port
@@ -189,7 +195,9 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	 * @return the int
 	 */
 	public static int encodeWord2LE(int captureLength, int rxPort, int txPort) {
-		throw new UnsupportedOperationException("not implemented yet");
+		return ((captureLength & 0xFFFF) << 0)
+				| ((rxPort & 0xFF) << 16)
+				| ((txPort & 0xFF) << 24);
 	}
 
 	/**
@@ -201,14 +209,22 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	 * @param txCrcOverride the tx crc override
 	 * @param txSetClock    the tx set clock
 	 * @param l2Type        the l 2 type
-	 * @param i             the i
+	 * @param l3Frag        the l3 fragment flags, bit0 is_frag and bit1 last_frag
 	 * @param recordCount   the record count
 	 * @return the int
 	 */
 	public static int encodeWord3BE(int wireLength, int txNow, int txIgnore, int txCrcOverride, int txSetClock,
-			int l2Type, int i,
+			int l2Type, int l3Frag,
 			int recordCount) {
-		throw new UnsupportedOperationException("not implemented yet");
+		return ((wireLength & 0xFFFF) << 16)
+				| ((txNow & 0x1) << 15)
+				| ((txIgnore & 0x1) << 14)
+				| ((txCrcOverride & 0x1) << 13)
+				| ((txSetClock & 0x1) << 12)
+				| ((l2Type & 0xF) << 8)
+				| ((l3Frag & 0x1) << 7)
+				| (((l3Frag >> 1) & 0x1) << 6)
+				| ((recordCount & 0x1F) << 0);
 	}
 
 	/**
@@ -220,13 +236,44 @@ enum Type2DescriptorLayout implements BitField.Proxy {
 	 * @param txCrcOverride the tx crc override
 	 * @param txSetClock    the tx set clock
 	 * @param l2Type        the l 2 type
-	 * @param i             the i
+	 * @param l3Frag        the l3 fragment flags, bit0 is_frag and bit1 last_frag
 	 * @param recordCount   the record count
 	 * @return the int
 	 */
 	public static int encodeWord3LE(int wireLength, int txNow, int txIgnore, int txCrcOverride, int txSetClock,
-			int l2Type, int i,
+			int l2Type, int l3Frag,
 			int recordCount) {
-		throw new UnsupportedOperationException("not implemented yet");
+		return ((wireLength & 0xFFFF) << 0)
+				| ((txNow & 0x1) << 16)
+				| ((txIgnore & 0x1) << 17)
+				| ((txCrcOverride & 0x1) << 18)
+				| ((txSetClock & 0x1) << 19)
+				| ((l2Type & 0xF) << 20)
+				| ((l3Frag & 0x3) << 24)
+				| ((recordCount & 0x1F) << 27);
+	}
+
+	/**
+	 * Encode word 4 BE.
+	 *
+	 * @param hash24   the 24-bit hash
+	 * @param hashType the hash type
+	 * @return the int
+	 */
+	public static int encodeWord4BE(int hash24, int hashType) {
+		return ((hash24 & 0xFFFFFF) << 8)
+				| ((hashType & 0x1F) << 3);
+	}
+
+	/**
+	 * Encode word 4 LE.
+	 *
+	 * @param hash24   the 24-bit hash
+	 * @param hashType the hash type
+	 * @return the int
+	 */
+	public static int encodeWord4LE(int hash24, int hashType) {
+		return ((hash24 & 0xFFFFFF) << 0)
+				| ((hashType & 0x1F) << 24);
 	}
 }
@@ -31,6 +31,7 @@ import com.slytechs.protocol.pack.Pack;
 import com.slytechs.protocol.pack.PackId;
 import com.slytechs.protocol.pack.core.constants.CoreConstants;
 import com.slytechs.protocol.pack.core.constants.CoreIdTable;
+import com.slytechs.protocol.pack.core.constants.HashType;
 import com.slytechs.protocol.pack.core.constants.Ip4OptionInfo;
 import com.slytechs.protocol.pack.core.constants.Ip6OptionInfo;
 import com.slytechs.protocol.pack.core.constants.L2FrameType;
@@ -59,9 +60,18 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	/** The Constant WORD3. */
 	private static final int WORD3 = 12;
 
+	/** The Constant WORD4. */
+	private static final int WORD4 = 16;
+
+	/** Max hash key words, enough for a label or VLAN id from every record. */
+	private static final int HASH_KEY_MAX_WORDS = DESC_TYPE2_RECORD_MAX_COUNT;
+
 	/** The Constant WORD5. */
 	private static final int WORD5 = 20;
 
+	/** Native byte order of the descriptor words. */
+	private static final boolean NATIVE_BIG = (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN);
+
 	/** The Constant DEFAULT_L2_TYPE. */
 	private final static L2FrameType DEFAULT_L2_TYPE = L2FrameType.ETHER;
 
@@ -101,6 +111,12 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	/** The wire length. */
 	private int wireLength;
 
+	/** Absolute buffer index where the current packet starts. */
+	private int base;
+
+	/** Absolute buffer index (exclusive) where the current packet ends. */
+	private int end;
+
 	/** The rx port. */
 	private int rxPort;
 
@@ -143,6 +159,41 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	/** The record. */
 	private final int[] record = new int[DESC_TYPE2_RECORD_MAX_COUNT];
 
+	/** The flow hash computed during dissection, or NONE to use setHash values. */
+	private HashType hashMode = HashType.NONE;
+
+	/** The hash function applied to the hash key. */
+	private FlowHashFunction hashFunction = FlowHashFunction.MURMUR3;
+
+	/** The round robin counter. */
+	private int roundRobin;
+
+	/** The hash key words, in RSS order (src address, dst address, ports). */
+	private final int[] hashKey = new int[HASH_KEY_MAX_WORDS];
+
+	/* Hash key offsets captured during the single dissection pass, -1 if absent */
+
+	/** The outer most IP header offset. */
+	private int ipOuter;
+
+	/** The inner most IP header offset. */
+	private int ipInner;
+
+	/** The L4 (TCP, UDP or SCTP) header offset. */
+	private int l4Offset;
+
+	/** The IP header offset the L4 header belongs to. */
+	private int l4Ip;
+
+	/** The L4 IP protocol number. */
+	private int l4Protocol;
+
+	/** The GRE header offset. */
+	private int greOffset;
+
+	/** The GTP header offset. */
+	private int gtpOffset;
+
 	/**
 	 * Instantiates a new java dissector type 2.
 	 */
@@ -164,10 +215,10 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return true, if successful
 	 */
 	private boolean addRecord(int id, int offset, int length) {
-		if ((recordCount == DESC_TYPE2_RECORD_MAX_COUNT) || ((offset + length) > captureLength))
+		if ((recordCount == DESC_TYPE2_RECORD_MAX_COUNT) || ((offset + length) > end))
 			return false;
 
-		record[recordCount++] = PackId.encodeRecord(id, offset, length);
+		record[recordCount++] = PackId.encodeRecord(id, offset - base, length);
 		bitmask = PackId.bitmaskSet(bitmask, id);
 
 		return true;
@@ -183,14 +234,53 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return true, if successful
 	 */
 	private boolean updateRecord(int recordIndex, int id, int offset, int length) {
-		if ((recordIndex >= recordCount) || ((offset + length) > captureLength))
+		if ((recordIndex >= recordCount) || ((offset + length) > end))
 			return false;
 
-		record[recordIndex] = PackId.encodeRecord(id, offset, length);
+		record[recordIndex] = PackId.encodeRecord(id, offset - base, length);
 
 		return true;
 	}
 
+	/**
+	 * Reads a byte from the packet data.
+	 *
+	 * @param offset absolute offset into the packet data
+	 * @return the byte
+	 */
+	byte getByte(int offset) {
+		return buf.get(offset);
+	}
+
+	/**
+	 * Reads a network (big-endian) order short from the packet data.
+	 *
+	 * @param offset absolute offset into the packet data
+	 * @return the short
+	 */
+	short getShort(int offset) {
+		return buf.getShort(offset);
+	}
+
+	/**
+	 * Reads a network (big-endian) order int from the packet data.
+	 *
+	 * @param offset absolute offset into the packet data
+	 * @return the int
+	 */
+	int getInt(int offset) {
+		return buf.getInt(offset);
+	}
+
+	/**
+	 * The packet data as a buffer, as required by dissector extensions.
+	 *
+	 * @return the buffer containing the packet data
+	 */
+	ByteBuffer extensionBuffer() {
+		return buf;
+	}
+
 	/**
 	 * Calc ip version.
 	 *
@@ -239,7 +329,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			// IPv6 options
 			switch (nextHeader) {
 			case IP_TYPE_IPv6_FRAGMENT_HEADER:
-				nextHeader = buf.get(offset + len + 0);
+				nextHeader = getByte(offset + len + 0);
 				len += 8;
 				break;
 
@@ -251,8 +341,8 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			case IP_TYPE_IPv6_MOBILITY_HEADER: // Mobility header
 			case IP_TYPE_IPv6_HOST_IDENTITY_PROTOCOL: // Host identity
 			case IP_TYPE_IPv6_SHIM6_PROTOCOL: // Shim6 protocol
-				nextHeader = buf.get(offset + len + 0);
-				len += (buf.get(offset + len + 1) << 3); // (in units of 8 bytes)
+				nextHeader = getByte(offset + len + 0);
+				len += (getByte(offset + len + 1) << 3); // (in units of 8 bytes)
 				break;
 
 			default:
@@ -270,7 +360,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return the int
 	 */
 	private int descriptorLength() {
-		return CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+		return RECORD_START + (recordCount << 2);
 	}
 
 	/**
@@ -300,7 +390,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 		case ETHER_TYPE_VLAN:
 			if (addRecord(CoreIdTable.CORE_ID_VLAN, offset, VLAN_HEADER_LEN)) {
-				type = Short.toUnsignedInt(buf.getShort(offset + VLAN_FIELD_TYPE));
+				type = Short.toUnsignedInt(getShort(offset + VLAN_FIELD_TYPE));
 				offset += VLAN_HEADER_LEN;
 				dissectEthType(offset, type);
 			}
@@ -317,7 +407,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 			boolean bottomOfstack = false;
 			do {
-				int label = buf.getInt(offset);
+				int label = getInt(offset);
 				bottomOfstack = (label & MPLS_BITMASK_BOTTOM) != 0;
 
 				if (!addRecord(CoreIdTable.CORE_ID_MPLS, offset, MPLS_HEADER_LEN))
@@ -336,7 +426,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			break;
 
 		default:
-			extensions.dissectType(buf, offset, CoreIdTable.CORE_ID_ETHER, type);
+			extensions.dissectType(extensionBuffer(), offset, CoreIdTable.CORE_ID_ETHER, type);
 			break;
 		}
 	}
@@ -360,7 +450,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		if (!hasRemaining(offset, ETHER_HEADER_LEN))
 			return;
 
-		int type = Short.toUnsignedInt(buf.getShort(offset + ETHER_FIELD_TYPE));
+		int type = Short.toUnsignedInt(getShort(offset + ETHER_FIELD_TYPE));
 
 		if (type > ETHER_MIN_VALUE_FOR_TYPE) {
 			// Ethernet2 frame type
@@ -378,9 +468,9 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			addRecord(CoreIdTable.CORE_ID_LLC, offset, LLC_HEADER_LEN);
 			l2Type = L2FrameType.L2_FRAME_TYPE_LLC;
 
-			int dsap = Byte.toUnsignedInt(buf.get(offset + LLC_FIELD_DSAP));
-			int ssap = Byte.toUnsignedInt(buf.get(offset + LLC_FIELD_SSAP));
-			int control = Byte.toUnsignedInt(buf.get(offset + LLC_FIELD_CONTROL));
+			int dsap = Byte.toUnsignedInt(getByte(offset + LLC_FIELD_DSAP));
+			int ssap = Byte.toUnsignedInt(getByte(offset + LLC_FIELD_SSAP));
+			int control = Byte.toUnsignedInt(getByte(offset + LLC_FIELD_CONTROL));
 
 			offset += LLC_HEADER_LEN;
 
@@ -392,7 +482,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 				addRecord(CoreIdTable.CORE_ID_SNAP, offset, SNAP_HEADER_LEN);
 				l2Type = L2FrameType.L2_FRAME_TYPE_SNAP;
-				type = buf.getShort(offset + SNAP_FIELD_TYPE);
+				type = getShort(offset + SNAP_FIELD_TYPE);
 
 				offset += SNAP_HEADER_LEN;
 
@@ -423,11 +513,10 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * Dissect L 2.
 	 *
 	 * @param dlt    the dlt
-	 * @param buf    the buf
 	 * @param offset the offset
 	 * @return the int
 	 */
-	private int dissectL2(int dlt, ByteBuffer buf, int offset) {
+	private int dissectL2(int dlt, int offset) {
 		int l2Type = L2FrameType.L2_FRAME_TYPE_OTHER;
 
 		switch (dlt) { // L2 Datalink Type
@@ -441,14 +530,14 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		case L2FrameType.L2_FRAME_TYPE_NOVELL_RAW:
 			if (hasRemaining(offset, CoreConstants.ETHER_HEADER_LEN)) {
 				l2Type = L2FrameType.L2_FRAME_TYPE_ETHER;
-				int first2bytes = buf.getShort(ETHER_HEADER_LEN);
+				int first2bytes = getShort(offset + ETHER_HEADER_LEN);
 
 				/*
 				 * In raw mode, IPX follows immediately 802.3 header instead of LLC/SNAP but 1st
 				 * two bytes must be 0xFFFF
 				 */
 				if (first2bytes == IPX_FIELD_VALUE_CHECKSUM)
-					dissectIpx(ETHER_HEADER_LEN); // Sets L3Type to IPX...
+					dissectIpx(offset + ETHER_HEADER_LEN); // Sets L3Type to IPX...
 			}
 			break;
 
@@ -460,8 +549,8 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	private void dissectIcmp4(int offset) {
 		if (!hasRemaining(offset, ICMPv4_HEADER_LEN))
 			return;
-		int type = Byte.toUnsignedInt(buf.get(offset + ICMPv4_FIELD_TYPE));
-		int code = Byte.toUnsignedInt(buf.get(offset + ICMPv4_FIELD_CODE));
+		int type = Byte.toUnsignedInt(getByte(offset + ICMPv4_FIELD_TYPE));
+		int code = Byte.toUnsignedInt(getByte(offset + ICMPv4_FIELD_CODE));
 
 		int len = switch(code) {
 		
@@ -475,7 +564,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @param offset the offset
 	 */
 	private void dissectIcmp6(int offset) {
-		int type = Byte.toUnsignedInt(buf.get(offset)); // type field
+		int type = Byte.toUnsignedInt(getByte(offset)); // type field
 		int len = 0;
 
 		switch (type) {
@@ -554,7 +643,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		offset += TCP_HEADER_LEN;
 
 		while (offset < limit) {
-			int kind = Byte.toUnsignedInt(buf.get(offset + TCP_OPTION_FIELD_KIND));
+			int kind = Byte.toUnsignedInt(getByte(offset + TCP_OPTION_FIELD_KIND));
 
 			switch (kind) {
 
@@ -573,7 +662,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			case TCP_OPTION_KIND_SACK:
 			case TCP_OPTION_KIND_TIMESTAMP:
 			case TCP_OPTION_KIND_FASTOPEN: {
-				int len = Byte.toUnsignedInt(buf.get(offset + TCP_OPTION_FIELD_LENGTH));
+				int len = Byte.toUnsignedInt(getByte(offset + TCP_OPTION_FIELD_LENGTH));
 				int id = TcpOptionInfo.mapKindToId(kind);
 
 				addRecord(id, offset, len);
@@ -582,7 +671,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			}
 
 			default: {
-				int len = Byte.toUnsignedInt(buf.get(offset + TCP_OPTION_FIELD_LENGTH));
+				int len = Byte.toUnsignedInt(getByte(offset + TCP_OPTION_FIELD_LENGTH));
 				offset += len;
 			}
 
@@ -614,32 +703,39 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 			case IP_TYPE_TCP:
 				if (hasRemaining(offset, TCP_HEADER_LEN)) {
-					r0 = buf.get(offset + TCP_FIELD_IHL);
+					r0 = getByte(offset + TCP_FIELD_IHL);
 					len = ((r0 >> 4) & Bits.BITS_04) << 2;
 
-					addRecord(CoreIdTable.CORE_ID_TCP, offset, len);
+					if (addRecord(CoreIdTable.CORE_ID_TCP, offset, len))
+						captureL4(offset, IP_TYPE_TCP);
 
 					dissectTcpOptions(offset, len);
 
-					int src = Short.toUnsignedInt(buf.getShort(offset + TCP_FIELD_SRC));
-					int dst = Short.toUnsignedInt(buf.getShort(offset + TCP_FIELD_DST));
+					int src = Short.toUnsignedInt(getShort(offset + TCP_FIELD_SRC));
+					int dst = Short.toUnsignedInt(getShort(offset + TCP_FIELD_DST));
 
 					offset += len;
 
-					extensions.dissectPorts(buf, offset, CoreIdTable.CORE_ID_TCP, src, dst);
+					extensions.dissectPorts(extensionBuffer(), offset, CoreIdTable.CORE_ID_TCP, src, dst);
 				}
 
 				break EXIT;
 
 			case IP_TYPE_UDP:
-				addRecord(CoreIdTable.CORE_ID_UDP, offset, UDP_HEADER_LEN);
+				if (!addRecord(CoreIdTable.CORE_ID_UDP, offset, UDP_HEADER_LEN))
+					break EXIT;
+
+				captureL4(offset, IP_TYPE_UDP);
 
-				int src = Short.toUnsignedInt(buf.getShort(offset + TCP_FIELD_SRC));
-				int dst = Short.toUnsignedInt(buf.getShort(offset + TCP_FIELD_DST));
+				int src = Short.toUnsignedInt(getShort(offset + TCP_FIELD_SRC));
+				int dst = Short.toUnsignedInt(getShort(offset + TCP_FIELD_DST));
+
+				if ((l4Ip == ipOuter) && isGtpPort(src, dst))
+					gtpOffset = offset + UDP_HEADER_LEN;
 
 				offset += UDP_HEADER_LEN;
 
-				extensions.dissectPorts(buf, offset, CoreIdTable.CORE_ID_UDP, src, dst);
+				extensions.dissectPorts(extensionBuffer(), offset, CoreIdTable.CORE_ID_UDP, src, dst);
 
 				break EXIT;
 
@@ -649,16 +745,24 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 				break EXIT;
 
 			case IP_TYPE_GRE:
-				if (hasRemaining(offset, 2)) {
-					r0 = buf.getShort(offset + 0);
+				if (hasRemaining(offset, 4)) {
+					r0 = getShort(offset + 0);
 					len = calculateGreHeaderLength((short) r0);
 
-					addRecord(CoreIdTable.CORE_ID_GRE, offset, len);
+					if (addRecord(CoreIdTable.CORE_ID_GRE, offset, len) && ((r0 & GRE_BITMASK_VERSION) == 0)) {
+						if (greOffset == -1)
+							greOffset = offset;
+
+						int type = Short.toUnsignedInt(getShort(offset + GRE_FIELD_PROTOCOL));
+
+						dissectEthType(offset + len, type);
+					}
 				}
 				break EXIT;
 
 			case IP_TYPE_SCTP:
-				addRecord(CoreIdTable.CORE_ID_SCTP, offset, SCTP_HEADER_LEN);
+				if (addRecord(CoreIdTable.CORE_ID_SCTP, offset, SCTP_HEADER_LEN))
+					captureL4(offset, IP_TYPE_SCTP);
 				break EXIT;
 
 			case IP_TYPE_ICMPv6:
@@ -669,7 +773,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 				return;
 
 			default:
-				extensions.dissectType(buf, offset, CoreIdTable.CORE_ID_IPv4, nextHeader);
+				extensions.dissectType(extensionBuffer(), offset, CoreIdTable.CORE_ID_IPv4, nextHeader);
 				break EXIT;
 			}
 		}
@@ -704,8 +808,8 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			offset += IPv4_HEADER_LEN; // Align at start of Ip4 options
 
 			while (offset < l4Offset) {
-				int type = Byte.toUnsignedInt(buf.get(offset + 0)); // option type
-				int len = buf.get(offset + 1); // option length
+				int type = Byte.toUnsignedInt(getByte(offset + 0)); // option type
+				int len = getByte(offset + 1); // option length
 
 				int id = 0;
 				switch (type) {
@@ -740,11 +844,15 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		if (!addRecord(CoreIdTable.CORE_ID_IPv6, offset, IPv6_HEADER_LEN))
 			return;
 
+		captureIp(offset);
+		this.l3IsFrag = this.l3LastFrag = false;
+
 		int extLen = 0;
+		int fragOff = 0;
 		offset += IPv6_HEADER_LEN;
 
 		// Calculate IPv6 header size including options
-		LOOP: while (hasRemaining(offset + 2)) {
+		LOOP: while (hasRemaining(offset, 2)) {
 
 			// IPv6 options
 			switch (nextHeader) {
@@ -757,12 +865,34 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 			case IP_TYPE_IPv6_MOBILITY_HEADER: // Mobility header
 			case IP_TYPE_IPv6_HOST_IDENTITY_PROTOCOL: // Host identity
 			case IP_TYPE_IPv6_SHIM6_PROTOCOL: // Shim6 protocol
-				nextHeader = buf.get(offset + extLen + 0);
-				int len = (buf.get(offset + extLen + 1) << 3) + 8; // (in units of 8 bytes)
+				final int type = nextHeader;
+				final int id = Ip6OptionInfo.mapTypeToId(type);
+				final int hdrExtLen = Byte.toUnsignedInt(getByte(offset + 1));
 
-				int id = Ip6OptionInfo.mapTypeToId(nextHeader);
+				int len = switch (type) {
+				case IP_TYPE_IPv6_FRAGMENT_HEADER -> 8;
+				case IP_TYPE_IPv6_AUTHENTICATION_HEADER -> (hdrExtLen + 2) << 2; // (in units of 4 bytes)
+				default -> (hdrExtLen << 3) + 8; // (in units of 8 bytes)
+				};
 
-				if (recordExtensions && !checkBitmask(ip4DisableBitmask, id))
+				nextHeader = Byte.toUnsignedInt(getByte(offset + 0));
+
+				if ((type == IP_TYPE_IPv6_FRAGMENT_HEADER) && hasRemaining(offset, len)) {
+					int fragField = Short.toUnsignedInt(getShort(offset + IPv6_FRAG_FIELD_OFFSET));
+					boolean mf = (fragField & IPv6_FRAG_FLAG16_MF) != 0;
+					fragOff = (fragField & IPv6_FRAG_MASK16_OFFSET);
+
+					this.l3IsFrag = true;
+					this.l3LastFrag = !mf && (fragOff > 0);
+				}
+
+				/* ESP payload is encrypted, nothing past its fixed header can be parsed */
+				if (type == IP_TYPE_IPv6_ENCAPSULATING_SECURITY_PAYLOAD) {
+					len = 8;
+					nextHeader = IP_TYPE_NO_NEXT;
+				}
+
+				if (recordExtensions && !checkBitmask(ip6DisableBitmask, id))
 					addRecord(id, offset, len);
 
 				extLen += len;
@@ -776,6 +906,10 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 		} // End LOOP:
 
+		/* Only the first fragment carries upper layer headers */
+		if (fragOff > 0)
+			nextHeader = IP_TYPE_NO_NEXT;
+
 		if ((extLen > 0) && !updateRecord(ip6RecordIndex, CoreIdTable.CORE_ID_IPv6,
 				ip6OffsetStart, IPv6_HEADER_LEN + extLen))
 			return;
@@ -792,7 +926,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		if (!hasRemaining(offset, 1))
 			return;
 
-		int r0 = buf.get(offset + IPv4_FIELD_VER); // 07:00 IP header len & version
+		int r0 = getByte(offset + IPv4_FIELD_VER); // 07:00 IP header len & version
 		int ver = calcIpVersion((byte) r0); // Common to IPv4 and IPv6
 
 		int nextHeader = -1;
@@ -800,26 +934,258 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 
 		if ((ver == 4) && hasRemaining(offset, IPv4_HEADER_LEN)) {
 			len = ((r0 >> 0) & Bits.BITS_04) << 2;
-			nextHeader = buf.get(offset + IPv4_FIELD_PROTOCOL);
+			nextHeader = Byte.toUnsignedInt(getByte(offset + IPv4_FIELD_PROTOCOL));
 
 			if (!addRecord(CoreIdTable.CORE_ID_IPv4, offset, len))
 				return;
 
-			int sword3 = buf.getShort(offset + IPv4_FIELD_FLAGS);
+			captureIp(offset);
+
+			int sword3 = getShort(offset + IPv4_FIELD_FLAGS);
 			boolean mf = (sword3 & IPv4_FLAG16_MF) > 0;
 			int fragOff = (sword3 & IPv4_MASK16_FRAGOFF);
 
 			this.l3IsFrag = mf || (fragOff > 0);
 			this.l3LastFrag = !mf && (fragOff > 0);
 
+			/* Only the first fragment carries upper layer headers */
+			if (fragOff > 0)
+				nextHeader = IP_TYPE_NO_NEXT;
+
 			dissectIp4Options(offset, len, nextHeader);
 
 		} else if (hasRemaining(offset, IPv6_HEADER_LEN)) {
-			nextHeader = Byte.toUnsignedInt(buf.get(offset + IPv6_FIELD_NEXT_HOP));
+			nextHeader = Byte.toUnsignedInt(getByte(offset + IPv6_FIELD_NEXT_HOP));
 			dissectIp6Options(offset, nextHeader);
 		}
 	}
 
+	/**
+	 * Captures the outer and inner most IP header offsets for flow hashing.
+	 *
+	 * @param offset the IP header offset
+	 */
+	private void captureIp(int offset) {
+		if (ipOuter == -1)
+			ipOuter = offset;
+
+		ipInner = offset;
+	}
+
+	/**
+	 * Captures the L4 header offset for flow hashing. Ports are never captured for
+	 * fragmented datagrams, since only the first fragment carries them and all
+	 * fragments of a flow must hash to the same value.
+	 *
+	 * @param offset   the L4 header offset
+	 * @param protocol the L4 IP protocol number
+	 */
+	private void captureL4(int offset, int protocol) {
+		if (l3IsFrag)
+			return;
+
+		this.l4Offset = offset;
+		this.l4Ip = ipInner;
+		this.l4Protocol = protocol;
+	}
+
+	/**
+	 * Checks if either UDP port is a GTP-C or GTP-U port.
+	 *
+	 * @param src the src port
+	 * @param dst the dst port
+	 * @return true, if GTP port
+	 */
+	private static boolean isGtpPort(int src, int dst) {
+		return (src == UDP_PORT_GTP_U) || (dst == UDP_PORT_GTP_U)
+				|| (src == UDP_PORT_GTP_C) || (dst == UDP_PORT_GTP_C);
+	}
+
+	/**
+	 * Computes the flow hash for the selected hash type, using the header offsets
+	 * captured during dissection. When the headers required by the hash type are
+	 * not present, the hash and hash type are both set to zero ({@code NONE}).
+	 */
+	private void computeHash() {
+		final HashType type = hashMode;
+		int words = switch (type) {
+		case TUPLE2 -> hashKeyTuple(ipOuter, 0, false);
+		case TUPLE2_SORTED -> hashKeyTuple(ipOuter, 0, true);
+		case TUPLE5 -> hashKeyTuple(ipOuter, IP_TYPE_SCTP, false);
+		case TUPLE5_SORTED -> hashKeyTuple(ipOuter, IP_TYPE_SCTP, true);
+		case TUPLE5_SCTP -> hashKeyTuple(ipOuter, -1, false);
+		case TUPLE5_SCTP_SORTED -> hashKeyTuple(ipOuter, -1, true);
+		case INNER_TUPLE2 -> hashKeyTuple(ipInner, 0, false);
+		case INNER_TUPLE2_SORTED -> hashKeyTuple(ipInner, 0, true);
+		case INNER_TUPLE5 -> hashKeyTuple(ipInner, -1, false);
+		case INNER_TUPLE5_SORTED -> hashKeyTuple(ipInner, -1, true);
+		case TUPLE3_GRE_V0 -> hashKeyGre(false);
+		case TUPLE3_GRE_V0_SORTED -> hashKeyGre(true);
+		case TUPLE3_GTP_V0 -> hashKeyGtp(0, false);
+		case TUPLE3_GTP_V0_SORTED -> hashKeyGtp(0, true);
+		case TUPLE3_GTP_V1_V2 -> hashKeyGtp(1, false);
+		case TUPLE3_GTP_V1_V2_SORTED -> hashKeyGtp(1, true);
+		case LAST_MPLS -> hashKeyLabels(CoreIdTable.CORE_ID_MPLS, true);
+		case ALL_MPLS_LABELS -> hashKeyLabels(CoreIdTable.CORE_ID_MPLS, false);
+		case LAST_VLAN_ID -> hashKeyLabels(CoreIdTable.CORE_ID_VLAN, true);
+		case ALL_VLAN_IDS -> hashKeyLabels(CoreIdTable.CORE_ID_VLAN, false);
+		case ROUND_ROBIN -> {
+			hashKey[0] = roundRobin++;
+			yield 1;
+		}
+		default -> 0;
+		};
+
+		if (words == 0) {
+			this.hash = this.hashType = 0;
+			return;
+		}
+
+		this.hash = hashFunction.hashKey(hashKey, words, type.getAsInt()) & Bits.BITS_24;
+		this.hashType = type.getAsInt();
+	}
+
+	/**
+	 * Builds the IP tuple hash key, in RSS order: source address, destination
+	 * address and a single source/destination port word. Ports are only included
+	 * if the L4 header directly belongs to the selected IP header and it is not
+	 * the excluded protocol.
+	 *
+	 * @param ip             the IP header offset, -1 if none
+	 * @param excludeL4      the L4 protocol to exclude from the key, 0 for no
+	 *                       ports at all, -1 to include all of TCP, UDP and SCTP
+	 * @param sorted         if true, endpoints are sorted so both directions of a
+	 *                       flow produce the same key
+	 * @return number of key words, 0 if no key
+	 */
+	private int hashKeyTuple(int ip, int excludeL4, boolean sorted) {
+		if (ip == -1)
+			return 0;
+
+		final boolean ip4 = ((getByte(ip) >> 4) & Bits.BITS_04) == 4;
+		final int addrWords = ip4 ? 1 : 4;
+		final int src = ip + (ip4 ? IPv4_FIELD_SRC : IPv6_FIELD_SRC);
+		final int dst = ip + (ip4 ? IPv4_FIELD_DST : IPv6_FIELD_DST);
+
+		final boolean ports = (excludeL4 != 0) && (l4Ip == ip) && (l4Protocol != excludeL4);
+		int sport = 0, dport = 0;
+		if (ports) {
+			sport = Short.toUnsignedInt(getShort(l4Offset + TCP_FIELD_SRC));
+			dport = Short.toUnsignedInt(getShort(l4Offset + TCP_FIELD_DST));
+		}
+
+		boolean swap = false;
+		if (sorted) {
+			int cmp = 0;
+			for (int i = 0; (i < addrWords) && (cmp == 0); i++)
+				cmp = Integer.compareUnsigned(getInt(src + (i << 2)), getInt(dst + (i << 2)));
+
+			swap = (cmp > 0) || ((cmp == 0) && (sport > dport));
+		}
+
+		final int a = swap ? dst : src;
+		final int b = swap ? src : dst;
+		for (int i = 0; i < addrWords; i++) {
+			hashKey[i] = getInt(a + (i << 2));
+			hashKey[i + addrWords] = getInt(b + (i << 2));
+		}
+
+		int words = addrWords << 1;
+		if (ports)
+			hashKey[words++] = swap ? (dport << 16) | sport : (sport << 16) | dport;
+
+		return words;
+	}
+
+	/**
+	 * Builds the outer IP address and GRE version 0 key hash key. Only GRE
+	 * headers which carry a key field contribute the third tuple.
+	 *
+	 * @param sorted if true, addresses are sorted
+	 * @return number of key words, 0 if no key
+	 */
+	private int hashKeyGre(boolean sorted) {
+		if (greOffset == -1)
+			return 0;
+
+		int words = hashKeyTuple(ipOuter, 0, sorted);
+		int flags = getShort(greOffset);
+
+		if ((words > 0) && ((flags & GRE_BITMASK_KEY_FLAG) != 0)) {
+			int keyOffset = greOffset + 4;
+			if ((flags & GRE_BITMASK_CHKSUM_FLAG) != 0)
+				keyOffset += 4;
+
+			hashKey[words++] = getInt(keyOffset);
+		}
+
+		return words;
+	}
+
+	/**
+	 * Builds the outer IP address and GTP tunnel id hash key. GTPv0 carries a 64
+	 * bit TID, while GTPv1 and GTPv2 carry a 32 bit TEID, which in GTPv2 is
+	 * optional.
+	 *
+	 * @param version 0 for GTPv0, otherwise GTPv1 and GTPv2
+	 * @param sorted  if true, addresses are sorted
+	 * @return number of key words, 0 if no key
+	 */
+	private int hashKeyGtp(int version, boolean sorted) {
+		if ((gtpOffset == -1) || !hasRemaining(gtpOffset, 8))
+			return 0;
+
+		final int flags = Byte.toUnsignedInt(getByte(gtpOffset));
+		final int gtpVersion = flags >> 5;
+
+		if (((version == 0) != (gtpVersion == 0)) || ((gtpVersion == 0) && !hasRemaining(gtpOffset, 20)))
+			return 0;
+
+		int words = hashKeyTuple(ipOuter, 0, sorted);
+		if (words == 0)
+			return 0;
+
+		if (gtpVersion == 0) {
+			hashKey[words++] = getInt(gtpOffset + 12);
+			hashKey[words++] = getInt(gtpOffset + 16);
+
+		} else if ((gtpVersion == 1) || ((flags & 0x08) != 0)) {
+			hashKey[words++] = getInt(gtpOffset + 4);
+		}
+
+		return words;
+	}
+
+	/**
+	 * Builds a hash key from MPLS labels or VLAN ids, in the order they appear in
+	 * the packet.
+	 *
+	 * @param id       the MPLS or VLAN core protocol id
+	 * @param lastOnly if true, only the last (inner most) label or id is used
+	 * @return number of key words, 0 if no key
+	 */
+	private int hashKeyLabels(int id, boolean lastOnly) {
+		int words = 0;
+
+		for (int i = 0; i < recordCount; i++) {
+			int r = record[i];
+			if (PackId.decodeRecordId(r) != id)
+				continue;
+
+			int offset = base + PackId.decodeRecordOffset(r);
+			int label = (id == CoreIdTable.CORE_ID_MPLS)
+					? getInt(offset) >>> MPLS_SHIFT_LABEL
+					: getShort(offset) & VLAN_MASK16_VID;
+
+			if (lastOnly)
+				words = 0;
+
+			hashKey[words++] = label;
+		}
+
+		return words;
+	}
+
 	/**
 	 * Dissect packet.
 	 *
@@ -834,11 +1200,8 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	@Override
 	public int dissectPacket(ByteBuffer buffer, long timestamp, int captureLength, int wireLength) {
 		this.buf = buffer;
-		this.timestamp = timestamp;
-		this.captureLength = captureLength;
-		this.wireLength = wireLength;
 
-		this.l2Type = dissectL2(dltType, buf, 0);
+		dissectAt(0, timestamp, captureLength, wireLength);
 
 		/*
 		 * Advance the position manually, since we only reference the buffer data in
@@ -849,6 +1212,100 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		return captureLength;
 	}
 
+	/**
+	 * Dissects a single packet starting at an absolute offset within the currently
+	 * assigned buffer. Only per packet state is cleared, any user assigned values
+	 * such as hash or ports are preserved.
+	 *
+	 * @param offset        absolute buffer offset of the first packet byte
+	 * @param timestamp     the timestamp
+	 * @param captureLength the capture length
+	 * @param wireLength    the wire length
+	 */
+	final void dissectAt(int offset, long timestamp, int captureLength, int wireLength) {
+		this.timestamp = timestamp;
+		this.captureLength = captureLength;
+		this.wireLength = wireLength;
+		this.base = offset;
+		this.end = offset + captureLength;
+
+		this.recordCount = 0;
+		this.bitmask = defaultBitmask;
+		this.l3IsFrag = this.l3LastFrag = false;
+		this.ipOuter = ipInner = l4Offset = l4Ip = greOffset = gtpOffset = -1;
+
+		this.l2Type = dissectL2(dltType, offset);
+
+		if (hashMode != HashType.NONE)
+			computeHash();
+	}
+
+	/**
+	 * Dissect packets.
+	 *
+	 * @param packets     the packets
+	 * @param timestamps  the timestamps
+	 * @param count       the count
+	 * @param descriptors the descriptors
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#dissectPackets(java.nio.ByteBuffer[],
+	 *      long[], int, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int dissectPackets(ByteBuffer[] packets, long[] timestamps, int count, ByteBuffer descriptors) {
+		final int limit = descriptors.limit() - CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+		int pos = descriptors.position();
+
+		int i = 0;
+		for (; (i < count) && (pos <= limit); i++) {
+			final ByteBuffer packet = packets[i];
+			final int caplen = packet.remaining();
+
+			this.buf = packet;
+			dissectAt(packet.position(), timestamps[i], caplen, caplen);
+
+			pos += writeDescriptorAt(descriptors, pos);
+		}
+
+		descriptors.position(pos);
+
+		return i;
+	}
+
+	/**
+	 * Dissect packets.
+	 *
+	 * @param segment     the segment
+	 * @param offsets     the offsets
+	 * @param caplens     the caplens
+	 * @param wirelens    the wirelens
+	 * @param timestamps  the timestamps
+	 * @param count       the count
+	 * @param descriptors the descriptors
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#dissectPackets(java.nio.ByteBuffer,
+	 *      int[], int[], int[], long[], int, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int dissectPackets(ByteBuffer segment, int[] offsets, int[] caplens, int[] wirelens, long[] timestamps,
+			int count, ByteBuffer descriptors) {
+		final int limit = descriptors.limit() - CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+		int pos = descriptors.position();
+
+		this.buf = segment;
+
+		int i = 0;
+		for (; (i < count) && (pos <= limit); i++) {
+			dissectAt(offsets[i], timestamps[i], caplens[i], wirelens[i]);
+
+			pos += writeDescriptorAt(descriptors, pos);
+		}
+
+		descriptors.position(pos);
+
+		return i;
+	}
+
 	/**
 	 * Checks for remaining.
 	 *
@@ -856,7 +1313,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return true, if successful
 	 */
 	private boolean hasRemaining(int offset) {
-		return offset <= captureLength;
+		return offset <= end;
 	}
 
 	/**
@@ -867,7 +1324,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return true, if successful
 	 */
 	private boolean hasRemaining(int offset, int length) {
-		return (offset + length) <= captureLength;
+		return (offset + length) <= end;
 	}
 
 	/**
@@ -877,7 +1334,7 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 */
 	@Override
 	public void reset() {
-		timestamp = captureLength = wireLength = 0;
+		timestamp = captureLength = wireLength = base = end = 0;
 		hash = hashType = l2Type = 0;
 		rxPort = txPort = 0;
 		txNow = txIgnore = txCrcOverride = txSetClock = 0;
@@ -901,6 +1358,38 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 		return this;
 	}
 
+	/**
+	 * Sets the hash type computed for every dissected packet. The computed hash
+	 * replaces any value assigned using {@link #setHash(int, int)}, unless the
+	 * hash type is {@code NONE}.
+	 *
+	 * @param type the hash type
+	 * @return this dissector
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#setHashType(com.slytechs.protocol.pack.core.constants.HashType)
+	 */
+	@Override
+	public Type2JavaPacketDissector setHashType(HashType type) {
+		return setHashType(type, FlowHashFunction.MURMUR3);
+	}
+
+	/**
+	 * Sets the hash type and the hash function applied to the hash key.
+	 *
+	 * @param type     the hash type
+	 * @param function the hash function
+	 * @return this dissector
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#setHashType(com.slytechs.protocol.pack.core.constants.HashType,
+	 *      com.slytechs.protocol.descriptor.FlowHashFunction)
+	 */
+	@Override
+	public Type2JavaPacketDissector setHashType(HashType type, FlowHashFunction function) {
+		this.hashMode = type;
+		this.hashFunction = function;
+		this.roundRobin = 0;
+
+		return this;
+	}
+
 	/**
 	 * Sets the hash.
 	 *
@@ -972,31 +1461,51 @@ class Type2JavaPacketDissector extends JavaPacketDissector implements DissectorE
 	 * @return the int
 	 */
 	public final int writeDescriptorFastPath(ByteBuffer desc) {
-		final boolean big = (desc.order() == ByteOrder.BIG_ENDIAN);
+		return writeDescriptorAt(desc, 0);
+	}
+
+	/**
+	 * Writes a compact descriptor at an absolute offset within the descriptor
+	 * buffer without modifying its position or byte order. Descriptor words are
+	 * always written in native byte order, the same as the layout based writer.
+	 *
+	 * @param desc   the descriptor buffer
+	 * @param offset absolute offset of the descriptor within the buffer
+	 * @return number of bytes written
+	 */
+	final int writeDescriptorAt(ByteBuffer desc, int offset) {
+		final boolean swap = (desc.order() != ByteOrder.nativeOrder());
+		final int l3Frag = (l3IsFrag ? 1 : 0) | (l3LastFrag ? 2 : 0);
 
 		// Struct/Layout class has the private encoders we utilize here
-		int word2 = big
+		int word2 = NATIVE_BIG
 				? Type2DescriptorLayout
 						.encodeWord2BE(captureLength, rxPort, txPort)
 				: Type2DescriptorLayout
 						.encodeWord2LE(captureLength, rxPort, txPort);
 
-		int word3 = big
+		int word3 = NATIVE_BIG
 				? Type2DescriptorLayout
-						.encodeWord3BE(wireLength, txNow, txIgnore, txCrcOverride, txSetClock, l2Type, 0, recordCount)
+						.encodeWord3BE(wireLength, txNow, txIgnore, txCrcOverride, txSetClock, l2Type, l3Frag,
+								recordCount)
 				: Type2DescriptorLayout
-						.encodeWord3LE(wireLength, txNow, txIgnore, txCrcOverride, txSetClock, l2Type, 0, recordCount);
+						.encodeWord3LE(wireLength, txNow, txIgnore, txCrcOverride, txSetClock, l2Type, l3Frag,
+								recordCount);
+
+		int word4 = NATIVE_BIG
+				? Type2DescriptorLayout.encodeWord4BE(hash, hashType)
+				: Type2DescriptorLayout.encodeWord4LE(hash, hashType);
 
 		// @formatter:off
-		desc.putLong(WORD0_1, timestamp) // 07-00 Word0&1
-				.putInt(WORD2, word2)    // 11-08 Word2
-				.putInt(WORD3, word3)    // 15-12 Word3
-				                         // 19-16 Word4 hash/color2 which is not set by the dissector
-				.putInt(WORD5, bitmask); // 23-20 Word5 recorded protocol bitmask (1 bit per proto)
+		desc.putLong(offset + WORD0_1, swap ? Long.reverseBytes(timestamp) : timestamp) // 07-00 Word0&1
+				.putInt(offset + WORD2, swap ? Integer.reverseBytes(word2) : word2)      // 11-08 Word2
+				.putInt(offset + WORD3, swap ? Integer.reverseBytes(word3) : word3)      // 15-12 Word3
+				.putInt(offset + WORD4, swap ? Integer.reverseBytes(word4) : word4)      // 19-16 Word4 hash24/hash_type
+				.putInt(offset + WORD5, swap ? Integer.reverseBytes(bitmask) : bitmask); // 23-20 Word5 protocol bitmask
 		// @formatter:on
 
-		for (int i = 0, j = RECORD_START; i < recordCount; i++, j += 4)
-			desc.putInt(j, record[i]); // 152-24 (up to 152 bytes eq. (32 * 4) + 24)
+		for (int i = 0, j = offset + RECORD_START; i < recordCount; i++, j += 4)
+			desc.putInt(j, swap ? Integer.reverseBytes(record[i]) : record[i]); // 152-24 (up to 32 records)
 
 		return descriptorLength();
 	}
@@ -0,0 +1,294 @@
+/*
+ * Sly Technologies Free License
+ *
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.slytechs.com/free-license-text
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+
+/**
+ * Descriptor type 2 java based packet dissector, which reads packet data
+ * directly from a {@code MemorySegment}.
+ *
+ * <p>
+ * Each packet is sliced out of its segment once, with the bounds checked
+ * against the capture length, and all header fields are then read from the
+ * packet slice at packet relative offsets. Reads go through unaligned, network
+ * order value layout constants, so there are no per access byte order checks
+ * or buffer position/limit calculations, and the only bounds a read is checked
+ * against are those of the packet itself, never of a larger capture segment
+ * holding other packets.
+ * </p>
+ *
+ * <p>
+ * Dissector extensions are still defined in terms of {@code ByteBuffer}s. A
+ * buffer view of the current packet slice is created lazily, only when an
+ * extension is actually invoked.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+@SuppressWarnings("preview")
+class Type2SegmentPacketDissector extends Type2JavaPacketDissector {
+
+	/** The Constant JAVA_BYTE. */
+	// @formatter:off
+	private final static ValueLayout.OfByte  JAVA_BYTE                = ValueLayout.JAVA_BYTE;
+
+	/** The Constant JAVA_SHORT_UNALIGNED_BIG. */
+	private final static ValueLayout.OfShort JAVA_SHORT_UNALIGNED_BIG = ValueLayout.JAVA_SHORT.withOrder(ByteOrder.BIG_ENDIAN).withBitAlignment(8);
+
+	/** The Constant JAVA_INT_UNALIGNED_BIG. */
+	private final static ValueLayout.OfInt   JAVA_INT_UNALIGNED_BIG   = ValueLayout.JAVA_INT.withOrder(ByteOrder.BIG_ENDIAN).withBitAlignment(8);
+	// @formatter:on
+
+	/** The current packet, sliced out of its segment. */
+	private MemorySegment packet;
+
+	/** Lazily created buffer view of the packet for dissector extensions. */
+	private ByteBuffer view;
+
+	/**
+	 * Instantiates a new segment based type 2 dissector.
+	 */
+	Type2SegmentPacketDissector() {
+	}
+
+	/**
+	 * Slices the packet out of its segment and dissects it, starting at packet
+	 * offset 0.
+	 *
+	 * @param segment       the segment containing the packet
+	 * @param offset        the packet offset within the segment
+	 * @param timestamp     the timestamp
+	 * @param captureLength the capture length
+	 * @param wireLength    the wire length
+	 * @throws IndexOutOfBoundsException if packet is out of segment bounds
+	 */
+	private void dissectSlice(MemorySegment segment, int offset, long timestamp, int captureLength, int wireLength)
+			throws IndexOutOfBoundsException {
+		if ((offset < 0) || (captureLength < 0) || ((long) offset + captureLength) > segment.byteSize())
+			throw new IndexOutOfBoundsException("packet [offset=%d, caplen=%d] out of segment bounds [%d]"
+					.formatted(offset, captureLength, segment.byteSize()));
+
+		this.packet = ((offset == 0) && (captureLength == segment.byteSize()))
+				? segment
+				: segment.asSlice(offset, captureLength);
+		this.view = null;
+
+		dissectAt(0, timestamp, captureLength, wireLength);
+	}
+
+	/**
+	 * Dissect packet.
+	 *
+	 * @param packet    the packet
+	 * @param timestamp the timestamp
+	 * @param caplen    the caplen
+	 * @param wirelen   the wirelen
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#dissectPacket(java.lang.foreign.MemorySegment,
+	 *      long, int, int)
+	 */
+	@Override
+	public int dissectPacket(MemorySegment packet, long timestamp, int caplen, int wirelen) {
+		dissectSlice(packet, 0, timestamp, caplen, wirelen);
+
+		return caplen;
+	}
+
+	/**
+	 * Dissect packet. The buffer is viewed as a segment starting at the buffer's
+	 * current position.
+	 *
+	 * @param buffer    the buffer
+	 * @param timestamp the timestamp
+	 * @param caplen    the caplen
+	 * @param wirelen   the wirelen
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#dissectPacket(java.nio.ByteBuffer,
+	 *      long, int, int)
+	 */
+	@Override
+	public int dissectPacket(ByteBuffer buffer, long timestamp, int caplen, int wirelen) {
+		dissectPacket(MemorySegment.ofBuffer(buffer), timestamp, caplen, wirelen);
+
+		/* Same as the buffer based dissector, advance past the packet */
+		buffer.position(buffer.position() + caplen);
+
+		return caplen;
+	}
+
+	/**
+	 * Dissect packets.
+	 *
+	 * @param packets     the packets
+	 * @param timestamps  the timestamps
+	 * @param count       the count
+	 * @param descriptors the descriptors
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#dissectPackets(java.nio.ByteBuffer[],
+	 *      long[], int, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int dissectPackets(ByteBuffer[] packets, long[] timestamps, int count, ByteBuffer descriptors) {
+		final int limit = descriptors.limit() - CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+		int pos = descriptors.position();
+
+		int i = 0;
+		for (; (i < count) && (pos <= limit); i++) {
+			final MemorySegment packet = MemorySegment.ofBuffer(packets[i]);
+			final int caplen = (int) packet.byteSize();
+
+			dissectSlice(packet, 0, timestamps[i], caplen, caplen);
+
+			pos += writeDescriptorAt(descriptors, pos);
+		}
+
+		descriptors.position(pos);
+
+		return i;
+	}
+
+	/**
+	 * Dissect packets. Packet offsets are absolute within the segment buffer,
+	 * regardless of its current position and limit.
+	 *
+	 * @param segment     the segment
+	 * @param offsets     the offsets
+	 * @param caplens     the caplens
+	 * @param wirelens    the wirelens
+	 * @param timestamps  the timestamps
+	 * @param count       the count
+	 * @param descriptors the descriptors
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#dissectPackets(java.nio.ByteBuffer,
+	 *      int[], int[], int[], long[], int, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int dissectPackets(ByteBuffer segment, int[] offsets, int[] caplens, int[] wirelens, long[] timestamps,
+			int count, ByteBuffer descriptors) {
+
+		return dissectPackets(MemorySegment.ofBuffer(segment.duplicate().clear()),
+				offsets,
+				caplens,
+				wirelens,
+				timestamps,
+				count,
+				descriptors);
+	}
+
+	/**
+	 * Dissect packets.
+	 *
+	 * @param segment     the segment
+	 * @param offsets     the offsets
+	 * @param caplens     the caplens
+	 * @param wirelens    the wirelens
+	 * @param timestamps  the timestamps
+	 * @param count       the count
+	 * @param descriptors the descriptors
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.PacketDissector#dissectPackets(java.lang.foreign.MemorySegment,
+	 *      int[], int[], int[], long[], int, java.nio.ByteBuffer)
+	 */
+	@Override
+	public int dissectPackets(MemorySegment segment, int[] offsets, int[] caplens, int[] wirelens,
+			long[] timestamps, int count, ByteBuffer descriptors) {
+		final int limit = descriptors.limit() - CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX;
+		int pos = descriptors.position();
+
+		int i = 0;
+		for (; (i < count) && (pos <= limit); i++) {
+			dissectSlice(segment, offsets[i], timestamps[i], caplens[i], wirelens[i]);
+
+			pos += writeDescriptorAt(descriptors, pos);
+		}
+
+		descriptors.position(pos);
+
+		return i;
+	}
+
+	/**
+	 * Gets the byte.
+	 *
+	 * @param offset the offset
+	 * @return the byte
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#getByte(int)
+	 */
+	@Override
+	byte getByte(int offset) {
+		return packet.get(JAVA_BYTE, offset);
+	}
+
+	/**
+	 * Gets the short.
+	 *
+	 * @param offset the offset
+	 * @return the short
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#getShort(int)
+	 */
+	@Override
+	short getShort(int offset) {
+		return packet.get(JAVA_SHORT_UNALIGNED_BIG, offset);
+	}
+
+	/**
+	 * Gets the int.
+	 *
+	 * @param offset the offset
+	 * @return the int
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#getInt(int)
+	 */
+	@Override
+	int getInt(int offset) {
+		return packet.get(JAVA_INT_UNALIGNED_BIG, offset);
+	}
+
+	/**
+	 * Extension buffer.
+	 *
+	 * @return the byte buffer
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#extensionBuffer()
+	 */
+	@Override
+	ByteBuffer extensionBuffer() {
+		if (view == null)
+			view = packet.asByteBuffer();
+
+		return view;
+	}
+
+	/**
+	 * Reset.
+	 *
+	 * @see com.slytechs.protocol.descriptor.Type2JavaPacketDissector#reset()
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+
+		this.packet = null;
+		this.view = null;
+	}
+}
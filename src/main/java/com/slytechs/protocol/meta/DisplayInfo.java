@@ -26,13 +26,16 @@ import com.slytechs.protocol.runtime.util.Detail;
 /**
  * The DisplayInfo.
  *
- * @param value  display format value
- * @param label  display label
- * @param detail display detail level
+ * @param value    display format value
+ * @param label    display label
+ * @param detail   display detail level
+ * @param template the display format value compiled once, or null if value
+ *                 is not a valid display format
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
  */
-public record DisplayInfo(String value, String label, Detail detail) implements MetaInfoType {
+public record DisplayInfo(String value, String label, Detail detail, DisplayTemplate template)
+		implements MetaInfoType {
 
 	/** The Constant EMPTY_HEADER_DEFAULT_DISPLAY. */
 	@Display(label = "", value = "")
@@ -57,6 +60,17 @@ public record DisplayInfo(String value, String label, Detail detail) implements
 		}
 	}
 
+	/**
+	 * Instantiates a new display info, compiling the display format value.
+	 *
+	 * @param value  display format value
+	 * @param label  display label
+	 * @param detail display detail level
+	 */
+	public DisplayInfo(String value, String label, Detail detail) {
+		this(value, label, detail, DisplayTemplate.compile(value));
+	}
+
 	/**
 	 * Parses the json.
 	 *
@@ -0,0 +1,558 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.meta;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A display format string, compiled once into literal text and format
+ * specifier segments.
+ * 
+ * <p>
+ * Display strings are java format strings, in which {@code %{name:kind}}
+ * references a meta field as the argument of the format specifier which
+ * follows it, for example {@code "%{}d [%{hdrLenBytes}d bytes]"} or
+ * {@code "%{:R1}s (0x%{}04X)"}. An empty name references the field being
+ * displayed. The kind selects the raw value ({@code V}, the default), the
+ * formatted value ({@code F}) or a resolved value ({@code R}, {@code R1} to
+ * {@code R5}).
+ * </p>
+ * 
+ * <p>
+ * Compiling resolves the argument of every specifier up front, and parses the
+ * field paths. Formatting appends directly to the caller's
+ * {@code StringBuilder}. Common {@code s}, {@code d}, {@code x} and {@code X}
+ * specifiers, with an optional width and the {@code '-'} or {@code '0'} flag,
+ * are appended without a {@code Formatter}. All other specifiers are passed to
+ * a {@code Formatter}, one at a time, producing identical output.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class DisplayTemplate {
+
+	/** Meta field reference, replaced by a plain '%' when compiled. */
+	private static final Pattern FIELD_REFERENCE_PATTERN = Pattern.compile(""
+			+ "%\\{([\\w.]*):?([VFR]?[12345]*)\\}" // F=Formatted, R=Resolved
+			+ "");
+
+	/** Java format specifier, same as in java.util.Formatter. */
+	private static final Pattern SPECIFIER_PATTERN = Pattern.compile(""
+			+ "%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])"
+			+ "");
+
+	/** Valid conversions, excluding date/time suffixes. */
+	private static final String CONVERSIONS = "bBhHsScCdoxXeEfgGaAtT%n";
+
+	/** Argument value kinds. */
+	private static final int KIND_VALUE = -2;
+	private static final int KIND_FORMATTED = -1;
+
+	/** Last seen format locale and whether it formats decimals in ASCII. */
+	private static volatile LocaleDigits localeDigits = new LocaleDigits(null, false);
+
+	/**
+	 * A format locale and its digits.
+	 *
+	 * @param locale      the locale
+	 * @param asciiDigits true if locale formats decimals with ASCII digits
+	 */
+	private record LocaleDigits(Locale locale, boolean asciiDigits) {
+	}
+
+	/**
+	 * An argument, a reference to a meta field.
+	 *
+	 * @param name the field name, empty for the displayed field
+	 * @param path the parsed field path, or null for the displayed field
+	 * @param kind the value kind, or a resolver index
+	 */
+	private record Argument(String name, MetaPath path, int kind) {
+
+		/**
+		 * Selects the field the argument refers to.
+		 *
+		 * @param domain  the domain to search for named fields
+		 * @param element the element being displayed
+		 * @return the field, or null if not found
+		 */
+		MetaField select(MetaDomain domain, MetaElement element) {
+			MetaField selected = (element instanceof MetaField field) ? field : null;
+
+			if (path != null)
+				selected = path.searchForField(domain).orElse(null);
+
+			return selected;
+		}
+
+		/**
+		 * Gets the argument value, following the same rules as the legacy display
+		 * argument builder.
+		 *
+		 * @param selected the selected field, or null if not found
+		 * @return the value
+		 */
+		Object value(MetaField selected) {
+
+			/* Unresolved fields are just passed through */
+			if (selected == null)
+				return "{%s}".formatted(name);
+
+			Object arg = switch (kind) {
+			case KIND_VALUE -> selected.get();
+			case KIND_FORMATTED -> selected.getFormatted();
+			default -> selected.getResolved(kind);
+			};
+
+			if (arg == null)
+				arg = selected.getFormatted();
+
+			return arg;
+		}
+	}
+
+	/**
+	 * A format specifier.
+	 *
+	 * @param argument   the argument index, or -1 for none
+	 * @param conversion the conversion character
+	 * @param width      the minimum width, or -1
+	 * @param left       left justify flag
+	 * @param zero       zero pad flag
+	 * @param simple     true if it can be appended without a Formatter
+	 * @param specifier  specifier for the Formatter, without argument index
+	 */
+	private record Specifier(
+			int argument,
+			char conversion,
+			int width,
+			boolean left,
+			boolean zero,
+			boolean simple,
+			String specifier) {
+	}
+
+	/**
+	 * Compiles a display string.
+	 *
+	 * @param display the display string
+	 * @return the display template, or null if display is null or not a valid
+	 *         format string, in which case the caller must format the display
+	 *         string directly to get the same output or exception
+	 */
+	public static DisplayTemplate compile(String display) {
+		if (display == null)
+			return null;
+
+		/* Collect field references, in order, as the format arguments */
+		List<Argument> arguments = new ArrayList<>();
+		Matcher matcher = FIELD_REFERENCE_PATTERN.matcher(display);
+		boolean selfReference = false;
+
+		while (matcher.find()) {
+			String name = matcher.group(1);
+			String kind = matcher.group(2);
+
+			selfReference |= name.isEmpty();
+
+			arguments.add(new Argument(
+					name,
+					name.isEmpty() ? null : new MetaPath(name),
+					switch (kind) {
+					case "F" -> KIND_FORMATTED;
+					case "R", "R1" -> 0;
+					case "R2" -> 1;
+					case "R3" -> 2;
+					case "R4" -> 3;
+					case "R5" -> 4;
+					default -> KIND_VALUE;
+					}));
+		}
+
+		String format = matcher.replaceAll("%");
+
+		/* Split the format into literals and specifiers */
+		List<String> literals = new ArrayList<>();
+		List<Specifier> specifiers = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		Matcher spec = SPECIFIER_PATTERN.matcher(format);
+		int ordinary = 0;
+		int previous = -1;
+		int i = 0;
+
+		while (i < format.length()) {
+			char ch = format.charAt(i);
+			if (ch != '%') {
+				literal.append(ch);
+				i++;
+				continue;
+			}
+
+			if (!spec.region(i, format.length()).lookingAt())
+				return null;
+
+			i = spec.end();
+
+			String index = spec.group(1);
+			String flags = (spec.group(2) == null) ? "" : spec.group(2);
+			String width = spec.group(3);
+			String precision = spec.group(4);
+			String dateTime = spec.group(5);
+			char conversion = spec.group(6).charAt(0);
+
+			if (dateTime == null && CONVERSIONS.indexOf(conversion) == -1)
+				return null;
+
+			if (conversion == '%' || conversion == 'n') {
+				if (!flags.isEmpty() || index != null || precision != null || (width != null && conversion == 'n'))
+					return null; // Let the formatter report it
+
+				if (conversion == 'n')
+					literal.append(System.lineSeparator());
+				else if (width == null)
+					literal.append('%');
+				else
+					return null;
+
+				continue;
+			}
+
+			int argument;
+			if (flags.indexOf('<') != -1)
+				argument = previous;
+			else if (index != null)
+				argument = Integer.parseInt(index.substring(0, index.length() - 1)) - 1;
+			else
+				argument = ordinary++;
+
+			if (argument < 0 || argument >= arguments.size())
+				return null;
+
+			previous = argument;
+
+			boolean left = flags.indexOf('-') != -1;
+			boolean zero = flags.indexOf('0') != -1;
+			boolean simple = dateTime == null
+					&& precision == null
+					&& flags.replace("-", "").replace("0", "").replace("<", "").isEmpty()
+					&& !(left && zero)
+					&& (width != null || (!left && !zero))
+					&& switch (conversion) {
+					case 's' -> !zero;
+					case 'd', 'x', 'X' -> true;
+					default -> false;
+					};
+
+			literals.add(literal.toString());
+			literal.setLength(0);
+
+			specifiers.add(new Specifier(
+					argument,
+					conversion,
+					(width == null) ? -1 : Integer.parseInt(width),
+					left,
+					zero,
+					simple,
+					"%" + flags.replace("<", "")
+							+ (width == null ? "" : width)
+							+ (precision == null ? "" : precision)
+							+ (dateTime == null ? "" : dateTime)
+							+ conversion));
+		}
+
+		literals.add(literal.toString());
+
+		return new DisplayTemplate(
+				literals.toArray(String[]::new),
+				specifiers.toArray(Specifier[]::new),
+				arguments.toArray(Argument[]::new),
+				selfReference);
+	}
+
+	/**
+	 * Appends spaces to the text appended since start, left justifying it within
+	 * the specified width.
+	 *
+	 * @param sb    the string builder
+	 * @param start start of the text
+	 * @param width the minimum width
+	 * @return the string builder
+	 */
+	static StringBuilder padRight(StringBuilder sb, int start, int width) {
+		for (int pad = width - (sb.length() - start); pad > 0; pad--)
+			sb.append(' ');
+
+		return sb;
+	}
+
+	/**
+	 * Inserts spaces before the text appended since start, right justifying it
+	 * within the specified width.
+	 *
+	 * @param sb    the string builder
+	 * @param start start of the text
+	 * @param width the minimum width
+	 * @return the string builder
+	 */
+	static StringBuilder padLeft(StringBuilder sb, int start, int width) {
+		int pad = width - (sb.length() - start);
+		if (pad > 0)
+			sb.insert(start, " ".repeat(pad));
+
+		return sb;
+	}
+
+	/**
+	 * Checks if the current format locale uses ASCII digits, as the fast
+	 * {@code d} conversion does.
+	 *
+	 * @return true, if digits are ASCII
+	 */
+	private static boolean isAsciiDigitLocale() {
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		LocaleDigits digits = localeDigits;
+
+		if (digits.locale() != locale)
+			localeDigits = digits = new LocaleDigits(locale,
+					DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0');
+
+		return digits.asciiDigits();
+	}
+
+	/** Literal text, before each specifier and after the last one. */
+	private final String[] literals;
+
+	/** The specifiers. */
+	private final Specifier[] specifiers;
+
+	/** The field reference arguments. */
+	private final Argument[] arguments;
+
+	/** True if any argument references the displayed field itself. */
+	private final boolean selfReference;
+
+	/**
+	 * Instantiates a new display template.
+	 *
+	 * @param literals      the literals
+	 * @param specifiers    the specifiers
+	 * @param arguments     the arguments
+	 * @param selfReference the self reference flag
+	 */
+	private DisplayTemplate(String[] literals, Specifier[] specifiers, Argument[] arguments,
+			boolean selfReference) {
+		this.literals = literals;
+		this.specifiers = specifiers;
+		this.arguments = arguments;
+		this.selfReference = selfReference;
+	}
+
+	/**
+	 * Checks if this template can format the element. Templates referencing the
+	 * displayed field can only format fields.
+	 *
+	 * @param element the element
+	 * @return true, if element can be formatted
+	 */
+	public boolean canFormat(MetaElement element) {
+		return !selfReference || (element instanceof MetaField);
+	}
+
+	/**
+	 * Formats an element, appending to a string builder.
+	 *
+	 * @param domain     the domain to search for named fields
+	 * @param element    the element being displayed
+	 * @param toAppendTo the string builder to append to
+	 * @return the string builder
+	 * @throws IllegalFormatException if a value does not match its specifier
+	 */
+	public StringBuilder format(MetaDomain domain, MetaElement element, StringBuilder toAppendTo)
+			throws IllegalFormatException {
+		Formatter formatter = null;
+
+		for (int i = 0; i < specifiers.length; i++) {
+			Specifier spec = specifiers[i];
+			toAppendTo.append(literals[i]);
+
+			Argument argument = arguments[spec.argument()];
+			MetaField selected = argument.select(domain, element);
+
+			if (spec.simple() && appendPrimitive(spec, argument, selected, toAppendTo))
+				continue;
+
+			Object value = argument.value(selected);
+
+			if (!spec.simple() || !appendSimple(spec, value, toAppendTo)) {
+				if (formatter == null)
+					formatter = new Formatter(toAppendTo);
+
+				formatter.format(spec.specifier(), value);
+			}
+		}
+
+		return toAppendTo.append(literals[specifiers.length]);
+	}
+
+	/**
+	 * Appends the raw value of a primitive integral field for a simple specifier,
+	 * read without boxing.
+	 *
+	 * @param spec       the specifier
+	 * @param argument   the argument
+	 * @param selected   the selected field, or null if not found
+	 * @param toAppendTo the string builder to append to
+	 * @return true if appended, false if value needs to be boxed
+	 */
+	private boolean appendPrimitive(Specifier spec, Argument argument, MetaField selected,
+			StringBuilder toAppendTo) {
+		if ((selected == null) || (argument.kind() != KIND_VALUE))
+			return false;
+
+		int size = integralSize(selected.getValueType());
+		if (size == 0)
+			return false;
+
+		return appendIntegral(spec, selected.getLong(), size, toAppendTo);
+	}
+
+	/**
+	 * Appends a value for a simple specifier.
+	 *
+	 * @param spec       the specifier
+	 * @param value      the value
+	 * @param toAppendTo the string builder to append to
+	 * @return true if appended, false if value needs a Formatter
+	 */
+	private boolean appendSimple(Specifier spec, Object value, StringBuilder toAppendTo) {
+		int size = (value == null) ? 0 : integralSize(value.getClass());
+		if (size != 0)
+			return appendIntegral(spec, ((Number) value).longValue(), size, toAppendTo);
+
+		if ((spec.conversion() != 's') || (value instanceof Formattable))
+			return false;
+
+		int start = toAppendTo.length();
+		toAppendTo.append(value);
+
+		return pad(spec, start, toAppendTo);
+	}
+
+	/**
+	 * Appends an integral value for a simple specifier.
+	 *
+	 * @param spec       the specifier
+	 * @param value      the value, sign extended
+	 * @param size       the size of the value's type in bits
+	 * @param toAppendTo the string builder to append to
+	 * @return true if appended, false if value needs a Formatter
+	 */
+	private boolean appendIntegral(Specifier spec, long value, int size, StringBuilder toAppendTo) {
+		int start = toAppendTo.length();
+
+		switch (spec.conversion()) {
+		case 's':
+			toAppendTo.append(value);
+			break;
+
+		case 'd':
+			if (!isAsciiDigitLocale() || (spec.zero() && value < 0))
+				return false;
+
+			toAppendTo.append(value);
+			break;
+
+		case 'x':
+		case 'X':
+			String hex = switch (size) {
+			case 8 -> Integer.toHexString((int) value & 0xFF);
+			case 16 -> Integer.toHexString((int) value & 0xFFFF);
+			case 32 -> Integer.toHexString((int) value);
+			default -> Long.toHexString(value);
+			};
+
+			if (spec.conversion() == 'X')
+				hex = hex.toUpperCase(Locale.ROOT);
+
+			toAppendTo.append(hex);
+			break;
+
+		default:
+			return false;
+		}
+
+		return pad(spec, start, toAppendTo);
+	}
+
+	/**
+	 * Pads an appended value to the specifier's width.
+	 *
+	 * @param spec       the specifier
+	 * @param start      the start of the appended value
+	 * @param toAppendTo the string builder appended to
+	 * @return always true
+	 */
+	private boolean pad(Specifier spec, int start, StringBuilder toAppendTo) {
+		if (spec.width() == -1)
+			return true;
+
+		if (spec.left())
+			padRight(toAppendTo, start, spec.width());
+
+		else if (spec.zero()) {
+			int pad = spec.width() - (toAppendTo.length() - start);
+			if (pad > 0)
+				toAppendTo.insert(start, "0".repeat(pad));
+
+		} else
+			padLeft(toAppendTo, start, spec.width());
+
+		return true;
+	}
+
+	/**
+	 * Gets the size of an integral type, primitive or boxed.
+	 *
+	 * @param type the type
+	 * @return the size in bits, or 0 if type is not integral
+	 */
+	private static int integralSize(Class<?> type) {
+		if (type == int.class || type == Integer.class)
+			return 32;
+
+		if (type == long.class || type == Long.class)
+			return 64;
+
+		if (type == short.class || type == Short.class)
+			return 16;
+
+		if (type == byte.class || type == Byte.class)
+			return 8;
+
+		return 0;
+	}
+}
@@ -0,0 +1,316 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.meta;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Precompiled getter for a reflected field or no-argument method.
+ * 
+ * <p>
+ * Instance methods are bound using {@code LambdaMetafactory}, which generates
+ * a class implementing {@code Function}, {@code ToIntFunction} or
+ * {@code ToLongFunction} that calls the getter directly. Primitive getters are
+ * read without boxing. Static methods, fields and getters that can not be
+ * privately looked up, for example in a different module, are invoked through
+ * a cached {@code MethodHandle} instead. Both forms are inlined by the JIT,
+ * unlike {@code Method.invoke} which boxes and copies its arguments on every
+ * call.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+final class MemberAccessor {
+
+	/** Generic accessor type, {@code (Object)Object}. */
+	private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+	/** Int accessor type, {@code (Object)int}. */
+	private static final MethodType INT_GETTER = MethodType.methodType(int.class, Object.class);
+
+	/** Long accessor type, {@code (Object)long}. */
+	private static final MethodType LONG_GETTER = MethodType.methodType(long.class, Object.class);
+
+	/**
+	 * Creates an accessor for a no-argument method.
+	 *
+	 * @param method the method
+	 * @return the member accessor
+	 * @throws MetaException if method takes arguments or is not accessible
+	 */
+	public static MemberAccessor ofMethod(Method method) throws MetaException {
+		if (method.getParameterCount() != 0)
+			throw new MetaException("reflected method has parameters [%s]".formatted(method));
+
+		Lookup lookup = lookupFor(method.getDeclaringClass());
+
+		try {
+			MethodHandle getter = lookup.unreflect(method);
+
+			if (!Modifier.isStatic(method.getModifiers()) && lookup.hasFullPrivilegeAccess())
+				return ofLambda(lookup, getter, method.getReturnType());
+
+			return ofHandle(getter, method.getReturnType());
+
+		} catch (IllegalAccessException e) {
+			throw new MetaException("unable to access reflected method [%s]".formatted(method), e);
+		}
+	}
+
+	/**
+	 * Creates an accessor for a field.
+	 *
+	 * @param field the field
+	 * @return the member accessor
+	 * @throws MetaException if field is not accessible
+	 */
+	public static MemberAccessor ofField(Field field) throws MetaException {
+		try {
+			return ofHandle(lookupFor(field.getDeclaringClass()).unreflectGetter(field), field.getType());
+
+		} catch (IllegalAccessException e) {
+			throw new MetaException("unable to access reflected field [%s]".formatted(field), e);
+		}
+	}
+
+	/**
+	 * Gets a lookup with private access to the declaring class, if the class's
+	 * module allows it, otherwise a public lookup.
+	 *
+	 * @param declaringClass the declaring class
+	 * @return the lookup
+	 */
+	private static Lookup lookupFor(Class<?> declaringClass) {
+		try {
+			return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+		} catch (IllegalAccessException e) {
+			return MethodHandles.publicLookup();
+		}
+	}
+
+	/**
+	 * Spins lambda based accessors for an instance getter.
+	 *
+	 * @param lookup     lookup with full privilege access to the declaring class
+	 * @param getter     the getter handle
+	 * @param returnType the getter's return type
+	 * @return the member accessor
+	 */
+	private static MemberAccessor ofLambda(Lookup lookup, MethodHandle getter, Class<?> returnType) {
+		MethodType instantiated = getter.type();
+
+		if (isIntType(returnType)) {
+			ToIntFunction<Object> asInt = spin(lookup, ToIntFunction.class, "applyAsInt", INT_GETTER,
+					getter, instantiated.changeReturnType(int.class));
+
+			return new MemberAccessor(boxed(asInt, returnType), asInt, asInt::applyAsInt);
+		}
+
+		if (returnType == long.class) {
+			ToLongFunction<Object> asLong = spin(lookup, ToLongFunction.class, "applyAsLong", LONG_GETTER,
+					getter, instantiated);
+
+			return new MemberAccessor(asLong::applyAsLong, t -> (int) asLong.applyAsLong(t), asLong);
+		}
+
+		Function<Object, Object> asObject = spin(lookup, Function.class, "apply", OBJECT_GETTER,
+				getter, instantiated.wrap());
+
+		return new MemberAccessor(asObject);
+	}
+
+	/**
+	 * Spins a single lambda implementing a functional interface.
+	 *
+	 * @param <T>           the functional interface type
+	 * @param lookup        the caller lookup
+	 * @param interfaceType the functional interface
+	 * @param methodName    the interface method name
+	 * @param erasedType    the erased interface method type
+	 * @param getter        the implementation handle
+	 * @param instantiated  the instantiated method type
+	 * @return the lambda instance
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T spin(Lookup lookup, Class<?> interfaceType, String methodName, MethodType erasedType,
+			MethodHandle getter, MethodType instantiated) {
+		try {
+			CallSite site = LambdaMetafactory.metafactory(
+					lookup,
+					methodName,
+					MethodType.methodType(interfaceType),
+					erasedType,
+					getter,
+					instantiated);
+
+			return (T) site.getTarget().invoke();
+
+		} catch (Throwable e) {
+			throw new MetaException("unable to bind reflected getter [%s]".formatted(getter), e);
+		}
+	}
+
+	/**
+	 * Wraps a getter handle, adapted to the accessor's erased types.
+	 *
+	 * @param getter     the getter handle
+	 * @param returnType the getter's return type
+	 * @return the member accessor
+	 */
+	private static MemberAccessor ofHandle(MethodHandle getter, Class<?> returnType) {
+		/* Static getters ignore the target */
+		if (getter.type().parameterCount() == 0)
+			getter = MethodHandles.dropArguments(getter, 0, Object.class);
+
+		final MethodHandle asObject = getter.asType(OBJECT_GETTER);
+
+		if (isIntType(returnType) || returnType == long.class) {
+			final MethodHandle asLong = getter.asType(LONG_GETTER);
+
+			return new MemberAccessor(
+					t -> invokeObject(asObject, t),
+					t -> (int) invokeLong(asLong, t),
+					t -> invokeLong(asLong, t));
+		}
+
+		return new MemberAccessor(t -> invokeObject(asObject, t));
+	}
+
+	/**
+	 * Boxes an int getter's value into the wrapper of the getter's actual return
+	 * type, so that narrow getters are not reported as {@code Integer}.
+	 *
+	 * @param asInt      the int getter
+	 * @param returnType the getter's return type, an int type
+	 * @return the boxing getter
+	 */
+	private static Function<Object, Object> boxed(ToIntFunction<Object> asInt, Class<?> returnType) {
+		if (returnType == byte.class)
+			return t -> (byte) asInt.applyAsInt(t);
+
+		if (returnType == short.class)
+			return t -> (short) asInt.applyAsInt(t);
+
+		if (returnType == char.class)
+			return t -> (char) asInt.applyAsInt(t);
+
+		return asInt::applyAsInt;
+	}
+
+	private static Object invokeObject(MethodHandle handle, Object target) {
+		try {
+			return (Object) handle.invokeExact(target);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new MetaException("unable to get reflected value [%s]".formatted(handle), e);
+		}
+	}
+
+	private static long invokeLong(MethodHandle handle, Object target) {
+		try {
+			return (long) handle.invokeExact(target);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new MetaException("unable to get reflected value [%s]".formatted(handle), e);
+		}
+	}
+
+	private static boolean isIntType(Class<?> type) {
+		return type == int.class || type == short.class || type == char.class || type == byte.class;
+	}
+
+	/** The generic getter, boxing primitive values. */
+	private final Function<Object, Object> asObject;
+
+	/** The int getter. */
+	private final ToIntFunction<Object> asInt;
+
+	/** The long getter. */
+	private final ToLongFunction<Object> asLong;
+
+	/**
+	 * Instantiates a new accessor for a non-integral value.
+	 *
+	 * @param asObject the generic getter
+	 */
+	private MemberAccessor(Function<Object, Object> asObject) {
+		this(asObject,
+				t -> ((Number) asObject.apply(t)).intValue(),
+				t -> ((Number) asObject.apply(t)).longValue());
+	}
+
+	/**
+	 * Instantiates a new member accessor.
+	 *
+	 * @param asObject the generic getter
+	 * @param asInt    the int getter
+	 * @param asLong   the long getter
+	 */
+	private MemberAccessor(Function<Object, Object> asObject, ToIntFunction<Object> asInt,
+			ToLongFunction<Object> asLong) {
+		this.asObject = asObject;
+		this.asInt = asInt;
+		this.asLong = asLong;
+	}
+
+	/**
+	 * Gets the value, boxing primitive values.
+	 *
+	 * @param target the target, ignored for static members
+	 * @return the value
+	 */
+	public Object get(Object target) {
+		return asObject.apply(target);
+	}
+
+	/**
+	 * Gets the value as an int. Long values are truncated.
+	 *
+	 * @param target the target, ignored for static members
+	 * @return the value
+	 * @throws ClassCastException if value is not numeric
+	 */
+	public int getInt(Object target) throws ClassCastException {
+		return asInt.applyAsInt(target);
+	}
+
+	/**
+	 * Gets the value as a long.
+	 *
+	 * @param target the target, ignored for static members
+	 * @return the value
+	 * @throws ClassCastException if value is not numeric
+	 */
+	public long getLong(Object target) throws ClassCastException {
+		return asLong.applyAsLong(target);
+	}
+}
@@ -98,6 +98,35 @@ public final class MetaField extends MetaElement {
 		return member.getValue(target);
 	}
 
+	/**
+	 * Gets the value as an int, without boxing primitive values.
+	 *
+	 * @return the value
+	 * @throws MetaException if value is not numeric
+	 */
+	public int getInt() throws MetaException {
+		return member.getInt(target);
+	}
+
+	/**
+	 * Gets the value as a long, without boxing primitive values.
+	 *
+	 * @return the value
+	 * @throws MetaException if value is not numeric
+	 */
+	public long getLong() throws MetaException {
+		return member.getLong(target);
+	}
+
+	/**
+	 * Gets the value type.
+	 *
+	 * @return the value type, a primitive class for primitive values
+	 */
+	public Class<?> getValueType() {
+		return member.getValueType();
+	}
+
 	/**
 	 * Sets the.
 	 *
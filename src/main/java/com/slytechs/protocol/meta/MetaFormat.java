@@ -81,9 +81,11 @@ public abstract class MetaFormat extends Format implements MetaDomain {
 		if (!(obj instanceof MetaElement element))
 			throw new IllegalArgumentException("Only Meta elements supported by MetaFormat");
 
-		StringBuilder b = formatMeta(element, toAppendTo, detail);
-
-		return b;
+		try {
+			return formatMeta(element, toAppendTo, detail);
+		} finally {
+			releaseMeta(element);
+		}
 	}
 
 	/**
@@ -103,9 +105,13 @@ public abstract class MetaFormat extends Format implements MetaDomain {
 		if (!(obj instanceof MetaElement element))
 			throw new IllegalArgumentException("Only Meta elements supported by MetaFormat");
 
-		StringBuilder b = formatMeta(element, new StringBuilder(), getDetail());
+		try {
+			StringBuilder b = formatMeta(element, new StringBuilder(), getDetail());
 
-		return toAppendTo.append(b);
+			return toAppendTo.append(b);
+		} finally {
+			releaseMeta(element);
+		}
 	}
 
 	/**
@@ -130,6 +136,16 @@ public abstract class MetaFormat extends Format implements MetaDomain {
 	 */
 	protected abstract Object convertToMetaIfPossible(Object obj);
 
+	/**
+	 * Releases a meta element returned by {@link #convertToMetaIfPossible}, once
+	 * it has been formatted. Subclasses which reuse meta elements between calls
+	 * return them for reuse here. The default does nothing.
+	 *
+	 * @param element the element
+	 */
+	protected void releaseMeta(MetaElement element) {
+	}
+
 	/**
 	 * Format meta.
 	 *
@@ -239,12 +239,12 @@ public final class MetaHeader
 	}
 
 	/**
-	 * Buffer.
+	 * Buffer containing only the header's bytes, starting at index 0.
 	 *
 	 * @return the byte buffer
 	 */
 	public ByteBuffer buffer() {
-		return header.buffer();
+		return header.headerBuffer();
 	}
 
 	/**
@@ -19,6 +19,7 @@ package com.slytechs.protocol.meta;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 import com.slytechs.protocol.Frame;
 import com.slytechs.protocol.Header;
 import com.slytechs.protocol.HeaderFactory;
+import com.slytechs.protocol.HeaderLookup;
 import com.slytechs.protocol.HeaderNotFound;
 import com.slytechs.protocol.Packet;
 import com.slytechs.protocol.Payload;
@@ -46,17 +48,38 @@ public final class MetaPacket
 		extends MetaElement
 		implements Iterable<MetaHeader>, MetaMapped {
 
-	/** The header factory. */
+	/** The header factory, supplying one reusable instance per header id. */
 	private final HeaderFactory headerFactory = HeaderFactory.newInstance();
 
+	/** The domain of all headers. */
+	private final MetaDomain ctx;
+
 	/** The packet. */
-	private final Packet packet;
+	private Packet packet;
 
-	/** The headers. */
+	/** The headers, materialized on first access after binding. */
 	private final List<MetaHeader> headers = new ArrayList<>();
 
+	/** True once headers have been materialized for the bound packet. */
+	private boolean materialized;
+
 	/** The last header. */
-	private final MetaHeader lastHeader;
+	private MetaHeader lastHeader;
+
+	/** Cached frame header, rebound to every packet. */
+	private MetaHeader frameHeader;
+
+	/** Cached payload header, rebound to every packet. */
+	private MetaHeader payloadHeader;
+
+	/** Header cache keys, the header id and the id of its parent for options. */
+	private long[] cacheKeys = new long[8];
+
+	/** Header cache, wrapping the header instances of the header factory. */
+	private MetaHeader[] cacheHeaders = new MetaHeader[8];
+
+	/** Number of cached headers. */
+	private int cacheSize;
 
 	/**
 	 * Instantiates a new meta packet.
@@ -68,48 +91,123 @@ public final class MetaPacket
 	}
 
 	/**
-	 * Instantiates a new meta packet.
+	 * Instantiates a new meta packet. Headers are not materialized until first
+	 * accessed.
 	 *
 	 * @param ctx    the ctx
 	 * @param packet the packet
 	 */
 	public MetaPacket(MetaDomain ctx, Packet packet) {
 		super(ctx, Global.compute(Packet.class, ReflectedClass::parse));
+		this.ctx = ctx;
 		this.packet = packet;
+	}
+
+	/**
+	 * Binds this meta packet to another packet. Meta headers and fields
+	 * materialized for previous packets are reused, only the underlying headers
+	 * are rebound. Previously returned header lists and meta headers are only
+	 * valid until the next bind.
+	 *
+	 * @param newPacket the new packet
+	 * @return this meta packet
+	 */
+	public MetaPacket bind(Packet newPacket) {
+		this.packet = newPacket;
+		this.materialized = false;
+		this.lastHeader = null;
+		this.headers.clear();
+
+		return this;
+	}
+
+	/**
+	 * Materializes the headers of the bound packet, if not already done.
+	 *
+	 * @return the headers
+	 */
+	private List<MetaHeader> materialize() {
+		if (materialized)
+			return headers;
 
 		try {
-			headers.add(new MetaHeader(ctx, this, packet.getHeader(new Frame(), 0)));
+			if (frameHeader == null)
+				frameHeader = new MetaHeader(ctx, this, new Frame());
+
+			packet.getHeader((Header) frameHeader.getTarget(), 0);
+			headers.add(frameHeader);
 
 			int lastId = 0;
-			long[] compactArray = packet.descriptor().listHeaders();
-			for (long cp : compactArray) {
+			HeaderLookup lookup = packet.descriptor();
+			for (int i = 0, count = lookup.headerCount(); i < count; i++) {
+				long cp = lookup.headerAt(i);
 				int id = CompactDescriptor.decodeId(cp);
 				int packId = PackId.decodePackId(id);
 				boolean isOption = packId == ProtocolPackTable.PACK_ID_OPTIONS;
 
-				final Header header;
-				if (isOption) {
-					header = headerFactory.getExtension(lastId, id);
+				MetaHeader metaHdr = isOption
+						? cachedHeader(lastId, id)
+						: cachedHeader(0, id);
 
-				} else {
-					header = headerFactory.get(id);
+				if (!isOption)
 					lastId = id;
-				}
-
-				packet.getHeader(header, 0);
 
-				MetaHeader metaHdr = new MetaHeader(ctx, this, header);
+				packet.getHeader((Header) metaHdr.getTarget(), 0);
 
 				headers.add(metaHdr);
 			}
 
 			this.lastHeader = headers.get(headers.size() - 1);
 
-			if (packet.hasPayload())
-				headers.add(new MetaHeader(ctx, this, packet.getHeader(new Payload(), 0)));
+			if (packet.hasPayload()) {
+				if (payloadHeader == null)
+					payloadHeader = new MetaHeader(ctx, this, new Payload());
+
+				packet.getHeader((Header) payloadHeader.getTarget(), 0);
+				headers.add(payloadHeader);
+			}
+
 		} catch (HeaderNotFound e) {
+			headers.clear();
+
 			throw new IllegalStateException(e);
 		}
+
+		materialized = true;
+
+		return headers;
+	}
+
+	/**
+	 * Gets a cached meta header, or creates one wrapping the header factory's
+	 * instance for the id.
+	 *
+	 * @param parentId the parent header id for options, otherwise 0
+	 * @param id       the header id
+	 * @return the meta header
+	 */
+	private MetaHeader cachedHeader(int parentId, int id) {
+		long key = ((long) parentId << 32) | Integer.toUnsignedLong(id);
+
+		for (int i = 0; i < cacheSize; i++)
+			if (cacheKeys[i] == key)
+				return cacheHeaders[i];
+
+		Header header = (parentId == 0)
+				? headerFactory.get(id)
+				: headerFactory.getExtension(parentId, id);
+
+		MetaHeader metaHdr = new MetaHeader(ctx, this, header);
+
+		if (cacheSize == cacheKeys.length) {
+			cacheKeys = Arrays.copyOf(cacheKeys, cacheSize * 2);
+			cacheHeaders = Arrays.copyOf(cacheHeaders, cacheSize * 2);
+		}
+
+		cacheKeys[cacheSize] = key;
+		cacheHeaders[cacheSize++] = metaHdr;
+
+		return metaHdr;
 	}
 
 	/**
@@ -138,7 +236,7 @@ public final class MetaPacket
 	 * @return the list
 	 */
 	public List<MetaHeader> listHeaders() {
-		return headers;
+		return materialize();
 	}
 
 	/**
@@ -148,7 +246,7 @@ public final class MetaPacket
 	 * @return the header
 	 */
 	public MetaHeader getHeader(String name) {
-		return headers.stream()
+		return listHeaders().stream()
 				.filter(h -> h.name().equals(name))
 				.findAny()
 				.orElse(null);
@@ -161,10 +259,13 @@ public final class MetaPacket
 	 * @return the optional
 	 */
 	public Optional<MetaHeader> findHeader(String name) {
-		if (name.equals("last"))
+		if (name.equals("last")) {
+			materialize();
+
 			return Optional.of(lastHeader);
+		}
 
-		return headers.stream()
+		return listHeaders().stream()
 //				.peek(h -> System.out.println("findHeader:: " + h.name()))
 				.filter(h -> h.name().equals(name))
 				.findAny();
@@ -183,7 +284,7 @@ public final class MetaPacket
 	@Override
 	public <K, V> V get(K key) {
 		String name = (String) key;
-		return (V) headers.stream()
+		return (V) listHeaders().stream()
 				.filter(h -> h.name().equals(name))
 				.findAny()
 				.orElse(null);
@@ -197,7 +298,7 @@ public final class MetaPacket
 	 */
 	@Override
 	public int size() {
-		return headers.size();
+		return listHeaders().size();
 	}
 
 	/**
@@ -209,7 +310,7 @@ public final class MetaPacket
 	@Override
 	public String toString() {
 		return "MetaPacket [%s]"
-				.formatted(headers.stream()
+				.formatted(listHeaders().stream()
 						.map(MetaHeader::name)
 						.collect(Collectors.joining(", ")));
 	}
@@ -18,6 +18,7 @@
 package com.slytechs.protocol.meta;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.slytechs.protocol.Header;
 import com.slytechs.protocol.Packet;
@@ -39,12 +40,30 @@ public final class PacketFormat extends MetaFormat {
 	/** The Constant DEFAULT_LINE_FORMAT. */
 	private static final String DEFAULT_LINE_FORMAT = "%15s = %-30s";
 
+	/** Label width of the default line format. */
+	private static final int LINE_LABEL_WIDTH = 15;
+
+	/** Value width of the default line format. */
+	private static final int LINE_VALUE_WIDTH = 30;
+
+	/** Width of the label column on the left of every line. */
+	private static final int LEFT_WIDTH = 10;
+
 	/** The Constant serialVersionUID. */
 	private static final long serialVersionUID = -729988509291767979L;
 
 	/** The field line. */
 	private final String fieldLine;
 
+	/** Meta packet reused by format calls, rebound to each packet. */
+	private transient MetaPacket reusablePacket;
+
+	/** True while the reusable meta packet is in use by a format call. */
+	private final AtomicBoolean reusablePacketInUse = new AtomicBoolean();
+
+	/** Meta header of the last formatted header, reused for the same header. */
+	private transient volatile MetaHeader lastMetaHeader;
+
 	/**
 	 * Instantiates a new packet format.
 	 */
@@ -85,15 +104,49 @@ public final class PacketFormat extends MetaFormat {
 	 */
 	@Override
 	protected Object convertToMetaIfPossible(Object obj) {
-		if (obj instanceof Header header)
-			return new MetaHeader(getContext(), header);
+		if (obj instanceof Header header) {
+			MetaHeader meta = lastMetaHeader;
+			if (meta == null || meta.getTarget() != header)
+				lastMetaHeader = meta = new MetaHeader(getContext(), header);
+
+			return meta;
+		}
 
 		if (obj instanceof Packet packet)
-			return new MetaPacket(getContext(), packet);
+			return acquireMetaPacket(packet);
 
 		return obj;
 	}
 
+	/**
+	 * Acquires the reusable meta packet, bound to a packet. If it is already in
+	 * use by another thread, a new meta packet is returned instead.
+	 *
+	 * @param packet the packet
+	 * @return the meta packet
+	 */
+	private MetaPacket acquireMetaPacket(Packet packet) {
+		if (!reusablePacketInUse.compareAndSet(false, true))
+			return new MetaPacket(getContext(), packet);
+
+		if (reusablePacket == null)
+			reusablePacket = new MetaPacket(getContext(), packet);
+
+		return reusablePacket.bind(packet);
+	}
+
+	/**
+	 * Returns the reusable meta packet, once formatted.
+	 *
+	 * @param element the element
+	 * @see com.slytechs.protocol.meta.MetaFormat#releaseMeta(com.slytechs.protocol.meta.MetaElement)
+	 */
+	@Override
+	protected void releaseMeta(MetaElement element) {
+		if (element == reusablePacket && element != null)
+			reusablePacketInUse.set(false);
+	}
+
 	/**
 	 * Format field.
 	 *
@@ -117,6 +170,18 @@ public final class PacketFormat extends MetaFormat {
 				return formatHexdump(field, toAppendTo);
 			}
 
+			var template = display.template();
+			if (template != null && template.canFormat(field) && fieldLine == DEFAULT_LINE_FORMAT) {
+				int start = toAppendTo.length();
+				DisplayTemplate.padLeft(toAppendTo.append(label), start, LINE_LABEL_WIDTH)
+						.append(" = ");
+
+				start = toAppendTo.length();
+				template.format(field.getParentHeader(), field, toAppendTo);
+
+				return DisplayTemplate.padRight(toAppendTo, start, LINE_VALUE_WIDTH);
+			}
+
 			var valueArgs = buildDisplayArgs(field.getParentHeader(), field, displayFormat);
 			displayFormat = super.rewriteDisplayArgs(displayFormat);
 
@@ -219,7 +284,7 @@ public final class PacketFormat extends MetaFormat {
 	public StringBuilder formatHexdump(MetaField field, StringBuilder toAppendTo) {
 		var offsetField = field.searchForField(new MetaPath("offset"))
 				.orElse(null);
-		int offset = offsetField.get();
+		int offset = offsetField.getInt();
 		byte[] array = field.get();
 
 		return formatHexdump(array, offset, toAppendTo);
@@ -304,8 +369,9 @@ public final class PacketFormat extends MetaFormat {
 	 * @return the string builder
 	 */
 	private StringBuilder formatLeft(String label, StringBuilder toAppendTo) {
-		return toAppendTo
-				.append("%-10s".formatted(label + ":"));
+		int start = toAppendTo.length();
+
+		return DisplayTemplate.padRight(toAppendTo.append(label).append(':'), start, LEFT_WIDTH);
 	}
 
 	/**
@@ -360,13 +426,12 @@ public final class PacketFormat extends MetaFormat {
 			return toAppendTo;
 
 		String label = display.label(packet.getMeta(MetaInfo.class));
+		var headers = packet.listHeaders();
 
 		formatLeft(label, toAppendTo)
 				.append("  ");
 		formatSummary(packet, toAppendTo, detail);
 
-		var headers = packet.listHeaders();
-
 		for (MetaHeader header : headers)
 			formatHeader(header, toAppendTo, detail);
 
@@ -390,6 +455,20 @@ public final class PacketFormat extends MetaFormat {
 		if (displayFormat.isBlank())
 			return toAppendTo;
 
+		var template = display.template();
+		if (template != null && template.canFormat(element)) {
+			try {
+				return template.format(element, element, toAppendTo)
+						.append("\n");
+
+			} catch (Throwable e) {
+				toAppendTo
+						.append("ERROR: %s".formatted(e.getMessage()));
+
+				throw new IllegalStateException(display.label(), e);
+			}
+		}
+
 		var args = super.buildDisplayArgs(element, element, displayFormat);
 		displayFormat = super.rewriteDisplayArgs(displayFormat);
 
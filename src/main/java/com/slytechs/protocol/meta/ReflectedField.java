@@ -85,6 +85,9 @@ class ReflectedField extends ReflectedMember {
 	/** The field. */
 	private final Field field;
 
+	/** Precompiled getter. */
+	private final MemberAccessor accessor;
+
 	/**
 	 * Instantiates a new reflected field.
 	 *
@@ -94,6 +97,7 @@ class ReflectedField extends ReflectedMember {
 	private ReflectedField(Field field, MetaInfo metaContainer) {
 		super(metaContainer);
 		this.field = field;
+		this.accessor = MemberAccessor.ofField(field);
 	}
 
 	/**
@@ -112,15 +116,44 @@ class ReflectedField extends ReflectedMember {
 	 * @param target the target
 	 * @return the value
 	 */
+	@Override
 	@SuppressWarnings("unchecked")
 	public <T> T getValue(Object target) {
+		try {
+			return (T) accessor.get(target);
+		} catch (RuntimeException e) {
+			throw new MetaException("unable to get reflected field value [%s]".formatted(field.toString()), e);
+		}
+	}
 
+	/**
+	 * Gets the value as an int, without boxing.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @see com.slytechs.protocol.meta.ReflectedMember#getInt(java.lang.Object)
+	 */
+	@Override
+	public int getInt(Object target) {
 		try {
-			if (isStatic(field))
-				return (T) field.get(null);
-			else
-				return (T) field.get(target);
-		} catch (IllegalArgumentException | IllegalAccessException e) {
+			return accessor.getInt(target);
+		} catch (RuntimeException e) {
+			throw new MetaException("unable to get reflected field value [%s]".formatted(field.toString()), e);
+		}
+	}
+
+	/**
+	 * Gets the value as a long, without boxing.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @see com.slytechs.protocol.meta.ReflectedMember#getLong(java.lang.Object)
+	 */
+	@Override
+	public long getLong(Object target) {
+		try {
+			return accessor.getLong(target);
+		} catch (RuntimeException e) {
 			throw new MetaException("unable to get reflected field value [%s]".formatted(field.toString()), e);
 		}
 	}
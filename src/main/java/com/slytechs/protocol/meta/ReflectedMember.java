@@ -47,6 +47,35 @@ public abstract class ReflectedMember extends ReflectedComponent {
 	 */
 	public abstract <T> T getValue(Object target, Object... args);
 
+	/**
+	 * Gets the value of a getter member, which takes no arguments.
+	 *
+	 * @param <T>    the generic type
+	 * @param target the target
+	 * @return the value
+	 */
+	public abstract <T> T getValue(Object target);
+
+	/**
+	 * Gets the value of a getter member as an int, without boxing primitive
+	 * values. Long values are truncated.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @throws MetaException if value is not numeric
+	 */
+	public abstract int getInt(Object target) throws MetaException;
+
+	/**
+	 * Gets the value of a getter member as a long, without boxing primitive
+	 * values.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @throws MetaException if value is not numeric
+	 */
+	public abstract long getLong(Object target) throws MetaException;
+
 	/**
 	 * Sets the value.
 	 *
@@ -95,6 +95,9 @@ class ReflectedMethod extends ReflectedMember {
 	/** The method. */
 	private final Method method;
 
+	/** Precompiled getter, or null if method takes arguments. */
+	private final MemberAccessor accessor;
+
 	/**
 	 * Instantiates a new reflected method.
 	 *
@@ -104,6 +107,9 @@ class ReflectedMethod extends ReflectedMember {
 	private ReflectedMethod(Method method, MetaInfo metaInfo) {
 		super(metaInfo);
 		this.method = method;
+		this.accessor = (method.getParameterCount() == 0)
+				? MemberAccessor.ofMethod(method)
+				: null;
 	}
 
 	/**
@@ -128,6 +134,9 @@ class ReflectedMethod extends ReflectedMember {
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T> T getValue(Object target, Object... args) {
+		if (args.length == 0 && accessor != null)
+			return getValue(target);
+
 		try {
 			if (isStatic(method))
 				return (T) method.invoke(null, args);
@@ -139,6 +148,72 @@ class ReflectedMethod extends ReflectedMember {
 		}
 	}
 
+	/**
+	 * Gets the value using the precompiled getter.
+	 *
+	 * @param <T>    the generic type
+	 * @param target the target
+	 * @return the value
+	 * @see com.slytechs.protocol.meta.ReflectedMember#getValue(java.lang.Object)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T getValue(Object target) {
+		try {
+			return (T) accessor().get(target);
+		} catch (RuntimeException e) {
+			throw new MetaException("unable to get reflected method value [%s]"
+					.formatted(method.toString()), e);
+		}
+	}
+
+	/**
+	 * Gets the value as an int, without boxing.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @see com.slytechs.protocol.meta.ReflectedMember#getInt(java.lang.Object)
+	 */
+	@Override
+	public int getInt(Object target) {
+		try {
+			return accessor().getInt(target);
+		} catch (RuntimeException e) {
+			throw new MetaException("unable to get reflected method value [%s]"
+					.formatted(method.toString()), e);
+		}
+	}
+
+	/**
+	 * Gets the value as a long, without boxing.
+	 *
+	 * @param target the target
+	 * @return the value
+	 * @see com.slytechs.protocol.meta.ReflectedMember#getLong(java.lang.Object)
+	 */
+	@Override
+	public long getLong(Object target) {
+		try {
+			return accessor().getLong(target);
+		} catch (RuntimeException e) {
+			throw new MetaException("unable to get reflected method value [%s]"
+					.formatted(method.toString()), e);
+		}
+	}
+
+	/**
+	 * Gets the precompiled getter.
+	 *
+	 * @return the member accessor
+	 * @throws MetaException if method takes arguments
+	 */
+	private MemberAccessor accessor() throws MetaException {
+		if (accessor == null)
+			throw new MetaException("reflected method has parameters [%s]".formatted(method));
+
+		return accessor;
+	}
+
 	/**
 	 * Sets the value.
 	 *
@@ -30,6 +30,7 @@ import com.slytechs.protocol.Header;
 import com.slytechs.protocol.HeaderExtensionInfo;
 import com.slytechs.protocol.HeaderInfo;
 import com.slytechs.protocol.Other;
+import com.slytechs.protocol.PacketProjector;
 import com.slytechs.protocol.descriptor.DissectorExtension;
 import com.slytechs.protocol.descriptor.DissectorExtension.DissectorExtensionFactory;
 import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
@@ -205,6 +206,27 @@ public abstract class Pack<E extends Enum<? extends HeaderInfo>> {
 		return pack.findHeader(id);
 	}
 
+	/**
+	 * Finds a projectable protocol field, such as {@code "ip4.src"}, within any of
+	 * the loaded packs.
+	 *
+	 * @param path the field path
+	 * @return optional field
+	 * @see PacketProjector#of(String...)
+	 */
+	public static Optional<PacketProjector.Field> lookupField(String path) {
+		for (Pack<?> pack : packTable) {
+			if (!pack.isPackLoaded())
+				continue;
+
+			Optional<PacketProjector.Field> field = pack.findField(path);
+			if (field.isPresent())
+				return field;
+		}
+
+		return Optional.empty();
+	}
+
 	/**
 	 * Finds information for a protocol header extension of a parent header within
 	 * this pack.
@@ -265,6 +287,17 @@ public abstract class Pack<E extends Enum<? extends HeaderInfo>> {
 	 */
 	public abstract Optional<HeaderInfo> findHeader(int id);
 
+	/**
+	 * Finds a projectable protocol field within this pack. Default implementation
+	 * returns an empty result.
+	 *
+	 * @param path the field path, such as {@code "ip4.src"}
+	 * @return optional field
+	 */
+	public Optional<PacketProjector.Field> findField(String path) {
+		return Optional.empty();
+	}
+
 	/**
 	 * Count all pack extensions.
 	 *
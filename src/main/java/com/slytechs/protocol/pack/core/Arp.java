@@ -61,7 +61,7 @@ public final class Arp extends Header {
 	 */
 	@Meta
 	public int hardwareSize() {
-		return Byte.toUnsignedInt(ArpLayout.HSIZE.getByte(buffer()));
+		return Byte.toUnsignedInt(ArpLayout.HSIZE.getByteAt(bufferOffset(), buffer()));
 	}
 
 	/**
@@ -71,7 +71,7 @@ public final class Arp extends Header {
 	 */
 	@Meta
 	public int hardwareType() {
-		return Short.toUnsignedInt(ArpLayout.HTYPE.getShort(buffer()));
+		return Short.toUnsignedInt(ArpLayout.HTYPE.getShortAt(bufferOffset(), buffer()));
 	}
 
 	/**
@@ -81,7 +81,7 @@ public final class Arp extends Header {
 	 */
 	@Meta
 	public int opcode() {
-		return Short.toUnsignedInt(ArpLayout.OPCODE.getShort(buffer()));
+		return Short.toUnsignedInt(ArpLayout.OPCODE.getShortAt(bufferOffset(), buffer()));
 	}
 
 	/**
@@ -100,7 +100,7 @@ public final class Arp extends Header {
 	 */
 	@Meta
 	public int protocolSize() {
-		return Byte.toUnsignedInt(ArpLayout.PSIZE.getByte(buffer()));
+		return Byte.toUnsignedInt(ArpLayout.PSIZE.getByteAt(bufferOffset(), buffer()));
 	}
 
 	/**
@@ -110,7 +110,7 @@ public final class Arp extends Header {
 	 */
 	@Meta
 	public int protocolType() {
-		return Short.toUnsignedInt(ArpLayout.PTYPE.getShort(buffer()));
+		return Short.toUnsignedInt(ArpLayout.PTYPE.getShortAt(bufferOffset(), buffer()));
 	}
 
 	/**
@@ -141,7 +141,7 @@ public final class Arp extends Header {
 	 * @return the byte[]
 	 */
 	public byte[] senderMacAddress(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ARP_FIELD_SHA, dst, offset, CoreConstants.ARP_LEN_HALEN);
+		buffer().get(bufferOffset() + CoreConstants.ARP_FIELD_SHA, dst, offset, CoreConstants.ARP_LEN_HALEN);
 		return dst;
 	}
 
@@ -173,7 +173,7 @@ public final class Arp extends Header {
 	 * @return the byte[]
 	 */
 	public byte[] senderProtocolAddress(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ARP_FIELD_SPA, dst, offset, CoreConstants.ARP_LEN_PALEN);
+		buffer().get(bufferOffset() + CoreConstants.ARP_FIELD_SPA, dst, offset, CoreConstants.ARP_LEN_PALEN);
 		return dst;
 	}
 
@@ -205,7 +205,7 @@ public final class Arp extends Header {
 	 * @return the byte[]
 	 */
 	public byte[] targetMacAddress(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ARP_FIELD_THA, dst, offset, CoreConstants.ARP_LEN_HALEN);
+		buffer().get(bufferOffset() + CoreConstants.ARP_FIELD_THA, dst, offset, CoreConstants.ARP_LEN_HALEN);
 		return dst;
 	}
 
@@ -237,8 +237,18 @@ public final class Arp extends Header {
 	 * @return the byte[]
 	 */
 	public byte[] targetProtocolAddress(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ARP_FIELD_TPA, dst, offset, CoreConstants.ARP_LEN_PALEN);
+		buffer().get(bufferOffset() + CoreConstants.ARP_FIELD_TPA, dst, offset, CoreConstants.ARP_LEN_PALEN);
 		return dst;
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.ArrayField;
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
@@ -97,7 +99,7 @@ enum ArpLayout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	ArpLayout(String path) {
-		this.field = Struct.STRUCT.bitField(path);
+		this.field = Struct.STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
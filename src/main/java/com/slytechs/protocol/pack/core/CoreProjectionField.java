@@ -0,0 +1,155 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static com.slytechs.protocol.pack.core.constants.CoreIdTable.*;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import com.slytechs.protocol.PacketProjector;
+import com.slytechs.protocol.runtime.internal.layout.BitField;
+import com.slytechs.protocol.runtime.internal.layout.CarrierField;
+
+/**
+ * Core protocol fields available to a {@link PacketProjector}. Field paths are
+ * made up of the protocol name and the name of the header accessor method for
+ * the same field, for example {@code "ip4.totalLength"} and
+ * {@link Ip4#totalLength()}.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ * @author Mark Bednarczyk
+ */
+public enum CoreProjectionField implements PacketProjector.Field {
+
+	// @formatter:off
+	IP4_VERSION         ("ip4.version",         CORE_ID_IPv4, Ip4Layout.VERSION),
+	IP4_HDR_LEN         ("ip4.hdrLen",          CORE_ID_IPv4, Ip4Layout.HDR_LEN),
+	IP4_DSFIELD         ("ip4.dsfield",         CORE_ID_IPv4, Ip4Layout.DSFIELD),
+	IP4_TOTAL_LENGTH    ("ip4.totalLength",     CORE_ID_IPv4, Ip4Layout.TOTAL_LENGTH),
+	IP4_IDENTIFICATION  ("ip4.identification",  CORE_ID_IPv4, Ip4Layout.ID),
+	IP4_FLAGS           ("ip4.flags",           CORE_ID_IPv4, Ip4Layout.FLAGS),
+	IP4_FRAG_OFFSET     ("ip4.fragOffset",      CORE_ID_IPv4, Ip4Layout.FRAG_OFFSET),
+	IP4_TTL             ("ip4.ttl",             CORE_ID_IPv4, Ip4Layout.TTL),
+	IP4_PROTOCOL        ("ip4.protocol",        CORE_ID_IPv4, Ip4Layout.PROTO),
+	IP4_CHECKSUM        ("ip4.checksum",        CORE_ID_IPv4, Ip4Layout.CHECKSUM),
+	IP4_SRC             ("ip4.src",             CORE_ID_IPv4, Ip4Layout.SRC),
+	IP4_DST             ("ip4.dst",             CORE_ID_IPv4, Ip4Layout.DST),
+
+	TCP_SRC_PORT        ("tcp.srcPort",         CORE_ID_TCP,  TcpStruct.SRC_PORT),
+	TCP_DST_PORT        ("tcp.dstPort",         CORE_ID_TCP,  TcpStruct.DST_PORT),
+	TCP_SEQ             ("tcp.seq",             CORE_ID_TCP,  TcpStruct.SEQ),
+	TCP_ACK             ("tcp.ack",             CORE_ID_TCP,  TcpStruct.ACK),
+	TCP_DATA_OFFSET     ("tcp.dataOffset",      CORE_ID_TCP,  TcpStruct.HDR_LEN),
+	TCP_FLAGS           ("tcp.flags",           CORE_ID_TCP,  TcpStruct.FLAGS),
+	TCP_WINDOW_SIZE     ("tcp.windowSize",      CORE_ID_TCP,  TcpStruct.WIN_SIZE),
+	TCP_CHECKSUM        ("tcp.checksum",        CORE_ID_TCP,  TcpStruct.CHECKSUM),
+	TCP_URGENT_POINTER  ("tcp.urgentPointer",   CORE_ID_TCP,  TcpStruct.URGENT_POINTER),
+
+	UDP_SRC_PORT        ("udp.srcPort",         CORE_ID_UDP,  UdpStruct.SRC_PORT),
+	UDP_DST_PORT        ("udp.dstPort",         CORE_ID_UDP,  UdpStruct.DST_PORT),
+	UDP_LENGTH          ("udp.length",          CORE_ID_UDP,  UdpStruct.LENGTH),
+	UDP_CHECKSUM        ("udp.checksum",        CORE_ID_UDP,  UdpStruct.CHECKSUM),
+	// @formatter:on
+
+	;
+
+	/**
+	 * Finds a field by its path.
+	 *
+	 * @param path the field path
+	 * @return optional field
+	 */
+	public static Optional<PacketProjector.Field> valueOfPath(String path) {
+		for (CoreProjectionField field : values())
+			if (field.path.equals(path))
+				return Optional.of(field);
+
+		return Optional.empty();
+	}
+
+	/** The path. */
+	private final String path;
+
+	/** The header id. */
+	private final int headerId;
+
+	/** The field specialized for byte buffer carriers. */
+	private final CarrierField.OfByteBuffer field;
+
+	/**
+	 * Instantiates a new core projection field.
+	 *
+	 * @param path     the path
+	 * @param headerId the header id
+	 * @param field    the header field
+	 */
+	CoreProjectionField(String path, int headerId, BitField field) {
+		this.path = path;
+		this.headerId = headerId;
+		this.field = field.forByteBuffer();
+	}
+
+	/**
+	 * Gets the field path.
+	 *
+	 * @return the path
+	 * @see com.slytechs.protocol.PacketProjector.Field#path()
+	 */
+	@Override
+	public String path() {
+		return path;
+	}
+
+	/**
+	 * Gets the header id.
+	 *
+	 * @return the header id
+	 * @see com.slytechs.protocol.PacketProjector.Field#headerId()
+	 */
+	@Override
+	public int headerId() {
+		return headerId;
+	}
+
+	/**
+	 * Extracts the unsigned field value.
+	 *
+	 * @param packet       the packet data
+	 * @param headerOffset the header offset
+	 * @return the field value
+	 * @see com.slytechs.protocol.PacketProjector.Field#extract(java.nio.ByteBuffer,
+	 *      int)
+	 */
+	@Override
+	public long extract(ByteBuffer packet, int headerOffset) {
+		return field.getUnsignedIntAt(headerOffset, packet);
+	}
+
+	/**
+	 * Gets the carrier field.
+	 *
+	 * @return the carrier field
+	 * @see com.slytechs.protocol.PacketProjector.Field#carrierField()
+	 */
+	@Override
+	public Optional<CarrierField.OfByteBuffer> carrierField() {
+		return Optional.of(field);
+	}
+}
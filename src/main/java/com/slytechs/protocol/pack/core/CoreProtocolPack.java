@@ -20,6 +20,7 @@ package com.slytechs.protocol.pack.core;
 import java.util.Optional;
 
 import com.slytechs.protocol.HeaderInfo;
+import com.slytechs.protocol.PacketProjector;
 import com.slytechs.protocol.pack.Pack;
 import com.slytechs.protocol.pack.PackId;
 import com.slytechs.protocol.pack.ProtocolPackTable;
@@ -86,4 +87,16 @@ public final class CoreProtocolPack extends Pack<CoreIdTable> {
 		return Optional.of(CoreIdTable.values()[hdrOrdinal]);
 	}
 
+	/**
+	 * Finds a projectable core protocol field.
+	 *
+	 * @param path the field path
+	 * @return optional field
+	 * @see com.slytechs.protocol.pack.Pack#findField(java.lang.String)
+	 */
+	@Override
+	public Optional<PacketProjector.Field> findField(String path) {
+		return CoreProjectionField.valueOfPath(path);
+	}
+
 }
@@ -113,9 +113,10 @@ public final class Ethernet extends Header {
 
 		/*
 		 * Preserve the frameBuffer so we can access these outside fields and/or used to
-		 * recalculate this frames CRC
+		 * recalculate this frames CRC. Packet buffer is referenced, not sliced, all
+		 * frame accesses are absolute.
 		 */
-		frameBuffer = packet.slice();
+		frameBuffer = packet;
 
 		int payloadLength = captureLength - (offset + length);
 		if (preambleFlag)
@@ -137,12 +138,7 @@ public final class Ethernet extends Header {
 		if (isTruncated)
 			return 0; // Do not have all of the data to make the calculation
 
-		frameBuffer
-				.clear()
-				.limit(headerOffset() + headerLength() + payloadLength())
-				.position(headerOffset());
-
-		return Checksums.crc32(buffer());
+		return Checksums.crc32(frameBuffer.slice(headerOffset(), headerLength() + payloadLength()));
 	}
 
 	/**
@@ -158,7 +154,7 @@ public final class Ethernet extends Header {
 			return 0;
 
 		return Integer.toUnsignedLong(
-				frameBuffer.getInt(payloadLength()));
+				frameBuffer.getInt(payloadOffset() + payloadLength()));
 	}
 
 	/**
@@ -196,7 +192,7 @@ public final class Ethernet extends Header {
 	 * @see HexStrings#toMacString(byte[])
 	 */
 	public byte[] destination(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ETHER_FIELD_DST, dst, offset, CoreConstants.ETHER_FIELD_DST_LEN);
+		buffer().get(bufferOffset() + CoreConstants.ETHER_FIELD_DST, dst, offset, CoreConstants.ETHER_FIELD_DST_LEN);
 
 		return dst;
 	}
@@ -218,7 +214,7 @@ public final class Ethernet extends Header {
 	 * @return MAC address stored in the first 6 LSB bytes of the long primitive
 	 */
 	public long dstGetAsLong() {
-		return buffer().getLong(CoreConstants.ETHER_FIELD_DST) & ETHER_FIELD_DST_MASK64;
+		return buffer().getLong(bufferOffset() + CoreConstants.ETHER_FIELD_DST) & ETHER_FIELD_DST_MASK64;
 	}
 
 	/**
@@ -285,7 +281,8 @@ public final class Ethernet extends Header {
 		if (!isPreamblePresent())
 			return null;
 
-		buffer().get(0, dst, CoreConstants.ETHER_FIELD_PREAMBLE, CoreConstants.ETHER_FIELD_LEN_PREAMBLE);
+		buffer().get(bufferOffset() + CoreConstants.ETHER_FIELD_PREAMBLE, dst, offset,
+				CoreConstants.ETHER_FIELD_LEN_PREAMBLE);
 
 		return dst;
 	}
@@ -325,7 +322,7 @@ public final class Ethernet extends Header {
 	 * @return MAC address
 	 */
 	public byte[] source(byte[] dst, int offset) {
-		buffer().get(CoreConstants.ETHER_FIELD_SRC, dst, offset, CoreConstants.ETHER_FIELD_SRC_LEN);
+		buffer().get(bufferOffset() + CoreConstants.ETHER_FIELD_SRC, dst, offset, CoreConstants.ETHER_FIELD_SRC_LEN);
 
 		return dst;
 	}
@@ -338,7 +335,7 @@ public final class Ethernet extends Header {
 	 * @return MAC address stored in the first 6 LSB bytes of the long primitive
 	 */
 	public long srcGetAsLong() {
-		return buffer().getLong(CoreConstants.ETHER_FIELD_SRC) & ETHER_FIELD_SRC_MASK64;
+		return buffer().getLong(bufferOffset() + CoreConstants.ETHER_FIELD_SRC) & ETHER_FIELD_SRC_MASK64;
 	}
 
 	/**
@@ -362,7 +359,7 @@ public final class Ethernet extends Header {
 	 */
 	@Meta
 	public int type() {
-		return Short.toUnsignedInt(buffer().getShort(CoreConstants.ETHER_FIELD_TYPE));
+		return Short.toUnsignedInt(buffer().getShort(bufferOffset() + CoreConstants.ETHER_FIELD_TYPE));
 	}
 
 	/**
@@ -377,4 +374,14 @@ public final class Ethernet extends Header {
 		return EtherType.valueOfEtherType(type());
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
@@ -55,17 +55,27 @@ public class Icmp4 extends Icmp {
 
 	@Meta
 	public int type() {
-		return Byte.toUnsignedInt(buffer().get(ICMPv4_FIELD_TYPE));
+		return Byte.toUnsignedInt(buffer().get(bufferOffset() + ICMPv4_FIELD_TYPE));
 	}
 
 	@Meta
 	public int code() {
-		return Byte.toUnsignedInt(buffer().get(ICMPv4_FIELD_CODE));
+		return Byte.toUnsignedInt(buffer().get(bufferOffset() + ICMPv4_FIELD_CODE));
 	}
 
 	@Meta
 	public int checksum() {
-		return Byte.toUnsignedInt(buffer().get(ICMPv4_FIELD_CHECKSUM));
+		return Byte.toUnsignedInt(buffer().get(bufferOffset() + ICMPv4_FIELD_CHECKSUM));
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
@@ -21,8 +21,11 @@ import java.util.Objects;
 
 import com.slytechs.protocol.Header;
 import com.slytechs.protocol.HeaderExtension;
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDescriptor;
 import com.slytechs.protocol.pack.core.Ip.IpOption;
 import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.IpfDescriptorType;
 
 /**
  * Internet Protocol base definition.
@@ -248,6 +251,66 @@ public abstract class Ip<T extends IpOption> extends HeaderExtension<T> {
 		super(id);
 	}
 
+	/**
+	 * The IPF descriptor of a reassembled datagram, or null if not reassembled.
+	 */
+	private IpfDescriptor ipfDescriptor;
+
+	/**
+	 * On bind to packet, looks up the IPF descriptor in the descriptor chain,
+	 * which is present only for reassembled datagrams.
+	 *
+	 * @param descriptor the packet descriptor
+	 * @see com.slytechs.protocol.Header#onBindToPacket(com.slytechs.protocol.descriptor.PacketDescriptor)
+	 */
+	@Override
+	protected void onBindToPacket(PacketDescriptor descriptor) {
+		this.ipfDescriptor = (descriptor.nextDescriptor() == null)
+				? null
+				: (IpfDescriptor) descriptor.peekDescriptor(IpfDescriptorType.IPF);
+	}
+
+	/**
+	 * On unbind.
+	 *
+	 * @see com.slytechs.protocol.HeaderExtension#onUnbind()
+	 */
+	@Override
+	protected void onUnbind() {
+		super.onUnbind();
+
+		this.ipfDescriptor = null;
+	}
+
+	/**
+	 * Gets the IPF descriptor, if this header belongs to a reassembled datagram.
+	 *
+	 * @return the IPF descriptor or null if not reassembled
+	 */
+	public IpfDescriptor ipfDescriptor() {
+		return ipfDescriptor;
+	}
+
+	/**
+	 * Checks if this header belongs to a datagram which was reassembled from IP
+	 * fragments.
+	 *
+	 * @return true, if is reassembled
+	 */
+	public boolean isReassembled() {
+		return (ipfDescriptor != null) && ipfDescriptor.isComplete();
+	}
+
+	/**
+	 * The fragments the datagram was reassembled from. Fragments are only
+	 * available if the reassembler was configured to retain them.
+	 *
+	 * @return the fragments or an empty array
+	 */
+	public Packet[] reassembledFragments() {
+		return (ipfDescriptor == null) ? new Packet[0] : ipfDescriptor.fragments().clone();
+	}
+
 	/**
 	 * Version.
 	 *
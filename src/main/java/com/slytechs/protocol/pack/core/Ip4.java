@@ -19,7 +19,6 @@ package com.slytechs.protocol.pack.core;
 
 import java.util.Set;
 
-import com.slytechs.protocol.Packet;
 import com.slytechs.protocol.meta.Meta;
 import com.slytechs.protocol.meta.Meta.MetaType;
 import com.slytechs.protocol.meta.MetaResource;
@@ -27,6 +26,7 @@ import com.slytechs.protocol.pack.core.constants.CoreConstants;
 import com.slytechs.protocol.pack.core.constants.CoreIdTable;
 import com.slytechs.protocol.pack.core.constants.Ip4Flag;
 import com.slytechs.protocol.pack.core.constants.IpType;
+import com.slytechs.protocol.runtime.internal.layout.CarrierField;
 
 /**
  * Internet Protocol Version 4 (IPv4).
@@ -61,6 +61,40 @@ public final class Ip4 extends Ip<Ip4Option> {
 	/** The Constant ID. */
 	public static final int ID = CoreIdTable.CORE_ID_IPv4;
 
+	/**
+	 * The Class Fields.
+	 */
+	private static final class Fields {
+		// @formatter:off
+		static final CarrierField.OfByteBuffer DSFIELD             = Ip4Layout.DSFIELD.forByteBuffer();
+		static final CarrierField.OfByteBuffer DSFIELD_DSCP        = Ip4Layout.DSFIELD_DSCP.forByteBuffer();
+		static final CarrierField.OfByteBuffer DSFIELD_DSCP_CODE   = Ip4Layout.DSFIELD_DSCP_CODE.forByteBuffer();
+		static final CarrierField.OfByteBuffer DSFIELD_DSCP_SELECT = Ip4Layout.DSFIELD_DSCP_SELECT.forByteBuffer();
+		static final CarrierField.OfByteBuffer DSFIELD_ECN         = Ip4Layout.DSFIELD_ECN.forByteBuffer();
+		static final CarrierField.OfByteBuffer DST                 = Ip4Layout.DST.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS               = Ip4Layout.FLAGS.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS_BYTE          = Ip4Layout.FLAGS_BYTE.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS_DF            = Ip4Layout.FLAGS_DF.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS_MF            = Ip4Layout.FLAGS_MF.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS_NIBBLE        = Ip4Layout.FLAGS_NIBBLE.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS_RB            = Ip4Layout.FLAGS_RB.forByteBuffer();
+		static final CarrierField.OfByteBuffer FRAG_OFFSET         = Ip4Layout.FRAG_OFFSET.forByteBuffer();
+		static final CarrierField.OfByteBuffer HDR_LEN             = Ip4Layout.HDR_LEN.forByteBuffer();
+		static final CarrierField.OfByteBuffer ID                  = Ip4Layout.ID.forByteBuffer();
+		static final CarrierField.OfByteBuffer PROTO               = Ip4Layout.PROTO.forByteBuffer();
+		static final CarrierField.OfByteBuffer SRC                 = Ip4Layout.SRC.forByteBuffer();
+		static final CarrierField.OfByteBuffer TOTAL_LENGTH        = Ip4Layout.TOTAL_LENGTH.forByteBuffer();
+		static final CarrierField.OfByteBuffer TTL                 = Ip4Layout.TTL.forByteBuffer();
+		static final CarrierField.OfByteBuffer VERSION             = Ip4Layout.VERSION.forByteBuffer();
+		// @formatter:on
+
+		/**
+		 * Disabled initializer.
+		 */
+		private Fields() {
+		}
+	}
+
 	/**
 	 * Instantiates a new ip 4.
 	 */
@@ -74,7 +108,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int dsfield() {
-		return Ip4Layout.DSFIELD.getInt(buffer());
+		return Fields.DSFIELD.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -83,7 +117,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int dsfieldDscp() {
-		return Ip4Layout.DSFIELD_DSCP.getInt(buffer());
+		return Fields.DSFIELD_DSCP.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -92,7 +126,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int dsfieldDscpCode() {
-		return Ip4Layout.DSFIELD_DSCP_CODE.getInt(buffer());
+		return Fields.DSFIELD_DSCP_CODE.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -120,7 +154,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	int dsfieldDscpSelect() {
-		return Ip4Layout.DSFIELD_DSCP_SELECT.getInt(buffer());
+		return Fields.DSFIELD_DSCP_SELECT.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -129,7 +163,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	int dsfieldEcn() {
-		return Ip4Layout.DSFIELD_ECN.getInt(buffer());
+		return Fields.DSFIELD_ECN.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -185,7 +219,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the byte[]
 	 */
 	public byte[] dst(byte[] dst, int offset) {
-		buffer().get(CoreConstants.IPv4_FIELD_DST, dst, offset, CoreConstants.IPv4_FIELD_DST_LEN);
+		buffer().get(bufferOffset() + CoreConstants.IPv4_FIELD_DST, dst, offset, CoreConstants.IPv4_FIELD_DST_LEN);
 
 		return dst;
 	}
@@ -207,7 +241,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int dstAsInt() {
-		return Ip4Layout.DST.getInt(buffer());
+		return Fields.DST.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -217,7 +251,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int flags() {
-		return Ip4Layout.FLAGS.getInt(buffer());
+		return Fields.FLAGS.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -226,7 +260,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int flagsByte() {
-		return Ip4Layout.FLAGS_BYTE.getInt(buffer());
+		return Fields.FLAGS_BYTE.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -235,7 +269,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int flagsDf() {
-		return Ip4Layout.FLAGS_DF.getInt(buffer());
+		return Fields.FLAGS_DF.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -260,7 +294,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int flagsMf() {
-		return Ip4Layout.FLAGS_MF.getInt(buffer());
+		return Fields.FLAGS_MF.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -269,7 +303,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int flagsNibble() {
-		return Ip4Layout.FLAGS_NIBBLE.getInt(buffer());
+		return Fields.FLAGS_NIBBLE.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -278,7 +312,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int flagsRb() {
-		return Ip4Layout.FLAGS_RB.getInt(buffer());
+		return Fields.FLAGS_RB.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -297,7 +331,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int fragOffset() {
-		return Ip4Layout.FRAG_OFFSET.getInt(buffer());
+		return Fields.FRAG_OFFSET.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -307,7 +341,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int hdrLen() {
-		return Ip4Layout.HDR_LEN.getInt(buffer());
+		return Fields.HDR_LEN.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -327,16 +361,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int identification() {
-		return Ip4Layout.ID.getUnsignedShort(buffer());
-	}
-
-	/**
-	 * Checks if is reassembled.
-	 *
-	 * @return true, if is reassembled
-	 */
-	public boolean isReassembled() {
-		return false;
+		return Fields.ID.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -357,7 +382,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int protocol() {
-		return Ip4Layout.PROTO.getInt(buffer());
+		return Fields.PROTO.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -369,15 +394,6 @@ public final class Ip4 extends Ip<Ip4Option> {
 		return IpType.valueOfIpType(protocol()).name();
 	}
 
-	/**
-	 * Reassembled fragments.
-	 *
-	 * @return the packet[]
-	 */
-	public Packet[] reassembledFragments() {
-		return new Packet[0];
-	}
-
 	/**
 	 * Src.
 	 *
@@ -408,9 +424,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the byte[]
 	 */
 	public byte[] src(byte[] dst, int offset) {
-		byte[] debug = new byte[20];
-		buffer().get(0, debug);
-		buffer().get(CoreConstants.IPv4_FIELD_SRC, dst, offset, CoreConstants.IPv4_FIELD_SRC_LEN);
+		buffer().get(bufferOffset() + CoreConstants.IPv4_FIELD_SRC, dst, offset, CoreConstants.IPv4_FIELD_SRC_LEN);
 
 		return dst;
 	}
@@ -432,7 +446,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 * @return the int
 	 */
 	public int srcGetAsInt() {
-		return Ip4Layout.SRC.getInt(buffer());
+		return Fields.SRC.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -442,7 +456,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int totalLength() {
-		return Ip4Layout.TOTAL_LENGTH.getUnsignedShort(buffer());
+		return Fields.TOTAL_LENGTH.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -452,7 +466,7 @@ public final class Ip4 extends Ip<Ip4Option> {
 	 */
 	@Meta
 	public int ttl() {
-		return Ip4Layout.TTL.getUnsignedByte(buffer());
+		return Fields.TTL.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -463,6 +477,17 @@ public final class Ip4 extends Ip<Ip4Option> {
 	@Override
 	@Meta
 	public int version() {
-		return Ip4Layout.VERSION.getUnsignedByte(buffer());
+		return Fields.VERSION.getUnsignedByteAt(bufferOffset(), buffer());
+	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
 	}
 }
@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.ArrayField;
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
@@ -230,6 +232,7 @@ enum Ip4Layout implements EnumBitField<Ip4Layout> {
 	 */
 	private Ip4Layout(BinaryLayout layout, String path, BitFieldFormatter formatter) {
 		this.bits = layout.bitField(path)
+				.generate(ByteBuffer.class)
 				.formatted()
 				.formatter(formatter);
 	}
@@ -242,6 +245,7 @@ enum Ip4Layout implements EnumBitField<Ip4Layout> {
 	 */
 	private Ip4Layout(BinaryLayout layout, String path) {
 		this.bits = layout.bitField(path)
+				.generate(ByteBuffer.class)
 				.formatted()
 				.format("%d");
 	}
@@ -255,6 +259,7 @@ enum Ip4Layout implements EnumBitField<Ip4Layout> {
 	 */
 	private Ip4Layout(BinaryLayout layout, String path, String format) {
 		this.bits = layout.bitField(path)
+				.generate(ByteBuffer.class)
 				.formatted()
 				.format("%d");
 	}
@@ -50,23 +50,23 @@ public abstract class Ip4Option extends IpOption {
 		 * @return true, if successful
 		 */
 		public boolean examinePacket() {
-			return buffer().getShort(2) == 0;
+			return buffer().getShort(bufferOffset() + 2) == 0;
 		}
 
 		@Meta(ordinal = 10)
 		public int type() {
-			return Byte.toUnsignedInt(buffer().get(0));
+			return Byte.toUnsignedInt(buffer().get(bufferOffset()));
 		}
 
 		@Meta(ordinal = 20)
 		@Display("%{}d bytes")
 		public int len() {
-			return Byte.toUnsignedInt(buffer().get(1));
+			return Byte.toUnsignedInt(buffer().get(bufferOffset() + 1));
 		}
 
 		@Meta(name = "Router Alert", ordinal = 30)
 		public int routerAlert() {
-			return Short.toUnsignedInt(buffer().getShort(2));
+			return Short.toUnsignedInt(buffer().getShort(bufferOffset() + 2));
 		}
 	}
 
@@ -79,4 +79,14 @@ public abstract class Ip4Option extends IpOption {
 		super(id);
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
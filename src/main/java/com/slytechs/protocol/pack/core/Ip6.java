@@ -70,7 +70,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int dsfield() {
-		return Ip6Layout.DSFIELD.getInt(buffer());
+		return Ip6Layout.DSFIELD.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -79,7 +79,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param dsfield the dsfield
 	 */
 	public void dsfield(int dsfield) {
-		Ip6Layout.DSFIELD.setInt(dsfield, buffer());
+		Ip6Layout.DSFIELD.setIntAt(dsfield, bufferOffset(), buffer());
 	}
 
 	/**
@@ -90,7 +90,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 */
 	@Override
 	public byte[] dst() {
-		return Ip6Layout.DST_BYTES.getByteArray(buffer());
+		return Ip6Layout.DST_BYTES.getByteArrayAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -111,7 +111,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int dstAsInt(int index) {
-		return Ip6Layout.DST_AS_INT.getInt(buffer(), index);
+		return Ip6Layout.DST_AS_INT.getIntAt(bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -121,7 +121,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param index the index
 	 */
 	public void dstAsInt(int dst, int index) {
-		Ip6Layout.DST_AS_INT.setInt(dst, buffer(), index);
+		Ip6Layout.DST_AS_INT.setIntAt(dst, bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -131,7 +131,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the long
 	 */
 	public long dstAsLong(int index) {
-		return Ip6Layout.DST_AS_LONG.getInt(buffer(), index);
+		return Ip6Layout.DST_AS_LONG.getIntAt(bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -141,7 +141,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param index the index
 	 */
 	public void dstAsLong(long dst, int index) {
-		Ip6Layout.DST_AS_LONG.setLong(dst, buffer(), index);
+		Ip6Layout.DST_AS_LONG.setLongAt(dst, bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -150,7 +150,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int flowLabel() {
-		return Ip6Layout.FLOW.getInt(buffer());
+		return Ip6Layout.FLOW.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -159,7 +159,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param flow the flow
 	 */
 	public void flowLabel(int flow) {
-		Ip6Layout.FLOW.setInt(flow, buffer());
+		Ip6Layout.FLOW.setIntAt(flow, bufferOffset(), buffer());
 	}
 
 	/**
@@ -168,7 +168,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int hopLimit() {
-		return Ip6Layout.HOP_LIMIT.getInt(buffer());
+		return Ip6Layout.HOP_LIMIT.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -177,7 +177,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param hopLimit the hop limit
 	 */
 	public void hopLimit(int hopLimit) {
-		Ip6Layout.HOP_LIMIT.setInt(hopLimit, buffer());
+		Ip6Layout.HOP_LIMIT.setIntAt(hopLimit, bufferOffset(), buffer());
 	}
 
 	/**
@@ -186,7 +186,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int nextHeader() {
-		return Ip6Layout.NEXT.getInt(buffer());
+		return Ip6Layout.NEXT.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -195,7 +195,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param next the next
 	 */
 	public void nextHeader(int next) {
-		Ip6Layout.NEXT.setInt(next, buffer());
+		Ip6Layout.NEXT.setIntAt(next, bufferOffset(), buffer());
 	}
 
 	/**
@@ -206,7 +206,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 */
 	@Override
 	public int payloadLength() {
-		return Ip6Layout.PAYLOAD_LENGTH.getInt(buffer());
+		return Ip6Layout.PAYLOAD_LENGTH.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -215,7 +215,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param payloadLength the payload length
 	 */
 	public void payloadLength(int payloadLength) {
-		Ip6Layout.PAYLOAD_LENGTH.setInt(payloadLength, buffer());
+		Ip6Layout.PAYLOAD_LENGTH.setIntAt(payloadLength, bufferOffset(), buffer());
 	}
 
 	/**
@@ -226,7 +226,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 */
 	@Override
 	public byte[] src() {
-		return Ip6Layout.SRC_BYTES.getByteArray(buffer());
+		return Ip6Layout.SRC_BYTES.getByteArrayAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -247,7 +247,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the int
 	 */
 	public int srcAsInt(int index) {
-		return Ip6Layout.SRC_AS_INT.getInt(buffer(), index);
+		return Ip6Layout.SRC_AS_INT.getIntAt(bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -257,7 +257,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param index the index
 	 */
 	public void srcAsInt(int src, int index) {
-		Ip6Layout.DST_AS_INT.setInt(src, buffer(), index);
+		Ip6Layout.DST_AS_INT.setIntAt(src, bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -267,7 +267,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @return the long
 	 */
 	public long srcAsLong(int index) {
-		return Ip6Layout.SRC_AS_LONG.getLong(buffer(), index);
+		return Ip6Layout.SRC_AS_LONG.getLongAt(bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -277,7 +277,7 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 * @param index the index
 	 */
 	public void srcAsLong(long src, int index) {
-		Ip6Layout.DST_AS_LONG.setLong(src, buffer(), index);
+		Ip6Layout.DST_AS_LONG.setLongAt(src, bufferOffset(), buffer(), index);
 	}
 
 	/**
@@ -287,6 +287,17 @@ public final class Ip6 extends Ip<Ip6Option> {
 	 */
 	@Override
 	public int version() {
-		return Ip6Layout.VERSION.getInt(buffer());
+		return Ip6Layout.VERSION.getIntAt(bufferOffset(), buffer());
+	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
 	}
 }
@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.ArrayField;
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
@@ -125,7 +127,7 @@ enum Ip6Layout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	Ip6Layout(String path) {
-		this.field = Struct.IP6_STRUCT.bitField(path);
+		this.field = Struct.IP6_STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
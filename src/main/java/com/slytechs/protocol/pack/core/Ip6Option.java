@@ -82,7 +82,7 @@ public class Ip6Option extends IpOption {
 		 * @return the int
 		 */
 		public int fragmentOffset() {
-			return Short.toUnsignedInt(buffer().getShort(2)) & 0x1FF;
+			return Short.toUnsignedInt(buffer().getShort(bufferOffset() + 2)) >>> 3;
 		}
 
 		/**
@@ -93,6 +93,33 @@ public class Ip6Option extends IpOption {
 		public int fragmentByteOffset() {
 			return fragmentOffset() << 3;
 		}
+
+		/**
+		 * More fragments flag.
+		 *
+		 * @return the M flag, 1 if more fragments follow
+		 */
+		public int flagsMf() {
+			return buffer().getShort(bufferOffset() + 2) & 1;
+		}
+
+		/**
+		 * Identification.
+		 *
+		 * @return the 32-bit fragment identification
+		 */
+		public int identification() {
+			return buffer().getInt(bufferOffset() + 4);
+		}
+
+		/**
+		 * Next header following the fragmentable part of the original packet.
+		 *
+		 * @return the next header
+		 */
+		public int nextHeader() {
+			return Byte.toUnsignedInt(buffer().get(bufferOffset()));
+		}
 	}
 
 	/**
@@ -229,7 +256,7 @@ public class Ip6Option extends IpOption {
 		 * @return the int
 		 */
 		public int type() {
-			return Byte.toUnsignedInt(buffer().get(2));
+			return Byte.toUnsignedInt(buffer().get(bufferOffset() + 2));
 		}
 
 		/**
@@ -238,7 +265,7 @@ public class Ip6Option extends IpOption {
 		 * @return the int
 		 */
 		public int segmentsLeft() {
-			return Byte.toUnsignedInt(buffer().get(3));
+			return Byte.toUnsignedInt(buffer().get(bufferOffset() + 3));
 		}
 	}
 
@@ -304,7 +331,7 @@ public class Ip6Option extends IpOption {
 	 * @return the int
 	 */
 	public int nextHeader() {
-		return Byte.toUnsignedInt(buffer().get(0));
+		return Byte.toUnsignedInt(buffer().get(bufferOffset()));
 	}
 
 	/**
@@ -313,7 +340,7 @@ public class Ip6Option extends IpOption {
 	 * @return the int
 	 */
 	public int extensionLength() {
-		return Byte.toUnsignedInt(buffer().get(1));
+		return Byte.toUnsignedInt(buffer().get(bufferOffset() + 1));
 	}
 
 	/**
@@ -324,4 +351,15 @@ public class Ip6Option extends IpOption {
 	public int length() {
 		return (constantLength != -1) ? constantLength : (extensionLength() << 3);
 	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
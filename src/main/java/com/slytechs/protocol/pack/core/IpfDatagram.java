@@ -0,0 +1,324 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.slytechs.protocol.Packet;
+
+/**
+ * State of a single datagram being reassembled from IP fragments.
+ * 
+ * <p>
+ * Missing payload ranges are tracked as a list of holes (RFC 815). Initially
+ * the datagram has a single hole, from offset 0 to infinity. Every fragment
+ * fills in part of one or more holes, possibly splitting a hole in two, and the
+ * last fragment closes the open ended hole. The datagram is complete when no
+ * holes remain. The number of holes is bounded, so a stream of tiny, sparse
+ * fragments cannot make the hole list grow without limit.
+ * </p>
+ * 
+ * <p>
+ * The reassembly buffer has a fixed amount of room reserved for the datagram's
+ * headers, in front of the payload. Headers, including any headers preceding
+ * the IP header, are copied from the fragment at offset 0 so that they end
+ * exactly where the payload starts, and the reassembled datagram is a single
+ * contiguous region of the buffer.
+ * </p>
+ * 
+ * <p>
+ * Datagram objects, like their buffers, are created once per pool slot and
+ * reused, so reassembly state does not allocate on the heap either.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+final class IpfDatagram {
+
+	/** Maximum number of holes tracked per datagram. */
+	static final int MAX_HOLES = 64;
+
+	/** End of the open ended hole, before the last fragment is received. */
+	private static final int OPEN_END = Integer.MAX_VALUE;
+
+	/** The key. */
+	IpfKey key;
+
+	/** The pool slot. */
+	final int slot;
+
+	/** The reassembly buffer. */
+	final ByteBuffer buffer;
+
+	/** Bytes reserved for headers in front of the payload. */
+	final int headerRoom;
+
+	/** Capture time of the first fragment received, in epoch millis. */
+	long firstMillis;
+
+	/** Frame number of the first fragment received. */
+	long firstFrameNo;
+
+	/** Frame number of the last fragment received. */
+	long lastFrameNo;
+
+	/** Frame number of the fragment at offset 0, or -1 if not received yet. */
+	long headerFrameNo = -1;
+
+	/** Total length of all copied headers, or -1 if not received yet. */
+	int headerLength = -1;
+
+	/** Offset of the IP header within the copied headers. */
+	int ipOffset;
+
+	/** Length of the IP header, including any IPv6 unfragmentable part. */
+	int ipHeaderLength;
+
+	/**
+	 * Offset of the IPv6 next header field, which is rewritten to remove the
+	 * fragment header, or -1 for IPv4.
+	 */
+	int nextHeaderAt = -1;
+
+	/** Next header value from the IPv6 fragment header. */
+	int nextHeader;
+
+	/** Total payload length, or -1 until the last fragment is received. */
+	int payloadLength = -1;
+
+	/** The furthest payload byte filled so far. */
+	private int maxEnd;
+
+	/** Hole start and end offset pairs, end exclusive, sorted by offset. */
+	private int[] holes = new int[MAX_HOLES * 2];
+
+	/** Scratch array used while updating the holes. */
+	private int[] scratch = new int[MAX_HOLES * 2];
+
+	/** Number of holes. */
+	private int holeCount;
+
+	/** Payload bytes assembled. */
+	int assembled;
+
+	/** Payload bytes received more than once. */
+	int duplicate;
+
+	/** The retained fragments. */
+	final List<Packet> fragments = new ArrayList<>();
+
+	/** If true, fragments are retained. */
+	boolean retainFragments;
+
+	/**
+	 * Instantiates a new, unused datagram permanently assigned to a pool slot.
+	 *
+	 * @param slot       the pool slot
+	 * @param buffer     the reassembly buffer
+	 * @param headerRoom bytes reserved for headers in front of the payload
+	 */
+	IpfDatagram(int slot, ByteBuffer buffer, int headerRoom) {
+		this.slot = slot;
+		this.buffer = buffer;
+		this.headerRoom = headerRoom;
+	}
+
+	/**
+	 * Starts reassembly of a new datagram, with a single open ended hole.
+	 *
+	 * @param key          the key
+	 * @param firstMillis  capture time of the first fragment
+	 * @param firstFrameNo frame number of the first fragment
+	 * @param retain       if true, fragments are retained
+	 * @return this datagram
+	 */
+	IpfDatagram reset(IpfKey key, long firstMillis, long firstFrameNo, boolean retain) {
+		this.key = key;
+		this.firstMillis = firstMillis;
+		this.firstFrameNo = firstFrameNo;
+		this.lastFrameNo = firstFrameNo;
+		this.headerFrameNo = -1;
+		this.headerLength = -1;
+		this.ipOffset = 0;
+		this.ipHeaderLength = 0;
+		this.nextHeaderAt = -1;
+		this.nextHeader = 0;
+		this.payloadLength = -1;
+		this.maxEnd = 0;
+		this.assembled = 0;
+		this.duplicate = 0;
+		this.retainFragments = retain;
+		this.fragments.clear();
+
+		holes[0] = 0;
+		holes[1] = OPEN_END;
+		holeCount = 1;
+
+		return this;
+	}
+
+	/**
+	 * Copies the headers from the fragment at offset 0, so that they end where
+	 * the payload starts.
+	 *
+	 * @param packet         the packet buffer
+	 * @param ipOffset       offset of the IP header
+	 * @param ipHeaderLength length of the IP header, including any IPv6
+	 *                       unfragmentable part
+	 * @param frameNo        the frame number
+	 * @return true, if the headers fit into the reserved room
+	 */
+	boolean copyHeaders(ByteBuffer packet, int ipOffset, int ipHeaderLength, long frameNo) {
+		int length = ipOffset + ipHeaderLength;
+		if (length > headerRoom)
+			return false;
+
+		buffer.put(headerRoom - length, packet, 0, length);
+
+		this.headerLength = length;
+		this.ipOffset = ipOffset;
+		this.ipHeaderLength = ipHeaderLength;
+		this.headerFrameNo = frameNo;
+
+		return true;
+	}
+
+	/**
+	 * Copies fragment payload into the buffer and updates the holes.
+	 *
+	 * @param packet     the packet buffer
+	 * @param dataOffset offset of the fragment payload within the packet
+	 * @param offset     offset of the fragment payload within the datagram
+	 * @param length     length of the fragment payload
+	 * @param more       true if more fragments follow this one
+	 * @return true, if the fragment is consistent with the previous ones
+	 */
+	boolean fill(ByteBuffer packet, int dataOffset, int offset, int length, boolean more) {
+		final int start = offset;
+		final int end = offset + length;
+
+		if (!more) {
+			if (((payloadLength != -1) && (payloadLength != end)) || (maxEnd > end))
+				return false;
+
+			this.payloadLength = end;
+
+		} else if ((payloadLength != -1) && (end > payloadLength))
+			return false;
+
+		if (headerRoom + end > buffer.capacity())
+			return false;
+
+		buffer.put(headerRoom + start, packet, dataOffset, length);
+
+		final int limit = more ? OPEN_END : end;
+		int filled = 0;
+		int n = 0;
+
+		for (int i = 0; i < holeCount; i++) {
+			int hs = holes[2 * i];
+			int he = Math.min(holes[2 * i + 1], limit);
+
+			if (hs >= he)
+				continue; // Hole past the end of the datagram, closed by last fragment
+
+			if ((he <= start) || (hs >= end)) {
+				if (n == MAX_HOLES)
+					return false;
+
+				scratch[2 * n] = hs;
+				scratch[2 * n++ + 1] = he;
+				continue;
+			}
+
+			filled += Math.min(he, end) - Math.max(hs, start);
+
+			if (hs < start) {
+				if (n == MAX_HOLES)
+					return false;
+
+				scratch[2 * n] = hs;
+				scratch[2 * n++ + 1] = start;
+			}
+
+			if (he > end) {
+				if (n == MAX_HOLES)
+					return false;
+
+				scratch[2 * n] = end;
+				scratch[2 * n++ + 1] = he;
+			}
+		}
+
+		int[] t = holes;
+		this.holes = scratch;
+		this.scratch = t;
+		this.holeCount = n;
+
+		this.maxEnd = Math.max(maxEnd, end);
+		this.assembled += filled;
+		this.duplicate += length - filled;
+
+		return true;
+	}
+
+	/**
+	 * Checks if all fragments have been received.
+	 *
+	 * @return true, if complete
+	 */
+	boolean isComplete() {
+		return (holeCount == 0) && (payloadLength != -1) && (headerLength != -1);
+	}
+
+	/**
+	 * Number of payload bytes still missing, not counting the open ended hole if
+	 * the last fragment has not been received yet.
+	 *
+	 * @return the remaining bytes
+	 */
+	int remaining() {
+		int remaining = 0;
+		for (int i = 0; i < holeCount; i++)
+			if (holes[2 * i + 1] != OPEN_END)
+				remaining += holes[2 * i + 1] - holes[2 * i];
+
+		return remaining;
+	}
+
+	/**
+	 * Offset of the first header byte within the buffer.
+	 *
+	 * @return the offset
+	 */
+	int datagramOffset() {
+		return headerRoom - headerLength;
+	}
+
+	/**
+	 * Length of the reassembled datagram, including all copied headers.
+	 *
+	 * @return the length
+	 */
+	int datagramLength() {
+		return headerLength + payloadLength;
+	}
+}
@@ -17,7 +17,7 @@
  */
 package com.slytechs.protocol.pack.core;
 
-import com.slytechs.protocol.descriptor.Descriptor;
+import com.slytechs.protocol.Packet;
 import com.slytechs.protocol.pack.core.constants.IpfDescriptorType;
 
 /**
@@ -26,18 +26,44 @@ import com.slytechs.protocol.pack.core.constants.IpfDescriptorType;
  * This descriptor is supplied in addition to the regular type descriptors and
  * can forward header lookup calls for protocol resolution.
  * 
+ * <p>
+ * For a reassembled datagram, the descriptor is chained to the packet's
+ * descriptor and records how many bytes were assembled, how many are still
+ * missing and how many were received more than once. The frame number is that
+ * of the fragment at offset 0, which supplied the datagram's headers. The
+ * previous and next frame numbers are those of the first and the last fragment
+ * received, respectively.
+ * </p>
+ * 
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
  * @author Mark Bednarczyk
  *
  */
-public final class IpfDescriptor extends Descriptor {
+public final class IpfDescriptor extends com.slytechs.protocol.descriptor.IpfDescriptor {
+
+	/** Length of the IPF descriptor in bytes. */
+	public static final int IPF_DESCRIPTOR_LENGTH = 32;
+
+	/** All fragments were received and the datagram is complete. */
+	public static final int IPF_FLAG_COMPLETE = 0x0001;
+
+	/** Some fragments overlapped with previously received fragments. */
+	public static final int IPF_FLAG_OVERLAP = 0x0002;
+
+	/** The reassembled datagram is an IPv6 datagram. */
+	public static final int IPF_FLAG_IPv6 = 0x0004;
+
+	/** An empty array of fragments. */
+	private static final Packet[] EMPTY_FRAGMENTS = new Packet[0];
+
+	/** The retained fragments, if any. */
+	private Packet[] fragments = EMPTY_FRAGMENTS;
 
 	/**
 	 * Instantiates a new ipf descriptor.
 	 */
 	public IpfDescriptor() {
-		super(IpfDescriptorType.IPF);
 	}
 
 	/**
@@ -51,4 +77,133 @@ public final class IpfDescriptor extends Descriptor {
 		return IpfDescriptorType.IPF;
 	}
 
+	/**
+	 * Number of datagram payload bytes assembled from fragments.
+	 *
+	 * @return the assembled bytes
+	 */
+	public int assembledBytes() {
+		return IpfLayout.ASSEMBLED_BYTES.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * Number of datagram payload bytes still missing.
+	 *
+	 * @return the remaining bytes
+	 */
+	public int remainingBytes() {
+		return IpfLayout.REMAINING_BYTES.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * Number of payload bytes received more than once, in overlapping fragments.
+	 *
+	 * @return the duplicate bytes
+	 */
+	public int duplicateBytes() {
+		return IpfLayout.DUPLICATE_BYTES.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * The IPF flags, a combination of the {@code IPF_FLAG} constants.
+	 *
+	 * @return the flags
+	 */
+	public int ipfFlags() {
+		return IpfLayout.FLAGS.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * Checks if the datagram was completely reassembled.
+	 *
+	 * @return true, if complete
+	 */
+	public boolean isComplete() {
+		return (ipfFlags() & IPF_FLAG_COMPLETE) != 0;
+	}
+
+	/**
+	 * Checks if any of the fragments overlapped.
+	 *
+	 * @return true, if fragments overlapped
+	 */
+	public boolean isOverlap() {
+		return (ipfFlags() & IPF_FLAG_OVERLAP) != 0;
+	}
+
+	/**
+	 * Frame number of the fragment at offset 0.
+	 *
+	 * @return the frame number
+	 */
+	public long fragmentFrameNo() {
+		return IpfLayout.FRAME_NO.getLong(buffer());
+	}
+
+	/**
+	 * Frame number of the first fragment received.
+	 *
+	 * @return the frame number
+	 */
+	public long prevFrameNo() {
+		return IpfLayout.PREV_NO.getLong(buffer());
+	}
+
+	/**
+	 * Frame number of the last fragment received.
+	 *
+	 * @return the frame number
+	 */
+	public long nextFrameNo() {
+		return IpfLayout.NEXT_NO.getLong(buffer());
+	}
+
+	/**
+	 * The fragments which were reassembled, if the reassembler was configured to
+	 * retain them.
+	 *
+	 * @return the fragments or an empty array
+	 */
+	public Packet[] fragments() {
+		return fragments;
+	}
+
+	/**
+	 * Writes all of the IPF descriptor fields.
+	 *
+	 * @param assembled the assembled bytes
+	 * @param remaining the remaining bytes
+	 * @param duplicate the duplicate bytes
+	 * @param flags     the IPF flags
+	 * @param frameNo   the frame number of the fragment at offset 0
+	 * @param prevNo    the frame number of the first fragment received
+	 * @param nextNo    the frame number of the last fragment received
+	 * @param fragments the retained fragments or null
+	 */
+	void write(int assembled, int remaining, int duplicate, int flags, long frameNo, long prevNo, long nextNo,
+			Packet[] fragments) {
+		var buffer = buffer();
+
+		IpfLayout.ASSEMBLED_BYTES.setInt(assembled, buffer);
+		IpfLayout.REMAINING_BYTES.setInt(remaining, buffer);
+		IpfLayout.DUPLICATE_BYTES.setInt(duplicate, buffer);
+		IpfLayout.FLAGS.setInt(flags, buffer);
+		IpfLayout.FRAME_NO.setLong(frameNo, buffer);
+		IpfLayout.PREV_NO.setLong(prevNo, buffer);
+		IpfLayout.NEXT_NO.setLong(nextNo, buffer);
+
+		this.fragments = (fragments == null) ? EMPTY_FRAGMENTS : fragments;
+	}
+
+	/**
+	 * On unbind.
+	 *
+	 * @see com.slytechs.protocol.descriptor.Descriptor#onUnbind()
+	 */
+	@Override
+	protected void onUnbind() {
+		super.onUnbind();
+
+		this.fragments = EMPTY_FRAGMENTS;
+	}
 }
@@ -0,0 +1,81 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+/**
+ * Reassembly table key, identifying all of the fragments of a single datagram.
+ * IPv4 keys use the lower 32 bits of the first address words and combine the
+ * protocol and identification into the id. IPv6 keys use all four address
+ * words and the 32-bit fragment identification. The IP version is part of the
+ * id, so IPv4 and IPv6 keys never collide.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ * @param src0 the first source address word
+ * @param src1 the second source address word
+ * @param dst0 the first destination address word
+ * @param dst1 the second destination address word
+ * @param id   the datagram id, including the IP version
+ */
+record IpfKey(long src0, long src1, long dst0, long dst1, long id) {
+
+	/**
+	 * Creates an IPv4 key from (src, dst, id, proto).
+	 *
+	 * @param src            the source address
+	 * @param dst            the destination address
+	 * @param identification the identification
+	 * @param protocol       the protocol
+	 * @return the key
+	 */
+	static IpfKey ofIp4(int src, int dst, int identification, int protocol) {
+		long id = (4L << 56) | ((long) protocol << 16) | identification;
+
+		return new IpfKey(Integer.toUnsignedLong(src), 0, Integer.toUnsignedLong(dst), 0, id);
+	}
+
+	/**
+	 * Creates an IPv6 key from (src, dst, id).
+	 *
+	 * @param ip6            the IPv6 header
+	 * @param identification the fragment header identification
+	 * @return the key
+	 */
+	static IpfKey ofIp6(Ip6 ip6, int identification) {
+		long id = (6L << 56) | Integer.toUnsignedLong(identification);
+
+		return new IpfKey(
+				words(ip6.srcAsInt(0), ip6.srcAsInt(1)),
+				words(ip6.srcAsInt(2), ip6.srcAsInt(3)),
+				words(ip6.dstAsInt(0), ip6.dstAsInt(1)),
+				words(ip6.dstAsInt(2), ip6.dstAsInt(3)),
+				id);
+	}
+
+	/**
+	 * Combines two 32-bit address words into a long.
+	 *
+	 * @param hi the high word
+	 * @param lo the low word
+	 * @return the long
+	 */
+	private static long words(int hi, int lo) {
+		return ((long) hi << 32) | Integer.toUnsignedLong(lo);
+	}
+}
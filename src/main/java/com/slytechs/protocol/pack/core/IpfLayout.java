@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
 import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32;
@@ -61,7 +63,7 @@ enum IpfLayout implements BitField.Proxy {
 	 */
 	private static class Struct {
 
-		/** The Constant TYPE2_STRUCT. */
+		/** The IPF descriptor structure, 32 bytes. */
 		private static final BinaryLayout STRUCT = unionLayout(
 				structLayout(
 
@@ -70,13 +72,12 @@ enum IpfLayout implements BitField.Proxy {
 						Int32.BITS_16.withName("duplicate_bytes"),
 						Int32.BITS_16.withName("flags"),
 
-						Int64.BITS_64.withName("frame_no"),
 						Int64.BITS_64.withName("frame_no"),
 						Int64.BITS_64.withName("prev_no"),
 						Int64.BITS_64.withName("next_no")
 
 				),
-				sequenceLayout(6, Int32.BITS_32).withName("array")
+				sequenceLayout(8, Int32.BITS_32).withName("array")
 
 		);
 	}
@@ -90,7 +91,7 @@ enum IpfLayout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	IpfLayout(String path) {
-		this.field = Struct.STRUCT.bitField(path);
+		this.field = Struct.STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
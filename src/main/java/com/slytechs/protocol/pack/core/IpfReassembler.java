@@ -0,0 +1,693 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.Ip6Option.Ip6FragmentOption;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.Ip6OptionInfo;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+
+/**
+ * IP fragment reassembler, for both IPv4 and IPv6.
+ * 
+ * <p>
+ * IPv4 fragments are matched by source and destination address, protocol and
+ * identification. IPv6 fragments are matched by source and destination address
+ * and the fragment header's identification, using the fragment extension
+ * header recorded by the type 2 dissector. Fragments are copied into a
+ * reassembly buffer as they arrive, in any order. Once all fragments of a
+ * datagram have been received, the datagram is rewritten as a single
+ * unfragmented IP packet, dissected and returned as a {@code Packet} with an
+ * {@link IpfDescriptor} chained to its type 2 descriptor. The reassembled IP
+ * header reports {@code isReassembled()} and the descriptor fields describe
+ * how the datagram was put together.
+ * </p>
+ * 
+ * <p>
+ * All reassembly buffers are preallocated off-heap, as a single slab, when the
+ * reassembler is created. The slab is never grown, so a flood of fragments,
+ * including malicious ones, can not increase memory usage. When all buffers
+ * are in use, the oldest incomplete datagram is evicted to make room for the
+ * new one. Incomplete datagrams are also evicted after a timeout, measured
+ * using packet capture timestamps and not the system clock, so offline
+ * captures are reassembled exactly the same way as live traffic.
+ * </p>
+ * 
+ * <p>
+ * Input packets must be dissected using a type 2 dissector, with IPv6
+ * extension header recording enabled (the default). Packets which are not
+ * fragments are returned unchanged. The outermost fragmented IP header is
+ * reassembled, which may be a tunneled header at any depth inside unfragmented
+ * outer ones, of either IP version. Length fields of headers preceding the reassembled IP header are not
+ * updated.
+ * </p>
+ * 
+ * <p>
+ * The returned reassembled packet, and its descriptors, are reused and only
+ * valid until the next call to {@link #reassemble(Packet)}. The reassembler is
+ * not thread safe.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class IpfReassembler {
+
+	/** Default maximum number of datagrams being reassembled at the same time. */
+	public static final int DEFAULT_MAX_DATAGRAMS = 256;
+
+	/** Default reassembly timeout in milliseconds. */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+	/** Maximum length of a reassembled IP datagram. */
+	public static final int MAX_DATAGRAM_LENGTH = 65535;
+
+	/** Room for headers, including L2 and tunnel headers, before the payload. */
+	static final int HEADER_ROOM = 512;
+
+	/** Offset of the flags and fragment offset field in IPv4 header. */
+	private static final int IPv4_FIELD_FRAG = CoreConstants.IPv4_FIELD_FLAGS;
+
+	/** Offset of the total length field in IPv4 header. */
+	private static final int IPv4_FIELD_TOTAL_LENGTH = 2;
+
+	/** Offset of the header checksum field in IPv4 header. */
+	private static final int IPv4_FIELD_CHECKSUM = 10;
+
+	/** Reserved and DF flags, preserved in the reassembled header. */
+	private static final int IPv4_MASK16_FLAGS_KEEP = 0xC000;
+
+	/** Offset of the payload length field in IPv6 header. */
+	private static final int IPv6_FIELD_PAYLOAD_LENGTH = 4;
+
+	/** Offset of the next header field in IPv6 header. */
+	private static final int IPv6_FIELD_NEXT_HEADER = 6;
+
+	/** Length of the IPv6 fragment extension header. */
+	private static final int IPv6_FRAGMENT_HEADER_LEN = Ip6OptionInfo.IPv6_OPTION_TYPE_FRAGMENT_LEN;
+
+	/**
+	 * Computes the 16-bit one's complement checksum of an IP header.
+	 *
+	 * @param buffer the buffer
+	 * @param offset offset of the IP header
+	 * @param length length of the IP header
+	 * @return the checksum
+	 */
+	static int ipChecksum(ByteBuffer buffer, int offset, int length) {
+		int sum = 0;
+		for (int i = 0; i < length; i += 2)
+			sum += Short.toUnsignedInt(buffer.getShort(offset + i));
+
+		while ((sum >>> 16) != 0)
+			sum = (sum & 0xFFFF) + (sum >>> 16);
+
+		return ~sum & 0xFFFF;
+	}
+
+	/** The buffer pool. */
+	private final SlabBufferPool pool;
+
+	/** Datagrams being reassembled, in order of creation. */
+	private final Map<IpfKey, IpfDatagram> table;
+
+	/** Datagram state, one per pool slot. */
+	private final IpfDatagram[] datagrams;
+
+	/** Ip4 header used to read fragments. */
+	private final Ip4 ip4 = new Ip4();
+
+	/** Ip6 header used to read fragments. */
+	private final Ip6 ip6 = new Ip6();
+
+	/** Ip6 fragment extension header used to read fragments. */
+	private final Ip6FragmentOption frag6 = new Ip6FragmentOption();
+
+	/** The reassembled packet's type 2 descriptor. */
+	private final Type2Descriptor type2 = new Type2Descriptor();
+
+	/** The type 2 descriptor buffer. */
+	private final ByteBuffer type2Buffer = ByteBuffer
+			.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+			.order(ByteOrder.nativeOrder());
+
+	/** The IPF descriptor. */
+	private final IpfDescriptor ipf = new IpfDescriptor();
+
+	/** The IPF descriptor buffer. */
+	private final ByteBuffer ipfBuffer = ByteBuffer
+			.allocateDirect(IpfDescriptor.IPF_DESCRIPTOR_LENGTH)
+			.order(ByteOrder.nativeOrder());
+
+	/** The reassembled packet. */
+	private final Packet reassembled = new Packet(type2);
+
+	/** The dissector. */
+	private PacketDissector dissector = PacketDissector.dissector(PacketDescriptorType.TYPE2);
+
+	/** The timeout in millis. */
+	private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	/** If true fragments are retained. */
+	private boolean retainFragments;
+
+	/** Slot of the last returned datagram, released on the next call. */
+	private int completedSlot = -1;
+
+	/** Number of reassembled datagrams. */
+	private long reassembledCount;
+
+	/** Number of incomplete datagrams which timed out. */
+	private long timeoutCount;
+
+	/** Number of dropped fragments and evicted datagrams. */
+	private long droppedCount;
+
+	/**
+	 * Instantiates a new reassembler with the default number of reassembly
+	 * buffers.
+	 */
+	public IpfReassembler() {
+		this(DEFAULT_MAX_DATAGRAMS);
+	}
+
+	/**
+	 * Instantiates a new reassembler. The reassembly buffer memory,
+	 * {@code maxDatagrams} buffers of about 64KB each, is preallocated.
+	 *
+	 * @param maxDatagrams maximum number of datagrams being reassembled at the
+	 *                     same time
+	 * @throws IllegalArgumentException if maxDatagrams is not positive or too
+	 *                                  large
+	 */
+	public IpfReassembler(int maxDatagrams) throws IllegalArgumentException {
+		this.pool = new SlabBufferPool(maxDatagrams, HEADER_ROOM + MAX_DATAGRAM_LENGTH);
+		this.table = new LinkedHashMap<>(maxDatagrams * 2);
+		this.datagrams = new IpfDatagram[maxDatagrams];
+
+		for (int i = 0; i < maxDatagrams; i++)
+			datagrams[i] = new IpfDatagram(i, pool.buffer(i), HEADER_ROOM);
+	}
+
+	/**
+	 * Sets the reassembly timeout. Incomplete datagrams are evicted once the
+	 * timestamp of a newer packet exceeds the timestamp of the datagram's first
+	 * fragment by the timeout.
+	 *
+	 * @param timeout the timeout
+	 * @param unit    the unit
+	 * @return this reassembler
+	 */
+	public IpfReassembler setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = unit.toMillis(timeout);
+
+		return this;
+	}
+
+	/**
+	 * Sets the type 2 dissector used to dissect reassembled datagrams.
+	 *
+	 * @param dissector the dissector
+	 * @return this reassembler
+	 */
+	public IpfReassembler setDissector(PacketDissector dissector) {
+		this.dissector = dissector;
+
+		return this;
+	}
+
+	/**
+	 * Retains a copy of every fragment, made available by
+	 * {@link IpfDescriptor#fragments()} on the reassembled packet. Disabled by
+	 * default, since it allocates a copy of every fragment.
+	 *
+	 * @param enable if true, fragments are retained
+	 * @return this reassembler
+	 */
+	public IpfReassembler setRetainFragments(boolean enable) {
+		this.retainFragments = enable;
+
+		return this;
+	}
+
+	/**
+	 * Process a packet. Packets which are not IP fragments are returned
+	 * unchanged. Fragments are consumed and, if the fragment completes a
+	 * datagram, the reassembled datagram is returned, otherwise null.
+	 *
+	 * @param packet a type 2 dissected packet
+	 * @return the packet, the reassembled datagram or null if the fragment was
+	 *         consumed
+	 */
+	public Packet reassemble(Packet packet) {
+		releaseCompleted();
+
+		if (!(packet.descriptor() instanceof Type2Descriptor desc))
+			return packet;
+
+		final long nowMillis = packet.timestampUnit().toEpochMilli(packet.timestamp());
+		expire(nowMillis);
+
+		/*
+		 * The descriptor's L3 fragment flags describe the innermost IP header, so
+		 * check every IP header of both versions, including tunneled ones of the
+		 * same version, and reassemble the outermost fragmented header.
+		 */
+		final boolean isIp4Frag = peekIp4Fragment(packet);
+		final boolean isIp6Frag = peekIp6Fragment(packet);
+
+		if (isIp4Frag && (!isIp6Frag || (ip4.headerOffset() < ip6.headerOffset())))
+			return reassembleIp4(packet, desc, nowMillis);
+
+		if (isIp6Frag)
+			return reassembleIp6(packet, desc, nowMillis);
+
+		return packet;
+	}
+
+	/**
+	 * Binds the IPv4 header to the outermost fragmented IPv4 header of a packet,
+	 * at any depth.
+	 *
+	 * @param packet the packet
+	 * @return true, if a fragmented IPv4 header was found
+	 */
+	private boolean peekIp4Fragment(Packet packet) {
+		for (int depth = 0; packet.peekHeader(ip4, depth) != null; depth++)
+			if ((ip4.flagsMf() != 0) || (ip4.fragOffset() != 0))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Binds the IPv6 header and its fragment extension header to the outermost
+	 * fragmented IPv6 header of a packet, at any depth.
+	 *
+	 * @param packet the packet
+	 * @return true, if a fragmented IPv6 header was found
+	 */
+	private boolean peekIp6Fragment(Packet packet) {
+		for (int depth = 0; packet.peekHeader(ip6, depth) != null; depth++)
+			if (ip6.hasExtension(frag6) && ((frag6.flagsMf() != 0) || (frag6.fragmentOffset() != 0)))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Adds an IPv4 fragment.
+	 *
+	 * @param packet    the fragment
+	 * @param desc      the fragment's descriptor
+	 * @param nowMillis the fragment's timestamp
+	 * @return the reassembled datagram or null
+	 */
+	private Packet reassembleIp4(Packet packet, Type2Descriptor desc, long nowMillis) {
+		final boolean more = ip4.flagsMf() != 0;
+		final int fragOffset = ip4.fragOffset() << 3;
+		final int ipOffset = ip4.headerOffset();
+		final int ipHeaderLength = ip4.hdrLenBytes();
+		final int totalLength = ip4.totalLength();
+		final int length = totalLength - ipHeaderLength;
+
+		if ((length <= 0)
+				|| (ipOffset + totalLength > packet.captureLength())
+				|| (more && ((length & 7) != 0))
+				|| (ipHeaderLength + fragOffset + length > MAX_DATAGRAM_LENGTH)) {
+			droppedCount++;
+			return null;
+		}
+
+		final IpfKey key = IpfKey.ofIp4(ip4.srcGetAsInt(), ip4.dstAsInt(), ip4.identification(), ip4.protocol());
+
+		IpfDatagram dgram = lookup(key, nowMillis, desc.frameNo());
+		if ((fragOffset == 0) && (dgram.headerLength == -1)
+				&& !dgram.copyHeaders(packet.buffer(), ipOffset, ipHeaderLength, desc.frameNo()))
+			return drop(dgram);
+
+		return addFragment(dgram, packet, ipOffset + ipHeaderLength, fragOffset, length, more);
+	}
+
+	/**
+	 * Adds an IPv6 fragment. The IPv6 header and the extension headers preceding
+	 * the fragment header form the unfragmentable part, which is taken from the
+	 * fragment at offset 0. The fragment header itself is removed from the
+	 * reassembled datagram.
+	 *
+	 * @param packet    the fragment
+	 * @param desc      the fragment's descriptor
+	 * @param nowMillis the fragment's timestamp
+	 * @return the reassembled datagram or null
+	 */
+	private Packet reassembleIp6(Packet packet, Type2Descriptor desc, long nowMillis) {
+		final ByteBuffer data = packet.buffer();
+		final boolean more = frag6.flagsMf() != 0;
+		final int fragOffset = frag6.fragmentByteOffset();
+		final int ipOffset = ip6.headerOffset();
+		final int fragAt = frag6.headerOffset();
+		final int dataOffset = fragAt + IPv6_FRAGMENT_HEADER_LEN;
+		final int end = ipOffset + CoreConstants.IPv6_HEADER_LEN + ip6.payloadLength();
+		final int length = end - dataOffset;
+		final int unfragmentableLength = fragAt - ipOffset;
+
+		if ((length <= 0)
+				|| (end > packet.captureLength())
+				|| (more && ((length & 7) != 0))
+				|| (unfragmentableLength - CoreConstants.IPv6_HEADER_LEN + fragOffset + length > MAX_DATAGRAM_LENGTH)) {
+			droppedCount++;
+			return null;
+		}
+
+		final IpfKey key = IpfKey.ofIp6(ip6, frag6.identification());
+
+		IpfDatagram dgram = lookup(key, nowMillis, desc.frameNo());
+		if ((fragOffset == 0) && (dgram.headerLength == -1)) {
+			int nextHeaderAt = ip6NextHeaderFieldBefore(data, ipOffset, fragAt);
+
+			if ((nextHeaderAt == -1) || !dgram.copyHeaders(data, ipOffset, unfragmentableLength, desc.frameNo()))
+				return drop(dgram);
+
+			dgram.nextHeaderAt = nextHeaderAt;
+			dgram.nextHeader = frag6.nextHeader();
+		}
+
+		return addFragment(dgram, packet, dataOffset, fragOffset, length, more);
+	}
+
+	/**
+	 * Walks the IPv6 extension header chain to find the next header field which
+	 * points at the fragment header.
+	 *
+	 * @param data     the packet buffer
+	 * @param ipOffset offset of the IPv6 header
+	 * @param fragAt   offset of the fragment header
+	 * @return offset of the next header field, or -1 if the chain does not lead
+	 *         to the fragment header
+	 */
+	private static int ip6NextHeaderFieldBefore(ByteBuffer data, int ipOffset, int fragAt) {
+		int nextHeaderAt = ipOffset + IPv6_FIELD_NEXT_HEADER;
+		int next = Byte.toUnsignedInt(data.get(nextHeaderAt));
+		int offset = ipOffset + CoreConstants.IPv6_HEADER_LEN;
+
+		while (offset < fragAt) {
+			int hdrExtLen = Byte.toUnsignedInt(data.get(offset + 1));
+
+			nextHeaderAt = offset;
+			offset += (next == CoreConstants.IP_TYPE_IPv6_AUTHENTICATION_HEADER)
+					? (hdrExtLen + 2) << 2
+					: (hdrExtLen + 1) << 3;
+			next = Byte.toUnsignedInt(data.get(nextHeaderAt));
+		}
+
+		return (offset == fragAt) && (next == CoreConstants.IP_TYPE_IPv6_FRAGMENT_HEADER) ? nextHeaderAt : -1;
+	}
+
+	/**
+	 * Looks up an existing datagram or starts a new one.
+	 *
+	 * @param key       the key
+	 * @param nowMillis the fragment's timestamp
+	 * @param frameNo   the fragment's frame number
+	 * @return the datagram
+	 */
+	private IpfDatagram lookup(IpfKey key, long nowMillis, long frameNo) {
+		IpfDatagram dgram = table.get(key);
+		if (dgram == null) {
+			dgram = newDatagram(key, nowMillis, frameNo);
+
+			table.put(key, dgram);
+		}
+
+		dgram.lastFrameNo = frameNo;
+
+		return dgram;
+	}
+
+	/**
+	 * Adds fragment data to a datagram, and completes the datagram if this was the
+	 * last missing fragment.
+	 *
+	 * @param dgram      the datagram
+	 * @param packet     the fragment
+	 * @param dataOffset offset of fragment data within the packet
+	 * @param fragOffset offset of fragment data within the datagram
+	 * @param length     length of the fragment data
+	 * @param more       true if more fragments follow
+	 * @return the reassembled datagram or null
+	 */
+	private Packet addFragment(IpfDatagram dgram, Packet packet, int dataOffset, int fragOffset, int length,
+			boolean more) {
+
+		if (!dgram.fill(packet.buffer(), dataOffset, fragOffset, length, more))
+			return drop(dgram);
+
+		if (dgram.retainFragments)
+			dgram.fragments.add(copyOf(packet));
+
+		if (!dgram.isComplete())
+			return null;
+
+		table.remove(dgram.key);
+
+		return complete(dgram, packet);
+	}
+
+	/**
+	 * Creates a new datagram, evicting the oldest one if all reassembly buffers
+	 * are in use.
+	 *
+	 * @param key       the key
+	 * @param nowMillis the current time
+	 * @param frameNo   the frame number of the first fragment
+	 * @return the datagram
+	 */
+	private IpfDatagram newDatagram(IpfKey key, long nowMillis, long frameNo) {
+		int slot = pool.acquire();
+		if (slot == -1) {
+			Iterator<IpfDatagram> it = table.values().iterator();
+			IpfDatagram oldest = it.next();
+			it.remove();
+
+			pool.release(oldest.slot);
+			droppedCount++;
+
+			slot = pool.acquire();
+		}
+
+		return datagrams[slot].reset(key, nowMillis, frameNo, retainFragments);
+	}
+
+	/**
+	 * Drops an inconsistent datagram.
+	 *
+	 * @param dgram the datagram
+	 * @return always null
+	 */
+	private Packet drop(IpfDatagram dgram) {
+		table.remove(dgram.key);
+		pool.release(dgram.slot);
+
+		droppedCount++;
+
+		return null;
+	}
+
+	/**
+	 * Releases the buffer of the previously returned datagram.
+	 */
+	private void releaseCompleted() {
+		if (completedSlot != -1) {
+			pool.release(completedSlot);
+			completedSlot = -1;
+		}
+	}
+
+	/**
+	 * Rewrites the IP header of a complete datagram and binds it to the
+	 * reassembled packet.
+	 *
+	 * @param dgram the datagram
+	 * @param last  the last fragment received
+	 * @return the reassembled packet
+	 */
+	private Packet complete(IpfDatagram dgram, Packet last) {
+		final ByteBuffer buf = dgram.buffer;
+		final int ipAt = dgram.datagramOffset() + dgram.ipOffset;
+		final boolean isIp6 = (dgram.nextHeaderAt != -1);
+
+		if (isIp6) {
+			int payloadLength = dgram.ipHeaderLength - CoreConstants.IPv6_HEADER_LEN + dgram.payloadLength;
+
+			buf.putShort(ipAt + IPv6_FIELD_PAYLOAD_LENGTH, (short) payloadLength);
+			buf.put(dgram.datagramOffset() + dgram.nextHeaderAt, (byte) dgram.nextHeader);
+
+		} else {
+			int frag = Short.toUnsignedInt(buf.getShort(ipAt + IPv4_FIELD_FRAG));
+
+			buf.putShort(ipAt + IPv4_FIELD_TOTAL_LENGTH, (short) (dgram.ipHeaderLength + dgram.payloadLength));
+			buf.putShort(ipAt + IPv4_FIELD_FRAG, (short) (frag & IPv4_MASK16_FLAGS_KEEP));
+			buf.putShort(ipAt + IPv4_FIELD_CHECKSUM, (short) 0);
+			buf.putShort(ipAt + IPv4_FIELD_CHECKSUM, (short) ipChecksum(buf, ipAt, dgram.ipHeaderLength));
+		}
+
+		final int length = dgram.datagramLength();
+		final ByteBuffer datagram = buf.slice(dgram.datagramOffset(), length);
+
+		dissector.dissectPacket(datagram, last.timestamp(), length, length);
+		datagram.rewind();
+		dissector.writeDescriptor(type2Buffer.clear());
+
+		type2.bind(type2Buffer.clear());
+		type2.frameNo(last.descriptor().frameNo());
+		type2.timestampUnit(last.timestampUnit());
+
+		int flags = IpfDescriptor.IPF_FLAG_COMPLETE;
+		if (dgram.duplicate > 0)
+			flags |= IpfDescriptor.IPF_FLAG_OVERLAP;
+		if (isIp6)
+			flags |= IpfDescriptor.IPF_FLAG_IPv6;
+
+		ipf.bind(ipfBuffer.clear());
+		ipf.write(dgram.assembled, 0, dgram.duplicate, flags,
+				dgram.headerFrameNo, dgram.firstFrameNo, dgram.lastFrameNo,
+				dgram.retainFragments ? dgram.fragments.toArray(Packet[]::new) : null);
+		type2.addDescriptor(ipf);
+
+		reassembled.bind(datagram);
+
+		this.completedSlot = dgram.slot;
+		this.reassembledCount++;
+
+		return reassembled;
+	}
+
+	/**
+	 * Makes a deep copy of a type 2 packet, including its descriptor.
+	 *
+	 * @param packet the packet
+	 * @return the copy
+	 */
+	static Packet copyOf(Packet packet) {
+		final Type2Descriptor src = packet.descriptor();
+		final int caplen = packet.captureLength();
+
+		ByteBuffer data = ByteBuffer.allocate(caplen).put(0, packet.buffer(), 0, caplen);
+
+		return new Packet(data, src.copy());
+	}
+
+	/**
+	 * Evicts all incomplete datagrams which have timed out.
+	 *
+	 * @param nowMillis the current time in epoch millis
+	 * @return number of datagrams evicted
+	 */
+	public int expire(long nowMillis) {
+		int count = 0;
+
+		for (Iterator<IpfDatagram> it = table.values().iterator(); it.hasNext();) {
+			IpfDatagram dgram = it.next();
+			if (nowMillis - dgram.firstMillis < timeoutMillis)
+				break; // Rest are newer
+
+			it.remove();
+			pool.release(dgram.slot);
+			count++;
+		}
+
+		this.timeoutCount += count;
+
+		return count;
+	}
+
+	/**
+	 * Discards all incomplete datagrams and releases all reassembly buffers.
+	 */
+	public void flush() {
+		releaseCompleted();
+
+		for (IpfDatagram dgram : table.values())
+			pool.release(dgram.slot);
+
+		table.clear();
+	}
+
+	/**
+	 * Number of incomplete datagrams.
+	 *
+	 * @return the count
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Number of datagrams reassembled so far.
+	 *
+	 * @return the count
+	 */
+	public long reassembledCount() {
+		return reassembledCount;
+	}
+
+	/**
+	 * Number of incomplete datagrams evicted due to timeout.
+	 *
+	 * @return the count
+	 */
+	public long timeoutCount() {
+		return timeoutCount;
+	}
+
+	/**
+	 * Number of invalid fragments dropped and incomplete datagrams dropped due to
+	 * inconsistent fragments or evicted to make room for new ones.
+	 *
+	 * @return the count
+	 */
+	public long droppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "IpfReassembler [pending=" + table.size()
+				+ ", available=" + pool.available() + "/" + pool.capacity()
+				+ ", reassembled=" + reassembledCount
+				+ ", timeouts=" + timeoutCount
+				+ ", dropped=" + droppedCount
+				+ "]";
+	}
+}
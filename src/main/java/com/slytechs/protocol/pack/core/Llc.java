@@ -64,7 +64,7 @@ public final class Llc extends Header {
 	 */
 	@Meta
 	public int control() {
-		return LlcLayout.CONTROL.getUnsignedByte(buffer());
+		return LlcLayout.CONTROL.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -81,7 +81,7 @@ public final class Llc extends Header {
 	 */
 	@Meta
 	public int dsap() {
-		return LlcLayout.DSAP.getUnsignedByte(buffer());
+		return LlcLayout.DSAP.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -96,6 +96,17 @@ public final class Llc extends Header {
 	 */
 	@Meta
 	public int ssap() {
-		return LlcLayout.SSAP.getUnsignedByte(buffer());
+		return LlcLayout.SSAP.getUnsignedByteAt(bufferOffset(), buffer());
+	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
 	}
 }
@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
 import com.slytechs.protocol.runtime.internal.layout.BitField;
 import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int8;
@@ -68,7 +70,7 @@ enum LlcLayout implements BitField.Proxy {
 	 * @param path the path
 	 */
 	LlcLayout(String path) {
-		this.field = Struct.STRUCT.bitField(path);
+		this.field = Struct.STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
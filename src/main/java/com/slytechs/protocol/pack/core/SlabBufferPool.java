@@ -0,0 +1,113 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed pool of equally sized buffers, carved out of a single preallocated
+ * off-heap slab. The total memory used by the pool is fixed when the pool is
+ * created and never grows, regardless of how much traffic is buffered. Used by
+ * the IP fragment and TCP stream reassemblers.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+final class SlabBufferPool {
+
+	/** The slots. */
+	private final ByteBuffer[] slots;
+
+	/** Stack of free slot indexes. */
+	private final int[] free;
+
+	/** Number of free slots on the stack. */
+	private int freeCount;
+
+	/**
+	 * Instantiates a new buffer pool.
+	 *
+	 * @param slotCount number of buffers
+	 * @param slotSize  size of each buffer in bytes
+	 * @throws IllegalArgumentException if the slab would exceed 2 GB
+	 */
+	SlabBufferPool(int slotCount, int slotSize) throws IllegalArgumentException {
+		long slabSize = (long) slotCount * slotSize;
+		if ((slotCount <= 0) || (slabSize > Integer.MAX_VALUE))
+			throw new IllegalArgumentException("invalid slab size [%d x %d bytes]"
+					.formatted(slotCount, slotSize));
+
+		ByteBuffer slab = ByteBuffer.allocateDirect((int) slabSize);
+
+		this.slots = new ByteBuffer[slotCount];
+		this.free = new int[slotCount];
+
+		for (int i = 0; i < slotCount; i++) {
+			slots[i] = slab.slice(i * slotSize, slotSize);
+			free[i] = slotCount - i - 1;
+		}
+
+		this.freeCount = slotCount;
+	}
+
+	/**
+	 * Acquires a free buffer.
+	 *
+	 * @return the slot index or -1 if no free buffers are available
+	 */
+	int acquire() {
+		return (freeCount == 0) ? -1 : free[--freeCount];
+	}
+
+	/**
+	 * Releases a previously acquired buffer.
+	 *
+	 * @param slot the slot index
+	 */
+	void release(int slot) {
+		free[freeCount++] = slot;
+	}
+
+	/**
+	 * The buffer of a slot.
+	 *
+	 * @param slot the slot index
+	 * @return the buffer
+	 */
+	ByteBuffer buffer(int slot) {
+		return slots[slot];
+	}
+
+	/**
+	 * Number of free buffers.
+	 *
+	 * @return the free count
+	 */
+	int available() {
+		return freeCount;
+	}
+
+	/**
+	 * Total number of buffers.
+	 *
+	 * @return the capacity
+	 */
+	int capacity() {
+		return slots.length;
+	}
+}
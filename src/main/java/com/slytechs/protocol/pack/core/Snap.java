@@ -68,7 +68,7 @@ public final class Snap extends Header {
 	 */
 	@Meta
 	public byte[] oui() {
-		return SnapLayout.OUI.getByteArray(buffer());
+		return SnapLayout.OUI.getByteArrayAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -78,7 +78,17 @@ public final class Snap extends Header {
 	 */
 	@Meta
 	public int pid() {
-		return SnapLayout.PID.getUnsignedShort(buffer());
+		return SnapLayout.PID.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
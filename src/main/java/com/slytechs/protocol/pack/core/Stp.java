@@ -59,7 +59,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int protocol() {
-		return StpLayout.PROTOCOL.getUnsignedShort(buffer());
+		return StpLayout.PROTOCOL.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -69,7 +69,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int version() {
-		return StpLayout.VERSION.getUnsignedByte(buffer());
+		return StpLayout.VERSION.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -79,7 +79,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int type() {
-		return StpLayout.TYPE.getUnsignedByte(buffer());
+		return StpLayout.TYPE.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -89,7 +89,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int flags() {
-		return StpLayout.FLAGS.getUnsignedByte(buffer());
+		return StpLayout.FLAGS.getUnsignedByteAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -99,7 +99,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public long rootId() {
-		return StpLayout.ROOT_ID.getLong(buffer());
+		return StpLayout.ROOT_ID.getLongAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -109,7 +109,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int rootBridgePriority() {
-		return StpLayout.ROOT_BRIDGE_PRIORITY.getUnsignedByte(buffer()) << 8;
+		return StpLayout.ROOT_BRIDGE_PRIORITY.getUnsignedByteAt(bufferOffset(), buffer()) << 8;
 	}
 
 	/**
@@ -119,7 +119,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int rootBridgeIdExt() {
-		return StpLayout.ROOT_BRIDGE_ID_EXT.getInt(buffer());
+		return StpLayout.ROOT_BRIDGE_ID_EXT.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -129,7 +129,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public byte[] rootBridgeId() {
-		return StpLayout.ROOT_BRIDGE_ID.getByteArray(buffer());
+		return StpLayout.ROOT_BRIDGE_ID.getByteArrayAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -139,7 +139,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int rootCost() {
-		return StpLayout.ROOT_PATH_COST.getInt(buffer());
+		return StpLayout.ROOT_PATH_COST.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -149,7 +149,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public long bridgeId() {
-		return StpLayout.BRIDGE_ID.getLong(buffer());
+		return StpLayout.BRIDGE_ID.getLongAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -159,7 +159,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int systemBridgePriority() {
-		return StpLayout.SYSTEM_BRIDGE_PRIORITY.getUnsignedByte(buffer()) << 8;
+		return StpLayout.SYSTEM_BRIDGE_PRIORITY.getUnsignedByteAt(bufferOffset(), buffer()) << 8;
 	}
 
 	/**
@@ -169,7 +169,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int systemBridgeIdExt() {
-		return StpLayout.SYSTEM_BRIDGE_ID_EXT.getInt(buffer());
+		return StpLayout.SYSTEM_BRIDGE_ID_EXT.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -179,7 +179,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public byte[] systemBridgeId() {
-		return StpLayout.SYSTEM_BRIDGE_ID.getByteArray(buffer());
+		return StpLayout.SYSTEM_BRIDGE_ID.getByteArrayAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -189,7 +189,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int portId() {
-		return StpLayout.PORT_ID.getUnsignedShort(buffer());
+		return StpLayout.PORT_ID.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -199,7 +199,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int messageAge() {
-		return StpLayout.MSG_AGE.getUnsignedShort(buffer());
+		return StpLayout.MSG_AGE.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -209,7 +209,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int maxTime() {
-		return StpLayout.MAX_AGE.getUnsignedShort(buffer());
+		return StpLayout.MAX_AGE.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -219,7 +219,7 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int helloTime() {
-		return StpLayout.HELLO.getUnsignedShort(buffer());
+		return StpLayout.HELLO.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -229,6 +229,17 @@ public final class Stp extends Header {
 	 */
 	@Meta
 	public int forwardDelay() {
-		return StpLayout.FORWARD.getUnsignedShort(buffer());
+		return StpLayout.FORWARD.getUnsignedShortAt(bufferOffset(), buffer());
+	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
 	}
 }
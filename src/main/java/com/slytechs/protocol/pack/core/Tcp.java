@@ -19,10 +19,13 @@ package com.slytechs.protocol.pack.core;
 
 import com.slytechs.protocol.HeaderExtension;
 import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDescriptor;
 import com.slytechs.protocol.meta.Meta;
 import com.slytechs.protocol.meta.MetaResource;
 import com.slytechs.protocol.pack.core.TcpOption.TcpWindowScaleOption;
 import com.slytechs.protocol.pack.core.constants.CoreIdTable;
+import com.slytechs.protocol.pack.core.constants.TcpDescriptorType;
+import com.slytechs.protocol.runtime.internal.layout.CarrierField;
 
 /**
  * Transmission Control Protocol (TCP).
@@ -40,6 +43,30 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	@SuppressWarnings("unused")
 	private static final String FLAGS_FORMAT = "..B WEUA PRSF";
 
+	/**
+	 * The Class Fields.
+	 */
+	private static final class Fields {
+		// @formatter:off
+		static final CarrierField.OfByteBuffer ACK            = TcpStruct.ACK.forByteBuffer();
+		static final CarrierField.OfByteBuffer CHECKSUM       = TcpStruct.CHECKSUM.forByteBuffer();
+		static final CarrierField.OfByteBuffer DST_PORT       = TcpStruct.DST_PORT.forByteBuffer();
+		static final CarrierField.OfByteBuffer FLAGS          = TcpStruct.FLAGS.forByteBuffer();
+		static final CarrierField.OfByteBuffer HDR_LEN        = TcpStruct.HDR_LEN.forByteBuffer();
+		static final CarrierField.OfByteBuffer RESERVED       = TcpStruct.RESERVED.forByteBuffer();
+		static final CarrierField.OfByteBuffer SEQ            = TcpStruct.SEQ.forByteBuffer();
+		static final CarrierField.OfByteBuffer SRC_PORT       = TcpStruct.SRC_PORT.forByteBuffer();
+		static final CarrierField.OfByteBuffer URGENT_POINTER = TcpStruct.URGENT_POINTER.forByteBuffer();
+		static final CarrierField.OfByteBuffer WIN_SIZE       = TcpStruct.WIN_SIZE.forByteBuffer();
+		// @formatter:on
+
+		/**
+		 * Disabled initializer.
+		 */
+		private Fields() {
+		}
+	}
+
 	/**
 	 * The wscale option. We persist the object, once its lazily created in case it
 	 * will be needed again during the next header binding. The option is unbound
@@ -47,6 +74,9 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	private TcpWindowScaleOption wscaleOption;
 
+	/** The TCP descriptor of a reassembled segment, or null if not reassembled. */
+	private TcpDescriptor tcpDescriptor;
+
 	/**
 	 * Instantiates a new tcp.
 	 */
@@ -65,7 +95,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public long ack() {
-		return TcpStruct.ACK.getUnsignedInt(buffer());
+		return Fields.ACK.getUnsignedIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -74,7 +104,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param ack the ack
 	 */
 	public void ack(long ack) {
-		TcpStruct.ACK.setInt((int) ack, buffer());
+		Fields.ACK.setIntAt((int) ack, bufferOffset(), buffer());
 	}
 
 	/**
@@ -88,7 +118,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public int checksum() {
-		return TcpStruct.CHECKSUM.getUnsignedShort(buffer());
+		return Fields.CHECKSUM.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -97,7 +127,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param checksum the checksum
 	 */
 	public void checksum(int checksum) {
-		TcpStruct.CHECKSUM.setInt(checksum, buffer());
+		Fields.CHECKSUM.setIntAt(checksum, bufferOffset(), buffer());
 	}
 
 	/**
@@ -113,7 +143,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public int dataOffset() {
-		return TcpStruct.HDR_LEN.getUnsignedShort(buffer());
+		return Fields.HDR_LEN.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -122,7 +152,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param newOffset the hdr len
 	 */
 	public void dataOffset(int newOffset) {
-		TcpStruct.HDR_LEN.setInt(newOffset, buffer());
+		Fields.HDR_LEN.setIntAt(newOffset, bufferOffset(), buffer());
 	}
 
 	/**
@@ -132,7 +162,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public int dstPort() {
-		return TcpStruct.DST_PORT.getUnsignedShort(buffer());
+		return Fields.DST_PORT.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -141,7 +171,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param newPort the new port
 	 */
 	public void dstPort(int newPort) {
-		TcpStruct.DST_PORT.setInt(newPort, buffer());
+		Fields.DST_PORT.setIntAt(newPort, bufferOffset(), buffer());
 	}
 
 	/**
@@ -181,7 +211,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public int flags() {
-		return TcpStruct.FLAGS.getUnsignedShort(buffer());
+		return Fields.FLAGS.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -190,7 +220,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param flags the flags
 	 */
 	public void flags(int flags) {
-		TcpStruct.FLAGS.setInt(flags, buffer());
+		Fields.FLAGS.setIntAt(flags, bufferOffset(), buffer());
 	}
 
 	/**
@@ -199,16 +229,33 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @return the int
 	 */
 	public int hdrLenBytes() {
-		return TcpStruct.HDR_LEN.getUnsignedShort(buffer()) << 2;
+		return Fields.HDR_LEN.getUnsignedShortAt(bufferOffset(), buffer()) << 2;
 	}
 
 	/**
-	 * Checks if is this TCP frame is part of a reassembled TCP stream.
+	 * Checks if is this TCP frame is part of a reassembled TCP stream. True when
+	 * the segment was processed by a {@link TcpReassembler} and its payload was
+	 * delivered to the stream in order, including segments which released
+	 * previously buffered out-of-order data.
 	 *
 	 * @return true, if is reassembled
 	 */
 	public boolean isReassembled() {
-		throw new UnsupportedOperationException("not implemented yet");
+		return (tcpDescriptor != null) && tcpDescriptor.isDelivered();
+	}
+
+	/**
+	 * On bind to packet, looks up the TCP descriptor in the descriptor chain,
+	 * which is present only for segments processed by a TCP reassembler.
+	 *
+	 * @param descriptor the packet descriptor
+	 * @see com.slytechs.protocol.Header#onBindToPacket(com.slytechs.protocol.descriptor.PacketDescriptor)
+	 */
+	@Override
+	protected void onBindToPacket(PacketDescriptor descriptor) {
+		this.tcpDescriptor = (descriptor.nextDescriptor() == null)
+				? null
+				: descriptor.peekDescriptor(TcpDescriptorType.TCP);
 	}
 
 	/**
@@ -222,15 +269,29 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 
 		if (wscaleOption != null)
 			wscaleOption.unbind();
+
+		this.tcpDescriptor = null;
 	}
 
 	/**
-	 * Reaseembled segments.
+	 * Reaseembled segments. The segments which were buffered out of order and
+	 * delivered to the stream right after this segment, if the reassembler was
+	 * configured to retain them.
 	 *
-	 * @return the packet[]
+	 * @return the segments or an empty array
 	 */
 	public Packet[] reaseembledSegments() {
-		throw new UnsupportedOperationException("not implemented yet");
+		return (tcpDescriptor == null) ? new Packet[0] : tcpDescriptor.segments().clone();
+	}
+
+	/**
+	 * Gets the TCP descriptor, if this segment was processed by a TCP
+	 * reassembler.
+	 *
+	 * @return the TCP descriptor or null
+	 */
+	public TcpDescriptor tcpDescriptor() {
+		return tcpDescriptor;
 	}
 
 	/**
@@ -241,7 +302,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @return the int
 	 */
 	public int reserved() {
-		return TcpStruct.RESERVED.getUnsignedShort(buffer());
+		return Fields.RESERVED.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -250,7 +311,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param res the res
 	 */
 	public void reserved(int res) {
-		TcpStruct.RESERVED.setInt(res, buffer());
+		Fields.RESERVED.setIntAt(res, bufferOffset(), buffer());
 	}
 
 	/**
@@ -270,7 +331,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public long seq() {
-		return TcpStruct.SEQ.getUnsignedInt(buffer());
+		return Fields.SEQ.getUnsignedIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -279,7 +340,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param seq the seq
 	 */
 	public void seq(long seq) {
-		TcpStruct.SEQ.setInt((int) seq, buffer());
+		Fields.SEQ.setIntAt((int) seq, bufferOffset(), buffer());
 	}
 
 	/**
@@ -289,7 +350,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 */
 	@Meta
 	public int srcPort() {
-		return TcpStruct.SRC_PORT.getUnsignedShort(buffer());
+		return Fields.SRC_PORT.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -298,7 +359,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param newPort the new port
 	 */
 	public void srcPort(int newPort) {
-		TcpStruct.SRC_PORT.setInt(newPort, buffer());
+		Fields.SRC_PORT.setIntAt(newPort, bufferOffset(), buffer());
 	}
 
 	/**
@@ -308,7 +369,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @return the int
 	 */
 	public int urgentPointer() {
-		return TcpStruct.URGENT_POINTER.getUnsignedShort(buffer());
+		return Fields.URGENT_POINTER.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -317,7 +378,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param urgentPointer the urgent pointer
 	 */
 	public void urgentPointer(int urgentPointer) {
-		TcpStruct.URGENT_POINTER.setInt(urgentPointer, buffer());
+		Fields.URGENT_POINTER.setIntAt(urgentPointer, bufferOffset(), buffer());
 	}
 
 	/**
@@ -328,7 +389,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @return the int
 	 */
 	public int windowSize() {
-		return TcpStruct.WIN_SIZE.getUnsignedShort(buffer());
+		return Fields.WIN_SIZE.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -337,7 +398,7 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	 * @param size the size
 	 */
 	public void windowSize(int size) {
-		TcpStruct.WIN_SIZE.setInt(size, buffer());
+		Fields.WIN_SIZE.setIntAt(size, bufferOffset(), buffer());
 	}
 
 	/**
@@ -368,4 +429,15 @@ public final class Tcp extends HeaderExtension<TcpOption> {
 	public int windowSizeScaled(int scale) {
 		return windowSize() << scale;
 	}
+
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
@@ -0,0 +1,192 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.Descriptor;
+import com.slytechs.protocol.pack.core.constants.TcpDescriptorType;
+
+/**
+ * A TCP stream tracking descriptor. The descriptor is chained to the packet's
+ * descriptor by a {@link TcpReassembler} and describes what happened to the
+ * segment's payload: whether it was delivered to the stream in order, buffered
+ * out of order, or recognized as a retransmission.
+ * 
+ * <p>
+ * The stream offset is the position of the segment's first payload byte
+ * within its stream, relative to the initial sequence number. When a segment
+ * fills in a hole, previously buffered segments which became contiguous are
+ * delivered right after it, and are counted in the released bytes and
+ * segments fields.
+ * </p>
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class TcpDescriptor extends Descriptor {
+
+	/** Length of the TCP descriptor in bytes. */
+	public static final int TCP_DESCRIPTOR_LENGTH = 24;
+
+	/** Segment payload was delivered to the stream, in order. */
+	public static final int TCP_FLAG_DELIVERED = 0x0001;
+
+	/** Segment was buffered, out of order, for later delivery. */
+	public static final int TCP_FLAG_BUFFERED = 0x0002;
+
+	/** Segment payload, or part of it, was a retransmission. */
+	public static final int TCP_FLAG_RETRANSMIT = 0x0004;
+
+	/** Missing stream data was skipped before this segment's payload. */
+	public static final int TCP_FLAG_GAP = 0x0008;
+
+	/** Segment was dropped, since it was outside of the receive window. */
+	public static final int TCP_FLAG_OUT_OF_WINDOW = 0x0010;
+
+	/** Segment was dropped, since it could not be buffered. */
+	public static final int TCP_FLAG_DROPPED = 0x0020;
+
+	/** The stream ended with this segment, due to FIN or RST. */
+	public static final int TCP_FLAG_STREAM_END = 0x0040;
+
+	/** Segment was sent by the client, the side which sent the first SYN. */
+	public static final int TCP_FLAG_CLIENT = 0x0080;
+
+	/** An empty array of segments. */
+	private static final Packet[] EMPTY_SEGMENTS = new Packet[0];
+
+	/** The retained released segments, if any. */
+	private Packet[] segments = EMPTY_SEGMENTS;
+
+	/**
+	 * Instantiates a new TCP descriptor.
+	 */
+	public TcpDescriptor() {
+		super(TcpDescriptorType.TCP);
+	}
+
+	/**
+	 * Type.
+	 *
+	 * @return the TCP descriptor type
+	 * @see com.slytechs.protocol.descriptor.Descriptor#type()
+	 */
+	@Override
+	public TcpDescriptorType type() {
+		return TcpDescriptorType.TCP;
+	}
+
+	/**
+	 * Offset of the segment's first payload byte within the stream.
+	 *
+	 * @return the stream offset
+	 */
+	public long streamOffset() {
+		return TcpLayout.STREAM_OFFSET.getLong(buffer());
+	}
+
+	/**
+	 * Number of this segment's payload bytes delivered to the stream.
+	 *
+	 * @return the delivered bytes
+	 */
+	public int deliveredBytes() {
+		return TcpLayout.DELIVERED_BYTES.getInt(buffer());
+	}
+
+	/**
+	 * Number of previously buffered bytes delivered after this segment.
+	 *
+	 * @return the released bytes
+	 */
+	public int releasedBytes() {
+		return TcpLayout.RELEASED_BYTES.getInt(buffer());
+	}
+
+	/**
+	 * Number of previously buffered segments delivered after this segment.
+	 *
+	 * @return the released segment count
+	 */
+	public int releasedSegments() {
+		return TcpLayout.RELEASED_SEGMENTS.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * The TCP flags, a combination of the {@code TCP_FLAG} constants.
+	 *
+	 * @return the flags
+	 */
+	public int tcpFlags() {
+		return TcpLayout.FLAGS.getUnsignedShort(buffer());
+	}
+
+	/**
+	 * Checks if the segment's payload was delivered to the stream.
+	 *
+	 * @return true, if delivered
+	 */
+	public boolean isDelivered() {
+		return (tcpFlags() & TCP_FLAG_DELIVERED) != 0;
+	}
+
+	/**
+	 * The previously buffered segments released by this segment, if the
+	 * reassembler was configured to retain them.
+	 *
+	 * @return the segments or an empty array
+	 */
+	public Packet[] segments() {
+		return segments;
+	}
+
+	/**
+	 * Writes all of the TCP descriptor fields.
+	 *
+	 * @param streamOffset     the stream offset
+	 * @param delivered        the delivered bytes
+	 * @param released         the released bytes
+	 * @param flags            the TCP flags
+	 * @param releasedSegments the released segment count
+	 * @param segments         the retained released segments or null
+	 */
+	void write(long streamOffset, int delivered, int released, int flags, int releasedSegments,
+			Packet[] segments) {
+		var buffer = buffer();
+
+		TcpLayout.STREAM_OFFSET.setLong(streamOffset, buffer);
+		TcpLayout.DELIVERED_BYTES.setInt(delivered, buffer);
+		TcpLayout.RELEASED_BYTES.setInt(released, buffer);
+		TcpLayout.FLAGS.setInt(flags, buffer);
+		TcpLayout.RELEASED_SEGMENTS.setInt(releasedSegments, buffer);
+
+		this.segments = (segments == null) ? EMPTY_SEGMENTS : segments;
+	}
+
+	/**
+	 * On unbind.
+	 *
+	 * @see com.slytechs.protocol.descriptor.Descriptor#onUnbind()
+	 */
+	@Override
+	protected void onUnbind() {
+		super.onUnbind();
+
+		this.segments = EMPTY_SEGMENTS;
+	}
+}
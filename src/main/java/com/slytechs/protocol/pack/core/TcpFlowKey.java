@@ -0,0 +1,77 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+/**
+ * Bidirectional TCP connection key. Endpoints are ordered, so both directions
+ * of a connection map to the same key. IPv4 addresses use the lower 32 bits of
+ * the first address word.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ * @param a0      the first address word of the lower endpoint
+ * @param a1      the second address word of the lower endpoint
+ * @param b0      the first address word of the higher endpoint
+ * @param b1      the second address word of the higher endpoint
+ * @param ports   lower endpoint port in upper, higher endpoint port in lower 16
+ *                bits
+ * @param version the IP version
+ */
+record TcpFlowKey(long a0, long a1, long b0, long b1, int ports, int version) {
+
+	/**
+	 * Creates a key, ordering the endpoints.
+	 *
+	 * @param version the IP version
+	 * @param src0    the first source address word
+	 * @param src1    the second source address word
+	 * @param dst0    the first destination address word
+	 * @param dst1    the second destination address word
+	 * @param srcPort the source port
+	 * @param dstPort the destination port
+	 * @return the key
+	 */
+	static TcpFlowKey of(int version, long src0, long src1, long dst0, long dst1, int srcPort, int dstPort) {
+		if (isSourceLower(src0, src1, dst0, dst1, srcPort, dstPort))
+			return new TcpFlowKey(src0, src1, dst0, dst1, (srcPort << 16) | dstPort, version);
+		else
+			return new TcpFlowKey(dst0, dst1, src0, src1, (dstPort << 16) | srcPort, version);
+	}
+
+	/**
+	 * Checks if the source endpoint is the lower endpoint of the key.
+	 *
+	 * @param src0    the first source address word
+	 * @param src1    the second source address word
+	 * @param dst0    the first destination address word
+	 * @param dst1    the second destination address word
+	 * @param srcPort the source port
+	 * @param dstPort the destination port
+	 * @return true, if source is the lower endpoint
+	 */
+	static boolean isSourceLower(long src0, long src1, long dst0, long dst1, int srcPort, int dstPort) {
+		int c = Long.compareUnsigned(src0, dst0);
+		if (c == 0)
+			c = Long.compareUnsigned(src1, dst1);
+		if (c == 0)
+			c = Integer.compare(srcPort, dstPort);
+
+		return c <= 0;
+	}
+}
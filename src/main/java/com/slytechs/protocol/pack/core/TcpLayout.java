@@ -0,0 +1,99 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
+
+import java.nio.ByteBuffer;
+
+import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
+import com.slytechs.protocol.runtime.internal.layout.BitField;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64;
+
+/**
+ * The Enum TcpLayout structure for a TcpDescriptor type.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+enum TcpLayout implements BitField.Proxy {
+
+	/** The stream offset. */
+	STREAM_OFFSET("stream_offset"),
+
+	/** The delivered bytes. */
+	DELIVERED_BYTES("delivered_bytes"),
+
+	/** The released bytes. */
+	RELEASED_BYTES("released_bytes"),
+
+	/** The flags. */
+	FLAGS("flags"),
+
+	/** The released segments. */
+	RELEASED_SEGMENTS("released_segments"),
+
+	;
+
+	/**
+	 * The Class Struct.
+	 */
+	private static class Struct {
+
+		/** The TCP descriptor structure, 24 bytes. */
+		private static final BinaryLayout STRUCT = unionLayout(
+				structLayout(
+
+						Int64.BITS_64.withName("stream_offset"),
+						Int32.BITS_32.withName("delivered_bytes"),
+						Int32.BITS_32.withName("released_bytes"),
+						Int32.BITS_16.withName("flags"),
+						Int32.BITS_16.withName("released_segments"),
+						Int32.BITS_32.withName("reserved")
+
+				),
+				sequenceLayout(6, Int32.BITS_32).withName("array")
+
+		);
+	}
+
+	/** The field. */
+	private final BitField field;
+
+	/**
+	 * Instantiates a new TCP layout.
+	 *
+	 * @param path the path
+	 */
+	TcpLayout(String path) {
+		this.field = Struct.STRUCT.bitField(path).generate(ByteBuffer.class);
+	}
+
+	/**
+	 * Proxy bit field.
+	 *
+	 * @return the bit field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField.Proxy#proxyBitField()
+	 */
+	@Override
+	public BitField proxyBitField() {
+		return field;
+	}
+
+}
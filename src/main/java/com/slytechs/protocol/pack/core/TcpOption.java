@@ -83,7 +83,7 @@ public class TcpOption extends Header {
 		 * @return the byte[]
 		 */
 		public byte[] cookie(byte[] array, int offset) {
-			buffer().get(2, array, offset, 16);
+			buffer().get(bufferOffset() + 2, array, offset, 16);
 
 			return array;
 		}
@@ -112,7 +112,7 @@ public class TcpOption extends Header {
 		 * @return the int
 		 */
 		public int mss() {
-			return Short.toUnsignedInt(buffer().getShort(2));
+			return Short.toUnsignedInt(buffer().getShort(bufferOffset() + 2));
 		}
 
 	}
@@ -160,7 +160,7 @@ public class TcpOption extends Header {
 		 * @return the int
 		 */
 		public int blockAt(int index) {
-			return buffer().getInt(2 + (index << 3));
+			return buffer().getInt(bufferOffset() + 2 + (index << 3));
 		}
 
 		/**
@@ -193,9 +193,10 @@ public class TcpOption extends Header {
 		 */
 		public int[] toArray(int[] array, int offset) {
 			ByteBuffer buffer = buffer();
+			int base = bufferOffset() + 2;
 
 			for (int i = 0; i < array.length; i++)
-				array[i] = buffer.getInt(2 + (i << 3));
+				array[i] = buffer.getInt(base + (i << 3));
 
 			return array;
 		}
@@ -252,7 +253,7 @@ public class TcpOption extends Header {
 		 * @return the long
 		 */
 		public long timestamp() {
-			return Integer.toUnsignedLong(buffer().getInt(2));
+			return Integer.toUnsignedLong(buffer().getInt(bufferOffset() + 2));
 		}
 
 		/**
@@ -261,7 +262,7 @@ public class TcpOption extends Header {
 		 * @return the long
 		 */
 		public long timestampEchoReply() {
-			return Integer.toUnsignedLong(buffer().getInt(6));
+			return Integer.toUnsignedLong(buffer().getInt(bufferOffset() + 6));
 		}
 
 	};
@@ -298,7 +299,7 @@ public class TcpOption extends Header {
 		 * @return the int
 		 */
 		public int shiftCount() {
-			return Byte.toUnsignedInt(buffer().get(TCP_OPTION_FIELD_DATA));
+			return Byte.toUnsignedInt(buffer().get(bufferOffset() + TCP_OPTION_FIELD_DATA));
 		}
 
 	};
@@ -350,7 +351,7 @@ public class TcpOption extends Header {
 	 * @param kind the kind
 	 */
 	public void kind(int kind) {
-		buffer().put(CoreConstants.TCP_OPTION_FIELD_KIND, (byte) kind);
+		buffer().put(bufferOffset() + CoreConstants.TCP_OPTION_FIELD_KIND, (byte) kind);
 	}
 
 	/**
@@ -362,7 +363,7 @@ public class TcpOption extends Header {
 	public int length() {
 		return ((length != -1)
 				? length
-				: Byte.toUnsignedInt(buffer().get(TCP_OPTION_FIELD_LENGTH)));
+				: Byte.toUnsignedInt(buffer().get(bufferOffset() + TCP_OPTION_FIELD_LENGTH)));
 	}
 
 	/**
@@ -371,7 +372,17 @@ public class TcpOption extends Header {
 	 * @param length the length
 	 */
 	public void length(int length) {
-		buffer().put(TCP_OPTION_FIELD_LENGTH, (byte) kind);
+		buffer().put(bufferOffset() + TCP_OPTION_FIELD_LENGTH, (byte) kind);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
+}
@@ -0,0 +1,722 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static com.slytechs.protocol.pack.core.constants.CoreConstants.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.TcpOption.TcpWindowScaleOption;
+import com.slytechs.protocol.pack.core.TcpStream.Segment;
+import com.slytechs.protocol.pack.core.TcpStream.State;
+
+/**
+ * TCP stream reassembler.
+ * 
+ * <p>
+ * Segments are tracked per connection and per direction, using sequence
+ * numbers relative to each sender's SYN. Contiguous stream data is delivered
+ * to a {@link TcpStreamHandler} in order. In-order segments are delivered
+ * directly from the packet buffer, without copying. Segments which arrive
+ * ahead of missing data are copied into fixed size off-heap chunks, taken from
+ * a single preallocated slab, and delivered once the missing data arrives.
+ * Retransmitted and overlapping data is delivered only once.
+ * </p>
+ * 
+ * <p>
+ * Memory used for out-of-order data is bounded both globally, by the size of
+ * the slab, and per connection direction. When a segment can not be buffered,
+ * the missing data is assumed lost: the gap is reported to the handler and
+ * skipped, and delivery continues with the buffered data. SYN, FIN and RST
+ * segments open, finish and reset streams. When both SYNs carry the window
+ * scale option, advertised windows are scaled and segments starting beyond
+ * the receiver's window are dropped.
+ * </p>
+ * 
+ * <p>
+ * Connections are evicted when idle for longer than the timeout, measured
+ * using packet capture timestamps, or, least recently used first, when the
+ * maximum number of connections is reached.
+ * </p>
+ * 
+ * <p>
+ * Every processed segment gets a {@link TcpDescriptor} chained to its type 2
+ * descriptor, which is what {@link Tcp#isReassembled()} reports on. The
+ * descriptor is reused and only valid until the next call to
+ * {@link #reassemble(Packet)}. The reassembler is not thread safe.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class TcpReassembler {
+
+	/** Default maximum number of tracked connections. */
+	public static final int DEFAULT_MAX_FLOWS = 65536;
+
+	/** Default total out-of-order buffer memory, 64MB. */
+	public static final long DEFAULT_MAX_BUFFER_BYTES = 64L << 20;
+
+	/** Default out-of-order buffer memory per connection direction, 1MB. */
+	public static final int DEFAULT_MAX_FLOW_BUFFER_BYTES = 1 << 20;
+
+	/** Default idle connection timeout in milliseconds. */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 120_000;
+
+	/** Size of each out-of-order buffer chunk. */
+	public static final int CHUNK_SIZE = 2048;
+
+	/** The handler. */
+	private final TcpStreamHandler handler;
+
+	/** The out-of-order chunk pool. */
+	private final SlabBufferPool pool;
+
+	/** Connections, in least recently used order. */
+	private final Map<TcpFlowKey, TcpStream[]> flows;
+
+	/** Maximum number of tracked connections. */
+	private final int maxFlows;
+
+	/** Tcp header used to read segments. */
+	private final Tcp tcp = new Tcp();
+
+	/** Window scale option used to read SYN segments. */
+	private final TcpWindowScaleOption wscale = new TcpWindowScaleOption();
+
+	/** Ip4 header used to read segments. */
+	private final Ip4 ip4 = new Ip4();
+
+	/** Ip6 header used to read segments. */
+	private final Ip6 ip6 = new Ip6();
+
+	/** The TCP descriptor chained to processed segments. */
+	private final TcpDescriptor tcpDescriptor = new TcpDescriptor();
+
+	/** The TCP descriptor buffer. */
+	private final ByteBuffer tcpBuffer = ByteBuffer
+			.allocateDirect(TcpDescriptor.TCP_DESCRIPTOR_LENGTH)
+			.order(ByteOrder.nativeOrder());
+
+	/** Segments released by the current segment, if retained. */
+	private final List<Packet> released = new ArrayList<>();
+
+	/** Maximum number of chunks per connection direction. */
+	private int maxFlowChunks = DEFAULT_MAX_FLOW_BUFFER_BYTES / CHUNK_SIZE;
+
+	/** The timeout in millis. */
+	private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	/** If true buffered segments are retained. */
+	private boolean retainSegments;
+
+	/* Per call state, describing the current segment */
+	private int releasedBytes;
+	private int releasedCount;
+
+	/** Number of gaps skipped. */
+	private long gapCount;
+
+	/** Number of segments dropped. */
+	private long droppedCount;
+
+	/** Number of connections evicted due to timeout or flow limit. */
+	private long timeoutCount;
+
+	/**
+	 * Instantiates a new reassembler with default limits.
+	 *
+	 * @param handler the stream handler
+	 */
+	public TcpReassembler(TcpStreamHandler handler) {
+		this(handler, DEFAULT_MAX_FLOWS, DEFAULT_MAX_BUFFER_BYTES);
+	}
+
+	/**
+	 * Instantiates a new reassembler. The out-of-order buffer memory is
+	 * preallocated.
+	 *
+	 * @param handler        the stream handler
+	 * @param maxFlows       maximum number of tracked connections
+	 * @param maxBufferBytes total out-of-order buffer memory
+	 * @throws IllegalArgumentException if limits are not positive or too large
+	 */
+	public TcpReassembler(TcpStreamHandler handler, int maxFlows, long maxBufferBytes)
+			throws IllegalArgumentException {
+		if (maxFlows <= 0)
+			throw new IllegalArgumentException("invalid max flows [%d]".formatted(maxFlows));
+
+		this.handler = Objects.requireNonNull(handler, "handler");
+		this.maxFlows = maxFlows;
+		this.pool = new SlabBufferPool((int) Math.min(Integer.MAX_VALUE, maxBufferBytes / CHUNK_SIZE), CHUNK_SIZE);
+		this.flows = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Sets the out-of-order buffer limit, per connection direction.
+	 *
+	 * @param maxBytes the maximum number of buffered bytes
+	 * @return this reassembler
+	 */
+	public TcpReassembler setMaxFlowBuffer(int maxBytes) {
+		this.maxFlowChunks = Math.max(1, maxBytes / CHUNK_SIZE);
+
+		return this;
+	}
+
+	/**
+	 * Retains a copy of every segment buffered out of order, made available by
+	 * {@link Tcp#reaseembledSegments()} on the segment which released them.
+	 * Disabled by default, since it allocates a copy of every such segment.
+	 *
+	 * @param enable if true, segments are retained
+	 * @return this reassembler
+	 */
+	public TcpReassembler setRetainSegments(boolean enable) {
+		this.retainSegments = enable;
+
+		return this;
+	}
+
+	/**
+	 * Sets the idle connection timeout.
+	 *
+	 * @param timeout the timeout
+	 * @param unit    the unit
+	 * @return this reassembler
+	 */
+	public TcpReassembler setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutMillis = unit.toMillis(timeout);
+
+		return this;
+	}
+
+	/**
+	 * Process a packet. Non TCP packets are ignored.
+	 *
+	 * @param packet a type 2 dissected packet
+	 * @return the stream the segment belongs to, or null if not a tracked TCP
+	 *         segment
+	 */
+	public TcpStream reassemble(Packet packet) {
+		if (!(packet.descriptor() instanceof Type2Descriptor desc))
+			return null;
+
+		final long nowMillis = packet.timestampUnit().toEpochMilli(packet.timestamp());
+		expire(nowMillis);
+
+		if (packet.peekHeader(tcp, 0) == null)
+			return null;
+
+		final int tcpOffset = tcp.headerOffset();
+		final boolean hasIp4 = (packet.peekHeader(ip4, 0) != null) && (ip4.headerOffset() < tcpOffset);
+		final boolean hasIp6 = (packet.peekHeader(ip6, 0) != null) && (ip6.headerOffset() < tcpOffset);
+		final boolean isIp4 = hasIp4 && (!hasIp6 || (ip4.headerOffset() > ip6.headerOffset()));
+		if (!isIp4 && !hasIp6)
+			return null;
+
+		final int ipEnd = isIp4
+				? ip4.headerOffset() + ip4.totalLength()
+				: ip6.headerOffset() + IPv6_HEADER_LEN + ip6.payloadLength();
+		final int payloadOffset = tcpOffset + tcp.hdrLenBytes();
+		final int length = ipEnd - payloadOffset;
+		if (length < 0)
+			return null;
+
+		final int captured = Math.max(0, Math.min(length, packet.captureLength() - payloadOffset));
+		final int flags = tcp.flags();
+		final int srcPort = tcp.srcPort();
+		final int dstPort = tcp.dstPort();
+
+		final long src0, src1, dst0, dst1;
+		if (isIp4) {
+			src0 = Integer.toUnsignedLong(ip4.srcGetAsInt());
+			dst0 = Integer.toUnsignedLong(ip4.dstAsInt());
+			src1 = dst1 = 0;
+		} else {
+			src0 = words(ip6.srcAsInt(0), ip6.srcAsInt(1));
+			src1 = words(ip6.srcAsInt(2), ip6.srcAsInt(3));
+			dst0 = words(ip6.dstAsInt(0), ip6.dstAsInt(1));
+			dst1 = words(ip6.dstAsInt(2), ip6.dstAsInt(3));
+		}
+
+		final int dir = TcpFlowKey.isSourceLower(src0, src1, dst0, dst1, srcPort, dstPort) ? 0 : 1;
+		final TcpFlowKey key = TcpFlowKey.of(isIp4 ? 4 : 6, src0, src1, dst0, dst1, srcPort, dstPort);
+
+		TcpStream[] flow = flows.get(key);
+		if (flow == null) {
+			if ((flags & TCP_FLAG_RST) != 0)
+				return null;
+
+			flow = newFlow(key, dir, isIp4 ? ip4 : ip6, srcPort, dstPort);
+		}
+
+		final TcpStream stream = flow[dir];
+		final TcpStream peer = stream.peer;
+		stream.lastMillis = peer.lastMillis = nowMillis;
+		final int seq = (int) tcp.seq();
+
+		releasedBytes = releasedCount = 0;
+		released.clear();
+
+		if ((flags & TCP_FLAG_RST) != 0) {
+			close(flow, State.RESET);
+			flows.remove(key);
+
+			return describe(packet, desc, stream, stream.offsetOf(seq), 0,
+					TcpDescriptor.TCP_FLAG_STREAM_END);
+		}
+
+		if ((flags & TCP_FLAG_SYN) != 0) {
+			if (!stream.synSeen) {
+				stream.synSeen = true;
+				stream.based = true;
+				stream.base = seq + 1;
+				stream.next = 0;
+				stream.windowShift = tcp.hasExtension(wscale)
+						? Math.min(wscale.shiftCount(), TCP_WIN_SCALE_SHIFT_MAX)
+						: -1;
+
+				if ((flags & TCP_FLAG_ACK) == 0) {
+					stream.client = true;
+					peer.client = false;
+				}
+			}
+
+		} else if (!stream.based) {
+			stream.based = true;
+			stream.base = seq;
+		}
+
+		if (((flags & (TCP_FLAG_ACK | TCP_FLAG_SYN)) == TCP_FLAG_ACK) && stream.synSeen && peer.synSeen) {
+			boolean scaled = (stream.windowShift != -1) && (peer.windowShift != -1);
+			long window = Integer.toUnsignedLong(tcp.windowSize()) << (scaled ? stream.windowShift : 0);
+			long limit = peer.offsetOf((int) tcp.ack()) + window;
+
+			if ((peer.windowLimit == Long.MAX_VALUE) || (limit > peer.windowLimit))
+				peer.windowLimit = limit;
+		}
+
+		final int dataSeq = ((flags & TCP_FLAG_SYN) != 0) ? seq + 1 : seq;
+		final long offset = stream.offsetOf(dataSeq);
+
+		if (stream.state != State.OPEN)
+			return describe(packet, desc, stream, offset, 0, (length > 0) ? TcpDescriptor.TCP_FLAG_RETRANSMIT : 0);
+
+		if ((length > 0) && (offset > stream.windowLimit)) {
+			droppedCount++;
+
+			return describe(packet, desc, stream, offset, 0, TcpDescriptor.TCP_FLAG_OUT_OF_WINDOW);
+		}
+
+		if (((flags & TCP_FLAG_FIN) != 0) && (stream.finOffset == -1))
+			stream.finOffset = offset + length;
+
+		int out = 0;
+		int delivered = 0;
+
+		while (length > 0) {
+			if (offset + length <= stream.next) {
+				out |= TcpDescriptor.TCP_FLAG_RETRANSMIT;
+				break;
+			}
+
+			if (offset <= stream.next) {
+				int trim = (int) (stream.next - offset);
+				if (trim > 0)
+					out |= TcpDescriptor.TCP_FLAG_RETRANSMIT;
+
+				if (captured > trim) {
+					delivered = captured - trim;
+					stream.next += delivered;
+					handler.onData(stream, packet.buffer().slice(payloadOffset + trim, delivered));
+				}
+
+				if (captured < length) {
+					skip(stream, offset + length);
+					out |= TcpDescriptor.TCP_FLAG_GAP;
+				}
+
+				out |= TcpDescriptor.TCP_FLAG_DELIVERED;
+				break;
+			}
+
+			if ((captured == length) && buffer(stream, packet, offset, payloadOffset, length)) {
+				out |= TcpDescriptor.TCP_FLAG_BUFFERED;
+				break;
+			}
+
+			/* Can not buffer, skip missing data up to the earliest buffered byte */
+			long to = stream.pending.isEmpty() ? offset : Math.min(offset, stream.pending.get(0).offset);
+			skip(stream, to);
+			release(stream);
+
+			out |= TcpDescriptor.TCP_FLAG_GAP;
+		}
+
+		release(stream);
+
+		if ((stream.finOffset != -1) && (stream.next >= stream.finOffset)) {
+			finish(stream, State.FINISHED);
+			out |= TcpDescriptor.TCP_FLAG_STREAM_END;
+
+			if (peer.state != State.OPEN)
+				flows.remove(key);
+		}
+
+		return describe(packet, desc, stream, offset, delivered, out);
+	}
+
+	/**
+	 * Combines two 32-bit address words into a long.
+	 *
+	 * @param hi the high word
+	 * @param lo the low word
+	 * @return the long
+	 */
+	private static long words(int hi, int lo) {
+		return ((long) hi << 32) | Integer.toUnsignedLong(lo);
+	}
+
+	/**
+	 * Creates a new connection, evicting the least recently used one if the
+	 * connection limit is reached.
+	 *
+	 * @param key     the key
+	 * @param dir     direction of the current segment
+	 * @param ip      the IP header of the current segment
+	 * @param srcPort the source port
+	 * @param dstPort the destination port
+	 * @return the connection's two streams
+	 */
+	private TcpStream[] newFlow(TcpFlowKey key, int dir, Ip<?> ip, int srcPort, int dstPort) {
+		if (flows.size() >= maxFlows) {
+			Iterator<TcpStream[]> it = flows.values().iterator();
+			TcpStream[] lru = it.next();
+			it.remove();
+
+			close(lru, State.EXPIRED);
+			timeoutCount++;
+		}
+
+		IpAddress src = ip.srcGetAsAddress();
+		IpAddress dst = ip.dstAddress();
+
+		TcpStream stream = new TcpStream(src, dst, srcPort, dstPort);
+		TcpStream peer = new TcpStream(dst, src, dstPort, srcPort);
+		stream.peer = peer;
+		peer.peer = stream;
+		stream.client = true; // Until a SYN says otherwise
+
+		TcpStream[] flow = new TcpStream[2];
+		flow[dir] = stream;
+		flow[1 - dir] = peer;
+
+		flows.put(key, flow);
+
+		return flow;
+	}
+
+	/**
+	 * Copies an out-of-order segment into pool chunks.
+	 *
+	 * @param stream        the stream
+	 * @param packet        the packet
+	 * @param offset        stream offset of the segment
+	 * @param payloadOffset offset of the payload within the packet
+	 * @param length        the payload length
+	 * @return true, if buffered, false if buffer limits were reached
+	 */
+	private boolean buffer(TcpStream stream, Packet packet, long offset, int payloadOffset, int length) {
+		final List<Segment> pending = stream.pending;
+
+		int index = 0;
+		while ((index < pending.size()) && (pending.get(index).offset < offset))
+			index++;
+
+		/* Same segment already buffered, a retransmission */
+		if ((index < pending.size()) && (pending.get(index).offset == offset)
+				&& (pending.get(index).length >= length))
+			return true;
+
+		final int count = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if ((stream.bufferedChunks + count > maxFlowChunks) || (pool.available() < count))
+			return false;
+
+		final ByteBuffer data = packet.buffer();
+		final int[] chunks = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			int from = i * CHUNK_SIZE;
+			int len = Math.min(CHUNK_SIZE, length - from);
+
+			chunks[i] = pool.acquire();
+			pool.buffer(chunks[i]).put(0, data, payloadOffset + from, len);
+		}
+
+		pending.add(index, new Segment(offset, length, chunks,
+				retainSegments ? IpfReassembler.copyOf(packet) : null));
+
+		stream.bufferedChunks += count;
+		stream.bufferedBytes += length;
+
+		return true;
+	}
+
+	/**
+	 * Delivers buffered segments which have become contiguous with the stream.
+	 *
+	 * @param stream the stream
+	 */
+	private void release(TcpStream stream) {
+		final List<Segment> pending = stream.pending;
+
+		while (!pending.isEmpty() && (pending.get(0).offset <= stream.next)) {
+			Segment seg = pending.remove(0);
+
+			int from = (int) (stream.next - seg.offset);
+			if (from < seg.length) {
+				stream.next = seg.end();
+
+				releasedBytes += seg.length - from;
+				releasedCount++;
+
+				deliver(stream, seg, from);
+			}
+
+			if (seg.packet != null)
+				released.add(seg.packet);
+
+			free(stream, seg);
+		}
+	}
+
+	/**
+	 * Delivers a buffered segment's data, chunk by chunk.
+	 *
+	 * @param stream the stream
+	 * @param seg    the segment
+	 * @param from   offset of the first byte to deliver within the segment
+	 */
+	private void deliver(TcpStream stream, Segment seg, int from) {
+		for (int i = from / CHUNK_SIZE; i < seg.chunks.length; i++) {
+			int start = Math.max(from - (i * CHUNK_SIZE), 0);
+			int end = Math.min(CHUNK_SIZE, seg.length - (i * CHUNK_SIZE));
+
+			handler.onData(stream, pool.buffer(seg.chunks[i]).slice(start, end - start));
+		}
+	}
+
+	/**
+	 * Returns a buffered segment's chunks to the pool.
+	 *
+	 * @param stream the stream
+	 * @param seg    the segment
+	 */
+	private void free(TcpStream stream, Segment seg) {
+		for (int chunk : seg.chunks)
+			pool.release(chunk);
+
+		stream.bufferedChunks -= seg.chunks.length;
+		stream.bufferedBytes -= seg.length;
+	}
+
+	/**
+	 * Skips missing stream data, reporting the gap to the handler.
+	 *
+	 * @param stream the stream
+	 * @param to     the offset to skip to
+	 */
+	private void skip(TcpStream stream, long to) {
+		long length = to - stream.next;
+		if (length <= 0)
+			return;
+
+		stream.next = to;
+		stream.gapBytes += length;
+		gapCount++;
+
+		handler.onGap(stream, length);
+	}
+
+	/**
+	 * Ends a stream, discarding any buffered data.
+	 *
+	 * @param stream the stream
+	 * @param state  the final state
+	 */
+	private void finish(TcpStream stream, State state) {
+		if (stream.state != State.OPEN)
+			return;
+
+		for (Segment seg : stream.pending)
+			free(stream, seg);
+
+		stream.pending.clear();
+		stream.state = state;
+
+		handler.onClose(stream);
+	}
+
+	/**
+	 * Ends both streams of a connection.
+	 *
+	 * @param flow  the connection
+	 * @param state the final state
+	 */
+	private void close(TcpStream[] flow, State state) {
+		finish(flow[0], state);
+		finish(flow[1], state);
+	}
+
+	/**
+	 * Chains the TCP descriptor, describing the current segment, to the packet's
+	 * descriptor.
+	 *
+	 * @param packet    the packet
+	 * @param desc      the packet's descriptor
+	 * @param stream    the stream
+	 * @param offset    stream offset of the segment
+	 * @param delivered bytes of the segment delivered
+	 * @param flags     the TCP descriptor flags
+	 * @return the stream
+	 */
+	private TcpStream describe(Packet packet, Type2Descriptor desc, TcpStream stream, long offset, int delivered,
+			int flags) {
+
+		if (stream.client)
+			flags |= TcpDescriptor.TCP_FLAG_CLIENT;
+
+		if (desc.peekDescriptor(tcpDescriptor.type()) != tcpDescriptor) {
+			tcpDescriptor.bind(tcpBuffer.clear());
+			desc.addDescriptor(tcpDescriptor);
+		}
+
+		tcpDescriptor.write(offset, delivered, releasedBytes, flags, releasedCount,
+				released.isEmpty() ? null : released.toArray(Packet[]::new));
+
+		return stream;
+	}
+
+	/**
+	 * Evicts all connections idle for longer than the timeout.
+	 *
+	 * @param nowMillis the current time in epoch millis
+	 * @return number of connections evicted
+	 */
+	public int expire(long nowMillis) {
+		int count = 0;
+
+		for (Iterator<TcpStream[]> it = flows.values().iterator(); it.hasNext();) {
+			TcpStream[] flow = it.next();
+			if (nowMillis - flow[0].lastMillis < timeoutMillis)
+				break; // Rest were used more recently
+
+			it.remove();
+			close(flow, State.EXPIRED);
+			count++;
+		}
+
+		this.timeoutCount += count;
+
+		return count;
+	}
+
+	/**
+	 * Ends all connections and releases all buffers. Buffered out-of-order data
+	 * is discarded.
+	 */
+	public void flush() {
+		for (TcpStream[] flow : flows.values())
+			close(flow, State.EXPIRED);
+
+		flows.clear();
+	}
+
+	/**
+	 * Number of tracked connections.
+	 *
+	 * @return the count
+	 */
+	public int size() {
+		return flows.size();
+	}
+
+	/**
+	 * Total number of bytes held in out-of-order buffers, rounded up to whole
+	 * chunks.
+	 *
+	 * @return the buffered bytes
+	 */
+	public long bufferedBytes() {
+		return (long) (pool.capacity() - pool.available()) * CHUNK_SIZE;
+	}
+
+	/**
+	 * Number of gaps skipped in all streams.
+	 *
+	 * @return the count
+	 */
+	public long gapCount() {
+		return gapCount;
+	}
+
+	/**
+	 * Number of segments dropped, for being outside of the receive window.
+	 *
+	 * @return the count
+	 */
+	public long droppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Number of connections evicted due to idle timeout or the connection limit.
+	 *
+	 * @return the count
+	 */
+	public long timeoutCount() {
+		return timeoutCount;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "TcpReassembler [flows=" + flows.size()
+				+ ", buffered=" + bufferedBytes()
+				+ ", gaps=" + gapCount
+				+ ", dropped=" + droppedCount
+				+ ", timeouts=" + timeoutCount
+				+ "]";
+	}
+}
@@ -0,0 +1,347 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.slytechs.protocol.Packet;
+
+/**
+ * One direction of a TCP connection, as reassembled by a
+ * {@link TcpReassembler}.
+ * 
+ * <p>
+ * Stream offsets are relative to the sender's initial sequence number, so the
+ * first payload byte after the SYN is at offset 0. Sequence number wraparound
+ * is handled transparently and offsets are 64-bit. Streams picked up in the
+ * middle of a connection, without a SYN, start at the first segment seen.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class TcpStream {
+
+	/**
+	 * Stream state.
+	 */
+	public enum State {
+
+		/** Stream is open and being reassembled. */
+		OPEN,
+
+		/** All data up to and including the sender's FIN has been delivered. */
+		FINISHED,
+
+		/** Connection was reset. */
+		RESET,
+
+		/** Stream was evicted, due to timeout, flow limits or flush. */
+		EXPIRED,
+	}
+
+	/**
+	 * A segment buffered out of order, stored in pool chunks.
+	 */
+	static final class Segment {
+
+		/** Stream offset of the first byte. */
+		final long offset;
+
+		/** Length in bytes. */
+		final int length;
+
+		/** Pool chunks holding the data, in order. */
+		final int[] chunks;
+
+		/** Retained copy of the segment's packet, or null. */
+		final Packet packet;
+
+		/**
+		 * Instantiates a new segment.
+		 *
+		 * @param offset the offset
+		 * @param length the length
+		 * @param chunks the chunks
+		 * @param packet the retained packet or null
+		 */
+		Segment(long offset, int length, int[] chunks, Packet packet) {
+			this.offset = offset;
+			this.length = length;
+			this.chunks = chunks;
+			this.packet = packet;
+		}
+
+		/**
+		 * Stream offset past the last byte.
+		 *
+		 * @return the end offset
+		 */
+		long end() {
+			return offset + length;
+		}
+	}
+
+	/** The source address. */
+	private final IpAddress srcAddress;
+
+	/** The destination address. */
+	private final IpAddress dstAddress;
+
+	/** The source port. */
+	private final int srcPort;
+
+	/** The destination port. */
+	private final int dstPort;
+
+	/** The peer stream, in the opposite direction. */
+	TcpStream peer;
+
+	/** True if this stream's sender opened the connection. */
+	boolean client;
+
+	/** The state. */
+	State state = State.OPEN;
+
+	/** True once the base sequence number is known. */
+	boolean based;
+
+	/** Sequence number of stream offset 0. */
+	int base;
+
+	/** True if the sender's SYN was seen. */
+	boolean synSeen;
+
+	/** Window scale shift count from the sender's SYN, or -1 if none. */
+	int windowShift = -1;
+
+	/** Highest stream offset the receiver's window allows, if known. */
+	long windowLimit = Long.MAX_VALUE;
+
+	/** Offset of the next byte to be delivered. */
+	long next;
+
+	/** Stream offset of the sender's FIN, or -1 if not seen. */
+	long finOffset = -1;
+
+	/** Bytes skipped over gaps. */
+	long gapBytes;
+
+	/** Out of order segments, sorted by offset. */
+	final List<Segment> pending = new ArrayList<>();
+
+	/** Number of pool chunks held by pending segments. */
+	int bufferedChunks;
+
+	/** Bytes held by pending segments. */
+	int bufferedBytes;
+
+	/** Capture time of the connection's most recent segment, in epoch millis. */
+	long lastMillis;
+
+	/** The user attachment. */
+	private Object attachment;
+
+	/**
+	 * Instantiates a new stream.
+	 *
+	 * @param srcAddress the source address
+	 * @param dstAddress the destination address
+	 * @param srcPort    the source port
+	 * @param dstPort    the destination port
+	 */
+	TcpStream(IpAddress srcAddress, IpAddress dstAddress, int srcPort, int dstPort) {
+		this.srcAddress = srcAddress;
+		this.dstAddress = dstAddress;
+		this.srcPort = srcPort;
+		this.dstPort = dstPort;
+	}
+
+	/**
+	 * Converts a sequence number to a stream offset. The offset is computed
+	 * relative to the next expected byte, so it remains correct across sequence
+	 * number wraparound as long as the segment is within 2GB of it.
+	 *
+	 * @param seq the sequence number
+	 * @return the stream offset
+	 */
+	long offsetOf(int seq) {
+		return next + (seq - (base + (int) next));
+	}
+
+	/**
+	 * Attaches a user object to the stream.
+	 *
+	 * @param attachment the attachment or null
+	 * @return this stream
+	 */
+	public TcpStream attach(Object attachment) {
+		this.attachment = attachment;
+
+		return this;
+	}
+
+	/**
+	 * The user attachment.
+	 *
+	 * @return the attachment or null
+	 */
+	public Object attachment() {
+		return attachment;
+	}
+
+	/**
+	 * Number of bytes held in out-of-order buffers.
+	 *
+	 * @return the buffered bytes
+	 */
+	public int bufferedBytes() {
+		return bufferedBytes;
+	}
+
+	/**
+	 * Offset of the next byte to be delivered. This is the total number of
+	 * bytes delivered so far, including skipped gaps.
+	 *
+	 * @return the delivered offset
+	 */
+	public long deliveredOffset() {
+		return next;
+	}
+
+	/**
+	 * The destination address.
+	 *
+	 * @return the address
+	 */
+	public IpAddress dstAddress() {
+		return dstAddress;
+	}
+
+	/**
+	 * The destination port.
+	 *
+	 * @return the port
+	 */
+	public int dstPort() {
+		return dstPort;
+	}
+
+	/**
+	 * Total number of bytes skipped over gaps in the stream.
+	 *
+	 * @return the gap bytes
+	 */
+	public long gapBytes() {
+		return gapBytes;
+	}
+
+	/**
+	 * The initial sequence number, plus one, which corresponds to stream offset
+	 * 0. For streams picked up mid-connection, the sequence number of the first
+	 * segment seen.
+	 *
+	 * @return the base sequence number, unsigned
+	 */
+	public long baseSeq() {
+		return Integer.toUnsignedLong(base);
+	}
+
+	/**
+	 * Checks if this stream's sender opened the connection. If the SYN was not
+	 * seen, the sender of the first segment seen is assumed to be the client.
+	 *
+	 * @return true, if client
+	 */
+	public boolean isClient() {
+		return client;
+	}
+
+	/**
+	 * Checks if the stream was picked up mid-connection, without seeing the
+	 * sender's SYN.
+	 *
+	 * @return true, if midstream
+	 */
+	public boolean isMidstream() {
+		return !synSeen;
+	}
+
+	/**
+	 * The stream in the opposite direction of the same connection.
+	 *
+	 * @return the peer stream
+	 */
+	public TcpStream peer() {
+		return peer;
+	}
+
+	/**
+	 * The source address.
+	 *
+	 * @return the address
+	 */
+	public IpAddress srcAddress() {
+		return srcAddress;
+	}
+
+	/**
+	 * The source port.
+	 *
+	 * @return the port
+	 */
+	public int srcPort() {
+		return srcPort;
+	}
+
+	/**
+	 * The stream state.
+	 *
+	 * @return the state
+	 */
+	public State state() {
+		return state;
+	}
+
+	/**
+	 * Window scale shift count, from the TCP window scale option in the sender's
+	 * SYN.
+	 *
+	 * @return the shift count or -1 if the option was not seen
+	 */
+	public int windowShift() {
+		return windowShift;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "TcpStream [" + srcAddress + ":" + srcPort + " > " + dstAddress + ":" + dstPort
+				+ ", state=" + state
+				+ ", delivered=" + next
+				+ ", buffered=" + bufferedBytes
+				+ ", gaps=" + gapBytes
+				+ "]";
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives reassembled TCP stream data from a {@link TcpReassembler}.
+ * 
+ * <p>
+ * Data is delivered in stream order, separately for each direction of a
+ * connection. In-order segments are delivered as views of the packet buffer,
+ * without copying. Data buffered out of order is delivered from the
+ * reassembler's off-heap chunks, once the missing data arrives. In either
+ * case, the buffer is only valid for the duration of the call.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+@FunctionalInterface
+public interface TcpStreamHandler {
+
+	/**
+	 * Called with the next contiguous block of stream data.
+	 *
+	 * @param stream the stream
+	 * @param data   the data, from position to limit
+	 */
+	void onData(TcpStream stream, ByteBuffer data);
+
+	/**
+	 * Called when missing stream data is skipped, because it was never received
+	 * and buffering limits were reached.
+	 *
+	 * @param stream the stream
+	 * @param length number of bytes skipped
+	 */
+	default void onGap(TcpStream stream, long length) {
+	}
+
+	/**
+	 * Called once, when the stream ends. See {@link TcpStream#state()} for the
+	 * reason.
+	 *
+	 * @param stream the stream
+	 */
+	default void onClose(TcpStream stream) {
+	}
+}
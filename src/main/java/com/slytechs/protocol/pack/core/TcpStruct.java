@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.pack.core.constants.CoreConstants;
 import com.slytechs.protocol.runtime.internal.layout.ArrayField;
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
@@ -167,6 +169,7 @@ public enum TcpStruct implements EnumBitField<TcpStruct> {
 	 */
 	private TcpStruct(BinaryLayout layout, String path) {
 		this.bits = layout.bitField(path)
+				.generate(ByteBuffer.class)
 				.formatted()
 				.format("%d");
 	}
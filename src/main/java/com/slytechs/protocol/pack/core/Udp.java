@@ -20,6 +20,7 @@ package com.slytechs.protocol.pack.core;
 import com.slytechs.protocol.Header;
 import com.slytechs.protocol.meta.Meta;
 import com.slytechs.protocol.pack.core.constants.CoreIdTable;
+import com.slytechs.protocol.runtime.internal.layout.CarrierField;
 
 /**
  * User Datagram Protocol (UDP).
@@ -33,6 +34,24 @@ public final class Udp extends Header {
 	/** The Constant ID. */
 	public static final int ID = CoreIdTable.CORE_ID_UDP;
 
+	/**
+	 * The Class Fields.
+	 */
+	private static final class Fields {
+		// @formatter:off
+		static final CarrierField.OfByteBuffer CHECKSUM = UdpStruct.CHECKSUM.forByteBuffer();
+		static final CarrierField.OfByteBuffer DST_PORT = UdpStruct.DST_PORT.forByteBuffer();
+		static final CarrierField.OfByteBuffer LENGTH   = UdpStruct.LENGTH.forByteBuffer();
+		static final CarrierField.OfByteBuffer SRC_PORT = UdpStruct.SRC_PORT.forByteBuffer();
+		// @formatter:on
+
+		/**
+		 * Disabled initializer.
+		 */
+		private Fields() {
+		}
+	}
+
 	/**
 	 * Instantiates a new udp.
 	 */
@@ -48,7 +67,7 @@ public final class Udp extends Header {
 	 * @return 16-bit checksum of the header and data or zero if not set
 	 */
 	public int checksum() {
-		return UdpStruct.CHECKSUM.getUnsignedShort(buffer());
+		return Fields.CHECKSUM.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -57,7 +76,7 @@ public final class Udp extends Header {
 	 * @param newChecksum new CRC16 checksum
 	 */
 	public void checksum(int newChecksum) {
-		UdpStruct.CHECKSUM.setInt(newChecksum, buffer());
+		Fields.CHECKSUM.setIntAt(newChecksum, bufferOffset(), buffer());
 	}
 
 	/**
@@ -71,7 +90,7 @@ public final class Udp extends Header {
 	 */
 	@Meta
 	public int dstPort() {
-		return UdpStruct.DST_PORT.getUnsignedShort(buffer());
+		return Fields.DST_PORT.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -80,7 +99,7 @@ public final class Udp extends Header {
 	 * @param dstPort the dst port
 	 */
 	public void dstPort(int dstPort) {
-		UdpStruct.DST_PORT.setInt(dstPort, buffer());
+		Fields.DST_PORT.setIntAt(dstPort, bufferOffset(), buffer());
 	}
 
 	/**
@@ -98,7 +117,7 @@ public final class Udp extends Header {
 	 */
 	@Meta
 	public int length() {
-		return UdpStruct.LENGTH.getUnsignedShort(buffer());
+		return Fields.LENGTH.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -107,7 +126,7 @@ public final class Udp extends Header {
 	 * @param length the length
 	 */
 	public void length(int length) {
-		UdpStruct.LENGTH.setInt(length, buffer());
+		Fields.LENGTH.setIntAt(length, bufferOffset(), buffer());
 	}
 
 	/**
@@ -121,7 +140,7 @@ public final class Udp extends Header {
 	 */
 	@Meta
 	public int srcPort() {
-		return UdpStruct.SRC_PORT.getUnsignedShort(buffer());
+		return Fields.SRC_PORT.getUnsignedShortAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -130,7 +149,17 @@ public final class Udp extends Header {
 	 * @param srcPort the src port
 	 */
 	public void srcPort(int srcPort) {
-		UdpStruct.SRC_PORT.setInt(srcPort, buffer());
+		Fields.SRC_PORT.setIntAt(srcPort, bufferOffset(), buffer());
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
@@ -19,6 +19,8 @@ package com.slytechs.protocol.pack.core;
 
 import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
 
+import java.nio.ByteBuffer;
+
 import com.slytechs.protocol.pack.core.constants.CoreConstants;
 import com.slytechs.protocol.runtime.internal.layout.ArrayField;
 import com.slytechs.protocol.runtime.internal.layout.BinaryLayout;
@@ -70,7 +72,7 @@ public enum UdpStruct implements BitField.Proxy {
 	 * @param path the path
 	 */
 	UdpStruct(String path) {
-		this.field = Struct.UDP_STRUCT.bitField(path);
+		this.field = Struct.UDP_STRUCT.bitField(path).generate(ByteBuffer.class);
 	}
 
 	/**
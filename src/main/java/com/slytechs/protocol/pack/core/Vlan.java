@@ -72,7 +72,7 @@ public final class Vlan extends Header {
 	 */
 	@Meta
 	public int priority() {
-		return VlanLayout.PRI.getInt(buffer());
+		return VlanLayout.PRI.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -91,7 +91,7 @@ public final class Vlan extends Header {
 	 */
 	@Meta
 	public int formatIdentifier() {
-		return VlanLayout.CFI.getInt(buffer());
+		return VlanLayout.CFI.getIntAt(bufferOffset(), buffer());
 	}
 
 	/**
@@ -106,7 +106,17 @@ public final class Vlan extends Header {
 	 */
 	@Meta
 	public int vlanId() {
-		return VlanLayout.VID.getInt(buffer());
+		return VlanLayout.VID.getIntAt(bufferOffset(), buffer());
 	}
 
+	/**
+	 * Is shared binding supported.
+	 *
+	 * @return true, all fields are accessed relative to the buffer offset
+	 * @see com.slytechs.protocol.Header#isSharedBindingSupported()
+	 */
+	@Override
+	protected boolean isSharedBindingSupported() {
+		return true;
+	}
 }
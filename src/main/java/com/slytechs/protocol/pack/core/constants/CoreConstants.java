@@ -193,10 +193,13 @@ public final class CoreConstants {
 
 	/** The Constant MPLS_HEADER_LEN. */
 	/* Descriptor MPLS constants */
-	public static final int MPLS_HEADER_LEN = 0;
+	public static final int MPLS_HEADER_LEN = 4;
 
 	/** The Constant MPLS_BITMASK_BOTTOM. */
-	public static final int MPLS_BITMASK_BOTTOM = 0;
+	public static final int MPLS_BITMASK_BOTTOM = 0x00000100;
+
+	/** The Constant MPLS_SHIFT_LABEL. */
+	public static final int MPLS_SHIFT_LABEL = 12;
 
 	/** The Constant STP_HEADER_LEN. */
 	public static final int STP_HEADER_LEN = 35;
@@ -329,6 +332,12 @@ public final class CoreConstants {
 	/** The Constant IPv6_FIELD_NEXT_HOP. */
 	public static final int IPv6_FIELD_NEXT_HOP = 6;
 
+	/** The Constant IPv6_FIELD_SRC. */
+	public static final int IPv6_FIELD_SRC = 8;
+
+	/** The Constant IPv6_FIELD_DST. */
+	public static final int IPv6_FIELD_DST = 24;
+
 	/** The Constant IPv4_FIELD_DST_LEN. */
 	public static final int IPv4_FIELD_DST_LEN = 4;
 
@@ -550,6 +559,24 @@ public final class CoreConstants {
 	/** The Constant TCP_FIELD_IHL. */
 	public static final int TCP_FIELD_IHL = 12;
 
+	/** The Constant TCP_FLAG_FIN. */
+	public static final int TCP_FLAG_FIN = 0x001;
+
+	/** The Constant TCP_FLAG_SYN. */
+	public static final int TCP_FLAG_SYN = 0x002;
+
+	/** The Constant TCP_FLAG_RST. */
+	public static final int TCP_FLAG_RST = 0x004;
+
+	/** The Constant TCP_FLAG_PSH. */
+	public static final int TCP_FLAG_PSH = 0x008;
+
+	/** The Constant TCP_FLAG_ACK. */
+	public static final int TCP_FLAG_ACK = 0x010;
+
+	/** The Constant TCP_WIN_SCALE_SHIFT_MAX, per RFC 7323. */
+	public static final int TCP_WIN_SCALE_SHIFT_MAX = 14;
+
 	/** The Constant TCP_FIELD_SRC. */
 	public static final int TCP_FIELD_SRC = 0;
 
@@ -610,17 +637,42 @@ public final class CoreConstants {
 
 	/** The Constant SCTP_HEADER_LEN. */
 	/* Descriptor SCTP constants */
-	public static final int SCTP_HEADER_LEN = 0;
+	public static final int SCTP_HEADER_LEN = 12;
 
 	/** The Constant GRE_BITMASK_CHKSUM_FLAG. */
 	/* Descriptor GRE constants */
-	public static final int GRE_BITMASK_CHKSUM_FLAG = 0;
+	public static final int GRE_BITMASK_CHKSUM_FLAG = 0x8000;
 
 	/** The Constant GRE_BITMASK_KEY_FLAG. */
-	public static final int GRE_BITMASK_KEY_FLAG = 0;
+	public static final int GRE_BITMASK_KEY_FLAG = 0x2000;
 
 	/** The Constant GRE_BITMASK_SEQ_FLAG. */
-	public static final int GRE_BITMASK_SEQ_FLAG = 0;
+	public static final int GRE_BITMASK_SEQ_FLAG = 0x1000;
+
+	/** The Constant GRE_BITMASK_VERSION. */
+	public static final int GRE_BITMASK_VERSION = 0x0007;
+
+	/** The Constant GRE_FIELD_PROTOCOL. */
+	public static final int GRE_FIELD_PROTOCOL = 2;
+
+	/** The Constant VLAN_MASK16_VID. */
+	/* Descriptor VLAN constants */
+	public static final int VLAN_MASK16_VID = 0x0FFF;
+
+	/** The Constant IPv6_FRAG_FIELD_OFFSET. */
+	public static final int IPv6_FRAG_FIELD_OFFSET = 2;
+
+	/** The Constant IPv6_FRAG_MASK16_OFFSET. */
+	public static final int IPv6_FRAG_MASK16_OFFSET = 0xFFF8;
+
+	/** The Constant IPv6_FRAG_FLAG16_MF. */
+	public static final int IPv6_FRAG_FLAG16_MF = 0x0001;
+
+	/** The Constant UDP_PORT_GTP_C. */
+	public static final int UDP_PORT_GTP_C = 2123;
+
+	/** The Constant UDP_PORT_GTP_U. */
+	public static final int UDP_PORT_GTP_U = 2152;
 
 	/**
 	 * Instantiates a new core constants.
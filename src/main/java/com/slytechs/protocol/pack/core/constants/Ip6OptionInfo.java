@@ -26,6 +26,7 @@ import com.slytechs.protocol.pack.ProtocolPackTable;
 import com.slytechs.protocol.pack.core.IpOptionInfo;
 import com.slytechs.protocol.pack.core.Ip6Option.Ip6AuthenticationOption;
 import com.slytechs.protocol.pack.core.Ip6Option.Ip6DestinationOption;
+import com.slytechs.protocol.pack.core.Ip6Option.Ip6FragmentOption;
 import com.slytechs.protocol.pack.core.Ip6Option.Ip6HopByHopOption;
 import com.slytechs.protocol.pack.core.Ip6Option.Ip6IdentityOption;
 import com.slytechs.protocol.pack.core.Ip6Option.Ip6MobilityOption;
@@ -42,7 +43,7 @@ public enum Ip6OptionInfo implements IpOptionInfo {
 	HOP_BY_HOP(0, "HOP", Ip6HopByHopOption::new),
 	
 	/** The fragment. */
-	FRAGMENT(44, "FRAG", Ip6RoutingOption::new),
+	FRAGMENT(44, "FRAG", Ip6FragmentOption::new),
 	
 	/** The destination. */
 	DESTINATION(60, "DST", Ip6DestinationOption::new),
@@ -32,7 +32,7 @@ import com.slytechs.protocol.descriptor.IpfDescriptor;
 public enum IpfDescriptorType implements DescriptorType<IpfDescriptor> {
 
 	/** The ipf. */
-	IPF(20, IpfDescriptor::new),
+	IPF(20, com.slytechs.protocol.pack.core.IpfDescriptor::new),
 
 	;
 
@@ -0,0 +1,737 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pcap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDescriptor;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.PcapDescriptor;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.runtime.time.TimestampUnit;
+
+/**
+ * Memory mapped pcap capture file reader.
+ * 
+ * <p>
+ * The capture file is mapped into memory using {@code FileChannel.map} and
+ * record headers are walked in place. Each record's header is bound to a
+ * {@link PcapDescriptor} and the packet data to a {@link Packet}, both as views
+ * of the mapped file, so no packet data is copied. Both micro and nano second
+ * pcap files, in either byte order, are supported.
+ * </p>
+ * 
+ * <p>
+ * Files larger than the mapping window are mapped one window at a time. A new
+ * window is always mapped starting at the record which did not fit entirely
+ * within the previous window, so every record is contiguous within a single
+ * window.
+ * </p>
+ * 
+ * <p>
+ * Optionally, a packet dissector can be assigned, in which case every record is
+ * dissected in the same pass and the packet is bound to a type 2 descriptor
+ * instead of the pcap record header. Only the small dissected descriptor is
+ * written, the packet data is still accessed directly from the mapped file.
+ * </p>
+ * 
+ * <p>
+ * The reader reuses the same packet and descriptor instances for every record.
+ * A packet returned by the reader is only valid until the next record is read,
+ * and must be cloned if it needs to be retained. The mapped file is read only,
+ * so header setters on the returned packets will fail.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class PcapReader implements AutoCloseable {
+
+	/** Magic number of pcap files with micro second timestamps. */
+	public static final int MAGIC_MICRO = 0xa1b2c3d4;
+
+	/** Magic number of pcap files with nano second timestamps. */
+	public static final int MAGIC_NANO = 0xa1b23c4d;
+
+	/** Length of the pcap file header. */
+	public static final int FILE_HEADER_LENGTH = 24;
+
+	/** Length of every pcap record header. */
+	public static final int RECORD_HEADER_LENGTH = PcapDescriptor.PCAP_RECORD_HEADER_LENGTH;
+
+	/** Default size of the mapped window, 1 GB. */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+	/** Smallest allowed window size, large enough for any record. */
+	public static final int MIN_WINDOW_SIZE = RECORD_HEADER_LENGTH + 0x40000;
+
+	/** Page size, mapped windows of a range extend to a page boundary. */
+	private static final int PAGE_SIZE = 4096;
+
+	/** Offset of the timestamp fraction field within the record header. */
+	private static final int RECORD_FRACTION_OFFSET = 4;
+
+	/** Offset of the caplen field within the record header. */
+	private static final int RECORD_CAPLEN_OFFSET = 8;
+
+	/** Offset of the wirelen field within the record header. */
+	private static final int RECORD_WIRELEN_OFFSET = 12;
+
+	/** Largest wire length considered plausible when resynchronizing. */
+	private static final int RESYNC_MAX_WIRELEN = 0x40000;
+
+	/** Largest timestamp difference, in seconds, between resync records. */
+	private static final int RESYNC_MAX_SECONDS_DELTA = 86400;
+
+	/**
+	 * Opens a pcap file for reading, using the default window size.
+	 *
+	 * @param file the pcap file
+	 * @return the pcap reader
+	 * @throws IOException Signals that an I/O error has occurred or the file is
+	 *                     not a valid pcap file
+	 */
+	public static PcapReader open(Path file) throws IOException {
+		return open(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens a pcap file for reading.
+	 *
+	 * @param file       the pcap file
+	 * @param windowSize maximum number of bytes mapped at one time
+	 * @return the pcap reader
+	 * @throws IOException              Signals that an I/O error has occurred or
+	 *                                  the file is not a valid pcap file
+	 * @throws IllegalArgumentException if window size is smaller than
+	 *                                  {@link #MIN_WINDOW_SIZE}
+	 */
+	public static PcapReader open(Path file, int windowSize) throws IOException, IllegalArgumentException {
+		if (windowSize < MIN_WINDOW_SIZE)
+			throw new IllegalArgumentException("window size too small [%d < %d]"
+					.formatted(windowSize, MIN_WINDOW_SIZE));
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new PcapReader(channel, windowSize);
+
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+
+			throw e;
+		}
+	}
+
+	/** The channel. */
+	private final FileChannel channel;
+
+	/** The file size. */
+	private final long fileSize;
+
+	/** File offset just past the last record read by this reader. */
+	private long end;
+
+	/** True if this reader owns and closes the channel. */
+	private final boolean owner;
+
+	/** The window size. */
+	private final int windowSize;
+
+	/** The file byte order. */
+	private final ByteOrder order;
+
+	/** The timestamp unit. */
+	private final TimestampUnit timestampUnit;
+
+	/** The major version. */
+	private final int majorVersion;
+
+	/** The minor version. */
+	private final int minorVersion;
+
+	/** The snaplen. */
+	private final int snaplen;
+
+	/** The link type. */
+	private final int linkType;
+
+	/** The currently mapped window. */
+	private MappedByteBuffer window;
+
+	/** File offset of the first byte of the window. */
+	private long windowStart;
+
+	/** File offset just past the last byte of the window. */
+	private long windowEnd;
+
+	/** File offset of the next record header. */
+	private long position = FILE_HEADER_LENGTH;
+
+	/** Frame number assigned to the next record. */
+	private long frameNo;
+
+	/** Record header descriptor, always bound to the current record. */
+	private final PcapDescriptor pcapDescriptor = new PcapDescriptor();
+
+	/** The optional dissector. */
+	private PacketDissector dissector;
+
+	/** Type 2 descriptor, used only when dissecting. */
+	private Type2Descriptor type2Descriptor;
+
+	/** Buffer of the type 2 descriptor, used only when dissecting. */
+	private ByteBuffer type2Buffer;
+
+	/** The packet, bound to the current record. */
+	private Packet packet;
+
+	/**
+	 * Instantiates a new pcap reader and reads the file header.
+	 *
+	 * @param channel    the channel
+	 * @param windowSize the window size
+	 * @throws IOException Signals that an I/O error has occurred or the file is
+	 *                     not a valid pcap file
+	 */
+	private PcapReader(FileChannel channel, int windowSize) throws IOException {
+		this.channel = channel;
+		this.windowSize = windowSize;
+		this.fileSize = channel.size();
+		this.end = fileSize;
+		this.owner = true;
+
+		if (fileSize < FILE_HEADER_LENGTH)
+			throw new IOException("not a pcap file, too short [%d bytes]".formatted(fileSize));
+
+		map(0, FILE_HEADER_LENGTH);
+
+		int magic = window.order(ByteOrder.BIG_ENDIAN).getInt(0);
+		if ((magic == MAGIC_MICRO) || (magic == MAGIC_NANO))
+			this.order = ByteOrder.BIG_ENDIAN;
+
+		else if ((Integer.reverseBytes(magic) == MAGIC_MICRO) || (Integer.reverseBytes(magic) == MAGIC_NANO))
+			this.order = ByteOrder.LITTLE_ENDIAN;
+
+		else
+			throw new IOException("not a pcap file, invalid magic number [0x%08x]".formatted(magic));
+
+		window.order(order);
+		magic = window.getInt(0);
+
+		this.timestampUnit = (magic == MAGIC_NANO) ? TimestampUnit.PCAP_NANO : TimestampUnit.PCAP_MICRO;
+		this.majorVersion = Short.toUnsignedInt(window.getShort(4));
+		this.minorVersion = Short.toUnsignedInt(window.getShort(6));
+		this.snaplen = window.getInt(16);
+		this.linkType = window.getInt(20);
+
+		pcapDescriptor.timestampUnit(timestampUnit);
+	}
+
+	/**
+	 * Instantiates a new reader sharing the channel and file header of another
+	 * reader. The new reader does not close the channel.
+	 *
+	 * @param file the reader which opened the file
+	 */
+	PcapReader(PcapReader file) {
+		this.channel = file.channel;
+		this.windowSize = file.windowSize;
+		this.fileSize = file.fileSize;
+		this.end = file.fileSize;
+		this.owner = false;
+		this.order = file.order;
+		this.timestampUnit = file.timestampUnit;
+		this.majorVersion = file.majorVersion;
+		this.minorVersion = file.minorVersion;
+		this.snaplen = file.snaplen;
+		this.linkType = file.linkType;
+
+		pcapDescriptor.timestampUnit(timestampUnit);
+	}
+
+	/**
+	 * Restricts this reader to records between two record boundaries. Windows
+	 * mapped from then on do not extend past the page containing the end
+	 * offset, so a reader over a small range does not map a whole window.
+	 *
+	 * @param start file offset of the first record
+	 * @param end   file offset just past the last record
+	 */
+	void range(long start, long end) {
+		this.position = start;
+		this.end = end;
+	}
+
+	/**
+	 * Sets the frame number assigned to the next record.
+	 *
+	 * @param frameNo the frame number
+	 */
+	void frameNo(long frameNo) {
+		this.frameNo = frameNo;
+	}
+
+	/**
+	 * Makes sure the specified file region is within the current window,
+	 * mapping a new window starting at the offset if it is not.
+	 *
+	 * @param offset the file offset
+	 * @param length the length of the region
+	 * @return the offset of the region within the window
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	private int mapped(long offset, int length) throws IOException {
+		if ((offset < windowStart) || (offset + length > windowEnd))
+			map(offset, length);
+
+		return (int) (offset - windowStart);
+	}
+
+	/**
+	 * Maps a new window starting at the specified file offset. The window ends
+	 * at the end of the file or window size, and at the first page boundary
+	 * after the end of the range, unless the region requested goes further.
+	 *
+	 * @param offset    the file offset
+	 * @param minLength the minimum number of bytes to map
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	private void map(long offset, int minLength) throws IOException {
+		long rangeEnd = Math.max((end + PAGE_SIZE - 1) & -PAGE_SIZE, offset + minLength);
+		long length = Math.min(windowSize, Math.min(fileSize, rangeEnd) - offset);
+
+		this.window = channel.map(MapMode.READ_ONLY, offset, length);
+		this.window.order(order == null ? ByteOrder.BIG_ENDIAN : order);
+		this.windowStart = offset;
+		this.windowEnd = offset + length;
+	}
+
+	/**
+	 * Gets the number of bytes in the currently mapped window.
+	 *
+	 * @return the mapped length, or 0 if nothing is mapped
+	 */
+	long mappedLength() {
+		return windowEnd - windowStart;
+	}
+
+	/**
+	 * Walks to the next record, binding the record header and packet data.
+	 *
+	 * @return true, if a record was read, false on end of file or a truncated
+	 *         last record
+	 * @throws IOException Signals that an I/O error has occurred or the record
+	 *                     header is corrupt
+	 */
+	boolean nextRecord() throws IOException {
+		final long recordStart = position;
+		if (recordStart + RECORD_HEADER_LENGTH > end)
+			return false;
+
+		int offset = mapped(recordStart, RECORD_HEADER_LENGTH);
+		final int caplen = window.getInt(offset + RECORD_CAPLEN_OFFSET);
+		if ((caplen < 0) || (caplen > windowSize - RECORD_HEADER_LENGTH))
+			throw new IOException("corrupt pcap record at offset %d [caplen=%d]"
+					.formatted(recordStart, Integer.toUnsignedLong(caplen)));
+
+		final long recordEnd = recordStart + RECORD_HEADER_LENGTH + caplen;
+		if (recordEnd > end)
+			return false;
+
+		offset = mapped(recordStart, RECORD_HEADER_LENGTH + caplen);
+
+		pcapDescriptor.bind(window.slice(offset, RECORD_HEADER_LENGTH).order(order));
+		pcapDescriptor.frameNo(frameNo);
+
+		ByteBuffer data = window.slice(offset + RECORD_HEADER_LENGTH, caplen);
+
+		if (dissector != null) {
+			dissector.dissectPacket(data, pcapDescriptor.timestamp(), caplen, pcapDescriptor.wireLength());
+			data.rewind();
+
+			dissector.writeDescriptor(type2Buffer.clear());
+			type2Descriptor.bind(type2Buffer.clear());
+			type2Descriptor.frameNo(frameNo);
+		}
+
+		packet().bind(data);
+
+		this.position = recordEnd;
+		this.frameNo++;
+
+		return true;
+	}
+
+	/**
+	 * Checks if a plausible record header starts at the file offset. Only the
+	 * header itself is validated, not the record data.
+	 *
+	 * @param offset the file offset
+	 * @return the total length of the record, including its header, or -1 if the
+	 *         header is not plausible
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	private int plausibleRecordLengthAt(long offset) throws IOException {
+		if (offset + RECORD_HEADER_LENGTH > fileSize)
+			return -1;
+
+		int o = mapped(offset, RECORD_HEADER_LENGTH);
+		int fraction = window.getInt(o + RECORD_FRACTION_OFFSET);
+		int caplen = window.getInt(o + RECORD_CAPLEN_OFFSET);
+		int wirelen = window.getInt(o + RECORD_WIRELEN_OFFSET);
+
+		int fractionMax = (timestampUnit == TimestampUnit.PCAP_NANO) ? 1000_000_000 : 1000_000;
+
+		if ((fraction < 0) || (fraction >= fractionMax)
+				|| (caplen < 0) || (caplen > wirelen)
+				|| (wirelen > RESYNC_MAX_WIRELEN)
+				|| (caplen > windowSize - RECORD_HEADER_LENGTH))
+			return -1;
+
+		return RECORD_HEADER_LENGTH + caplen;
+	}
+
+	/**
+	 * Scans for a record boundary, starting at a file offset which may fall
+	 * anywhere within a record. A candidate offset is accepted when it and the
+	 * records which follow it have plausible headers, timestamps close to each
+	 * other and either chain for {@code chainLength} records or land exactly on
+	 * the end offset, which is known to be a record boundary.
+	 *
+	 * @param from        the first candidate offset
+	 * @param limit       the last candidate offset, exclusive
+	 * @param end         a known record boundary after the scanned region
+	 * @param chainLength number of consecutive records to validate
+	 * @return the offset of the record boundary or -1 if none was found
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	long resync(long from, long limit, long end, int chainLength) throws IOException {
+		for (long candidate = from; candidate < limit; candidate++)
+			if (isRecordChainAt(candidate, end, chainLength))
+				return candidate;
+
+		return -1;
+	}
+
+	/**
+	 * Checks if a chain of plausible records starts at the file offset.
+	 *
+	 * @param offset      the file offset
+	 * @param end         a known record boundary
+	 * @param chainLength number of consecutive records to validate
+	 * @return true, if a chain of records was found
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	private boolean isRecordChainAt(long offset, long end, int chainLength) throws IOException {
+		long firstSeconds = -1;
+
+		for (int i = 0; i < chainLength; i++) {
+			int length = plausibleRecordLengthAt(offset);
+			if (length < 0)
+				return false;
+
+			int o = mapped(offset, RECORD_HEADER_LENGTH);
+			long seconds = Integer.toUnsignedLong(window.getInt(o));
+			if (firstSeconds == -1)
+				firstSeconds = seconds;
+
+			else if (Math.abs(seconds - firstSeconds) > RESYNC_MAX_SECONDS_DELTA)
+				return false;
+
+			offset += length;
+			if (offset == end)
+				return true;
+
+			if (offset > end)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Counts the records between two record boundaries, by walking the record
+	 * headers only.
+	 *
+	 * @param start file offset of the first record
+	 * @param end   file offset just past the last record
+	 * @return number of records
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	long countRecords(long start, long end) throws IOException {
+		long count = 0;
+
+		for (long offset = start; offset + RECORD_HEADER_LENGTH <= end; count++) {
+			int o = mapped(offset, RECORD_HEADER_LENGTH);
+			int caplen = window.getInt(o + RECORD_CAPLEN_OFFSET);
+			if (caplen < 0)
+				throw new IOException("corrupt pcap record at offset %d [caplen=%d]"
+						.formatted(offset, Integer.toUnsignedLong(caplen)));
+
+			offset += RECORD_HEADER_LENGTH + caplen;
+			if (offset > end)
+				break;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Reads the next packet. The returned packet is reused and only valid until
+	 * the next read.
+	 *
+	 * @return the packet or null on end of file
+	 * @throws IOException Signals that an I/O error has occurred or the record
+	 *                     header is corrupt
+	 */
+	public Packet nextPacket() throws IOException {
+		return nextRecord() ? packet : null;
+	}
+
+	/**
+	 * Reads up to count packets, passing each one to the action. The packet
+	 * passed to the action is reused and only valid for the duration of the call.
+	 *
+	 * @param count  maximum number of packets to read, or a negative number to
+	 *               read until end of file
+	 * @param action the action invoked for each packet
+	 * @return number of packets read
+	 * @throws IOException Signals that an I/O error has occurred or a record
+	 *                     header is corrupt
+	 */
+	public long dispatch(long count, Consumer<Packet> action) throws IOException {
+		long i = 0;
+		for (; (count < 0 || i < count) && nextRecord(); i++)
+			action.accept(packet);
+
+		return i;
+	}
+
+	/**
+	 * Splits the remaining records into chunks, which can be processed in
+	 * parallel. Chunks are split at record boundaries found by a resync scan
+	 * near the middle of each chunk, without walking the records in between.
+	 * Each chunk has its own reader and its own dissector instance, created
+	 * using the supplied factory. Packets are encountered in frame number order,
+	 * and frame numbers are the same as those assigned by a sequential read.
+	 * 
+	 * <p>
+	 * Each chunk reuses its packet for every record, so a packet is only valid
+	 * within the action it is passed to. Extract the needed values, or clone the
+	 * packet, before any stream operation which buffers elements. This reader
+	 * must remain open until the spliterator is fully traversed. Reading from
+	 * this reader does not affect the spliterator and vice versa.
+	 * </p>
+	 *
+	 * @param dissectorFactory the dissector factory or null to not dissect
+	 * @return the spliterator
+	 */
+	public Spliterator<Packet> spliterator(Supplier<? extends PacketDissector> dissectorFactory) {
+		return new PcapSpliterator(this, position, end, frameNo, dissectorFactory,
+				PcapSpliterator.DEFAULT_MIN_SPLIT_SIZE);
+	}
+
+	/**
+	 * Streams the remaining records, optionally in parallel.
+	 *
+	 * @param dissectorFactory the dissector factory or null to not dissect
+	 * @param parallel         if true, the stream is a parallel stream
+	 * @return the stream of packets
+	 * @see #spliterator(Supplier)
+	 */
+	public Stream<Packet> stream(Supplier<? extends PacketDissector> dissectorFactory, boolean parallel) {
+		return StreamSupport.stream(spliterator(dissectorFactory), parallel);
+	}
+
+	/**
+	 * The packet bound to the current record, creating it on first use.
+	 *
+	 * @return the packet
+	 */
+	Packet packet() {
+		if (packet == null)
+			packet = new Packet(dissector == null ? pcapDescriptor : type2Descriptor);
+
+		return packet;
+	}
+
+	/**
+	 * Sets the dissector used to dissect every record, or null to disable
+	 * dissection. When dissecting, the packets are bound to a type 2 descriptor,
+	 * otherwise to the pcap record header descriptor. The dissector's data link
+	 * type must match the link type of the file. Any packet previously returned
+	 * by this reader is no longer updated by subsequent reads.
+	 *
+	 * @param dissector the type 2 dissector or null
+	 * @return this pcap reader
+	 */
+	public PcapReader setDissector(PacketDissector dissector) {
+		this.dissector = dissector;
+		this.packet = null;
+
+		if ((dissector != null) && (type2Descriptor == null)) {
+			this.type2Buffer = ByteBuffer.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+					.order(ByteOrder.nativeOrder());
+			this.type2Descriptor = new Type2Descriptor();
+			this.type2Descriptor.timestampUnit(timestampUnit);
+		}
+
+		return this;
+	}
+
+	/**
+	 * The descriptor packets are bound to, either the type 2 descriptor when
+	 * dissecting or the pcap record header descriptor.
+	 *
+	 * @return the packet descriptor
+	 */
+	public PacketDescriptor descriptor() {
+		return (dissector == null) ? pcapDescriptor : type2Descriptor;
+	}
+
+	/**
+	 * The pcap record header descriptor of the current record.
+	 *
+	 * @return the pcap descriptor
+	 */
+	public PcapDescriptor pcapDescriptor() {
+		return pcapDescriptor;
+	}
+
+	/**
+	 * File offset of the next record header.
+	 *
+	 * @return the file offset
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * The frame number which will be assigned to the next record, starting at 0.
+	 *
+	 * @return the frame number
+	 */
+	public long frameNo() {
+		return frameNo;
+	}
+
+	/**
+	 * The size of the capture file in bytes.
+	 *
+	 * @return the file size
+	 */
+	public long fileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * The byte order of the capture file.
+	 *
+	 * @return the byte order
+	 */
+	public ByteOrder order() {
+		return order;
+	}
+
+	/**
+	 * The timestamp unit, either {@code PCAP_MICRO} or {@code PCAP_NANO}.
+	 *
+	 * @return the timestamp unit
+	 */
+	public TimestampUnit timestampUnit() {
+		return timestampUnit;
+	}
+
+	/**
+	 * The file format major version.
+	 *
+	 * @return the major version
+	 */
+	public int majorVersion() {
+		return majorVersion;
+	}
+
+	/**
+	 * The file format minor version.
+	 *
+	 * @return the minor version
+	 */
+	public int minorVersion() {
+		return minorVersion;
+	}
+
+	/**
+	 * The maximum capture length of packets in the file.
+	 *
+	 * @return the snaplen
+	 */
+	public int snaplen() {
+		return snaplen;
+	}
+
+	/**
+	 * The link type of the file, as a pcap {@code LINKTYPE_} value.
+	 *
+	 * @return the link type
+	 */
+	public int linkType() {
+		return linkType;
+	}
+
+	/**
+	 * Closes the file channel, unless the channel is shared with another
+	 * reader. Packets bound to the mapped file remain readable
+	 * until they are garbage collected, as mapped buffers are not unmapped
+	 * explicitly.
+	 *
+	 * @throws IOException Signals that an I/O error has occurred.
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (owner)
+			channel.close();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "PcapReader [version=%d.%d, order=%s, unit=%s, snaplen=%d, linkType=%d, position=%d, size=%d]"
+				.formatted(majorVersion, minorVersion, order, timestampUnit, snaplen, linkType, position, fileSize);
+	}
+}
@@ -0,0 +1,355 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pcap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+
+/**
+ * Spliterator over the records of a memory mapped pcap file, which splits the
+ * file into chunks aligned to record boundaries.
+ * 
+ * <p>
+ * A split point is found by scanning forward from the middle of the chunk for
+ * an offset where a short chain of plausible record headers starts. The scan
+ * only touches a few pages around the split point, so splitting a large file
+ * does not require walking all of its records first.
+ * </p>
+ * 
+ * <p>
+ * Frame numbers of a chunk depend on the number of records in all preceding
+ * chunks. Every chunk remembers the chunk which precedes it, and the record
+ * counts of traversed chunks are recorded as traversal completes. When a chunk
+ * starts its traversal, counts of preceding chunks which are still unknown are
+ * computed by walking their record headers only. No dissection is done for
+ * those.
+ * </p>
+ * 
+ * <p>
+ * A chunk which is split is replaced by its two halves, but chunks split off
+ * earlier still refer to it as their predecessor. The split chunk is therefore
+ * linked to its halves and its count is the sum of their counts, so counts
+ * recorded by traversing the halves are reused instead of walking the whole
+ * chunk again. Counts are computed under a per chunk lock, so concurrently
+ * starting chunks wait for a single walk of a shared predecessor instead of
+ * each walking it.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+final class PcapSpliterator implements Spliterator<Packet> {
+
+	/** Default smallest chunk size, 4 MB. */
+	static final int DEFAULT_MIN_SPLIT_SIZE = 4 << 20;
+
+	/** Number of consecutive record headers validated by a resync scan. */
+	static final int RESYNC_CHAIN_LENGTH = 4;
+
+	/** Estimated average record length, used for size estimates only. */
+	private static final int ESTIMATED_RECORD_LENGTH = 256;
+
+	/**
+	 * A chunk of records between two record boundaries.
+	 */
+	private static final class Chunk {
+
+		/** File offset of the first record. */
+		final long start;
+
+		/** File offset just past the last record. */
+		final long end;
+
+		/** The chunk preceding this chunk, or null if first. */
+		final Chunk previous;
+
+		/** Number of records in the chunk, or -1 if not known yet. */
+		volatile long count = -1;
+
+		/** The first half, once this chunk is split. */
+		private Chunk first;
+
+		/** The second half, once this chunk is split. */
+		private Chunk second;
+
+		/**
+		 * Instantiates a new chunk.
+		 *
+		 * @param start    the start
+		 * @param end      the end
+		 * @param previous the previous chunk
+		 */
+		Chunk(long start, long end, Chunk previous) {
+			this.start = start;
+			this.end = end;
+			this.previous = previous;
+		}
+
+		/**
+		 * Number of records in the chunk, counting them if not known yet. The count
+		 * of a split chunk is the sum of the counts of its halves.
+		 *
+		 * @param reader the reader used to count the records
+		 * @return the record count
+		 * @throws IOException Signals that an I/O error has occurred.
+		 */
+		long count(PcapReader reader) throws IOException {
+			long c = count;
+			if (c != -1)
+				return c;
+
+			synchronized (this) {
+				c = count;
+				if (c == -1) {
+					c = (first != null)
+							? first.count(reader) + second.count(reader)
+							: reader.countRecords(start, end);
+
+					count = c;
+				}
+			}
+
+			return c;
+		}
+
+		/**
+		 * Splits the chunk at a record boundary, linking it to its two halves.
+		 *
+		 * @param split file offset of the first record of the second half
+		 * @return the second half, whose previous chunk is the first half
+		 */
+		synchronized Chunk split(long split) {
+			this.first = new Chunk(start, split, previous);
+			this.second = new Chunk(split, end, first);
+
+			return second;
+		}
+	}
+
+	/** The reader which opened the file. */
+	private final PcapReader file;
+
+	/** Frame number of the first record of the first chunk. */
+	private final long firstFrameNo;
+
+	/** The dissector factory, or null. */
+	private final Supplier<? extends PacketDissector> dissectorFactory;
+
+	/** The smallest chunk size which is still split. */
+	private final int minSplitSize;
+
+	/** The chunk covered by this spliterator. */
+	private Chunk chunk;
+
+	/** The chunk reader, created on first use. */
+	private PcapReader reader;
+
+	/** Frame number of the first record of this chunk, once traversal started. */
+	private long baseFrameNo = -1;
+
+	/**
+	 * Instantiates a new pcap spliterator.
+	 *
+	 * @param file             the reader which opened the file
+	 * @param start            file offset of the first record
+	 * @param end              file offset just past the last record
+	 * @param firstFrameNo     frame number of the first record
+	 * @param dissectorFactory the dissector factory or null
+	 * @param minSplitSize     the smallest chunk size which is still split
+	 */
+	PcapSpliterator(PcapReader file, long start, long end, long firstFrameNo,
+			Supplier<? extends PacketDissector> dissectorFactory, int minSplitSize) {
+		this(file, new Chunk(start, end, null), firstFrameNo, dissectorFactory, minSplitSize);
+	}
+
+	/**
+	 * Instantiates a new pcap spliterator for a chunk.
+	 *
+	 * @param file             the reader which opened the file
+	 * @param chunk            the chunk
+	 * @param firstFrameNo     frame number of the first record of the first chunk
+	 * @param dissectorFactory the dissector factory or null
+	 * @param minSplitSize     the smallest chunk size which is still split
+	 */
+	private PcapSpliterator(PcapReader file, Chunk chunk, long firstFrameNo,
+			Supplier<? extends PacketDissector> dissectorFactory, int minSplitSize) {
+		this.file = file;
+		this.chunk = chunk;
+		this.firstFrameNo = firstFrameNo;
+		this.dissectorFactory = dissectorFactory;
+		this.minSplitSize = minSplitSize;
+	}
+
+	/**
+	 * The chunk reader, created on first use.
+	 *
+	 * @return the reader
+	 */
+	private PcapReader reader() {
+		if (reader == null)
+			reader = new PcapReader(file);
+
+		return reader;
+	}
+
+	/**
+	 * Prepares the chunk reader for traversal, on first call only.
+	 *
+	 * @throws IOException Signals that an I/O error has occurred.
+	 */
+	private void start() throws IOException {
+		if (baseFrameNo != -1)
+			return;
+
+		PcapReader r = reader();
+
+		long base = firstFrameNo;
+		for (Chunk c = chunk.previous; c != null; c = c.previous)
+			base += c.count(r);
+
+		r.range(chunk.start, chunk.end);
+		r.frameNo(base);
+
+		if (dissectorFactory != null)
+			r.setDissector(dissectorFactory.get());
+
+		this.baseFrameNo = base;
+	}
+
+	/**
+	 * Records the number of records in the chunk once traversal is complete.
+	 */
+	private void finish() {
+		chunk.count = reader.frameNo() - baseFrameNo;
+	}
+
+	/**
+	 * Try advance.
+	 *
+	 * @param action the action
+	 * @return true, if successful
+	 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super Packet> action) {
+		try {
+			start();
+
+			if (!reader.nextRecord()) {
+				finish();
+				return false;
+			}
+
+			action.accept(reader.packet());
+
+			return true;
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * For each remaining.
+	 *
+	 * @param action the action
+	 * @see java.util.Spliterator#forEachRemaining(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachRemaining(Consumer<? super Packet> action) {
+		try {
+			start();
+
+			while (reader.nextRecord())
+				action.accept(reader.packet());
+
+			finish();
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Splits off the first half of the chunk, at the first record boundary found
+	 * at or after the middle of the chunk. Once traversal has started, the chunk
+	 * is no longer split.
+	 *
+	 * @return the spliterator covering the first half or null
+	 * @see java.util.Spliterator#trySplit()
+	 */
+	@Override
+	public Spliterator<Packet> trySplit() {
+		final long start = chunk.start;
+		final long end = chunk.end;
+
+		if ((baseFrameNo != -1) || (end - start < 2L * minSplitSize))
+			return null;
+
+		final long middle = start + (end - start) / 2;
+		final long limit = Math.min(end, middle + PcapReader.MIN_WINDOW_SIZE);
+
+		long split;
+		try {
+			/* Keep the scan window within this chunk */
+			PcapReader r = reader();
+			r.range(start, end);
+
+			split = r.resync(middle, limit, end, RESYNC_CHAIN_LENGTH);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (split <= start)
+			return null;
+
+		this.chunk = chunk.split(split);
+
+		return new PcapSpliterator(file, chunk.previous, firstFrameNo, dissectorFactory, minSplitSize);
+	}
+
+	/**
+	 * Estimate size.
+	 *
+	 * @return the estimated number of remaining records
+	 * @see java.util.Spliterator#estimateSize()
+	 */
+	@Override
+	public long estimateSize() {
+		long position = (baseFrameNo == -1) ? chunk.start : reader.position();
+
+		return (chunk.end - position) / ESTIMATED_RECORD_LENGTH;
+	}
+
+	/**
+	 * Characteristics.
+	 *
+	 * @return the int
+	 * @see java.util.Spliterator#characteristics()
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
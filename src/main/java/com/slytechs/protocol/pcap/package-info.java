@@ -0,0 +1,6 @@
+/**
+ * Offline capture file support. Capture files are memory mapped and packets
+ * are bound directly to the mapped file contents, without copying packet data
+ * out of the file.
+ */
+package com.slytechs.protocol.pcap;
@@ -20,6 +20,8 @@ package com.slytechs.protocol.runtime;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 
+import com.slytechs.protocol.runtime.internal.layout.BitField;
+
 /**
  * Host memory binding base class. This class is designed to be sbuclassed and
  * manages a data binding (a reference) to a data buffer allowing the same
@@ -175,6 +177,8 @@ public abstract class MemoryBinding implements Cloneable, Binding {
 
 		this.buffer = buffer;
 		this.address = address;
+
+		BitField.invalidateCaches();
 	}
 
 	/**
@@ -18,11 +18,13 @@
 package com.slytechs.protocol.runtime.internal.concurrent;
 
 /**
- * The Class IntRing.
+ * A lock-free ring of primitive ints, such as packet buffer indexes or
+ * descriptor offsets.
  *
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
  * @author Mark Bednarczyk
+ * @see Ring
  */
 public class IntRing extends Ring {
 
@@ -30,12 +32,23 @@ public class IntRing extends Ring {
 	private final int[] table;
 
 	/**
-	 * Instantiates a new int ring.
+	 * Instantiates a new multi-producer, multi-consumer int ring.
 	 *
-	 * @param size the size
+	 * @param size the size, must be a power of 2
 	 */
 	public IntRing(int size) {
-		super(size);
+		this(size, 0);
+	}
+
+	/**
+	 * Instantiates a new int ring.
+	 *
+	 * @param size  the size, must be a power of 2
+	 * @param flags ring flags, a combination of {@link Ring#SP_ENQ} and
+	 *              {@link Ring#SC_DEQ}
+	 */
+	public IntRing(int size, int flags) {
+		super(size, flags);
 		this.table = new int[size];
 	}
 
@@ -46,27 +59,85 @@ public class IntRing extends Ring {
 	 * @return true, if successful
 	 */
 	public boolean enqueue(int value) {
-		throw new UnsupportedOperationException();
+		long r = producerAcquire(1, true);
+		if (r == 0)
+			return false;
+
+		table[reservedIndex(r) & mask] = value;
+		producerRelease(r);
+
+		return true;
 	}
 
 	/**
-	 * Bulk enqueue.
+	 * Bulk enqueue. Either all values are enqueued or none.
 	 *
 	 * @param values the values
 	 * @return true, if successful
 	 */
 	public boolean bulkEnqueue(int... values) {
-		throw new UnsupportedOperationException();
+		return enqueue(values, 0, values.length, true) != 0 || (values.length == 0);
 	}
 
 	/**
-	 * Burst enqueue.
+	 * Bulk enqueue. Either all values are enqueued or none.
 	 *
 	 * @param values the values
-	 * @return the int
+	 * @param offset the offset into values array
+	 * @param length number of values to enqueue
+	 * @return true, if successful
+	 */
+	public boolean bulkEnqueue(int[] values, int offset, int length) {
+		return enqueue(values, offset, length, true) != 0 || (length == 0);
+	}
+
+	/**
+	 * Burst enqueue. As many values as there is room for are enqueued.
+	 *
+	 * @param values the values
+	 * @return number of values enqueued
 	 */
 	public int burstEnqueue(int... values) {
-		throw new UnsupportedOperationException();
+		return enqueue(values, 0, values.length, false);
+	}
+
+	/**
+	 * Burst enqueue. As many values as there is room for are enqueued.
+	 *
+	 * @param values the values
+	 * @param offset the offset into values array
+	 * @param length max number of values to enqueue
+	 * @return number of values enqueued
+	 */
+	public int burstEnqueue(int[] values, int offset, int length) {
+		return enqueue(values, offset, length, false);
+	}
+
+	/**
+	 * Reserves, copies in and publishes values.
+	 *
+	 * @param values the values
+	 * @param offset the offset
+	 * @param length the length
+	 * @param fixed  bulk if true, burst otherwise
+	 * @return number of values enqueued
+	 */
+	private int enqueue(int[] values, int offset, int length, boolean fixed) {
+		long r = producerAcquire(length, fixed);
+		int n = reservedCount(r);
+		if (n == 0)
+			return 0;
+
+		int idx = reservedIndex(r) & mask;
+		int first = Math.min(n, capacity - idx);
+
+		System.arraycopy(values, offset, table, idx, first);
+		if (n > first)
+			System.arraycopy(values, offset + first, table, 0, n - first);
+
+		producerRelease(r);
+
+		return n;
 	}
 
 	/**
@@ -76,28 +147,86 @@ public class IntRing extends Ring {
 	 * @return true, if successful
 	 */
 	public boolean dequeue(int[] dstOfSizeOne) {
-		throw new UnsupportedOperationException();
+		long r = consumerAcquire(1, true);
+		if (r == 0)
+			return false;
+
+		dstOfSizeOne[0] = table[reservedIndex(r) & mask];
+		consumerRelease(r);
+
+		return true;
 	}
 
 	/**
-	 * Bulk dequeue.
+	 * Bulk dequeue. Either exactly count values are dequeued or none.
 	 *
 	 * @param count the count
 	 * @param dst   the dst
 	 * @return true, if successful
 	 */
 	public boolean bulkDequeue(int count, int[] dst) {
-		throw new UnsupportedOperationException();
+		return dequeue(dst, 0, count, true) != 0 || (count == 0);
 	}
 
 	/**
-	 * Burst dequeue.
+	 * Bulk dequeue. Either exactly count values are dequeued or none.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset into dst array
+	 * @param count  the count
+	 * @return true, if successful
+	 */
+	public boolean bulkDequeue(int[] dst, int offset, int count) {
+		return dequeue(dst, offset, count, true) != 0 || (count == 0);
+	}
+
+	/**
+	 * Burst dequeue. As many values as are available, up to count, are dequeued.
 	 *
 	 * @param count the count
 	 * @param dst   the dst
-	 * @return the int
+	 * @return number of values dequeued
 	 */
 	public int burstDequeue(int count, int[] dst) {
-		throw new UnsupportedOperationException();
+		return dequeue(dst, 0, count, false);
+	}
+
+	/**
+	 * Burst dequeue. As many values as are available, up to count, are dequeued.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset into dst array
+	 * @param count  the count
+	 * @return number of values dequeued
+	 */
+	public int burstDequeue(int[] dst, int offset, int count) {
+		return dequeue(dst, offset, count, false);
+	}
+
+	/**
+	 * Reserves, copies out and releases values.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset
+	 * @param count  the count
+	 * @param fixed  bulk if true, burst otherwise
+	 * @return number of values dequeued
+	 */
+	private int dequeue(int[] dst, int offset, int count, boolean fixed) {
+		long r = consumerAcquire(count, fixed);
+		int n = reservedCount(r);
+		if (n == 0)
+			return 0;
+
+		int idx = reservedIndex(r) & mask;
+		int first = Math.min(n, capacity - idx);
+
+		System.arraycopy(table, idx, dst, offset, first);
+		if (n > first)
+			System.arraycopy(table, 0, dst, offset + first, n - first);
+
+		consumerRelease(r);
+
+		return n;
 	}
 }
@@ -17,36 +17,62 @@
  */
 package com.slytechs.protocol.runtime.internal.concurrent;
 
+import java.util.Arrays;
 import java.util.function.IntFunction;
 
 /**
- * The Class ObjRing.
+ * A lock-free ring of object references, such as packets handed off from a
+ * capture thread to worker threads. Dequeued slots are cleared so that the
+ * ring does not keep references to consumed objects alive.
  *
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
  * @author Mark Bednarczyk
  * @param <T> the generic type
+ * @see Ring
  */
 public class ObjRing<T> extends Ring {
 
 	/** The table. */
 	private final T[] table;
-	
+
 	/** The allocator. */
 	private final IntFunction<T[]> allocator;
 
 	/**
-	 * Instantiates a new obj ring.
+	 * Instantiates a new multi-producer, multi-consumer obj ring.
 	 *
-	 * @param size      the size
+	 * @param size      the size, must be a power of 2
 	 * @param allocator the allocator
 	 */
 	public ObjRing(int size, IntFunction<T[]> allocator) {
-		super(size);
+		this(size, 0, allocator);
+	}
+
+	/**
+	 * Instantiates a new obj ring.
+	 *
+	 * @param size      the size, must be a power of 2
+	 * @param flags     ring flags, a combination of {@link Ring#SP_ENQ} and
+	 *                  {@link Ring#SC_DEQ}
+	 * @param allocator the allocator
+	 */
+	public ObjRing(int size, int flags, IntFunction<T[]> allocator) {
+		super(size, flags);
 		this.table = allocator.apply(size);
 		this.allocator = allocator;
 	}
 
+	/**
+	 * Allocates a new array suitable for bulk and burst operations on this ring.
+	 *
+	 * @param length the array length
+	 * @return the array
+	 */
+	public T[] newArray(int length) {
+		return allocator.apply(length);
+	}
+
 	/**
 	 * Enqueue.
 	 *
@@ -54,28 +80,193 @@ public class ObjRing<T> extends Ring {
 	 * @return true, if successful
 	 */
 	public boolean enqueue(T value) {
-		throw new UnsupportedOperationException();
+		long r = producerAcquire(1, true);
+		if (r == 0)
+			return false;
+
+		table[reservedIndex(r) & mask] = value;
+		producerRelease(r);
+
+		return true;
 	}
 
 	/**
-	 * Bulk enqueue.
+	 * Bulk enqueue. Either all values are enqueued or none.
 	 *
 	 * @param values the values
 	 * @return true, if successful
 	 */
 	@SuppressWarnings("unchecked")
 	public boolean bulkEnqueue(T... values) {
-		throw new UnsupportedOperationException();
+		return enqueue(values, 0, values.length, true) != 0 || (values.length == 0);
+	}
+
+	/**
+	 * Bulk enqueue. Either all values are enqueued or none.
+	 *
+	 * @param values the values
+	 * @param offset the offset into values array
+	 * @param length number of values to enqueue
+	 * @return true, if successful
+	 */
+	public boolean bulkEnqueue(T[] values, int offset, int length) {
+		return enqueue(values, offset, length, true) != 0 || (length == 0);
 	}
 
 	/**
-	 * Burst enqueue.
+	 * Burst enqueue. As many values as there is room for are enqueued.
 	 *
 	 * @param values the values
-	 * @return the int
+	 * @return number of values enqueued
 	 */
 	@SuppressWarnings("unchecked")
 	public int burstEnqueue(T... values) {
-		throw new UnsupportedOperationException();
+		return enqueue(values, 0, values.length, false);
+	}
+
+	/**
+	 * Burst enqueue. As many values as there is room for are enqueued.
+	 *
+	 * @param values the values
+	 * @param offset the offset into values array
+	 * @param length max number of values to enqueue
+	 * @return number of values enqueued
+	 */
+	public int burstEnqueue(T[] values, int offset, int length) {
+		return enqueue(values, offset, length, false);
+	}
+
+	/**
+	 * Reserves, copies in and publishes values.
+	 *
+	 * @param values the values
+	 * @param offset the offset
+	 * @param length the length
+	 * @param fixed  bulk if true, burst otherwise
+	 * @return number of values enqueued
+	 */
+	private int enqueue(T[] values, int offset, int length, boolean fixed) {
+		long r = producerAcquire(length, fixed);
+		int n = reservedCount(r);
+		if (n == 0)
+			return 0;
+
+		int idx = reservedIndex(r) & mask;
+		int first = Math.min(n, capacity - idx);
+
+		System.arraycopy(values, offset, table, idx, first);
+		if (n > first)
+			System.arraycopy(values, offset + first, table, 0, n - first);
+
+		producerRelease(r);
+
+		return n;
+	}
+
+	/**
+	 * Dequeue.
+	 *
+	 * @return the dequeued value or null if ring is empty
+	 */
+	public T dequeue() {
+		long r = consumerAcquire(1, true);
+		if (r == 0)
+			return null;
+
+		int idx = reservedIndex(r) & mask;
+		T value = table[idx];
+		table[idx] = null;
+
+		consumerRelease(r);
+
+		return value;
+	}
+
+	/**
+	 * Bulk dequeue. Either exactly count values are dequeued or none.
+	 *
+	 * @param count the count
+	 * @param dst   the dst
+	 * @return true, if successful
+	 */
+	public boolean bulkDequeue(int count, T[] dst) {
+		return dequeue(dst, 0, count, true) != 0 || (count == 0);
+	}
+
+	/**
+	 * Bulk dequeue. Either exactly count values are dequeued or none.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset into dst array
+	 * @param count  the count
+	 * @return true, if successful
+	 */
+	public boolean bulkDequeue(T[] dst, int offset, int count) {
+		return dequeue(dst, offset, count, true) != 0 || (count == 0);
+	}
+
+	/**
+	 * Burst dequeue. As many values as are available, up to count, are dequeued.
+	 *
+	 * @param count the count
+	 * @param dst   the dst
+	 * @return number of values dequeued
+	 */
+	public int burstDequeue(int count, T[] dst) {
+		return dequeue(dst, 0, count, false);
+	}
+
+	/**
+	 * Burst dequeue. As many values as are available, up to count, are dequeued.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset into dst array
+	 * @param count  the count
+	 * @return number of values dequeued
+	 */
+	public int burstDequeue(T[] dst, int offset, int count) {
+		return dequeue(dst, offset, count, false);
+	}
+
+	/**
+	 * Reserves, copies out, clears and releases values.
+	 *
+	 * @param dst    the dst
+	 * @param offset the offset
+	 * @param count  the count
+	 * @param fixed  bulk if true, burst otherwise
+	 * @return number of values dequeued
+	 */
+	private int dequeue(T[] dst, int offset, int count, boolean fixed) {
+		long r = consumerAcquire(count, fixed);
+		int n = reservedCount(r);
+		if (n == 0)
+			return 0;
+
+		int idx = reservedIndex(r) & mask;
+		int first = Math.min(n, capacity - idx);
+
+		System.arraycopy(table, idx, dst, offset, first);
+		Arrays.fill(table, idx, idx + first, null);
+
+		if (n > first) {
+			System.arraycopy(table, 0, dst, offset + first, n - first);
+			Arrays.fill(table, 0, n - first, null);
+		}
+
+		consumerRelease(r);
+
+		return n;
+	}
+
+	/**
+	 * Gets the raw content of a table slot, without dequeuing. Dequeued slots are
+	 * cleared so that the ring does not retain references.
+	 *
+	 * @param slot the table slot index
+	 * @return the slot content, or null if empty
+	 */
+	T slot(int slot) {
+		return table[slot & mask];
 	}
 }
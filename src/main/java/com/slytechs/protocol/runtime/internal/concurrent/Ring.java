@@ -17,10 +17,36 @@
  */
 package com.slytechs.protocol.runtime.internal.concurrent;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * The Class Ring.
+ * Base class for lock-free, fixed capacity rings modeled after DPDK's
+ * {@code rte_ring}.
+ *
+ * <p>
+ * The ring maintains separate producer and consumer head and tail indices. A
+ * producer first moves the producer head to reserve space, copies its entries
+ * into the reserved slots and then moves the producer tail to publish them.
+ * Consumers do the same using the consumer head and tail. With multiple
+ * producers (or consumers), the head is moved using a CAS and each thread waits
+ * for the threads that reserved before it to publish, before moving the tail.
+ * The wait spins briefly, then yields and finally parks. Single producer (or
+ * consumer) rings skip the CAS and the wait entirely.
+ * </p>
+ *
+ * <p>
+ * Indices are free running 32-bit integers, masked by the power of two
+ * capacity to access the table. Each index lives on its own cache line to
+ * avoid false sharing between producer and consumer threads.
+ * </p>
+ *
+ * <p>
+ * Enqueue and dequeue operations come in two flavors. <em>Bulk</em> operations
+ * transfer either exactly the requested number of entries or none at all.
+ * <em>Burst</em> operations transfer as many entries as are available, up to
+ * the requested number.
+ * </p>
  *
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
@@ -28,161 +54,297 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Ring {
 
+	/** Ring flag, enqueue is single producer. */
+	public static final int SP_ENQ = 0x0001;
+
+	/** Ring flag, dequeue is single consumer. */
+	public static final int SC_DEQ = 0x0002;
+
+	/** Largest supported capacity, so that free running index differences fit. */
+	public static final int MAX_CAPACITY = 1 << 30;
+
+	/** Number of busy spins while waiting for a tail, before yielding. */
+	private static final int SPIN_LIMIT = 64;
+
+	/** Number of yields while waiting for a tail, before parking. */
+	private static final int YIELD_LIMIT = 64;
+
+	/** Park duration while waiting for a tail, after spinning and yielding. */
+	private static final long PARK_NANOS = 10_000;
+
+	/** Index padding in ints, 128 bytes to also cover adjacent line prefetch. */
+	private static final int PAD = 32;
+
+	/** The producer head index. */
+	private static final int PROD_HEAD = 1 * PAD;
+
+	/** The producer tail index. */
+	private static final int PROD_TAIL = 2 * PAD;
+
+	/** The consumer head index. */
+	private static final int CONS_HEAD = 3 * PAD;
+
+	/** The consumer tail index. */
+	private static final int CONS_TAIL = 4 * PAD;
+
 	/**
-	 * The Interface Guardian.
-	 */
-	interface Guardian {
-		
-		/**
-		 * Bulk.
-		 *
-		 * @param count the count
-		 * @return true, if successful
-		 */
-		boolean bulk(int count);
-
-		/**
-		 * Burst.
-		 *
-		 * @param count the count
-		 * @return the int
-		 */
-		int burst(int count);
-	}
-
-	/**
-	 * The Class SyncGuardian.
-	 */
-	public class SyncGuardian implements Guardian {
-
-		/**
-		 * Bulk.
-		 *
-		 * @param count the count
-		 * @return true, if successful
-		 * @see com.slytechs.protocol.runtime.internal.concurrent.Ring.Guardian#bulk()
-		 */
-		@Override
-		public synchronized boolean bulk(int count) {
-			int consTail = consumerTail.get();
-			int prodHead = producerHead.get();
-			int prodNext = producerHead.get();
-			int size = prodHead - consTail;
-
-			return true;
-		}
-
-		/**
-		 * Burst.
-		 *
-		 * @param count the count
-		 * @return the int
-		 * @see com.slytechs.protocol.runtime.internal.concurrent.Ring.Guardian#burst(int)
-		 */
-		@Override
-		public synchronized int burst(int count) {
-			int consTail = consumerTail.get();
-			int prodHead = producerHead.get();
-			int prodNext = producerHead.get();
-			int size = (prodHead - consTail) % capacity;
-
-			return size > count ? count : size;
-		}
-
-	}
-
-	/** The consumer tail. */
-	private final AtomicInteger consumerTail = new AtomicInteger();
-	
-	/** The consumer head. */
-	private final AtomicInteger consumerHead = new AtomicInteger();
-	
-	/** The producer tail. */
-	private final AtomicInteger producerTail = new AtomicInteger();
-	
-	/** The producer head. */
-	private final AtomicInteger producerHead = new AtomicInteger();
-	
-	/** The size. */
-	private final AtomicInteger size = new AtomicInteger();
-	
-	/** The consumer guard. */
-	private final Guardian consumerGuard;
-	
-	/** The producer guard. */
-	private final Guardian producerGuard;
-	
-	/** The capacity. */
-	private final int capacity;
+	 * Aligns a capacity to the next power of two.
+	 *
+	 * @param capacity the requested capacity
+	 * @return the power of 2 capacity
+	 */
+	public static int alignCapacity(int capacity) {
+		if ((capacity <= 0) || (capacity > MAX_CAPACITY))
+			throw new IllegalArgumentException("invalid ring capacity [%d]".formatted(capacity));
+
+		return (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
 
 	/**
-	 * Instantiates a new ring.
+	 * Gets the first index reserved by an acquire operation.
+	 *
+	 * @param reservation the reservation returned by acquire
+	 * @return the first reserved index
+	 */
+	protected static int reservedIndex(long reservation) {
+		return (int) (reservation >>> 32);
+	}
+
+	/**
+	 * Gets the number of entries reserved by an acquire operation.
+	 *
+	 * @param reservation the reservation returned by acquire
+	 * @return number of reserved entries, 0 if nothing was reserved
+	 */
+	protected static int reservedCount(long reservation) {
+		return (int) reservation;
+	}
+
+	/** The padded ring indices, each on a separate cache line. */
+	private final AtomicIntegerArray index = new AtomicIntegerArray(5 * PAD);
+
+	/** The capacity, always a power of 2. */
+	protected final int capacity;
+
+	/** The index mask. */
+	protected final int mask;
+
+	/** The single producer flag. */
+	private final boolean singleProducer;
+
+	/** The single consumer flag. */
+	private final boolean singleConsumer;
+
+	/**
+	 * Instantiates a new multi-producer, multi-consumer ring.
 	 *
-	 * @param capacity the capacity
+	 * @param capacity the capacity, must be a power of 2
 	 */
 	protected Ring(int capacity) {
-		this(capacity, null, null);
+		this(capacity, 0);
 	}
 
 	/**
 	 * Instantiates a new ring.
 	 *
-	 * @param capacity      the capacity
-	 * @param consumerGuard the consumer guard
-	 * @param producerGuard the producer guard
+	 * @param capacity the capacity, must be a power of 2
+	 * @param flags    ring flags, a combination of {@link #SP_ENQ} and
+	 *                 {@link #SC_DEQ}, or 0 for multi-producer and
+	 *                 multi-consumer
+	 * @throws IllegalArgumentException if capacity is not a power of 2
 	 */
-	protected Ring(int capacity, Guardian consumerGuard, Guardian producerGuard) {
+	protected Ring(int capacity, int flags) throws IllegalArgumentException {
+		if ((capacity <= 0) || (capacity > MAX_CAPACITY) || (Integer.bitCount(capacity) != 1))
+			throw new IllegalArgumentException("ring capacity must be a power of 2 [%d]".formatted(capacity));
+
 		this.capacity = capacity;
-		this.consumerGuard = consumerGuard;
-		this.producerGuard = producerGuard;
+		this.mask = capacity - 1;
+		this.singleProducer = (flags & SP_ENQ) != 0;
+		this.singleConsumer = (flags & SC_DEQ) != 0;
+	}
+
+	/**
+	 * Reserves space for entries to be enqueued, by moving the producer head.
+	 *
+	 * @param count number of entries
+	 * @param fixed if true, reserve exactly count entries or none (bulk),
+	 *              otherwise as many as possible up to count (burst)
+	 * @return the reservation, which must be published with
+	 *         {@link #producerRelease(long)} if the reserved count is not 0
+	 */
+	protected final long producerAcquire(int count, boolean fixed) {
+		int head, n;
+
+		do {
+			head = index.getPlain(PROD_HEAD);
+
+			int free = capacity + index.getAcquire(CONS_TAIL) - head;
+
+			n = (count > free) ? (fixed ? 0 : free) : count;
+			if (n <= 0)
+				return 0;
 
+			if (singleProducer) {
+				index.setPlain(PROD_HEAD, head + n);
+				break;
+			}
+
+		} while (!index.compareAndSet(PROD_HEAD, head, head + n));
+
+		return ((long) head << 32) | n;
 	}
 
 	/**
-	 * Consumer.
+	 * Publishes enqueued entries, by moving the producer tail. With multiple
+	 * producers, waits for any earlier reservations to be published first.
 	 *
-	 * @return the int
+	 * @param reservation the reservation returned by
+	 *                    {@link #producerAcquire(int, boolean)}
 	 */
-	protected int consumer() {
-		throw new UnsupportedOperationException();
+	protected final void producerRelease(long reservation) {
+		final int head = reservedIndex(reservation);
+
+		if (!singleProducer)
+			awaitIndex(PROD_TAIL, head);
+
+		index.setRelease(PROD_TAIL, head + reservedCount(reservation));
 	}
 
 	/**
-	 * Consumer.
+	 * Reserves entries to be dequeued, by moving the consumer head.
 	 *
-	 * @param count the count
-	 * @return the int
+	 * @param count number of entries
+	 * @param fixed if true, reserve exactly count entries or none (bulk),
+	 *              otherwise as many as available up to count (burst)
+	 * @return the reservation, which must be released with
+	 *         {@link #consumerRelease(long)} if the reserved count is not 0
 	 */
-	protected int consumer(int count) {
-		throw new UnsupportedOperationException();
+	protected final long consumerAcquire(int count, boolean fixed) {
+		int head, n;
+
+		do {
+			head = index.getPlain(CONS_HEAD);
+
+			int available = index.getAcquire(PROD_TAIL) - head;
+
+			n = (count > available) ? (fixed ? 0 : available) : count;
+			if (n <= 0)
+				return 0;
+
+			if (singleConsumer) {
+				index.setPlain(CONS_HEAD, head + n);
+				break;
+			}
+
+		} while (!index.compareAndSet(CONS_HEAD, head, head + n));
+
+		return ((long) head << 32) | n;
+	}
+
+	/**
+	 * Releases dequeued entries back to producers, by moving the consumer tail.
+	 * With multiple consumers, waits for any earlier reservations to be released
+	 * first.
+	 *
+	 * @param reservation the reservation returned by
+	 *                    {@link #consumerAcquire(int, boolean)}
+	 */
+	protected final void consumerRelease(long reservation) {
+		final int head = reservedIndex(reservation);
+
+		if (!singleConsumer)
+			awaitIndex(CONS_TAIL, head);
+
+		index.setRelease(CONS_TAIL, head + reservedCount(reservation));
+	}
+
+	/**
+	 * Waits for an index to reach a value. Spins briefly, then yields, and
+	 * finally parks for short periods, so that a thread which was preempted
+	 * between reserving and publishing gets to run even when there are fewer CPUs
+	 * than threads using the ring.
+	 *
+	 * @param slot     the index slot
+	 * @param expected the value to wait for
+	 */
+	private void awaitIndex(int slot, int expected) {
+		for (int i = 0; index.getAcquire(slot) != expected;)
+			i = backoff(i);
 	}
 
 	/**
-	 * Producer.
+	 * Backs off once while waiting on a ring, by spinning, yielding or parking
+	 * depending on how many times the caller has already waited. Used by threads
+	 * waiting for ring indices, and by producers blocking on a full ring.
 	 *
-	 * @return the int
+	 * @param iteration the number of times the caller has already backed off,
+	 *                  starting at 0
+	 * @return the iteration to pass on the next call, capped so it never
+	 *         overflows
 	 */
-	protected int producer() {
-		throw new UnsupportedOperationException();
+	public static int backoff(int iteration) {
+		if (iteration < SPIN_LIMIT)
+			Thread.onSpinWait();
+		else if (iteration < SPIN_LIMIT + YIELD_LIMIT)
+			Thread.yield();
+		else
+			return parkBackoff();
+
+		return iteration + 1;
+	}
+
+	/**
+	 * Parks for one backoff period.
+	 *
+	 * @return the capped backoff iteration
+	 */
+	private static int parkBackoff() {
+		LockSupport.parkNanos(PARK_NANOS);
+
+		return SPIN_LIMIT + YIELD_LIMIT;
 	}
 
 	/**
-	 * Producer.
+	 * Sets all indices to a starting value. The ring must be empty and not in use
+	 * by any thread. Used to exercise free running index wrap around.
 	 *
-	 * @param count the count
-	 * @return the int
+	 * @param start the starting index
 	 */
-	protected int producer(int count) {
-		throw new UnsupportedOperationException();
+	void initIndices(int start) {
+		index.set(PROD_HEAD, start);
+		index.set(PROD_TAIL, start);
+		index.set(CONS_HEAD, start);
+		index.set(CONS_TAIL, start);
 	}
 
 	/**
-	 * Size.
+	 * Gets the ring capacity.
 	 *
-	 * @return the int
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Number of entries currently in the ring. The value is a snapshot, and may
+	 * already be stale when used if other threads are active.
+	 *
+	 * @return the number of entries
 	 */
 	public int size() {
-		return size.get();
+		int size = index.getAcquire(PROD_TAIL) - index.getAcquire(CONS_TAIL);
+
+		return (size < 0) ? 0 : (size > capacity) ? capacity : size;
+	}
+
+	/**
+	 * Number of free slots currently in the ring.
+	 *
+	 * @return the number of free slots
+	 */
+	public int remainingCapacity() {
+		return capacity - size();
 	}
 
 	/**
@@ -191,6 +353,49 @@ public class Ring {
 	 * @return true, if is empty
 	 */
 	public boolean isEmpty() {
-		return size.get() == 0;
+		return size() == 0;
+	}
+
+	/**
+	 * Checks if is full.
+	 *
+	 * @return true, if is full
+	 */
+	public boolean isFull() {
+		return size() == capacity;
+	}
+
+	/**
+	 * Checks if this is a single producer ring.
+	 *
+	 * @return true, if single producer
+	 */
+	public boolean isSingleProducer() {
+		return singleProducer;
+	}
+
+	/**
+	 * Checks if this is a single consumer ring.
+	 *
+	 * @return true, if single consumer
+	 */
+	public boolean isSingleConsumer() {
+		return singleConsumer;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "%s [%s%s, size=%d, capacity=%d]".formatted(
+				getClass().getSimpleName(),
+				singleProducer ? "SP" : "MP",
+				singleConsumer ? "SC" : "MC",
+				size(),
+				capacity);
 	}
 }
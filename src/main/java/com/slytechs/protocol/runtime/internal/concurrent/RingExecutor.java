@@ -17,62 +17,65 @@
  */
 package com.slytechs.protocol.runtime.internal.concurrent;
 
-import java.util.concurrent.Exchanger;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-
-import com.slytechs.protocol.runtime.internal.util.collection.LinkedListSupport;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
- * A ring executor with multiple slots, where a 'resource' is passed around the
- * ring. Each slot, is accessed by 2 threads. The resource object is passed from
- * an outside thread (usually another slot's thread). The resource is then
- * exchanged with a slot, worker thread or user thread that is using the
- * get/poll methods to perform processing on the data. The resource is exchanged
- * via a concurrency mechanism (ie. Exchanger, BlockingQueue, etc). Once the
- * slot's thread is done processing the resource, the resource must be
- * 'released' back to the slot, so that the resource can be passed on to the
- * next slot in the ring executor.
+ * A ring executor with multiple slots, where a 'resource' is passed from slot
+ * to slot. Each slot performs one stage of processing on the resource, and then
+ * either forwards the resource to the next slot or stops it. The first slot is
+ * where resources are injected into the executor and the last slot is where
+ * the processing of the resource stops.
  * 
  * <p>
- * The ring executor allows each slot to have a dedicated threaded processor get
- * access to a resource, process it, then release it. Lastly the resource is
- * then passed on to the next slot in the ring executor until some slot, stops
- * forwarding the resource. Even though this is a ring, there is a first slot
- * and a last slot. First slot is where the resource is injected into the ring
- * and the last slot is where the processing of the resource stops.
- * </p>
- * <p>
  * <code>
  * [Pcap: read packet]
- * [slot-0: user process packet]
- * [slot-1: transmit packet]
+ * [slot-0: dissect packet]
+ * [slot-1: hash packet]
+ * [slot-2: classify packet]
+ * [slot-3: export packet]
  * </code>
  * </p>
- * or
+ * 
  * <p>
- * <code>
- * [Pcap-en0: read packet]
- * [Pcap-en1: read packet]
- * [slot-0: add packet to buffer segment]
- * [slot-1: 
- * </code>
+ * Until {@link #start(ThreadFactory)} is called, the executor is synchronous
+ * and all slots process each resource on the caller's thread. Once started,
+ * each slot runs on its own thread, created by the executor's or the slot's
+ * thread factory, which may produce platform or virtual threads. Slots are
+ * connected by bounded lock-free rings. The first slot's ring accepts
+ * resources from any number of threads, all subsequent rings are single
+ * producer and single consumer. Resources are handed off between slots in
+ * batches, which amortizes ring synchronization over many resources.
  * </p>
  * 
- * <pre>
+ * <p>
+ * When a slot's ring is full, the {@link Backpressure} mode determines whether
+ * the producing thread waits for space to free up ({@code BLOCK}) or the
+ * resources which do not fit are dropped ({@code DROP}). Resources which are
+ * dropped or complete the last slot are passed to the release handler, if one
+ * is set, which allows resources to be recycled.
+ * </p>
+ * 
+ * <p>
+ * A runtime exception thrown by a slot while processing a resource on a worker
+ * thread does not terminate the worker. The resource is counted as failed,
+ * reported to the error handler, if one is set, and released.
+ * </p>
  * 
- * 	          reader page
- * 		           |
- * 		           v
- * 		         +---+
- * 		         |   |------+
- * 	   	         +---+      |
- * 	 		                |
- * 			                v
- * 	    +---+    +---+    +---+    +---+
- *     <---|   |--->|   |-H->|   |--->|   |--->
- *     --->|   |<---|   |<---|   |<---|   |<---
- * 	    +---+    +---+    +---+    +---+
+ * <pre>
+ *            accept
+ *              |
+ *              v
+ *   +------+ ring +------+ ring +------+ ring +------+
+ *   |  ==  |----->|slot-0|----->|slot-1|----->|slot-2|---> release
+ *   +------+      +------+      +------+      +------+
+ *                    |             |             |
+ *                 thread-0      thread-1      thread-2
  * </pre>
  *
  * @author Sly Technologies Inc
@@ -83,287 +86,591 @@ import com.slytechs.protocol.runtime.internal.util.collection.LinkedListSupport;
 public class RingExecutor<T> {
 
 	/**
-	 * The Class Entry.
+	 * What to do when the next slot's ring is full.
+	 */
+	public enum Backpressure {
+
+		/** Wait for the next slot to free up space in its ring. */
+		BLOCK,
+
+		/** Drop resources which do not fit into the next slot's ring. */
+		DROP,
+	}
+
+	/**
+	 * A processing stage within a ring executor.
 	 *
 	 * @param <T> the generic type
 	 */
-	static class Entry<T>
-			extends LinkedListSupport.LinkedEntry<T, Entry<T>>
-			implements ResourceStatus<T> {
+	public static abstract class Slot<T> {
+
+		/** The ring. */
+		protected RingExecutor<T> ring;
+
+		/** The next slot. */
+		protected Slot<T> nextSlot;
+
+		/** The accepted counter. */
+		private final AtomicLong acceptedCounter = new AtomicLong();
+
+		/** The dropped counter. */
+		private final AtomicLong droppedCounter = new AtomicLong();
+
+		/** The processed counter. */
+		private final AtomicLong processedCounter = new AtomicLong();
 
-		/** The exchange. */
-		private final Exchanger<T> exchange = new Exchanger<>();
+		/** The failed counter. */
+		private final AtomicLong failedCounter = new AtomicLong();
+
+		/** The inbound ring, allocated when executor is started. */
+		private ObjRing<T> inbound;
+
+		/** The thread factory, overrides the executor's factory if set. */
+		private ThreadFactory threadFactory;
+
+		/** The worker thread. */
+		private Thread worker;
+
+		/** Set once no more resources will be enqueued into this slot. */
+		private volatile boolean finished;
 
 		/**
-		 * Done.
+		 * Processes a resource. Called on the slot's worker thread when the executor
+		 * is started, or on the thread accepting the resource otherwise.
 		 *
-		 * @throws InterruptedException the interrupted exception
+		 * @param resource the resource
+		 * @return true to forward the resource to the next slot, false to stop its
+		 *         processing and release it
 		 */
-		void done() throws InterruptedException {
-			/* Called from the slot worker thread */
-			exchange.exchange(value());
+		protected abstract boolean process(T resource);
+
+		/**
+		 * Number of resources accepted into this slot.
+		 *
+		 * @return the accepted count
+		 */
+		public final long acceptedCount() {
+			return acceptedCounter.get();
 		}
 
 		/**
-		 * Await.
+		 * Number of resources dropped, because this slot's ring was full.
 		 *
-		 * @return the t
-		 * @throws InterruptedException the interrupted exception
-		 * @see com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.ResourceStatus#await()
+		 * @return the dropped count
 		 */
-		@Override
-		public T await() throws InterruptedException {
-			return exchange.exchange(null);
+		public final long droppedCount() {
+			return droppedCounter.get();
 		}
 
 		/**
-		 * Await.
+		 * Number of resources processed by this slot.
 		 *
-		 * @param timeout the timeout
-		 * @param unit    the unit
-		 * @return the t
-		 * @throws InterruptedException the interrupted exception
-		 * @see com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.ResourceStatus#await(long,
-		 *      java.util.concurrent.TimeUnit)
+		 * @return the processed count
 		 */
-		@Override
-		public T await(long timeout, TimeUnit unit) throws InterruptedException {
-			try {
-				return exchange.exchange(null, timeout, unit);
-			} catch (TimeoutException e) {
-				return null;
-			}
+		public final long processedCount() {
+			return processedCounter.get();
 		}
 
-	}
+		/**
+		 * Number of resources whose processing by this slot threw an exception on
+		 * the slot's worker thread.
+		 *
+		 * @return the failed count
+		 */
+		public final long failedCount() {
+			return failedCounter.get();
+		}
 
-	/**
-	 * The Interface ResourceStatus.
-	 *
-	 * @param <T> the generic type
-	 */
-	public interface ResourceStatus<T> {
-		
 		/**
-		 * Await.
+		 * Number of resources waiting in this slot's ring to be processed.
 		 *
-		 * @return the t
-		 * @throws InterruptedException the interrupted exception
+		 * @return the backlog
 		 */
-		T await() throws InterruptedException;
+		public final int backlog() {
+			return (inbound == null) ? 0 : inbound.size();
+		}
 
 		/**
-		 * Await.
+		 * Sets the thread factory used for this slot's worker thread, instead of the
+		 * executor's thread factory. For example
+		 * {@code Thread.ofVirtual().factory()} runs this slot on a virtual thread.
 		 *
-		 * @param timeout the timeout
-		 * @param unit    the unit
-		 * @return the t
-		 * @throws InterruptedException the interrupted exception
+		 * @param factory the thread factory
+		 * @return this slot
 		 */
-		T await(long timeout, TimeUnit unit) throws InterruptedException;
-	}
+		public final Slot<T> setThreadFactory(ThreadFactory factory) {
+			this.threadFactory = factory;
 
-	/**
-	 * The Class Slot.
-	 *
-	 * @param <T> the generic type
-	 */
-	public static abstract class Slot<T> {
+			return this;
+		}
 
-		/** The ring. */
-		protected RingExecutor<T> ring;
-		
-		/** The next slot. */
-		protected Slot<T> nextSlot;
+		/**
+		 * Enqueues a batch of resources into this slot's ring, applying the
+		 * executor's backpressure mode.
+		 *
+		 * @param resources the resources
+		 * @param offset    the offset
+		 * @param length    the length
+		 * @param block     if true, wait for space
+		 * @return number of resources enqueued
+		 */
+		final int enqueue(T[] resources, int offset, int length, boolean block) {
+			int count = inbound.burstEnqueue(resources, offset, length);
 
-		/** The accepted counter. */
-		protected long acceptedCounter = 0;
-		
-		/** The dropped counter. */
-		protected long droppedCounter = 0;
-		
-		/** The processed counter. */
-		protected long processedCounter = 0;
+			for (int idle = 0; block && (count < length) && !finished;) {
+				idle = RingExecutor.idle(idle);
+
+				count += inbound.burstEnqueue(resources, offset + count, length - count);
+			}
+
+			acceptedCounter.addAndGet(count);
+			if (count < length)
+				droppedCounter.addAndGet(length - count);
 
-		/** The used entries. */
-		private final LinkedListSupport<T, Entry<T>> usedEntries = new LinkedListSupport<>();
+			return count;
+		}
 
 		/**
-		 * Accept.
+		 * Enqueues a single resource into this slot's ring, applying the executor's
+		 * backpressure mode.
 		 *
-		 * @param entry the entry
-		 * @return true, if successful
+		 * @param resource the resource
+		 * @param block    if true, wait for space
+		 * @return true, if enqueued
 		 */
-		public abstract boolean accept(Entry<T> entry);
+		final boolean enqueue(T resource, boolean block) {
+			boolean ok = inbound.enqueue(resource);
+
+			for (int idle = 0; block && !ok && !finished;) {
+				idle = RingExecutor.idle(idle);
+
+				ok = inbound.enqueue(resource);
+			}
+
+			(ok ? acceptedCounter : droppedCounter).incrementAndGet();
+
+			return ok;
+		}
 
 		/**
-		 * Adds the resource.
+		 * Processes resources inline, on the caller's thread, from this slot through
+		 * to the last slot.
 		 *
-		 * @param entry the entry
+		 * @param resource the resource
 		 */
-		protected final void addResource(Entry<T> entry) {
-			usedEntries.addFirst(entry);
+		final void runInline(T resource) {
+			Slot<T> slot = this;
+
+			while (slot != null) {
+				slot.acceptedCounter.incrementAndGet();
+
+				boolean forward = slot.process(resource);
+				slot.processedCounter.incrementAndGet();
+
+				if (!forward)
+					break;
+
+				slot = slot.nextSlot;
+			}
+
+			ring.release(resource);
 		}
 
 		/**
-		 * Next.
-		 *
-		 * @param entry the entry
-		 * @return true, if successful
-		 * @throws InterruptedException the interrupted exception
+		 * The worker loop. Dequeues batches of resources, processes them and hands
+		 * the forwarded resources off to the next slot as a batch. A resource whose
+		 * processing throws is reported and released, and the loop carries on with
+		 * the rest of the batch.
 		 */
-		public boolean next(Entry<T> entry) throws InterruptedException {
-			if (nextSlot == null)
-				ring.release(entry);
-
-			return nextSlot.accept(entry);
+		final void runWorker() {
+			final T[] batch = inbound.newArray(ring.batchSize);
+			final boolean block = (ring.backpressure == Backpressure.BLOCK);
+
+			int idle = 0;
+			while (!finished || !inbound.isEmpty()) {
+				int n = inbound.burstDequeue(batch, 0, batch.length);
+				if (n == 0) {
+					idle = idle(idle);
+					continue;
+				}
+
+				idle = 0;
+				int forward = 0;
+				for (int i = 0; i < n; i++) {
+					T resource = batch[i];
+
+					if (processSafely(resource) && (nextSlot != null))
+						batch[forward++] = resource;
+					else
+						ring.release(resource);
+				}
+
+				processedCounter.addAndGet(n);
+
+				if (forward > 0) {
+					int count = nextSlot.enqueue(batch, 0, forward, block);
+
+					for (int i = count; i < forward; i++)
+						ring.release(batch[i]);
+				}
+			}
 		}
 
 		/**
-		 * Release.
+		 * Processes a resource on the worker thread, catching any runtime exception so
+		 * that a single bad resource does not terminate the worker.
 		 *
 		 * @param resource the resource
-		 * @throws IllegalStateException the illegal state exception
-		 * @throws InterruptedException  the interrupted exception
+		 * @return true to forward the resource, false if it was stopped or failed
 		 */
-		public final void release(T resource) throws IllegalStateException, InterruptedException {
-			Entry<T> entry = removeResource(resource);
-			if (entry == null)
-				throw new IllegalStateException("invalid resource [%s]"
-						.formatted(resource));
-
-			if (nextSlot == null) {
-				ring.release(entry);
-				return;
-			}
+		private boolean processSafely(T resource) {
+			try {
+				return process(resource);
+
+			} catch (RuntimeException e) {
+				failedCounter.incrementAndGet();
+				ring.reportError(resource, e);
 
-			if (nextSlot.accept(entry)) {
-				acceptedCounter++;
-				if (acceptedCounter < 0)
-					acceptedCounter = 1;
-			} else {
-				droppedCounter++;
-				if (droppedCounter < 0)
-					droppedCounter = 1;
+				return false;
 			}
 		}
 
 		/**
-		 * Removes the resource.
+		 * To string.
 		 *
-		 * @param resource the resource
-		 * @return the entry
+		 * @return the string
+		 * @see java.lang.Object#toString()
 		 */
-		private Entry<T> removeResource(T resource) {
-			return usedEntries.remove(resource);
+		@Override
+		public String toString() {
+			return "%s [accepted=%d, dropped=%d, processed=%d, failed=%d, backlog=%d]".formatted(
+					getClass().getSimpleName(),
+					acceptedCount(),
+					droppedCount(),
+					processedCount(),
+					failedCount(),
+					backlog());
 		}
+	}
+
+	/** Default number of resources handed off between slots at a time. */
+	public static final int DEFAULT_BATCH_SIZE = 32;
 
+	/** Idle iterations spent busy spinning. */
+	private static final int IDLE_SPIN = 64;
+
+	/** Idle iterations spent yielding, after spinning. */
+	private static final int IDLE_YIELD = 128;
+
+	/** Park time once idle for longer. */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/**
+	 * Backs off progressively while waiting on another thread, first spinning,
+	 * then yielding and finally parking. The returned iteration count is capped,
+	 * so a long idle thread keeps parking and the count never overflows.
+	 *
+	 * @param iteration number of consecutive idle iterations
+	 * @return the next iteration count
+	 */
+	static int idle(int iteration) {
+		if (iteration < IDLE_SPIN)
+			Thread.onSpinWait();
+		else if (iteration < IDLE_YIELD)
+			Thread.yield();
+		else
+			LockSupport.parkNanos(IDLE_PARK_NANOS);
+
+		return (iteration < IDLE_YIELD) ? iteration + 1 : IDLE_YIELD;
 	}
 
 	/** The slots. */
 	protected final Slot<T>[] slots;
-	
-	/** The free list. */
-	private final LinkedListSupport<T, Entry<T>> freeList;
-	
+
 	/** The name. */
 	private final String name;
 
+	/** The ring capacity, per slot. */
+	private final int capacity;
+
+	/** The backpressure mode. */
+	private final Backpressure backpressure;
+
+	/** The batch size. */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/** The release handler. */
+	private Consumer<T> releaseHandler;
+
+	/** The error handler. */
+	private BiConsumer<T, RuntimeException> errorHandler;
+
+	/** The started flag. */
+	private volatile boolean started;
+
 	/**
-	 * Instantiates a new ring executor.
+	 * Instantiates a new ring executor, which blocks when a slot's ring is full.
 	 *
 	 * @param name     the name
-	 * @param capacity the capacity
+	 * @param capacity the ring capacity of each slot, rounded up to a power of 2
 	 * @param slots    the slots
 	 */
 	@SafeVarargs
 	public RingExecutor(String name, long capacity, Slot<T>... slots) {
+		this(name, capacity, Backpressure.BLOCK, slots);
+	}
+
+	/**
+	 * Instantiates a new ring executor.
+	 *
+	 * @param name         the name
+	 * @param capacity     the ring capacity of each slot, rounded up to a power of
+	 *                     2
+	 * @param backpressure the backpressure mode
+	 * @param slots        the slots
+	 */
+	@SafeVarargs
+	public RingExecutor(String name, long capacity, Backpressure backpressure, Slot<T>... slots) {
 		this.name = name;
+		this.capacity = Ring.alignCapacity((int) Math.min(capacity, Ring.MAX_CAPACITY));
+		this.backpressure = Objects.requireNonNull(backpressure, "backpressure");
 		this.slots = initializeSlots(slots);
-
-		this.freeList = LinkedListSupport
-				.allocateToCapacity(capacity, Entry<T>::new)
-				.usingEmptyListMessage("out of space");
 	}
 
 	/**
-	 * Accept.
+	 * Accepts a resource into the first slot. If the executor is not started, the
+	 * resource is processed by all slots before this method returns.
 	 *
 	 * @param resource the resource
-	 * @return the resource status
+	 * @return true, if accepted or false if dropped
 	 */
-	public ResourceStatus<T> accept(T resource) {
-		Entry<T> r = wrap(resource);
+	public boolean accept(T resource) {
+		if (slots.length == 0) {
+			release(resource);
+			return true;
+		}
 
-		slots[0].accept(r);
+		if (!started) {
+			slots[0].runInline(resource);
+			return true;
+		}
 
-		return r;
+		return slots[0].enqueue(resource, backpressure == Backpressure.BLOCK);
 	}
 
 	/**
-	 * Initialize slots.
+	 * Accepts a batch of resources into the first slot. Resources which are not
+	 * accepted, due to {@code DROP} backpressure, remain owned by the caller and
+	 * are not passed to the release handler.
 	 *
-	 * @param slots the slots
-	 * @return the slot[]
+	 * @param resources the resources
+	 * @param offset    the offset into resources array
+	 * @param length    number of resources
+	 * @return number of resources accepted, always in order from offset
 	 */
-	protected Slot<T>[] initializeSlots(Slot<T>[] slots) {
-		if (slots.length == 0)
-			return slots;
+	public int acceptAll(T[] resources, int offset, int length) {
+		if ((slots.length == 0) || !started) {
+			for (int i = 0; i < length; i++)
+				accept(resources[offset + i]);
 
-		slots[0].ring = this;
-		slots[0].nextSlot = null;
+			return length;
+		}
 
-		for (int i = 0; i < slots.length - 1; i++) {
-			Slot<T> slot0 = slots[i + 0];
-			Slot<T> slot1 = slots[i + 1];
+		return slots[0].enqueue(resources, offset, length, backpressure == Backpressure.BLOCK);
+	}
 
-			slot0.nextSlot = slot1;
-			slot1.ring = this;
-			slot1.nextSlot = null;
+	/**
+	 * Starts a worker thread for each slot, using default platform threads.
+	 *
+	 * @return this ring executor
+	 */
+	public RingExecutor<T> start() {
+		return start(Thread::new);
+	}
+
+	/**
+	 * Starts a worker thread for each slot. Slots with their own thread factory use
+	 * it instead of the supplied factory.
+	 *
+	 * @param factory the thread factory
+	 * @return this ring executor
+	 * @throws IllegalStateException if already started
+	 */
+	public synchronized RingExecutor<T> start(ThreadFactory factory) throws IllegalStateException {
+		if (started)
+			throw new IllegalStateException("%s already started".formatted(name));
+
+		for (int i = 0; i < slots.length; i++) {
+			Slot<T> slot = slots[i];
+
+			@SuppressWarnings("unchecked")
+			ObjRing<T> inbound = new ObjRing<>(capacity, (i == 0) ? Ring.SC_DEQ : (Ring.SP_ENQ | Ring.SC_DEQ),
+					n -> (T[]) new Object[n]);
+
+			slot.inbound = inbound;
+			slot.finished = false;
+
+			ThreadFactory f = (slot.threadFactory != null) ? slot.threadFactory : factory;
+			slot.worker = f.newThread(slot::runWorker);
+			slot.worker.setName("%s-slot-%d".formatted(name, i));
 		}
 
-		return slots;
+		for (Slot<T> slot : slots)
+			slot.worker.start();
+
+		started = true;
+
+		return this;
 	}
 
 	/**
-	 * Release.
+	 * Lets each slot drain its ring and waits for all slot threads to terminate,
+	 * in slot order. Threads injecting resources should stop calling accept before
+	 * the executor is stopped. Once stopped, the executor reverts to synchronous
+	 * mode and may be started again.
 	 *
-	 * @param resource the resource
-	 * @throws InterruptedException the interrupted exception
+	 * @throws InterruptedException if interrupted while waiting
 	 */
-	protected void release(Entry<T> resource) throws InterruptedException {
-		resource.done();
+	public synchronized void stop() throws InterruptedException {
+		if (!started)
+			return;
+
+		started = false;
 
-		unwrap(resource);
+		for (Slot<T> slot : slots) {
+			slot.finished = true;
+			slot.worker.join();
+			slot.worker = null;
+		}
 	}
 
 	/**
-	 * Unwrap.
+	 * Checks if slot threads are running.
 	 *
-	 * @param entry the entry
-	 * @return the t
+	 * @return true, if started
 	 */
-	protected T unwrap(Entry<T> entry) {
-		T t = entry.value();
+	public boolean isStarted() {
+		return started;
+	}
 
-		entry.value(null);
+	/**
+	 * Sets the max number of resources handed off between slots at a time. Must be
+	 * set before the executor is started.
+	 *
+	 * @param batchSize the batch size
+	 * @return this ring executor
+	 */
+	public RingExecutor<T> setBatchSize(int batchSize) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("invalid batch size [%d]".formatted(batchSize));
 
-		freeList.addFirst(entry);
+		this.batchSize = batchSize;
 
-		return t;
+		return this;
 	}
 
 	/**
-	 * Wrap.
+	 * Sets the release handler, which is called with every resource that
+	 * completes processing or is dropped between slots. The handler may be called
+	 * from any slot's thread.
+	 *
+	 * @param handler the handler
+	 * @return this ring executor
+	 */
+	public RingExecutor<T> setReleaseHandler(Consumer<T> handler) {
+		this.releaseHandler = handler;
+
+		return this;
+	}
+
+	/**
+	 * Sets the error handler, which is called with every resource whose processing
+	 * threw a runtime exception on a slot's worker thread, before the resource is
+	 * released. The handler may be called from any slot's thread. When the
+	 * executor is not started, exceptions propagate to the caller of accept
+	 * instead.
+	 *
+	 * @param handler the handler
+	 * @return this ring executor
+	 */
+	public RingExecutor<T> setErrorHandler(BiConsumer<T, RuntimeException> handler) {
+		this.errorHandler = handler;
+
+		return this;
+	}
+
+	/**
+	 * Gets the backpressure mode.
+	 *
+	 * @return the backpressure mode
+	 */
+	public Backpressure backpressure() {
+		return backpressure;
+	}
+
+	/**
+	 * Gets a slot.
+	 *
+	 * @param index the slot index
+	 * @return the slot
+	 */
+	public Slot<T> slot(int index) {
+		return slots[index];
+	}
+
+	/**
+	 * Number of slots.
+	 *
+	 * @return the slot count
+	 */
+	public int slotCount() {
+		return slots.length;
+	}
+
+	/**
+	 * Initialize slots.
+	 *
+	 * @param slots the slots
+	 * @return the slot[]
+	 */
+	protected Slot<T>[] initializeSlots(Slot<T>[] slots) {
+		for (int i = 0; i < slots.length; i++) {
+			slots[i].ring = this;
+			slots[i].nextSlot = (i < slots.length - 1) ? slots[i + 1] : null;
+		}
+
+		return slots;
+	}
+
+	/**
+	 * Releases a resource which completed processing or was dropped.
 	 *
 	 * @param resource the resource
-	 * @return the entry
 	 */
-	protected Entry<T> wrap(T resource) {
-		Entry<T> entry = freeList.removeFirst();
-		entry.value(resource);
+	protected void release(T resource) {
+		Consumer<T> handler = releaseHandler;
+		if (handler != null)
+			handler.accept(resource);
+	}
 
-		return entry;
+	/**
+	 * Reports a resource whose processing threw an exception. An exception thrown
+	 * by the error handler itself is suppressed, so that it can not terminate the
+	 * slot's worker.
+	 *
+	 * @param resource the resource
+	 * @param cause    the exception thrown by the slot
+	 */
+	protected void reportError(T resource, RuntimeException cause) {
+		BiConsumer<T, RuntimeException> handler = errorHandler;
+		if (handler == null)
+			return;
+
+		try {
+			handler.accept(resource, cause);
+		} catch (RuntimeException e) {
+			cause.addSuppressed(e);
+		}
 	}
 
 	/**
@@ -374,6 +681,13 @@ public class RingExecutor<T> {
 	 */
 	@Override
 	public String toString() {
-		return "%s []".formatted(name);
+		StringBuilder b = new StringBuilder()
+				.append("%s [%s, capacity=%d, %s".formatted(name, started ? "started" : "stopped", capacity,
+						backpressure));
+
+		for (int i = 0; i < slots.length; i++)
+			b.append(", slot-%d=%s".formatted(i, slots[i]));
+
+		return b.append("]").toString();
 	}
 }
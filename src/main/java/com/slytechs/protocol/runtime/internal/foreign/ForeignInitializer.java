@@ -22,6 +22,7 @@ import java.lang.foreign.Linker;
 import java.lang.foreign.MemoryAddress;
 import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.MemorySession;
 import java.lang.foreign.SymbolLookup;
 import java.lang.foreign.ValueLayout;
 import java.lang.invoke.MethodHandle;
@@ -430,6 +431,9 @@ public class ForeignInitializer<T extends ForeignDowncall<E>, E extends Throwabl
 	/** The missing upcalls. */
 	private List<String> missingUpcalls = new ArrayList<>();
 
+	/** Additional shared libraries searched for symbols. */
+	private final List<SymbolLookup> libraries = new ArrayList<>();
+
 	/** The make accessible. */
 	private boolean makeAccessible;
 
@@ -593,6 +597,25 @@ public class ForeignInitializer<T extends ForeignDowncall<E>, E extends Throwabl
 		return name;
 	}
 
+	/**
+	 * Adds a shared library, such as {@code "libnuma.so.1"}, to the libraries
+	 * searched for downcall symbols. The library stays loaded for the lifetime of
+	 * the application. If the library can not be loaded, it is ignored and its
+	 * symbols are reported as missing.
+	 *
+	 * @param libraryName the library name or path
+	 * @return true, if library was loaded
+	 */
+	public boolean loadLibrary(String libraryName) {
+		try {
+			libraries.add(SymbolLookup.libraryLookup(libraryName, MemorySession.global()));
+
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Make accessible.
 	 *
@@ -612,7 +635,9 @@ public class ForeignInitializer<T extends ForeignDowncall<E>, E extends Throwabl
 	}
 
 	/**
-	 * Resolve symbol.
+	 * Resolve symbol. Libraries loaded by the class loader are searched first,
+	 * then libraries added with {@link #loadLibrary(String)} and last the
+	 * standard C library.
 	 *
 	 * @param symbolName the symbol name
 	 * @return the memory segment
@@ -620,6 +645,13 @@ public class ForeignInitializer<T extends ForeignDowncall<E>, E extends Throwabl
 	 */
 	private MemorySegment resolveSymbol(String symbolName) throws NoSuchElementException {
 		Optional<MemorySegment> symbol = C_SYMBOLS.lookup(symbolName);
+
+		for (int i = 0; symbol.isEmpty() && (i < libraries.size()); i++)
+			symbol = libraries.get(i).lookup(symbolName);
+
+		if (symbol.isEmpty())
+			symbol = C_LINKER.defaultLookup().lookup(symbolName);
+
 		if (symbol.isEmpty())
 			throw new NoSuchElementException("native C symbol \"" + symbolName + "\" not found");
 
@@ -0,0 +1,219 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.foreign;
+
+import java.lang.foreign.MemoryAddress;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.MemorySession;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+
+/**
+ * Linux CPU affinity and NUMA memory policy system calls.
+ * 
+ * <p>
+ * {@code sched_setaffinity} and {@code sched_getcpu} are resolved from the C
+ * library. {@code mbind} and {@code set_mempolicy} have no C library wrappers
+ * and are resolved from {@code libnuma}, if installed. Calls whose symbols are
+ * not available throw an {@code IllegalStateException}, check
+ * {@link #isAffinitySupported()} and {@link #isMemoryPolicySupported()} first.
+ * </p>
+ * 
+ * <p>
+ * CPU and node masks are arrays of 64-bit words, in which bit {@code n % 64} of
+ * word {@code n / 64} selects CPU or node {@code n}, the same as the kernel's
+ * {@code cpu_set_t} and node mask layout on 64-bit platforms.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class NativeNuma {
+
+	/** Memory policy mode, allocate on preferred node, falling back to others. */
+	public static final int MPOL_PREFERRED = 1;
+
+	/** Memory policy mode, allocate strictly on the specified nodes. */
+	public static final int MPOL_BIND = 2;
+
+	/** Flag for mbind, fail if existing pages do not follow the policy. */
+	public static final int MPOL_MF_STRICT = 1;
+
+	/** Flag for mbind, migrate existing pages to follow the policy. */
+	public static final int MPOL_MF_MOVE = 2;
+
+	/** Minimum CPU mask size passed to the kernel, 1024 CPUs. */
+	private static final int CPU_MASK_MIN_WORDS = 16;
+
+	/** The libnuma shared library. */
+	private static final String LIBNUMA = "libnuma.so.1";
+
+	/**
+	 * <pre>
+	 * int sched_setaffinity(pid_t pid, size_t cpusetsize, const cpu_set_t *mask)
+	 * </pre>
+	 */
+	private static final ForeignDowncall<IllegalStateException> sched_setaffinity;
+
+	/**
+	 * <pre>
+	 * int sched_getcpu(void)
+	 * </pre>
+	 */
+	private static final ForeignDowncall<IllegalStateException> sched_getcpu;
+
+	/**
+	 * <pre>
+	 * long mbind(void *addr, unsigned long len, int mode,
+	 *            const unsigned long *nodemask, unsigned long maxnode, unsigned flags)
+	 * </pre>
+	 */
+	private static final ForeignDowncall<IllegalStateException> mbind;
+
+	/**
+	 * <pre>
+	 * long set_mempolicy(int mode, const unsigned long *nodemask, unsigned long maxnode)
+	 * </pre>
+	 */
+	private static final ForeignDowncall<IllegalStateException> set_mempolicy;
+
+	static {
+		try (var foreign = new ForeignInitializer<ForeignDowncall<IllegalStateException>, IllegalStateException>(
+				NativeNuma.class.getSimpleName())) {
+
+			foreign.loadLibrary(LIBNUMA);
+
+			sched_setaffinity = foreign.downcall("sched_setaffinity(IJA)I");
+			sched_getcpu = foreign.downcall("sched_getcpu()I");
+			mbind = foreign.downcall("mbind(AJIAJI)J");
+			set_mempolicy = foreign.downcall("set_mempolicy(IAJ)J");
+		}
+	}
+
+	/**
+	 * Checks if CPU affinity calls are supported on this platform.
+	 *
+	 * @return true, if supported
+	 */
+	public static boolean isAffinitySupported() {
+		return sched_setaffinity.isNativeSymbolResolved() && sched_getcpu.isNativeSymbolResolved();
+	}
+
+	/**
+	 * Checks if NUMA memory policy calls are supported, which requires libnuma.
+	 *
+	 * @return true, if supported
+	 */
+	public static boolean isMemoryPolicySupported() {
+		return mbind.isNativeSymbolResolved() && set_mempolicy.isNativeSymbolResolved();
+	}
+
+	/**
+	 * Pins the calling thread to a set of CPUs.
+	 *
+	 * @param cpuMask the CPU mask
+	 * @throws IllegalStateException if the call failed or is not supported
+	 */
+	public static void setAffinity(long[] cpuMask) throws IllegalStateException {
+		try (var session = MemorySession.openConfined()) {
+			MemorySegment mask = toNative(cpuMask, Math.max(CPU_MASK_MIN_WORDS, cpuMask.length), session);
+
+			sched_setaffinity.invokeInt(
+					() -> "sched_setaffinity failed",
+					0, // Calling thread
+					mask.byteSize(),
+					mask.address());
+		}
+	}
+
+	/**
+	 * Gets the CPU the calling thread is running on.
+	 *
+	 * @return the CPU index
+	 * @throws IllegalStateException if the call failed or is not supported
+	 */
+	public static int currentCpu() throws IllegalStateException {
+		return sched_getcpu.invokeInt(() -> "sched_getcpu failed");
+	}
+
+	/**
+	 * Binds the pages of a direct buffer to a set of NUMA nodes. The buffer must
+	 * start on a page boundary.
+	 *
+	 * @param buffer   the direct buffer
+	 * @param nodeMask the node mask
+	 * @param mode     the policy mode, {@link #MPOL_BIND} or
+	 *                 {@link #MPOL_PREFERRED}
+	 * @param flags    mbind flags, {@link #MPOL_MF_MOVE} migrates pages already
+	 *                 allocated
+	 * @throws IllegalStateException if the call failed or is not supported
+	 */
+	public static void bindMemory(ByteBuffer buffer, long[] nodeMask, int mode, int flags)
+			throws IllegalStateException {
+		if (!buffer.isDirect())
+			throw new IllegalArgumentException("not a direct buffer");
+
+		MemoryAddress address = MemorySegment.ofBuffer(buffer).address();
+
+		try (var session = MemorySession.openConfined()) {
+			MemorySegment mask = toNative(nodeMask, nodeMask.length, session);
+
+			mbind.invokeLong(
+					() -> "mbind failed",
+					address,
+					(long) buffer.capacity(),
+					mode,
+					mask.address(),
+					mask.byteSize() * Byte.SIZE + 1,
+					flags);
+		}
+	}
+
+	/**
+	 * Sets the memory policy of the calling thread, applied to all subsequent
+	 * page allocations by the thread.
+	 *
+	 * @param nodeMask the node mask
+	 * @param mode     the policy mode, {@link #MPOL_BIND} or
+	 *                 {@link #MPOL_PREFERRED}
+	 * @throws IllegalStateException if the call failed or is not supported
+	 */
+	public static void setMemoryPolicy(long[] nodeMask, int mode) throws IllegalStateException {
+		try (var session = MemorySession.openConfined()) {
+			MemorySegment mask = toNative(nodeMask, nodeMask.length, session);
+
+			set_mempolicy.invokeLong(
+					() -> "set_mempolicy failed",
+					mode,
+					mask.address(),
+					mask.byteSize() * Byte.SIZE + 1);
+		}
+	}
+
+	private static MemorySegment toNative(long[] words, int length, MemorySession session) {
+		MemorySegment mask = MemorySegment.allocateNative(length * 8L, session);
+
+		for (int i = 0; i < words.length; i++)
+			mask.setAtIndex(ValueLayout.JAVA_LONG, i, words[i]);
+
+		return mask;
+	}
+
+	private NativeNuma() {
+	}
+}
@@ -17,73 +17,104 @@
  */
 package com.slytechs.protocol.runtime.internal.layout;
 
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
-import java.util.function.Supplier;
-import java.util.stream.IntStream;
+import java.util.Arrays;
 
 import com.slytechs.protocol.runtime.util.MemoryUnit;
 
 /**
- * The Class AbstractFieldCache.
+ * A direct mapped, primitive valued cache of carrier values, keyed by data
+ * source identity and byte offset.
+ * 
+ * <p>
+ * Each slot is made up of parallel primitive arrays holding the carrier value,
+ * the offset and a generation stamp, plus the identity of the data source. No
+ * objects are allocated when filling or reading the cache. A slot is only valid
+ * while its stamp matches the generation of the owning thread, which is
+ * advanced by {@link #invalidateAll()} whenever a data binding changes on that
+ * thread, so a rebind invalidates every cache of the thread in constant time
+ * without touching the slots.
+ * </p>
+ * 
+ * <p>
+ * A cache and its generation are owned by the thread which created it and are
+ * never written by any other thread, so concurrent threads neither contend on
+ * a shared generation nor see each other's slots. The generation is only
+ * advanced if a cache of the thread saved a value since the last advance.
+ * Binds made before any cache was created do not look up the generation at
+ * all.
+ * </p>
+ * 
+ * <p>
+ * The cache is not thread safe and must only be used by its owner thread, see
+ * {@link #isOwner()}.
+ * </p>
  *
  * @author Sly Technologies
  * @author repos@slytechs.com
  */
 class AbstractFieldCache {
 
-	/** The Constant DEFAULT_CACHE_SIZE. */
-	private static final int DEFAULT_CACHE_SIZE = MemoryUnit.KILOBYTES.toIntBytes(1);
-
 	/**
-	 * The Class Entry.
+	 * The generation of all caches owned by a thread.
 	 */
-	public static class Entry {
-		
-		/** The source. */
-		Reference<Object> source;
-		
-		/** The offset. */
-		long offset;
-		
-		/** The cached value. */
-		protected Object cachedValue;
+	private static final class Generation {
 
-		/**
-		 * Instantiates a new entry.
-		 */
-		public Entry() {
-		}
+		/** The current generation, slots stamped with an older one are stale. */
+		private int value = 1;
+
+		/** Set when a cache saves a value, cleared when the generation advances. */
+		private boolean saved;
 
 		/**
-		 * Checks if is valid.
-		 *
-		 * @return true, if is valid
+		 * Advance the generation, if any value was saved since the last advance.
 		 */
-		public boolean isValid() {
-			return (source != null);
+		private void advance() {
+			if (saved) {
+				saved = false;
+				value++;
+			}
 		}
+	}
 
-		/**
-		 * Save.
-		 *
-		 * @param <T>    the generic type
-		 * @param source the source
-		 * @param offset the offset
-		 * @param value  the value
-		 * @return the t
-		 */
-		public <T> T save(Object source, long offset, T value) {
-			this.source = new WeakReference<>(source);
-			this.offset = offset;
-			this.cachedValue = value;
+	/** The Constant DEFAULT_CACHE_SIZE. */
+	private static final int DEFAULT_CACHE_SIZE = MemoryUnit.KILOBYTES.toIntBytes(1);
 
-			return value;
-		}
+	/** The generation of the current thread. */
+	private static final ThreadLocal<Generation> GENERATION = ThreadLocal.withInitial(Generation::new);
+
+	/** Set once, when the first cache is created. */
+	private static volatile boolean inUse;
+
+	/**
+	 * Invalidate all caches owned by the current thread. Called whenever a data
+	 * binding changes. Does nothing if no value was saved in any of the thread's
+	 * caches since the last invalidation.
+	 */
+	static void invalidateAll() {
+		if (inUse)
+			GENERATION.get().advance();
 	}
 
-	/** The cache. */
-	private final Entry[] cache;
+	/** The owner thread. */
+	private final Thread owner;
+
+	/** The generation of the owner thread. */
+	private final Generation generation;
+
+	/** The cached carrier values. */
+	private final long[] values;
+
+	/** The cached carrier offsets. */
+	private final long[] offsets;
+
+	/** The generation each slot was saved in. */
+	private final int[] stamps;
+
+	/** The data source each slot was read from, compared by identity. */
+	private final Object[] sources;
+
+	/** The slot index mask. */
+	private final int mask;
 
 	/**
 	 * Instantiates a new abstract field cache.
@@ -95,39 +126,108 @@ class AbstractFieldCache {
 	/**
 	 * Instantiates a new abstract field cache.
 	 *
-	 * @param cacheSize the cache size
+	 * @param cacheSize the cache size, rounded up to the next power of 2
 	 */
 	public AbstractFieldCache(int cacheSize) {
-		this(cacheSize, Entry::new);
+		if (cacheSize <= 0)
+			throw new IllegalArgumentException("invalid cache size [%d]".formatted(cacheSize));
+
+		int size = Integer.highestOneBit(cacheSize);
+		if (size < cacheSize)
+			size <<= 1;
+
+		this.values = new long[size];
+		this.offsets = new long[size];
+		this.stamps = new int[size];
+		this.sources = new Object[size];
+		this.mask = size - 1;
+		this.owner = Thread.currentThread();
+		this.generation = GENERATION.get();
+
+		if (!inUse)
+			inUse = true;
 	}
 
 	/**
-	 * Instantiates a new abstract field cache.
+	 * Checks if the current thread is the owner of this cache.
+	 *
+	 * @return true, if the current thread created this cache
+	 */
+	public final boolean isOwner() {
+		return owner == Thread.currentThread();
+	}
+
+	/**
+	 * Lookup the slot for source and offset.
+	 *
+	 * @param source the source
+	 * @param offset the offset
+	 * @return the slot index, always non-negative
+	 */
+	protected final int lookup(Object source, long offset) {
+		int hash = System.identityHashCode(source) ^ Long.hashCode(offset);
+		hash ^= (hash >>> 16);
+
+		return hash & mask;
+	}
+
+	/**
+	 * Checks if slot holds a current value for the source and offset.
 	 *
-	 * @param cacheSize the cache size
-	 * @param supplier  the supplier
+	 * @param slot   the slot
+	 * @param source the source
+	 * @param offset the offset
+	 * @return true, if is hit
 	 */
-	public AbstractFieldCache(int cacheSize, Supplier<? extends Entry> supplier) {
-		this.cache = new Entry[cacheSize];
-		IntStream.range(0, cacheSize)
-				.forEach(i -> cache[i] = new Entry());
+	protected final boolean isHit(int slot, Object source, long offset) {
+		return (stamps[slot] == generation.value)
+				&& (sources[slot] == source)
+				&& (offsets[slot] == offset);
 	}
 
 	/**
-	 * Lookup.
+	 * Gets the cached value in slot.
 	 *
-	 * @param source    the source
-	 * @param bitOffset the bit offset
-	 * @return the entry
+	 * @param slot the slot
+	 * @return the value
 	 */
-	protected Entry lookup(Object source, long bitOffset) {
-		int hash = System.identityHashCode(source) ^ Long.hashCode(bitOffset);
+	protected final long value(int slot) {
+		return values[slot];
+	}
 
-		Entry entry = cache[hash % cache.length];
-		if ((entry.source != null) && (entry.source.get() != source) && (entry.offset != bitOffset))
-			entry.source = null;
+	/**
+	 * Save a value in slot.
+	 *
+	 * @param slot   the slot
+	 * @param source the source
+	 * @param offset the offset
+	 * @param value  the value
+	 * @return the value
+	 */
+	protected final long save(int slot, Object source, long offset, long value) {
+		values[slot] = value;
+		offsets[slot] = offset;
+		sources[slot] = source;
+		stamps[slot] = generation.value;
+		generation.saved = true;
+
+		return value;
+	}
 
-		return entry;
+	/**
+	 * Clear all slots and release references to data sources.
+	 */
+	public void clear() {
+		Arrays.fill(sources, null);
+		Arrays.fill(stamps, 0);
 	}
 
+	/**
+	 * Gets the number of slots.
+	 *
+	 * @return the cache size
+	 */
+	public int size() {
+		return values.length;
+	}
 }
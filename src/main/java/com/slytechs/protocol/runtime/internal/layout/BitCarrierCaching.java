@@ -18,51 +18,30 @@
 package com.slytechs.protocol.runtime.internal.layout;
 
 /**
- * The Class BitCarrierCaching.
+ * A bit carrier which caches carrier values read from the data source. The
+ * carrier values are stored as primitives in a {@link AbstractFieldCache} so
+ * neither reads nor cache fills allocate. Writes are written through to the
+ * data source, invalidate all other caches of the thread (which may hold the
+ * same carrier through a different field) and update this cache.
+ * 
+ * <p>
+ * Each thread reading through the carrier gets its own cache, so a carrier
+ * shared between threads, such as one of a static layout field, never pairs
+ * one thread's slot with another thread's value. The cache of the first thread
+ * is checked before falling back on the thread local lookup.
+ * </p>
  *
  * @author Sly Technologies
  * @author repos@slytechs.com
  */
 class BitCarrierCaching implements BitCarrier {
 
-	/**
-	 * The Class NumberCache.
-	 */
-	static class NumberCache extends AbstractFieldCache {
-
-		/**
-		 * The Class NumberEntry.
-		 */
-		public static class NumberEntry extends Entry {
-
-			/**
-			 * Value.
-			 *
-			 * @return the number
-			 */
-			public Number value() {
-				return (Number) cachedValue;
-			}
-		}
-
-		/**
-		 * Lookup.
-		 *
-		 * @param data   the data
-		 * @param offset the offset
-		 * @return the number entry
-		 * @see com.slytechs.protocol.runtime.internal.layout.AbstractFieldCache#lookup(java.lang.Object,
-		 *      long)
-		 */
-		public NumberEntry lookup(Object data, long offset) {
-			return (NumberEntry) super.lookup(data, offset);
-		}
+	/** The caches of each thread using this carrier. */
+	private final ThreadLocal<AbstractFieldCache> caches = ThreadLocal.withInitial(AbstractFieldCache::new);
 
-	}
+	/** The cache of the first thread using this carrier, safely published. */
+	private AbstractFieldCache first;
 
-	/** The cache. */
-	private final NumberCache cache;
-	
 	/** The carrier. */
 	private final BitCarrier carrier;
 
@@ -73,7 +52,23 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	BitCarrierCaching(BitCarrier carrier) {
 		this.carrier = carrier;
-		this.cache = new NumberCache();
+	}
+
+	/**
+	 * Gets the cache of the current thread.
+	 *
+	 * @return the cache
+	 */
+	private AbstractFieldCache cache() {
+		AbstractFieldCache cache = first;
+		if ((cache != null) && cache.isOwner())
+			return cache;
+
+		cache = caches.get();
+		if (first == null)
+			first = cache;
+
+		return cache;
 	}
 
 	/**
@@ -87,11 +82,15 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public byte getByteAtOffset(Object data, long byteOffset) {
-		NumberCache.NumberEntry entry = cache.lookup(data, byteOffset);
+		AbstractFieldCache cache = cache();
+		int slot = cache.lookup(data, byteOffset);
+		if (cache.isHit(slot, data, byteOffset))
+			return (byte) cache.value(slot);
+
+		byte value = carrier.getByteAtOffset(data, byteOffset);
+		cache.save(slot, data, byteOffset, value);
 
-		return entry.isValid()
-				? entry.value().byteValue()
-				: entry.save(data, byteOffset, carrier.getByteAtOffset(data, byteOffset));
+		return value;
 	}
 
 	/**
@@ -106,11 +105,15 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public int getIntAtOffset(Object data, long byteOffset, boolean big) {
-		NumberCache.NumberEntry entry = cache.lookup(data, byteOffset);
+		AbstractFieldCache cache = cache();
+		int slot = cache.lookup(data, byteOffset);
+		if (cache.isHit(slot, data, byteOffset))
+			return (int) cache.value(slot);
 
-		return entry.isValid()
-				? entry.value().intValue()
-				: entry.save(data, byteOffset, carrier.getIntAtOffset(data, byteOffset, big));
+		int value = carrier.getIntAtOffset(data, byteOffset, big);
+		cache.save(slot, data, byteOffset, value);
+
+		return value;
 	}
 
 	/**
@@ -125,11 +128,15 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public long getLongAtOffset(Object data, long byteOffset, boolean big) {
-		NumberCache.NumberEntry entry = cache.lookup(data, byteOffset);
+		AbstractFieldCache cache = cache();
+		int slot = cache.lookup(data, byteOffset);
+		if (cache.isHit(slot, data, byteOffset))
+			return cache.value(slot);
+
+		long value = carrier.getLongAtOffset(data, byteOffset, big);
+		cache.save(slot, data, byteOffset, value);
 
-		return entry.isValid()
-				? entry.value().longValue()
-				: entry.save(data, byteOffset, carrier.getLongAtOffset(data, byteOffset, big));
+		return value;
 	}
 
 	/**
@@ -144,11 +151,15 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public short getShortAtOffset(Object data, long byteOffset, boolean big) {
-		NumberCache.NumberEntry entry = cache.lookup(data, byteOffset);
+		AbstractFieldCache cache = cache();
+		int slot = cache.lookup(data, byteOffset);
+		if (cache.isHit(slot, data, byteOffset))
+			return (short) cache.value(slot);
+
+		short value = carrier.getShortAtOffset(data, byteOffset, big);
+		cache.save(slot, data, byteOffset, value);
 
-		return entry.isValid()
-				? entry.value().shortValue()
-				: entry.save(data, byteOffset, carrier.getShortAtOffset(data, byteOffset, big));
+		return value;
 	}
 
 	/**
@@ -164,8 +175,13 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public byte setByteAtOffset(byte value, Object data, long byteOffset, boolean big) {
-		return cache.lookup(data, byteOffset)
-				.save(data, byteOffset, carrier.setByteAtOffset(value, data, byteOffset, big));
+		byte written = carrier.setByteAtOffset(value, data, byteOffset, big);
+		AbstractFieldCache.invalidateAll();
+
+		AbstractFieldCache cache = cache();
+		cache.save(cache.lookup(data, byteOffset), data, byteOffset, written);
+
+		return written;
 	}
 
 	/**
@@ -181,8 +197,13 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public int setIntAtOffset(int value, Object data, long byteOffset, boolean big) {
-		return cache.lookup(data, byteOffset)
-				.save(data, byteOffset, carrier.setIntAtOffset(value, data, byteOffset, big));
+		int written = carrier.setIntAtOffset(value, data, byteOffset, big);
+		AbstractFieldCache.invalidateAll();
+
+		AbstractFieldCache cache = cache();
+		cache.save(cache.lookup(data, byteOffset), data, byteOffset, written);
+
+		return written;
 	}
 
 	/**
@@ -198,8 +219,13 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public long setLongAtOffset(long value, Object data, long byteOffset, boolean big) {
-		return cache.lookup(data, byteOffset)
-				.save(data, byteOffset, carrier.setLongAtOffset(value, data, byteOffset, big));
+		long written = carrier.setLongAtOffset(value, data, byteOffset, big);
+		AbstractFieldCache.invalidateAll();
+
+		AbstractFieldCache cache = cache();
+		cache.save(cache.lookup(data, byteOffset), data, byteOffset, written);
+
+		return written;
 	}
 
 	/**
@@ -215,8 +241,13 @@ class BitCarrierCaching implements BitCarrier {
 	 */
 	@Override
 	public short setShortAtOffset(short value, Object data, long byteOffset, boolean big) {
-		return cache.lookup(data, byteOffset)
-				.save(data, byteOffset, carrier.setShortAtOffset(value, data, byteOffset, big));
+		short written = carrier.setShortAtOffset(value, data, byteOffset, big);
+		AbstractFieldCache.invalidateAll();
+
+		AbstractFieldCache cache = cache();
+		cache.save(cache.lookup(data, byteOffset), data, byteOffset, written);
+
+		return written;
 	}
 
 }
\ No newline at end of file
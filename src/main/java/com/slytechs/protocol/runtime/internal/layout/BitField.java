@@ -76,6 +76,17 @@ import java.util.OptionalLong;
  * cache with the new value and also flush the new value to the data source
  * object, ie update the data byte array with new values.
  * </p>
+ * <p>
+ * Cached carrier values are keyed by data object identity and offset, and are
+ * invalidated all at once by {@link #invalidateCaches()}, which is called
+ * automatically whenever a header or packet is rebound to new data. Data
+ * modified in place, other than through a cached field, requires an explicit
+ * call to {@link #invalidateCaches()}. Each thread reading a cached field keeps
+ * its own carrier values, which are only invalidated by rebinds on that same
+ * thread. A packet handed off to another thread is fresh once its headers are
+ * bound there, otherwise the reading thread must call
+ * {@link #invalidateCaches()} itself.
+ * </p>
  * 
  * <h3>Sycnronization</h3>
  * <p>
@@ -183,6 +194,51 @@ public interface BitField extends BinaryField, Constable {
 			return proxyBitField().fieldName();
 		}
 
+		/**
+		 * For array.
+		 *
+		 * @return the byte array carrier field
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forArray()
+		 */
+		@Override
+		default CarrierField.OfArray forArray() {
+			return proxyBitField().forArray();
+		}
+
+		/**
+		 * For byte buffer.
+		 *
+		 * @return the byte buffer carrier field
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forByteBuffer()
+		 */
+		@Override
+		default CarrierField.OfByteBuffer forByteBuffer() {
+			return proxyBitField().forByteBuffer();
+		}
+
+		/**
+		 * For segment.
+		 *
+		 * @return the memory segment carrier field
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forSegment()
+		 */
+		@Override
+		default CarrierField.OfSegment forSegment() {
+			return proxyBitField().forSegment();
+		}
+
+		/**
+		 * Generate.
+		 *
+		 * @param carrierType the carrier type
+		 * @return the bit field
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#generate(java.lang.Class)
+		 */
+		@Override
+		default BitField generate(Class<?> carrierType) {
+			return proxyBitField().generate(carrierType);
+		}
+
 		/**
 		 * Gets the bit.
 		 *
@@ -849,6 +905,37 @@ public interface BitField extends BinaryField, Constable {
 			return proxyBitField().setByte(value, data, sequences);
 		}
 
+		/**
+		 * Sets the byte at a byte offset.
+		 *
+		 * @param value  the value
+		 * @param offset the offset
+		 * @param data   the data
+		 * @return the byte
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByteAt(byte,
+		 *      long, java.lang.Object)
+		 */
+		@Override
+		default byte setByteAt(byte value, long offset, Object data) {
+			return proxyBitField().setByteAt(value, offset, data);
+		}
+
+		/**
+		 * Sets the byte at a byte offset.
+		 *
+		 * @param value     the value
+		 * @param offset    the offset
+		 * @param data      the data
+		 * @param sequences the sequences
+		 * @return the byte
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByteAt(byte,
+		 *      long, java.lang.Object, long[])
+		 */
+		@Override
+		default byte setByteAt(byte value, long offset, Object data, long... sequences) {
+			return proxyBitField().setByteAt(value, offset, data, sequences);
+		}
+
 		/**
 		 * Sets the double.
 		 *
@@ -936,6 +1023,37 @@ public interface BitField extends BinaryField, Constable {
 			return proxyBitField().setInt(value, data, sequences);
 		}
 
+		/**
+		 * Sets the int at a byte offset.
+		 *
+		 * @param value  the value
+		 * @param offset the offset
+		 * @param data   the data
+		 * @return the int
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setIntAt(int,
+		 *      long, java.lang.Object)
+		 */
+		@Override
+		default int setIntAt(int value, long offset, Object data) {
+			return proxyBitField().setIntAt(value, offset, data);
+		}
+
+		/**
+		 * Sets the int at a byte offset.
+		 *
+		 * @param value     the value
+		 * @param offset    the offset
+		 * @param data      the data
+		 * @param sequences the sequences
+		 * @return the int
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setIntAt(int,
+		 *      long, java.lang.Object, long[])
+		 */
+		@Override
+		default int setIntAt(int value, long offset, Object data, long... sequences) {
+			return proxyBitField().setIntAt(value, offset, data, sequences);
+		}
+
 		/**
 		 * Sets the long.
 		 *
@@ -965,6 +1083,37 @@ public interface BitField extends BinaryField, Constable {
 			return proxyBitField().setLong(value, data, sequences);
 		}
 
+		/**
+		 * Sets the long at a byte offset.
+		 *
+		 * @param value  the value
+		 * @param offset the offset
+		 * @param data   the data
+		 * @return the long
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLongAt(long,
+		 *      long, java.lang.Object)
+		 */
+		@Override
+		default long setLongAt(long value, long offset, Object data) {
+			return proxyBitField().setLongAt(value, offset, data);
+		}
+
+		/**
+		 * Sets the long at a byte offset.
+		 *
+		 * @param value     the value
+		 * @param offset    the offset
+		 * @param data      the data
+		 * @param sequences the sequences
+		 * @return the long
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLongAt(long,
+		 *      long, java.lang.Object, long[])
+		 */
+		@Override
+		default long setLongAt(long value, long offset, Object data, long... sequences) {
+			return proxyBitField().setLongAt(value, offset, data, sequences);
+		}
+
 		/**
 		 * Sets the short.
 		 *
@@ -994,6 +1143,37 @@ public interface BitField extends BinaryField, Constable {
 			return proxyBitField().setShort(value, data, sequences);
 		}
 
+		/**
+		 * Sets the short at a byte offset.
+		 *
+		 * @param value  the value
+		 * @param offset the offset
+		 * @param data   the data
+		 * @return the short
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShortAt(short,
+		 *      long, java.lang.Object)
+		 */
+		@Override
+		default short setShortAt(short value, long offset, Object data) {
+			return proxyBitField().setShortAt(value, offset, data);
+		}
+
+		/**
+		 * Sets the short at a byte offset.
+		 *
+		 * @param value     the value
+		 * @param offset    the offset
+		 * @param data      the data
+		 * @param sequences the sequences
+		 * @return the short
+		 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShortAt(short,
+		 *      long, java.lang.Object, long[])
+		 */
+		@Override
+		default short setShortAt(short value, long offset, Object data, long... sequences) {
+			return proxyBitField().setShortAt(value, offset, data, sequences);
+		}
+
 		/**
 		 * Size.
 		 *
@@ -1032,12 +1212,55 @@ public interface BitField extends BinaryField, Constable {
 	}
 	
 	/**
-	 * Cache.
+	 * Invalidates the carrier values held by all cached fields for the current
+	 * thread. This is a constant time operation, and does nothing if no cached
+	 * field was ever created.
+	 *
+	 * @see #cache()
+	 */
+	static void invalidateCaches() {
+		AbstractFieldCache.invalidateAll();
+	}
+
+	/**
+	 * Creates a field which caches carrier values read from data objects, so
+	 * repeated reads of the same carrier do not go back to the data object.
 	 *
 	 * @return the bit field
+	 * @see #invalidateCaches()
 	 */
 	BitField cache();
 	
+	/**
+	 * Creates a field specialized for {@code byte[]} carriers, with precomputed
+	 * offset, shift and mask.
+	 *
+	 * @return the byte array carrier field
+	 * @throws UnsupportedOperationException if the field is within a sequence
+	 * @see CarrierField
+	 */
+	CarrierField.OfArray forArray();
+
+	/**
+	 * Creates a field specialized for {@code ByteBuffer} carriers, with
+	 * precomputed offset, shift and mask.
+	 *
+	 * @return the byte buffer carrier field
+	 * @throws UnsupportedOperationException if the field is within a sequence
+	 * @see CarrierField
+	 */
+	CarrierField.OfByteBuffer forByteBuffer();
+
+	/**
+	 * Creates a field specialized for {@code MemorySegment} carriers, with
+	 * precomputed offset, shift and mask.
+	 *
+	 * @return the memory segment carrier field
+	 * @throws UnsupportedOperationException if the field is within a sequence
+	 * @see CarrierField
+	 */
+	CarrierField.OfSegment forSegment();
+
 	/**
 	 * Formatted.
 	 *
@@ -1047,6 +1270,19 @@ public interface BitField extends BinaryField, Constable {
 		return new FormattedBitField(nonProxy());
 	}
 	
+	/**
+	 * Generates a bit field specialized for accessing the field in a specific
+	 * carrier data type, such as {@code ByteBuffer} or {@code byte[]}. The
+	 * returned field is backed by a hidden class with constant offset, shift and
+	 * mask operations, while all other carrier types and sequence based accesses
+	 * are delegated to this field.
+	 *
+	 * @param carrierType the carrier data type
+	 * @return the generated bit field or this field if it can not be generated
+	 * @throws IllegalArgumentException if the carrier type is not supported
+	 */
+	BitField generate(Class<?> carrierType);
+	
 	/**
 	 * Gets the bit.
 	 *
@@ -1506,6 +1742,27 @@ public interface BitField extends BinaryField, Constable {
 	 * @return the byte
 	 */
 	byte setByte(byte value, Object data, long... sequences);
+
+	/**
+	 * Sets the byte at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the byte offset added to the field's offset
+	 * @param data   the data
+	 * @return the byte
+	 */
+	byte setByteAt(byte value, long offset, Object data);
+
+	/**
+	 * Sets the byte at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the byte offset added to the field's offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the byte
+	 */
+	byte setByteAt(byte value, long offset, Object data, long... sequences);
 	
 	/**
 	 * Sets the double.
@@ -1564,6 +1821,27 @@ public interface BitField extends BinaryField, Constable {
 	 */
 	int setInt(int value, Object data, long... sequences);
 
+	/**
+	 * Sets the int at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the byte offset added to the field's offset
+	 * @param data   the data
+	 * @return the int
+	 */
+	int setIntAt(int value, long offset, Object data);
+
+	/**
+	 * Sets the int at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the byte offset added to the field's offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the int
+	 */
+	int setIntAt(int value, long offset, Object data, long... sequences);
+
 	/**
 	 * Sets the long.
 	 *
@@ -1583,6 +1861,27 @@ public interface BitField extends BinaryField, Constable {
 	 */
 	long setLong(long value, Object data, long... sequences);
 
+	/**
+	 * Sets the long at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the byte offset added to the field's offset
+	 * @param data   the data
+	 * @return the long
+	 */
+	long setLongAt(long value, long offset, Object data);
+
+	/**
+	 * Sets the long at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the byte offset added to the field's offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the long
+	 */
+	long setLongAt(long value, long offset, Object data, long... sequences);
+
 	/**
 	 * Sets the short.
 	 *
@@ -1602,6 +1901,27 @@ public interface BitField extends BinaryField, Constable {
 	 */
 	short setShort(short  value, Object data, long... sequences);
 
+	/**
+	 * Sets the short at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the byte offset added to the field's offset
+	 * @param data   the data
+	 * @return the short
+	 */
+	short setShortAt(short value, long offset, Object data);
+
+	/**
+	 * Sets the short at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the byte offset added to the field's offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the short
+	 */
+	short setShortAt(short value, long offset, Object data, long... sequences);
+
 	/**
 	 * Synchronizes read and write on the data object.
 	 *
@@ -0,0 +1,143 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.slytechs.protocol.runtime.internal.layout.BitFieldContext.ConstBitFieldContext;
+
+/**
+ * Generates bit field accessors specialized for a single field and carrier data
+ * type.
+ * 
+ * <p>
+ * The generic {@link BitFieldImplementation} selects the carrier data type,
+ * carrier size and bit operator on every access. A generated field instead is a
+ * hidden class, defined from a template class for the carrier type, with the
+ * carrier offset, size, byte order, shift and mask of the field supplied as
+ * class data and stored in static final constants. The JIT compiler folds these
+ * constants, leaving straight-line, monomorphic shift and mask code for each
+ * field.
+ * </p>
+ * 
+ * <p>
+ * Supported carrier types are {@code ByteBuffer} and {@code byte[]}. Fields
+ * which can not be generated, such as fields with calculated offsets within
+ * sequences or fields using caching, readonly or synchronized carriers, are
+ * returned unchanged.
+ * </p>
+ *
+ * @author Sly Technologies
+ * @author repos@slytechs.com
+ */
+final class BitFieldGenerator {
+
+	/** The lookup used to define hidden classes in this package. */
+	private static final Lookup LOOKUP = MethodHandles.lookup();
+
+	/** Template classes by carrier type. */
+	private static final Map<Class<?>, Class<? extends GeneratedBitField>> TEMPLATES = Map.of(
+			ByteBuffer.class, ByteBufferBitField.class,
+			byte[].class, ByteArrayBitField.class);
+
+	/** Loaded template class bytes. */
+	private static final Map<Class<?>, byte[]> TEMPLATE_BYTES = new ConcurrentHashMap<>();
+
+	/**
+	 * Generates a bit field specialized for a carrier type.
+	 *
+	 * @param field       the field to delegate non specialized accesses to
+	 * @param context     the field context
+	 * @param carrierType the carrier type
+	 * @return the generated field or the original field if the field can not be
+	 *         generated
+	 * @throws IllegalArgumentException if carrier type is not supported
+	 * @throws IllegalStateException    if the template class file can not be read
+	 */
+	static BitField generate(BitField field, BitFieldContext context, Class<?> carrierType) {
+		Class<? extends GeneratedBitField> template = TEMPLATES.get(carrierType);
+		if (template == null)
+			throw new IllegalArgumentException("unsupported carrier type [%s]"
+					.formatted(carrierType.getSimpleName()));
+
+		if (!(context instanceof ConstBitFieldContext))
+			return field;
+
+		long[] data = new long[GeneratedBitField.CLASS_DATA_LENGTH];
+		data[GeneratedBitField.OFFSET_INDEX] = context.carrierByteOffset(0);
+		data[GeneratedBitField.SHIFT_INDEX] = context.fieldBitshift(0);
+		data[GeneratedBitField.MASK_INDEX] = context.fieldBitmask();
+		data[GeneratedBitField.SIZE_INDEX] = context.carrierSize();
+		data[GeneratedBitField.BIG_INDEX] = (context.order() == ByteOrder.BIG_ENDIAN) ? 1 : 0;
+
+		byte[] bytes = templateBytes(template);
+
+		try {
+			Lookup hidden = LOOKUP.defineHiddenClassWithClassData(bytes, data, true);
+
+			return (BitField) hidden.lookupClass()
+					.getDeclaredConstructor(BitField.class)
+					.newInstance(field);
+
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof Error error)
+				throw error;
+
+			/* Generated classes are an optimization, fallback to the original field */
+			return field;
+
+		} catch (ReflectiveOperationException | IllegalArgumentException e) {
+			/* Generated classes are an optimization, fallback to the original field */
+			return field;
+		}
+	}
+
+	/**
+	 * Reads the class file of a template class.
+	 *
+	 * @param template the template class
+	 * @return the class bytes
+	 */
+	private static byte[] templateBytes(Class<?> template) {
+		return TEMPLATE_BYTES.computeIfAbsent(template, t -> {
+			try (InputStream in = t.getResourceAsStream(t.getSimpleName() + ".class")) {
+				if (in == null)
+					throw new IllegalStateException("template class file not found [%s]"
+							.formatted(t.getName()));
+
+				return in.readAllBytes();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	/**
+	 * Disabled initializer.
+	 */
+	private BitFieldGenerator() {
+	}
+}
@@ -23,6 +23,8 @@ import java.lang.constant.ConstantDesc;
 import java.nio.ByteOrder;
 import java.util.Optional;
 
+import com.slytechs.protocol.runtime.internal.layout.BitFieldContext.ConstBitFieldContext;
+
 /**
  * The Class BitFieldImplementation.
  *
@@ -142,6 +144,75 @@ class BitFieldImplementation implements BitField {
 		throw new UnsupportedOperationException("Not implemented yet");
 	}
 
+	/**
+	 * Checks that the field has a constant carrier offset and shift, as required
+	 * by carrier fields.
+	 *
+	 * @throws UnsupportedOperationException if the field is within a sequence
+	 */
+	private void checkConstantCarrier() {
+		if (!(context instanceof ConstBitFieldContext))
+			throw new UnsupportedOperationException("carrier fields within sequences are not supported [%s]"
+					.formatted(fieldName().orElse("")));
+	}
+
+	/**
+	 * For array.
+	 *
+	 * @return the byte array carrier field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forArray()
+	 */
+	@Override
+	public CarrierField.OfArray forArray() {
+		checkConstantCarrier();
+
+		return new CarrierField.OfArray((int) carrierByteOffset(0), context.fieldBitshift(0),
+				context.fieldBitmask(), carrierSize, big);
+	}
+
+	/**
+	 * For byte buffer.
+	 *
+	 * @return the byte buffer carrier field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forByteBuffer()
+	 */
+	@Override
+	public CarrierField.OfByteBuffer forByteBuffer() {
+		checkConstantCarrier();
+
+		return new CarrierField.OfByteBuffer((int) carrierByteOffset(0), context.fieldBitshift(0),
+				context.fieldBitmask(), carrierSize, big);
+	}
+
+	/**
+	 * For segment.
+	 *
+	 * @return the memory segment carrier field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#forSegment()
+	 */
+	@Override
+	public CarrierField.OfSegment forSegment() {
+		checkConstantCarrier();
+
+		return new CarrierField.OfSegment((int) carrierByteOffset(0), context.fieldBitshift(0),
+				context.fieldBitmask(), carrierSize, big);
+	}
+
+	/**
+	 * Generate.
+	 *
+	 * @param carrierType the carrier type
+	 * @return the bit field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#generate(java.lang.Class)
+	 */
+	@Override
+	public BitField generate(Class<?> carrierType) {
+		if (!(carrier instanceof BitCarrierImplementation))
+			return this;
+
+		return BitFieldGenerator.generate(this, context, carrierType);
+	}
+
 	/**
 	 * Gets the bit.
 	 *
@@ -994,6 +1065,54 @@ class BitFieldImplementation implements BitField {
 				: routeNumberSetterAtOffset(value, data, strideOffset).byteValue();
 	}
 
+	/**
+	 * Sets the byte at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByteAt(byte,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public byte setByteAt(byte value, long offset, Object data) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+
+		long byteOffset = carrierByteOffset(offset);
+		return (carrierSize == 8)
+				? carrier
+						.setByteAtOffset(op
+								.setByte(value, carrier.getByteAtOffset(data, byteOffset), offset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, offset).byteValue();
+	}
+
+	/**
+	 * Sets the byte at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByteAt(byte,
+	 *      long, java.lang.Object, long[])
+	 */
+	@Override
+	public byte setByteAt(byte value, long offset, Object data, long... sequences) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+		long strideOffset = context.strideOffset(sequences) + offset;
+
+		long byteOffset = carrierByteOffset(strideOffset);
+		return (carrierSize == 8)
+				? carrier
+						.setByteAtOffset(op
+								.setByte(value, carrier.getByteAtOffset(data, byteOffset), strideOffset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, strideOffset).byteValue();
+	}
+
 	/**
 	 * Sets the int.
 	 *
@@ -1038,6 +1157,54 @@ class BitFieldImplementation implements BitField {
 				: routeNumberSetterAtOffset(value, data, strideOffset).intValue();
 	}
 
+	/**
+	 * Sets the int at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setIntAt(int,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public int setIntAt(int value, long offset, Object data) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+
+		long byteOffset = carrierByteOffset(offset);
+		return (carrierSize == 32)
+				? carrier
+						.setIntAtOffset(op
+								.setInt(value, carrier.getIntAtOffset(data, byteOffset, big), offset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, offset).intValue();
+	}
+
+	/**
+	 * Sets the int at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setIntAt(int,
+	 *      long, java.lang.Object, long[])
+	 */
+	@Override
+	public int setIntAt(int value, long offset, Object data, long... sequences) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+		long strideOffset = context.strideOffset(sequences) + offset;
+
+		long byteOffset = carrierByteOffset(strideOffset);
+		return (carrierSize == 32)
+				? carrier
+						.setIntAtOffset(op
+								.setInt(value, carrier.getIntAtOffset(data, byteOffset, big), strideOffset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, strideOffset).intValue();
+	}
+
 	/**
 	 * Sets the long.
 	 *
@@ -1082,6 +1249,54 @@ class BitFieldImplementation implements BitField {
 				: routeNumberSetterAtOffset(value, data, strideOffset).longValue();
 	}
 
+	/**
+	 * Sets the long at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the long
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLongAt(long,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public long setLongAt(long value, long offset, Object data) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+
+		long byteOffset = carrierByteOffset(offset);
+		return (carrierSize == 64)
+				? carrier
+						.setLongAtOffset(op
+								.setLong(value, carrier.getLongAtOffset(data, byteOffset, big), offset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, offset).longValue();
+	}
+
+	/**
+	 * Sets the long at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the long
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLongAt(long,
+	 *      long, java.lang.Object, long[])
+	 */
+	@Override
+	public long setLongAt(long value, long offset, Object data, long... sequences) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+		long strideOffset = context.strideOffset(sequences) + offset;
+
+		long byteOffset = carrierByteOffset(strideOffset);
+		return (carrierSize == 64)
+				? carrier
+						.setLongAtOffset(op
+								.setLong(value, carrier.getLongAtOffset(data, byteOffset, big), strideOffset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, strideOffset).longValue();
+	}
+
 	/**
 	 * Sets the short.
 	 *
@@ -1126,6 +1341,54 @@ class BitFieldImplementation implements BitField {
 				: routeNumberSetterAtOffset(value, data, strideOffset).shortValue();
 	}
 
+	/**
+	 * Sets the short at a byte offset.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShortAt(short,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public short setShortAt(short value, long offset, Object data) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+
+		long byteOffset = carrierByteOffset(offset);
+		return (carrierSize == 16)
+				? carrier
+						.setShortAtOffset(op
+								.setShort(value, carrier.getShortAtOffset(data, byteOffset, big), offset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, offset).shortValue();
+	}
+
+	/**
+	 * Sets the short at a byte offset.
+	 *
+	 * @param value     the value
+	 * @param offset    the offset
+	 * @param data      the data
+	 * @param sequences the sequences
+	 * @return the short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShortAt(short,
+	 *      long, java.lang.Object, long[])
+	 */
+	@Override
+	public short setShortAt(short value, long offset, Object data, long... sequences) {
+		offset <<= SHIFT_BYTES_TO_BITS;
+		long strideOffset = context.strideOffset(sequences) + offset;
+
+		long byteOffset = carrierByteOffset(strideOffset);
+		return (carrierSize == 16)
+				? carrier
+						.setShortAtOffset(op
+								.setShort(value, carrier.getShortAtOffset(data, byteOffset, big), strideOffset),
+								data, byteOffset, big)
+				: routeNumberSetterAtOffset(value, data, strideOffset).shortValue();
+	}
+
 	/**
 	 * Synchronize.
 	 *
@@ -25,6 +25,57 @@ package com.slytechs.protocol.runtime.internal.layout;
  */
 interface BitOperator {
 
+	/**
+	 * Extracts the signed field value from a sign extended carrier value, using
+	 * the same semantics as the carrier sized {@code get} operations.
+	 *
+	 * @param carrier     the carrier value
+	 * @param shift       the field bit shift
+	 * @param mask        the field mask
+	 * @param carrierSize the carrier size in bits
+	 * @return the field value, sign extended from the carrier size
+	 */
+	static long extract(long carrier, int shift, long mask, int carrierSize) {
+		long value = (carrier >> shift) & mask;
+
+		return switch (carrierSize) {
+		case 8 -> (byte) value;
+		case 16 -> (short) value;
+		case 32 -> (int) value;
+		default -> value;
+		};
+	}
+
+	/**
+	 * Converts a signed field value to an unsigned value of the carrier size.
+	 *
+	 * @param value       the signed value
+	 * @param carrierSize the carrier size in bits
+	 * @return the unsigned value
+	 */
+	static long unsigned(long value, int carrierSize) {
+		return switch (carrierSize) {
+		case 8 -> value & 0xFFL;
+		case 16 -> value & 0xFFFFL;
+		case 32 -> value & 0xFFFFFFFFL;
+		default -> value;
+		};
+	}
+
+	/**
+	 * Inserts a field value into a carrier value, using the same semantics as the
+	 * carrier sized {@code set} operations.
+	 *
+	 * @param carrier the carrier value
+	 * @param shift   the field bit shift
+	 * @param mask    the field mask
+	 * @param value   the new field value
+	 * @return the new carrier value
+	 */
+	static long insert(long carrier, int shift, long mask, long value) {
+		return (carrier & ~(mask << shift)) | (value & mask) << shift;
+	}
+
 	/**
 	 * Gets the byte.
 	 *
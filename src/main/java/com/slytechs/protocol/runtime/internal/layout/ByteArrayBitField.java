@@ -0,0 +1,497 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import static com.slytechs.protocol.runtime.internal.layout.BitOperator.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Template of bit fields generated for {@code byte[]} carriers. Arrays are
+ * accessed through byte array view var handles in the byte order of the field.
+ *
+ * @author Sly Technologies
+ * @author repos@slytechs.com
+ * @see BitFieldGenerator
+ */
+final class ByteArrayBitField extends GeneratedBitField {
+
+	/** The class data constants. */
+	private static final long[] DATA = classData(MethodHandles.lookup());
+
+	/** The carrier byte offset. */
+	private static final int OFFSET = (int) DATA[OFFSET_INDEX];
+
+	/** The field bit shift. */
+	private static final int SHIFT = (int) DATA[SHIFT_INDEX];
+
+	/** The field mask. */
+	private static final long MASK = DATA[MASK_INDEX];
+
+	/** The carrier size in bits. */
+	private static final int SIZE = (int) DATA[SIZE_INDEX];
+
+	/** The 16-bit carrier accessor. */
+	private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, order(DATA));
+
+	/** The 32-bit carrier accessor. */
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, order(DATA));
+
+	/** The 64-bit carrier accessor. */
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, order(DATA));
+
+	/**
+	 * Reads the sign extended carrier.
+	 *
+	 * @param array  the array
+	 * @param offset the byte offset of the structure
+	 * @return the carrier value
+	 */
+	private static long read(byte[] array, long offset) {
+		int index = (int) offset + OFFSET;
+
+		return switch (SIZE) {
+		case 8 -> array[index];
+		case 16 -> (short) SHORT.get(array, index);
+		case 32 -> (int) INT.get(array, index);
+		default -> (long) LONG.get(array, index);
+		};
+	}
+
+	/**
+	 * Extracts the field from the carrier.
+	 *
+	 * @param array  the array
+	 * @param offset the byte offset of the structure
+	 * @return the signed field value
+	 */
+	private static long get(byte[] array, long offset) {
+		return extract(read(array, offset), SHIFT, MASK, SIZE);
+	}
+
+	/**
+	 * Inserts the field into the carrier.
+	 *
+	 * @param value  the field value
+	 * @param array  the array
+	 * @param offset the byte offset of the structure
+	 * @return the new sign extended carrier value
+	 */
+	private static long set(long value, byte[] array, long offset) {
+		int index = (int) offset + OFFSET;
+		long carrier = insert(read(array, offset), SHIFT, MASK, value);
+
+		switch (SIZE) {
+		case 8 -> array[index] = (byte) carrier;
+		case 16 -> SHORT.set(array, index, (short) carrier);
+		case 32 -> INT.set(array, index, (int) carrier);
+		default -> LONG.set(array, index, carrier);
+		}
+
+		return extract(carrier, 0, -1L, SIZE);
+	}
+
+	/**
+	 * Instantiates a new generated field.
+	 *
+	 * @param field the original field
+	 */
+	ByteArrayBitField(BitField field) {
+		super(field, byte[].class);
+	}
+
+	/**
+	 * Gets the bit.
+	 *
+	 * @param data the data
+	 * @return the bit
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getBit(java.lang.Object)
+	 */
+	@Override
+	public boolean getBit(Object data) {
+		if (data instanceof byte[] array)
+			return (byte) get(array, 0) != 0;
+
+		return super.getBit(data);
+	}
+
+	/**
+	 * Gets the byte.
+	 *
+	 * @param data the data
+	 * @return the byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getByte(java.lang.Object)
+	 */
+	@Override
+	public byte getByte(Object data) {
+		if (data instanceof byte[] array)
+			return (byte) get(array, 0);
+
+		return super.getByte(data);
+	}
+
+	/**
+	 * Gets the byte at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the byte at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getByteAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public byte getByteAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (byte) get(array, offset);
+
+		return super.getByteAt(offset, data);
+	}
+
+	/**
+	 * Gets the int.
+	 *
+	 * @param data the data
+	 * @return the int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getInt(java.lang.Object)
+	 */
+	@Override
+	public int getInt(Object data) {
+		if (data instanceof byte[] array)
+			return (int) get(array, 0);
+
+		return super.getInt(data);
+	}
+
+	/**
+	 * Gets the int at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the int at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getIntAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public int getIntAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (int) get(array, offset);
+
+		return super.getIntAt(offset, data);
+	}
+
+	/**
+	 * Gets the long.
+	 *
+	 * @param data the data
+	 * @return the long
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getLong(java.lang.Object)
+	 */
+	@Override
+	public long getLong(Object data) {
+		if (data instanceof byte[] array)
+			return get(array, 0);
+
+		return super.getLong(data);
+	}
+
+	/**
+	 * Gets the long at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the long at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getLongAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public long getLongAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return get(array, offset);
+
+		return super.getLongAt(offset, data);
+	}
+
+	/**
+	 * Gets the short.
+	 *
+	 * @param data the data
+	 * @return the short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getShort(java.lang.Object)
+	 */
+	@Override
+	public short getShort(Object data) {
+		if (data instanceof byte[] array)
+			return (short) get(array, 0);
+
+		return super.getShort(data);
+	}
+
+	/**
+	 * Gets the short at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the short at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getShortAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public short getShortAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (short) get(array, offset);
+
+		return super.getShortAt(offset, data);
+	}
+
+	/**
+	 * Gets the unsigned byte.
+	 *
+	 * @param data the data
+	 * @return the unsigned byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedByte(java.lang.Object)
+	 */
+	@Override
+	public int getUnsignedByte(Object data) {
+		if (data instanceof byte[] array)
+			return (int) unsigned(get(array, 0), SIZE);
+
+		return super.getUnsignedByte(data);
+	}
+
+	/**
+	 * Gets the unsigned byte at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the unsigned byte at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedByteAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public int getUnsignedByteAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (int) unsigned(get(array, offset), SIZE);
+
+		return super.getUnsignedByteAt(offset, data);
+	}
+
+	/**
+	 * Gets the unsigned int.
+	 *
+	 * @param data the data
+	 * @return the unsigned int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedInt(java.lang.Object)
+	 */
+	@Override
+	public long getUnsignedInt(Object data) {
+		if (data instanceof byte[] array)
+			return unsigned(get(array, 0), SIZE);
+
+		return super.getUnsignedInt(data);
+	}
+
+	/**
+	 * Gets the unsigned int at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the unsigned int at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedIntAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public long getUnsignedIntAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return unsigned(get(array, offset), SIZE);
+
+		return super.getUnsignedIntAt(offset, data);
+	}
+
+	/**
+	 * Gets the unsigned short.
+	 *
+	 * @param data the data
+	 * @return the unsigned short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedShort(java.lang.Object)
+	 */
+	@Override
+	public int getUnsignedShort(Object data) {
+		if (data instanceof byte[] array)
+			return (int) unsigned(get(array, 0), SIZE);
+
+		return super.getUnsignedShort(data);
+	}
+
+	/**
+	 * Gets the unsigned short at.
+	 *
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the unsigned short at
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#getUnsignedShortAt(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public int getUnsignedShortAt(long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (int) unsigned(get(array, offset), SIZE);
+
+		return super.getUnsignedShortAt(offset, data);
+	}
+
+	/**
+	 * Sets the byte.
+	 *
+	 * @param value the value
+	 * @param data  the data
+	 * @return the byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByte(byte,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public byte setByte(byte value, Object data) {
+		if (data instanceof byte[] array)
+			return (byte) set(value, array, 0);
+
+		return super.setByte(value, data);
+	}
+
+	/**
+	 * Sets the byte at.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the byte
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setByteAt(byte,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public byte setByteAt(byte value, long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (byte) set(value, array, offset);
+
+		return super.setByteAt(value, offset, data);
+	}
+
+	/**
+	 * Sets the int.
+	 *
+	 * @param value the value
+	 * @param data  the data
+	 * @return the int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setInt(int,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public int setInt(int value, Object data) {
+		if (data instanceof byte[] array)
+			return (int) set(value, array, 0);
+
+		return super.setInt(value, data);
+	}
+
+	/**
+	 * Sets the int at.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the int
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setIntAt(int,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public int setIntAt(int value, long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (int) set(value, array, offset);
+
+		return super.setIntAt(value, offset, data);
+	}
+
+	/**
+	 * Sets the long.
+	 *
+	 * @param value the value
+	 * @param data  the data
+	 * @return the long
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLong(long,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public long setLong(long value, Object data) {
+		if (data instanceof byte[] array)
+			return set(value, array, 0);
+
+		return super.setLong(value, data);
+	}
+
+	/**
+	 * Sets the long at.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the long
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setLongAt(long,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public long setLongAt(long value, long offset, Object data) {
+		if (data instanceof byte[] array)
+			return set(value, array, offset);
+
+		return super.setLongAt(value, offset, data);
+	}
+
+	/**
+	 * Sets the short.
+	 *
+	 * @param value the value
+	 * @param data  the data
+	 * @return the short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShort(short,
+	 *      java.lang.Object)
+	 */
+	@Override
+	public short setShort(short value, Object data) {
+		if (data instanceof byte[] array)
+			return (short) set(value, array, 0);
+
+		return super.setShort(value, data);
+	}
+
+	/**
+	 * Sets the short at.
+	 *
+	 * @param value  the value
+	 * @param offset the offset
+	 * @param data   the data
+	 * @return the short
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#setShortAt(short,
+	 *      long, java.lang.Object)
+	 */
+	@Override
+	public short setShortAt(short value, long offset, Object data) {
+		if (data instanceof byte[] array)
+			return (short) set(value, array, offset);
+
+		return super.setShortAt(value, offset, data);
+	}
+}
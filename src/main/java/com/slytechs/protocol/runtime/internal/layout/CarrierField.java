@@ -0,0 +1,1152 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import static com.slytechs.protocol.runtime.internal.layout.BitOperator.*;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A bit field specialized for a single carrier data type.
+ * 
+ * <p>
+ * Carrier fields are created from a {@link BitField} using
+ * {@link BitField#forByteBuffer()}, {@link BitField#forSegment()} or
+ * {@link BitField#forArray()}. The byte offset of the carrier, field shift and
+ * mask are precomputed and all accessors use primitive signatures for the
+ * carrier type. Unlike the generic {@code BitField}, carrier fields never
+ * dispatch on the data type, never box values into {@code Number} and never
+ * modify the byte order of a {@code ByteBuffer}. Each carrier field is a final
+ * record, which keeps call sites monomorphic. When stored in a static final
+ * constant, the JIT compiler folds the offset, shift and mask into the caller.
+ * </p>
+ * 
+ * <p>
+ * Carrier fields operate directly on the data and ignore any caching, readonly
+ * or synchronized carriers configured on the originating bit field. Fields
+ * within sequences are not supported.
+ * </p>
+ *
+ * @author Sly Technologies
+ * @author repos@slytechs.com
+ */
+@SuppressWarnings("preview")
+public sealed interface CarrierField permits CarrierField.OfByteBuffer, CarrierField.OfSegment, CarrierField.OfArray {
+
+	/**
+	 * A bit field specialized for {@code byte[]} carriers.
+	 *
+	 * @param byteOffset  the byte offset of the carrier
+	 * @param shift       the field bit shift within the carrier
+	 * @param mask        the field mask
+	 * @param carrierSize the carrier size in bits
+	 * @param big         true if carrier is big endian, otherwise little endian
+	 */
+	record OfArray(int byteOffset, int shift, long mask, int carrierSize, boolean big) implements CarrierField {
+
+		// @formatter:off
+		private static final VarHandle SHORT_BIG    = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+		private static final VarHandle INT_BIG      = MethodHandles.byteArrayViewVarHandle(int[].class,   ByteOrder.BIG_ENDIAN);
+		private static final VarHandle LONG_BIG     = MethodHandles.byteArrayViewVarHandle(long[].class,  ByteOrder.BIG_ENDIAN);
+		private static final VarHandle SHORT_LITTLE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+		private static final VarHandle INT_LITTLE   = MethodHandles.byteArrayViewVarHandle(int[].class,   ByteOrder.LITTLE_ENDIAN);
+		private static final VarHandle LONG_LITTLE  = MethodHandles.byteArrayViewVarHandle(long[].class,  ByteOrder.LITTLE_ENDIAN);
+		// @formatter:on
+
+		/**
+		 * Instantiates a new byte array carrier field.
+		 *
+		 * @param byteOffset  the byte offset of the carrier
+		 * @param shift       the field bit shift within the carrier
+		 * @param mask        the field mask
+		 * @param carrierSize the carrier size in bits
+		 * @param big         true if carrier is big endian, otherwise little endian
+		 */
+		public OfArray {
+			checkCarrier(byteOffset, shift, carrierSize);
+		}
+
+		/**
+		 * Reads the sign extended carrier.
+		 *
+		 * @param array  the array
+		 * @param offset the byte offset of the structure
+		 * @return the carrier value
+		 */
+		private long read(byte[] array, long offset) {
+			int index = (int) offset + byteOffset;
+
+			return switch (carrierSize) {
+			case 8 -> array[index];
+			case 16 -> big ? (short) SHORT_BIG.get(array, index) : (short) SHORT_LITTLE.get(array, index);
+			case 32 -> big ? (int) INT_BIG.get(array, index) : (int) INT_LITTLE.get(array, index);
+			default -> big ? (long) LONG_BIG.get(array, index) : (long) LONG_LITTLE.get(array, index);
+			};
+		}
+
+		/**
+		 * Extracts the field from the carrier.
+		 *
+		 * @param array  the array
+		 * @param offset the byte offset of the structure
+		 * @return the signed field value
+		 */
+		private long get(byte[] array, long offset) {
+			return extract(read(array, offset), shift, mask, carrierSize);
+		}
+
+		/**
+		 * Inserts the field into the carrier.
+		 *
+		 * @param value  the field value
+		 * @param array  the array
+		 * @param offset the byte offset of the structure
+		 * @return the new sign extended carrier value
+		 */
+		private long set(long value, byte[] array, long offset) {
+			int index = (int) offset + byteOffset;
+			long carrier = insert(read(array, offset), shift, mask, value);
+
+			switch (carrierSize) {
+			case 8 -> array[index] = (byte) carrier;
+			case 16 -> {
+				if (big)
+					SHORT_BIG.set(array, index, (short) carrier);
+				else
+					SHORT_LITTLE.set(array, index, (short) carrier);
+			}
+			case 32 -> {
+				if (big)
+					INT_BIG.set(array, index, (int) carrier);
+				else
+					INT_LITTLE.set(array, index, (int) carrier);
+			}
+			default -> {
+				if (big)
+					LONG_BIG.set(array, index, carrier);
+				else
+					LONG_LITTLE.set(array, index, carrier);
+			}
+			}
+
+			return extract(carrier, 0, -1L, carrierSize);
+		}
+
+		/**
+		 * Gets the bit.
+		 *
+		 * @param array the array
+		 * @return the bit
+		 */
+		public boolean getBit(byte[] array) {
+			return (byte) get(array, 0) != 0;
+		}
+
+		/**
+		 * Gets the byte.
+		 *
+		 * @param array the array
+		 * @return the byte
+		 */
+		public byte getByte(byte[] array) {
+			return (byte) get(array, 0);
+		}
+
+		/**
+		 * Gets the byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the byte at
+		 */
+		public byte getByteAt(long offset, byte[] array) {
+			return (byte) get(array, offset);
+		}
+
+		/**
+		 * Gets the int.
+		 *
+		 * @param array the array
+		 * @return the int
+		 */
+		public int getInt(byte[] array) {
+			return (int) get(array, 0);
+		}
+
+		/**
+		 * Gets the int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the int at
+		 */
+		public int getIntAt(long offset, byte[] array) {
+			return (int) get(array, offset);
+		}
+
+		/**
+		 * Gets the long.
+		 *
+		 * @param array the array
+		 * @return the long
+		 */
+		public long getLong(byte[] array) {
+			return get(array, 0);
+		}
+
+		/**
+		 * Gets the long at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the long at
+		 */
+		public long getLongAt(long offset, byte[] array) {
+			return get(array, offset);
+		}
+
+		/**
+		 * Gets the short.
+		 *
+		 * @param array the array
+		 * @return the short
+		 */
+		public short getShort(byte[] array) {
+			return (short) get(array, 0);
+		}
+
+		/**
+		 * Gets the short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the short at
+		 */
+		public short getShortAt(long offset, byte[] array) {
+			return (short) get(array, offset);
+		}
+
+		/**
+		 * Gets the unsigned byte.
+		 *
+		 * @param array the array
+		 * @return the unsigned byte
+		 */
+		public int getUnsignedByte(byte[] array) {
+			return (int) unsigned(get(array, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the unsigned byte at
+		 */
+		public int getUnsignedByteAt(long offset, byte[] array) {
+			return (int) unsigned(get(array, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int.
+		 *
+		 * @param array the array
+		 * @return the unsigned int
+		 */
+		public long getUnsignedInt(byte[] array) {
+			return unsigned(get(array, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the unsigned int at
+		 */
+		public long getUnsignedIntAt(long offset, byte[] array) {
+			return unsigned(get(array, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short.
+		 *
+		 * @param array the array
+		 * @return the unsigned short
+		 */
+		public int getUnsignedShort(byte[] array) {
+			return (int) unsigned(get(array, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the unsigned short at
+		 */
+		public int getUnsignedShortAt(long offset, byte[] array) {
+			return (int) unsigned(get(array, offset), carrierSize);
+		}
+
+		/**
+		 * Sets the byte.
+		 *
+		 * @param value the value
+		 * @param array the array
+		 * @return the new carrier value
+		 */
+		public byte setByte(byte value, byte[] array) {
+			return (byte) set(value, array, 0);
+		}
+
+		/**
+		 * Sets the byte at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the new carrier value
+		 */
+		public byte setByteAt(byte value, long offset, byte[] array) {
+			return (byte) set(value, array, offset);
+		}
+
+		/**
+		 * Sets the int.
+		 *
+		 * @param value the value
+		 * @param array the array
+		 * @return the new carrier value
+		 */
+		public int setInt(int value, byte[] array) {
+			return (int) set(value, array, 0);
+		}
+
+		/**
+		 * Sets the int at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the new carrier value
+		 */
+		public int setIntAt(int value, long offset, byte[] array) {
+			return (int) set(value, array, offset);
+		}
+
+		/**
+		 * Sets the long.
+		 *
+		 * @param value the value
+		 * @param array the array
+		 * @return the new carrier value
+		 */
+		public long setLong(long value, byte[] array) {
+			return set(value, array, 0);
+		}
+
+		/**
+		 * Sets the long at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the new carrier value
+		 */
+		public long setLongAt(long value, long offset, byte[] array) {
+			return set(value, array, offset);
+		}
+
+		/**
+		 * Sets the short.
+		 *
+		 * @param value the value
+		 * @param array the array
+		 * @return the new carrier value
+		 */
+		public short setShort(short value, byte[] array) {
+			return (short) set(value, array, 0);
+		}
+
+		/**
+		 * Sets the short at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param array  the array
+		 * @return the new carrier value
+		 */
+		public short setShortAt(short value, long offset, byte[] array) {
+			return (short) set(value, array, offset);
+		}
+	}
+
+	/**
+	 * A bit field specialized for {@code ByteBuffer} carriers. Buffers are
+	 * accessed using absolute indexes, independent of the buffer's position, limit
+	 * and byte order.
+	 *
+	 * @param byteOffset  the byte offset of the carrier
+	 * @param shift       the field bit shift within the carrier
+	 * @param mask        the field mask
+	 * @param carrierSize the carrier size in bits
+	 * @param big         true if carrier is big endian, otherwise little endian
+	 */
+	record OfByteBuffer(int byteOffset, int shift, long mask, int carrierSize, boolean big) implements CarrierField {
+
+		// @formatter:off
+		private static final VarHandle SHORT_BIG    = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+		private static final VarHandle INT_BIG      = MethodHandles.byteBufferViewVarHandle(int[].class,   ByteOrder.BIG_ENDIAN);
+		private static final VarHandle LONG_BIG     = MethodHandles.byteBufferViewVarHandle(long[].class,  ByteOrder.BIG_ENDIAN);
+		private static final VarHandle SHORT_LITTLE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+		private static final VarHandle INT_LITTLE   = MethodHandles.byteBufferViewVarHandle(int[].class,   ByteOrder.LITTLE_ENDIAN);
+		private static final VarHandle LONG_LITTLE  = MethodHandles.byteBufferViewVarHandle(long[].class,  ByteOrder.LITTLE_ENDIAN);
+		// @formatter:on
+
+		/**
+		 * Instantiates a new byte buffer carrier field.
+		 *
+		 * @param byteOffset  the byte offset of the carrier
+		 * @param shift       the field bit shift within the carrier
+		 * @param mask        the field mask
+		 * @param carrierSize the carrier size in bits
+		 * @param big         true if carrier is big endian, otherwise little endian
+		 */
+		public OfByteBuffer {
+			checkCarrier(byteOffset, shift, carrierSize);
+		}
+
+		/**
+		 * Reads the sign extended carrier.
+		 *
+		 * @param buf    the buffer
+		 * @param offset the byte offset of the structure
+		 * @return the carrier value
+		 */
+		private long read(ByteBuffer buf, long offset) {
+			int index = (int) offset + byteOffset;
+
+			return switch (carrierSize) {
+			case 8 -> buf.get(index);
+			case 16 -> big ? (short) SHORT_BIG.get(buf, index) : (short) SHORT_LITTLE.get(buf, index);
+			case 32 -> big ? (int) INT_BIG.get(buf, index) : (int) INT_LITTLE.get(buf, index);
+			default -> big ? (long) LONG_BIG.get(buf, index) : (long) LONG_LITTLE.get(buf, index);
+			};
+		}
+
+		/**
+		 * Extracts the field from the carrier.
+		 *
+		 * @param buf    the buffer
+		 * @param offset the byte offset of the structure
+		 * @return the signed field value
+		 */
+		private long get(ByteBuffer buf, long offset) {
+			return extract(read(buf, offset), shift, mask, carrierSize);
+		}
+
+		/**
+		 * Inserts the field into the carrier.
+		 *
+		 * @param value  the field value
+		 * @param buf    the buffer
+		 * @param offset the byte offset of the structure
+		 * @return the new sign extended carrier value
+		 */
+		private long set(long value, ByteBuffer buf, long offset) {
+			int index = (int) offset + byteOffset;
+			long carrier = insert(read(buf, offset), shift, mask, value);
+
+			switch (carrierSize) {
+			case 8 -> buf.put(index, (byte) carrier);
+			case 16 -> {
+				if (big)
+					SHORT_BIG.set(buf, index, (short) carrier);
+				else
+					SHORT_LITTLE.set(buf, index, (short) carrier);
+			}
+			case 32 -> {
+				if (big)
+					INT_BIG.set(buf, index, (int) carrier);
+				else
+					INT_LITTLE.set(buf, index, (int) carrier);
+			}
+			default -> {
+				if (big)
+					LONG_BIG.set(buf, index, carrier);
+				else
+					LONG_LITTLE.set(buf, index, carrier);
+			}
+			}
+
+			return extract(carrier, 0, -1L, carrierSize);
+		}
+
+		/**
+		 * Gets the bit.
+		 *
+		 * @param buf the buffer
+		 * @return the bit
+		 */
+		public boolean getBit(ByteBuffer buf) {
+			return (byte) get(buf, 0) != 0;
+		}
+
+		/**
+		 * Gets the byte.
+		 *
+		 * @param buf the buffer
+		 * @return the byte
+		 */
+		public byte getByte(ByteBuffer buf) {
+			return (byte) get(buf, 0);
+		}
+
+		/**
+		 * Gets the byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the byte at
+		 */
+		public byte getByteAt(long offset, ByteBuffer buf) {
+			return (byte) get(buf, offset);
+		}
+
+		/**
+		 * Gets the int.
+		 *
+		 * @param buf the buffer
+		 * @return the int
+		 */
+		public int getInt(ByteBuffer buf) {
+			return (int) get(buf, 0);
+		}
+
+		/**
+		 * Gets the int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the int at
+		 */
+		public int getIntAt(long offset, ByteBuffer buf) {
+			return (int) get(buf, offset);
+		}
+
+		/**
+		 * Gets the long.
+		 *
+		 * @param buf the buffer
+		 * @return the long
+		 */
+		public long getLong(ByteBuffer buf) {
+			return get(buf, 0);
+		}
+
+		/**
+		 * Gets the long at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the long at
+		 */
+		public long getLongAt(long offset, ByteBuffer buf) {
+			return get(buf, offset);
+		}
+
+		/**
+		 * Gets the short.
+		 *
+		 * @param buf the buffer
+		 * @return the short
+		 */
+		public short getShort(ByteBuffer buf) {
+			return (short) get(buf, 0);
+		}
+
+		/**
+		 * Gets the short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the short at
+		 */
+		public short getShortAt(long offset, ByteBuffer buf) {
+			return (short) get(buf, offset);
+		}
+
+		/**
+		 * Gets the unsigned byte.
+		 *
+		 * @param buf the buffer
+		 * @return the unsigned byte
+		 */
+		public int getUnsignedByte(ByteBuffer buf) {
+			return (int) unsigned(get(buf, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the unsigned byte at
+		 */
+		public int getUnsignedByteAt(long offset, ByteBuffer buf) {
+			return (int) unsigned(get(buf, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int.
+		 *
+		 * @param buf the buffer
+		 * @return the unsigned int
+		 */
+		public long getUnsignedInt(ByteBuffer buf) {
+			return unsigned(get(buf, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the unsigned int at
+		 */
+		public long getUnsignedIntAt(long offset, ByteBuffer buf) {
+			return unsigned(get(buf, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short.
+		 *
+		 * @param buf the buffer
+		 * @return the unsigned short
+		 */
+		public int getUnsignedShort(ByteBuffer buf) {
+			return (int) unsigned(get(buf, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the unsigned short at
+		 */
+		public int getUnsignedShortAt(long offset, ByteBuffer buf) {
+			return (int) unsigned(get(buf, offset), carrierSize);
+		}
+
+		/**
+		 * Sets the byte.
+		 *
+		 * @param value the value
+		 * @param buf   the buffer
+		 * @return the new carrier value
+		 */
+		public byte setByte(byte value, ByteBuffer buf) {
+			return (byte) set(value, buf, 0);
+		}
+
+		/**
+		 * Sets the byte at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the new carrier value
+		 */
+		public byte setByteAt(byte value, long offset, ByteBuffer buf) {
+			return (byte) set(value, buf, offset);
+		}
+
+		/**
+		 * Sets the int.
+		 *
+		 * @param value the value
+		 * @param buf   the buffer
+		 * @return the new carrier value
+		 */
+		public int setInt(int value, ByteBuffer buf) {
+			return (int) set(value, buf, 0);
+		}
+
+		/**
+		 * Sets the int at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the new carrier value
+		 */
+		public int setIntAt(int value, long offset, ByteBuffer buf) {
+			return (int) set(value, buf, offset);
+		}
+
+		/**
+		 * Sets the long.
+		 *
+		 * @param value the value
+		 * @param buf   the buffer
+		 * @return the new carrier value
+		 */
+		public long setLong(long value, ByteBuffer buf) {
+			return set(value, buf, 0);
+		}
+
+		/**
+		 * Sets the long at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the new carrier value
+		 */
+		public long setLongAt(long value, long offset, ByteBuffer buf) {
+			return set(value, buf, offset);
+		}
+
+		/**
+		 * Sets the short.
+		 *
+		 * @param value the value
+		 * @param buf   the buffer
+		 * @return the new carrier value
+		 */
+		public short setShort(short value, ByteBuffer buf) {
+			return (short) set(value, buf, 0);
+		}
+
+		/**
+		 * Sets the short at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param buf    the buffer
+		 * @return the new carrier value
+		 */
+		public short setShortAt(short value, long offset, ByteBuffer buf) {
+			return (short) set(value, buf, offset);
+		}
+	}
+
+	/**
+	 * A bit field specialized for {@code MemorySegment} carriers.
+	 *
+	 * @param byteOffset  the byte offset of the carrier
+	 * @param shift       the field bit shift within the carrier
+	 * @param mask        the field mask
+	 * @param carrierSize the carrier size in bits
+	 * @param big         true if carrier is big endian, otherwise little endian
+	 */
+	record OfSegment(int byteOffset, int shift, long mask, int carrierSize, boolean big) implements CarrierField {
+
+		// @formatter:off
+		private static final ValueLayout.OfShort SHORT_BIG    = ValueLayout.JAVA_SHORT.withOrder(ByteOrder.BIG_ENDIAN).withBitAlignment(8);
+		private static final ValueLayout.OfInt   INT_BIG      = ValueLayout.JAVA_INT.withOrder(ByteOrder.BIG_ENDIAN).withBitAlignment(8);
+		private static final ValueLayout.OfLong  LONG_BIG     = ValueLayout.JAVA_LONG.withOrder(ByteOrder.BIG_ENDIAN).withBitAlignment(8);
+		private static final ValueLayout.OfShort SHORT_LITTLE = ValueLayout.JAVA_SHORT.withOrder(ByteOrder.LITTLE_ENDIAN).withBitAlignment(8);
+		private static final ValueLayout.OfInt   INT_LITTLE   = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN).withBitAlignment(8);
+		private static final ValueLayout.OfLong  LONG_LITTLE  = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN).withBitAlignment(8);
+		// @formatter:on
+
+		/**
+		 * Instantiates a new memory segment carrier field.
+		 *
+		 * @param byteOffset  the byte offset of the carrier
+		 * @param shift       the field bit shift within the carrier
+		 * @param mask        the field mask
+		 * @param carrierSize the carrier size in bits
+		 * @param big         true if carrier is big endian, otherwise little endian
+		 */
+		public OfSegment {
+			checkCarrier(byteOffset, shift, carrierSize);
+		}
+
+		/**
+		 * Reads the sign extended carrier.
+		 *
+		 * @param seg    the segment
+		 * @param offset the byte offset of the structure
+		 * @return the carrier value
+		 */
+		private long read(MemorySegment seg, long offset) {
+			long index = offset + byteOffset;
+
+			return switch (carrierSize) {
+			case 8 -> seg.get(ValueLayout.JAVA_BYTE, index);
+			case 16 -> seg.get(big ? SHORT_BIG : SHORT_LITTLE, index);
+			case 32 -> seg.get(big ? INT_BIG : INT_LITTLE, index);
+			default -> seg.get(big ? LONG_BIG : LONG_LITTLE, index);
+			};
+		}
+
+		/**
+		 * Extracts the field from the carrier.
+		 *
+		 * @param seg    the segment
+		 * @param offset the byte offset of the structure
+		 * @return the signed field value
+		 */
+		private long get(MemorySegment seg, long offset) {
+			return extract(read(seg, offset), shift, mask, carrierSize);
+		}
+
+		/**
+		 * Inserts the field into the carrier.
+		 *
+		 * @param value  the field value
+		 * @param seg    the segment
+		 * @param offset the byte offset of the structure
+		 * @return the new sign extended carrier value
+		 */
+		private long set(long value, MemorySegment seg, long offset) {
+			long index = offset + byteOffset;
+			long carrier = insert(read(seg, offset), shift, mask, value);
+
+			switch (carrierSize) {
+			case 8 -> seg.set(ValueLayout.JAVA_BYTE, index, (byte) carrier);
+			case 16 -> seg.set(big ? SHORT_BIG : SHORT_LITTLE, index, (short) carrier);
+			case 32 -> seg.set(big ? INT_BIG : INT_LITTLE, index, (int) carrier);
+			default -> seg.set(big ? LONG_BIG : LONG_LITTLE, index, carrier);
+			}
+
+			return extract(carrier, 0, -1L, carrierSize);
+		}
+
+		/**
+		 * Gets the bit.
+		 *
+		 * @param seg the segment
+		 * @return the bit
+		 */
+		public boolean getBit(MemorySegment seg) {
+			return (byte) get(seg, 0) != 0;
+		}
+
+		/**
+		 * Gets the byte.
+		 *
+		 * @param seg the segment
+		 * @return the byte
+		 */
+		public byte getByte(MemorySegment seg) {
+			return (byte) get(seg, 0);
+		}
+
+		/**
+		 * Gets the byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the byte at
+		 */
+		public byte getByteAt(long offset, MemorySegment seg) {
+			return (byte) get(seg, offset);
+		}
+
+		/**
+		 * Gets the int.
+		 *
+		 * @param seg the segment
+		 * @return the int
+		 */
+		public int getInt(MemorySegment seg) {
+			return (int) get(seg, 0);
+		}
+
+		/**
+		 * Gets the int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the int at
+		 */
+		public int getIntAt(long offset, MemorySegment seg) {
+			return (int) get(seg, offset);
+		}
+
+		/**
+		 * Gets the long.
+		 *
+		 * @param seg the segment
+		 * @return the long
+		 */
+		public long getLong(MemorySegment seg) {
+			return get(seg, 0);
+		}
+
+		/**
+		 * Gets the long at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the long at
+		 */
+		public long getLongAt(long offset, MemorySegment seg) {
+			return get(seg, offset);
+		}
+
+		/**
+		 * Gets the short.
+		 *
+		 * @param seg the segment
+		 * @return the short
+		 */
+		public short getShort(MemorySegment seg) {
+			return (short) get(seg, 0);
+		}
+
+		/**
+		 * Gets the short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the short at
+		 */
+		public short getShortAt(long offset, MemorySegment seg) {
+			return (short) get(seg, offset);
+		}
+
+		/**
+		 * Gets the unsigned byte.
+		 *
+		 * @param seg the segment
+		 * @return the unsigned byte
+		 */
+		public int getUnsignedByte(MemorySegment seg) {
+			return (int) unsigned(get(seg, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned byte at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the unsigned byte at
+		 */
+		public int getUnsignedByteAt(long offset, MemorySegment seg) {
+			return (int) unsigned(get(seg, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int.
+		 *
+		 * @param seg the segment
+		 * @return the unsigned int
+		 */
+		public long getUnsignedInt(MemorySegment seg) {
+			return unsigned(get(seg, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned int at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the unsigned int at
+		 */
+		public long getUnsignedIntAt(long offset, MemorySegment seg) {
+			return unsigned(get(seg, offset), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short.
+		 *
+		 * @param seg the segment
+		 * @return the unsigned short
+		 */
+		public int getUnsignedShort(MemorySegment seg) {
+			return (int) unsigned(get(seg, 0), carrierSize);
+		}
+
+		/**
+		 * Gets the unsigned short at.
+		 *
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the unsigned short at
+		 */
+		public int getUnsignedShortAt(long offset, MemorySegment seg) {
+			return (int) unsigned(get(seg, offset), carrierSize);
+		}
+
+		/**
+		 * Sets the byte.
+		 *
+		 * @param value the value
+		 * @param seg   the segment
+		 * @return the new carrier value
+		 */
+		public byte setByte(byte value, MemorySegment seg) {
+			return (byte) set(value, seg, 0);
+		}
+
+		/**
+		 * Sets the byte at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the new carrier value
+		 */
+		public byte setByteAt(byte value, long offset, MemorySegment seg) {
+			return (byte) set(value, seg, offset);
+		}
+
+		/**
+		 * Sets the int.
+		 *
+		 * @param value the value
+		 * @param seg   the segment
+		 * @return the new carrier value
+		 */
+		public int setInt(int value, MemorySegment seg) {
+			return (int) set(value, seg, 0);
+		}
+
+		/**
+		 * Sets the int at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the new carrier value
+		 */
+		public int setIntAt(int value, long offset, MemorySegment seg) {
+			return (int) set(value, seg, offset);
+		}
+
+		/**
+		 * Sets the long.
+		 *
+		 * @param value the value
+		 * @param seg   the segment
+		 * @return the new carrier value
+		 */
+		public long setLong(long value, MemorySegment seg) {
+			return set(value, seg, 0);
+		}
+
+		/**
+		 * Sets the long at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the new carrier value
+		 */
+		public long setLongAt(long value, long offset, MemorySegment seg) {
+			return set(value, seg, offset);
+		}
+
+		/**
+		 * Sets the short.
+		 *
+		 * @param value the value
+		 * @param seg   the segment
+		 * @return the new carrier value
+		 */
+		public short setShort(short value, MemorySegment seg) {
+			return (short) set(value, seg, 0);
+		}
+
+		/**
+		 * Sets the short at.
+		 *
+		 * @param value  the value
+		 * @param offset the byte offset of the structure
+		 * @param seg    the segment
+		 * @return the new carrier value
+		 */
+		public short setShortAt(short value, long offset, MemorySegment seg) {
+			return (short) set(value, seg, offset);
+		}
+	}
+
+	/**
+	 * Validates the carrier parameters of a carrier field.
+	 *
+	 * @param byteOffset  the byte offset of the carrier
+	 * @param shift       the field bit shift within the carrier
+	 * @param carrierSize the carrier size in bits
+	 * @throws IllegalArgumentException if any of the parameters is invalid
+	 */
+	private static void checkCarrier(int byteOffset, int shift, int carrierSize) {
+		if (carrierSize != 8 && carrierSize != 16 && carrierSize != 32 && carrierSize != 64)
+			throw new IllegalArgumentException("invalid carrier size [%d]".formatted(carrierSize));
+
+		if (byteOffset < 0)
+			throw new IllegalArgumentException("invalid carrier byte offset [%d]".formatted(byteOffset));
+
+		if (shift < 0 || shift >= carrierSize)
+			throw new IllegalArgumentException("invalid field shift [%d]".formatted(shift));
+	}
+
+	/**
+	 * Gets the byte offset of the carrier, relative to the start of the structure.
+	 *
+	 * @return the byte offset
+	 */
+	int byteOffset();
+
+	/**
+	 * Gets the field bit shift within the carrier.
+	 *
+	 * @return the bit shift
+	 */
+	int shift();
+
+	/**
+	 * Gets the field mask, applied after the shift.
+	 *
+	 * @return the mask
+	 */
+	long mask();
+
+	/**
+	 * Gets the carrier size in bits.
+	 *
+	 * @return the carrier size, one of 8, 16, 32 or 64
+	 */
+	int carrierSize();
+
+	/**
+	 * Checks if the carrier is big endian.
+	 *
+	 * @return true, if big endian, otherwise little endian
+	 */
+	boolean big();
+
+	/**
+	 * Gets the byte order of the carrier.
+	 *
+	 * @return the byte order
+	 */
+	default ByteOrder order() {
+		return big() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+	}
+}
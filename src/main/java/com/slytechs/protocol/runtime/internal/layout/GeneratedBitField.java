@@ -0,0 +1,166 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.nio.ByteOrder;
+
+/**
+ * Base class of bit fields generated by {@link BitFieldGenerator}.
+ * 
+ * <p>
+ * Subclasses are templates which are never used directly. Each generated field
+ * is a hidden class, defined from the bytes of a template, whose static final
+ * constants are initialized from the class data of the hidden class. Static
+ * finals are trusted by the JIT compiler, which folds the carrier size, byte
+ * order, shift and mask of each field into straight-line code specific to that
+ * field and carrier type. Accesses to any other carrier type and all accesses
+ * using sequences, are delegated to the original bit field.
+ * </p>
+ *
+ * @author Sly Technologies
+ * @author repos@slytechs.com
+ */
+abstract class GeneratedBitField implements BitField.Proxy {
+
+	/** Class data index of the carrier byte offset. */
+	static final int OFFSET_INDEX = 0;
+
+	/** Class data index of the field bit shift within the carrier. */
+	static final int SHIFT_INDEX = 1;
+
+	/** Class data index of the field bit mask. */
+	static final int MASK_INDEX = 2;
+
+	/** Class data index of the carrier size in bits. */
+	static final int SIZE_INDEX = 3;
+
+	/** Class data index of the byte order, 1 for big and 0 for little endian. */
+	static final int BIG_INDEX = 4;
+
+	/** Number of class data constants. */
+	static final int CLASS_DATA_LENGTH = 5;
+
+	/**
+	 * Gets the constants of a generated hidden class.
+	 *
+	 * @param lookup the full privilege lookup of the hidden class
+	 * @return the class data constants
+	 */
+	static long[] classData(Lookup lookup) {
+		try {
+			long[] data = MethodHandles.classData(lookup, ConstantDescs.DEFAULT_NAME, long[].class);
+			if (data == null)
+				throw new IllegalStateException("%s is a template and can not be used directly"
+						.formatted(lookup.lookupClass().getSimpleName()));
+
+			return data;
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Byte order of the generated class.
+	 *
+	 * @param data the class data constants
+	 * @return the byte order
+	 */
+	static ByteOrder order(long[] data) {
+		return (data[BIG_INDEX] != 0) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+	}
+
+	/** The original field, used for all non specialized accesses. */
+	private final BitField field;
+
+	/** The carrier type. */
+	private final Class<?> carrierType;
+
+	/**
+	 * Instantiates a new generated bit field.
+	 *
+	 * @param field       the original field
+	 * @param carrierType the carrier type
+	 */
+	GeneratedBitField(BitField field, Class<?> carrierType) {
+		this.field = field;
+		this.carrierType = carrierType;
+	}
+
+	/**
+	 * Generate.
+	 *
+	 * @param carrierType the carrier type
+	 * @return the bit field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#generate(java.lang.Class)
+	 */
+	@Override
+	public BitField generate(Class<?> carrierType) {
+		if (this.carrierType == carrierType)
+			return this;
+
+		return field.generate(carrierType);
+	}
+
+	/**
+	 * Non proxy.
+	 *
+	 * @return the bit field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#nonProxy()
+	 */
+	@Override
+	public BitField nonProxy() {
+		return this;
+	}
+
+	/**
+	 * The byte order is compiled into the generated class and can not be
+	 * changed.
+	 *
+	 * @param newOrder the new order
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField#order(java.nio.ByteOrder)
+	 */
+	@Override
+	public void order(ByteOrder newOrder) {
+		throw new UnsupportedOperationException("byte order of a generated bit field is fixed");
+	}
+
+	/**
+	 * Proxy bit field.
+	 *
+	 * @return the bit field
+	 * @see com.slytechs.protocol.runtime.internal.layout.BitField.Proxy#proxyBitField()
+	 */
+	@Override
+	public BitField proxyBitField() {
+		return field;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "Generated<" + carrierType.getSimpleName() + ">" + field;
+	}
+}
@@ -0,0 +1,721 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.slytechs.protocol.runtime.util.HexStrings;
+
+/**
+ * Off-heap, open-addressing flow table keyed by a 5-tuple.
+ * 
+ * <p>
+ * Each flow occupies a fixed size, 64 byte slot (one cache line) within a
+ * single native {@code MemorySegment}, holding the flow key and the per-flow
+ * packet and byte counters. No heap objects are allocated per flow and the
+ * table is never rehashed, so it scales to millions of concurrent flows with a
+ * fixed and predictable memory footprint, outside of the Java heap.
+ * </p>
+ * 
+ * <p>
+ * Collisions are resolved using Robin Hood linear probing: an inserted flow
+ * displaces any resident flow which is closer to its home slot, which keeps
+ * probe sequences short even at high load factors and lets unsuccessful
+ * lookups terminate early. Removals use backward shift deletion, so no
+ * tombstones are left behind.
+ * </p>
+ * 
+ * <p>
+ * Lookups take a precomputed 32-bit hash, typically the flow hash already
+ * computed by the dissector and stored in the packet descriptor, so the key is
+ * never hashed twice. Both directions of a flow map to the same entry only if
+ * the supplied key and hash are symmetric. The hash value is stored in the slot
+ * and compared before the key, which makes most mismatches a single int
+ * compare.
+ * </p>
+ * 
+ * <p>
+ * Slot indexes returned by lookups are only valid until the next insertion or
+ * removal, as either may move flows between slots. The table is not thread
+ * safe.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class FlowTable {
+
+	/**
+	 * A reusable, mutable flow key. IPv4 addresses are stored zero extended in
+	 * the first half of the 128-bit address fields.
+	 */
+	public static final class Key {
+
+		/** Source address, high and low 64 bits. */
+		private long src0, src1;
+
+		/** Destination address, high and low 64 bits. */
+		private long dst0, dst1;
+
+		/** Source port in upper, destination port in lower 16 bits. */
+		private int ports;
+
+		/** IP version, protocol and VLAN id. */
+		private int meta;
+
+		/** Tunnel id, or 0 if not tunneled. */
+		private int tunnel;
+
+		/**
+		 * Instantiates a new, empty key.
+		 */
+		public Key() {
+		}
+
+		/**
+		 * Clears all fields of the key.
+		 *
+		 * @return this key
+		 */
+		public Key clear() {
+			src0 = src1 = dst0 = dst1 = 0;
+			ports = meta = tunnel = 0;
+
+			return this;
+		}
+
+		/**
+		 * Sets IPv4 source and destination addresses and the IP version.
+		 *
+		 * @param src the source address
+		 * @param dst the destination address
+		 * @return this key
+		 */
+		public Key ip4(int src, int dst) {
+			this.src0 = Integer.toUnsignedLong(src);
+			this.src1 = 0;
+			this.dst0 = Integer.toUnsignedLong(dst);
+			this.dst1 = 0;
+			this.meta = (meta & 0x00FF_FFFF) | (4 << 24);
+
+			return this;
+		}
+
+		/**
+		 * Sets IPv6 source and destination addresses and the IP version.
+		 *
+		 * @param src the 16 byte source address
+		 * @param dst the 16 byte destination address
+		 * @return this key
+		 */
+		public Key ip6(byte[] src, byte[] dst) {
+			ByteBuffer s = ByteBuffer.wrap(src);
+			ByteBuffer d = ByteBuffer.wrap(dst);
+
+			return ip6(s.getLong(0), s.getLong(8), d.getLong(0), d.getLong(8));
+		}
+
+		/**
+		 * Sets IPv6 source and destination addresses and the IP version.
+		 *
+		 * @param src0 source address, high 64 bits
+		 * @param src1 source address, low 64 bits
+		 * @param dst0 destination address, high 64 bits
+		 * @param dst1 destination address, low 64 bits
+		 * @return this key
+		 */
+		public Key ip6(long src0, long src1, long dst0, long dst1) {
+			this.src0 = src0;
+			this.src1 = src1;
+			this.dst0 = dst0;
+			this.dst1 = dst1;
+			this.meta = (meta & 0x00FF_FFFF) | (6 << 24);
+
+			return this;
+		}
+
+		/**
+		 * Sets the source and destination ports.
+		 *
+		 * @param src the source port
+		 * @param dst the destination port
+		 * @return this key
+		 */
+		public Key ports(int src, int dst) {
+			this.ports = ((src & 0xFFFF) << 16) | (dst & 0xFFFF);
+
+			return this;
+		}
+
+		/**
+		 * Sets the IP protocol number.
+		 *
+		 * @param protocol the protocol
+		 * @return this key
+		 */
+		public Key protocol(int protocol) {
+			this.meta = (meta & 0xFF00_FFFF) | ((protocol & 0xFF) << 16);
+
+			return this;
+		}
+
+		/**
+		 * Sets the VLAN id.
+		 *
+		 * @param vlanId the 12-bit VLAN id
+		 * @return this key
+		 */
+		public Key vlan(int vlanId) {
+			this.meta = (meta & 0xFFFF_0000) | (vlanId & 0xFFF);
+
+			return this;
+		}
+
+		/**
+		 * Sets the tunnel id, such as a VXLAN VNI or GRE key.
+		 *
+		 * @param tunnelId the tunnel id
+		 * @return this key
+		 */
+		public Key tunnel(int tunnelId) {
+			this.tunnel = tunnelId;
+
+			return this;
+		}
+
+		/**
+		 * Gets the IP version, 4 or 6.
+		 *
+		 * @return the IP version, or 0 if not set
+		 */
+		public int version() {
+			return meta >>> 24;
+		}
+
+		/**
+		 * Gets the IP protocol number.
+		 *
+		 * @return the protocol
+		 */
+		public int protocol() {
+			return (meta >>> 16) & 0xFF;
+		}
+
+		/**
+		 * Gets the VLAN id.
+		 *
+		 * @return the VLAN id
+		 */
+		public int vlan() {
+			return meta & 0xFFF;
+		}
+
+		/**
+		 * Gets the tunnel id.
+		 *
+		 * @return the tunnel id
+		 */
+		public int tunnel() {
+			return tunnel;
+		}
+
+		/**
+		 * Gets the source port.
+		 *
+		 * @return the source port
+		 */
+		public int srcPort() {
+			return ports >>> 16;
+		}
+
+		/**
+		 * Gets the destination port.
+		 *
+		 * @return the destination port
+		 */
+		public int dstPort() {
+			return ports & 0xFFFF;
+		}
+
+		/**
+		 * Gets the IPv4 source address.
+		 *
+		 * @return the source address
+		 */
+		public int ip4Src() {
+			return (int) src0;
+		}
+
+		/**
+		 * Gets the IPv4 destination address.
+		 *
+		 * @return the destination address
+		 */
+		public int ip4Dst() {
+			return (int) dst0;
+		}
+
+		/**
+		 * Hashes the key. Used when no precomputed flow hash is available.
+		 *
+		 * @return the 32-bit hash
+		 */
+		public int hash() {
+			long h = src0 * 0x9E3779B97F4A7C15L;
+			h = (h ^ src1) * 0x9E3779B97F4A7C15L;
+			h = (h ^ dst0) * 0x9E3779B97F4A7C15L;
+			h = (h ^ dst1) * 0x9E3779B97F4A7C15L;
+			h = (h ^ (((long) ports << 32) | Integer.toUnsignedLong(meta))) * 0x9E3779B97F4A7C15L;
+			h = (h ^ tunnel) * 0x9E3779B97F4A7C15L;
+
+			return (int) (h ^ (h >>> 32));
+		}
+
+		/**
+		 * Converts an address to bytes, 4 bytes for IPv4 and 16 bytes for IPv6.
+		 *
+		 * @param a0 the address, high 64 bits
+		 * @param a1 the address, low 64 bits
+		 * @return the address bytes
+		 */
+		private byte[] address(long a0, long a1) {
+			if (version() == 6)
+				return ByteBuffer.allocate(16).putLong(a0).putLong(a1).array();
+
+			return ByteBuffer.allocate(4).putInt((int) a0).array();
+		}
+
+		/**
+		 * To string.
+		 *
+		 * @return the string
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			String src = HexStrings.toIpString(address(src0, src1));
+			String dst = HexStrings.toIpString(address(dst0, dst1));
+
+			return "Key [" + src + ":" + srcPort()
+					+ " -> " + dst + ":" + dstPort()
+					+ ", proto=" + protocol()
+					+ ", vlan=" + vlan()
+					+ ", tunnel=" + tunnel
+					+ "]";
+		}
+	}
+
+	/** Size of each flow slot in bytes. */
+	public static final int SLOT_SIZE = 64;
+
+	/** Maximum number of slots, 16M slots using 1GB of native memory. */
+	public static final int MAX_CAPACITY = 1 << 24;
+
+	/* Slot layout */
+	private static final int HASH = 0; // 0 if slot is empty
+	private static final int META = 4;
+	private static final int PORTS = 8;
+	private static final int TUNNEL = 12;
+	private static final int SRC0 = 16;
+	private static final int SRC1 = 24;
+	private static final int DST0 = 32;
+	private static final int DST1 = 40;
+	private static final int PACKETS = 48;
+	private static final int BYTES = 56;
+
+	private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+	private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG;
+
+	/** The table memory. */
+	private final MemorySegment table;
+
+	/** Single slot scratch area, used when displacing flows. */
+	private final MemorySegment swap;
+
+	/** Slot index mask. */
+	private final int mask;
+
+	/** Maximum number of flows before inserts are refused. */
+	private final int maxSize;
+
+	/** Number of flows in the table. */
+	private int size;
+
+	/**
+	 * Instantiates a new flow table. The number of slots is rounded up to a power
+	 * of 2 and the table accepts flows up to a load factor of 7/8.
+	 *
+	 * @param capacity the minimum number of slots
+	 * @throws IllegalArgumentException if capacity is not positive or greater
+	 *                                  than {@link #MAX_CAPACITY}
+	 */
+	public FlowTable(int capacity) throws IllegalArgumentException {
+		if (capacity <= 0 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("invalid flow table capacity [%d]"
+					.formatted(capacity));
+
+		int slots = Integer.highestOneBit(capacity);
+		if (slots < capacity)
+			slots <<= 1;
+
+		this.mask = slots - 1;
+		this.maxSize = slots - (slots >>> 3);
+		this.table = segment(slots);
+		this.swap = segment(1);
+	}
+
+	/**
+	 * Allocates zeroed native memory for a number of slots.
+	 *
+	 * @param slots the number of slots
+	 * @return the memory segment
+	 */
+	private static MemorySegment segment(int slots) {
+		return MemorySegment.ofBuffer(ByteBuffer
+				.allocateDirect(slots * SLOT_SIZE)
+				.order(ByteOrder.nativeOrder()));
+	}
+
+	/**
+	 * Converts a flow hash to the value stored in a slot. Since 0 marks an empty
+	 * slot, a hash of 0 is stored as 1.
+	 *
+	 * @param hash the flow hash
+	 * @return the stored hash
+	 */
+	private static int stored(int hash) {
+		return (hash == 0) ? 1 : hash;
+	}
+
+	/**
+	 * Gets the probe distance of a flow from its home slot.
+	 *
+	 * @param slot       the slot the flow occupies
+	 * @param storedHash the stored hash of the flow
+	 * @return the number of slots past the home slot
+	 */
+	private int distance(int slot, int storedHash) {
+		return (slot - storedHash) & mask;
+	}
+
+	/**
+	 * Checks if a slot holds a flow, comparing the hash before the key.
+	 *
+	 * @param base       the byte offset of the slot
+	 * @param storedHash the stored hash of the flow
+	 * @param key        the flow key
+	 * @return true, if the slot holds the flow
+	 */
+	private boolean matches(long base, int storedHash, Key key) {
+		return table.get(INT, base + HASH) == storedHash
+				&& table.get(INT, base + PORTS) == key.ports
+				&& table.get(INT, base + META) == key.meta
+				&& table.get(LONG, base + SRC0) == key.src0
+				&& table.get(LONG, base + DST0) == key.dst0
+				&& table.get(LONG, base + SRC1) == key.src1
+				&& table.get(LONG, base + DST1) == key.dst1
+				&& table.get(INT, base + TUNNEL) == key.tunnel;
+	}
+
+	/**
+	 * Looks up a flow.
+	 *
+	 * @param key  the flow key
+	 * @param hash the precomputed flow hash
+	 * @return the slot index of the flow, or -1 if not found
+	 */
+	public int find(Key key, int hash) {
+		final int h = stored(hash);
+
+		for (int slot = h & mask, dist = 0;; slot = (slot + 1) & mask, dist++) {
+			long base = (long) slot * SLOT_SIZE;
+			int resident = table.get(INT, base + HASH);
+
+			if (resident == 0 || distance(slot, resident) < dist)
+				return -1;
+
+			if (matches(base, h, key))
+				return slot;
+		}
+	}
+
+	/**
+	 * Looks up a flow, inserting it with zero counters if not found.
+	 *
+	 * @param key  the flow key
+	 * @param hash the precomputed flow hash
+	 * @return the slot index of the flow, or -1 if not found and the table is
+	 *         full
+	 */
+	public int findOrInsert(Key key, int hash) {
+		final int h = stored(hash);
+
+		int slot = h & mask;
+		int dist = 0;
+		for (;; slot = (slot + 1) & mask, dist++) {
+			long base = (long) slot * SLOT_SIZE;
+			int resident = table.get(INT, base + HASH);
+
+			if (resident == 0)
+				break;
+
+			if (distance(slot, resident) < dist) {
+				if (size == maxSize)
+					return -1;
+
+				displace(slot);
+				break;
+			}
+
+			if (matches(base, h, key))
+				return slot;
+		}
+
+		if (size == maxSize)
+			return -1;
+
+		long base = (long) slot * SLOT_SIZE;
+		table.set(INT, base + HASH, h);
+		table.set(INT, base + META, key.meta);
+		table.set(INT, base + PORTS, key.ports);
+		table.set(INT, base + TUNNEL, key.tunnel);
+		table.set(LONG, base + SRC0, key.src0);
+		table.set(LONG, base + SRC1, key.src1);
+		table.set(LONG, base + DST0, key.dst0);
+		table.set(LONG, base + DST1, key.dst1);
+		table.set(LONG, base + PACKETS, 0);
+		table.set(LONG, base + BYTES, 0);
+		size++;
+
+		return slot;
+	}
+
+	/**
+	 * Moves the resident flow out of a slot, shifting it and any poorer flows
+	 * further down the probe sequence, until an empty slot is reached.
+	 *
+	 * @param slot the slot to free up
+	 */
+	private void displace(int slot) {
+		MemorySegment.copy(table, (long) slot * SLOT_SIZE, swap, 0, SLOT_SIZE);
+		int h = swap.get(INT, HASH);
+		int dist = distance(slot, h);
+
+		for (int i = (slot + 1) & mask;; i = (i + 1) & mask) {
+			dist++;
+			long base = (long) i * SLOT_SIZE;
+			int resident = table.get(INT, base + HASH);
+
+			if (resident == 0) {
+				MemorySegment.copy(swap, 0, table, base, SLOT_SIZE);
+				return;
+			}
+
+			int residentDist = distance(i, resident);
+			if (residentDist < dist) {
+				/* Rotate: resident goes to swap, carried flow takes its slot */
+				for (int k = 0; k < SLOT_SIZE; k += 8) {
+					long t = table.get(LONG, base + k);
+					table.set(LONG, base + k, swap.get(LONG, k));
+					swap.set(LONG, k, t);
+				}
+
+				dist = residentDist;
+			}
+		}
+	}
+
+	/**
+	 * Looks up or inserts a flow and counts a packet against it. This is the
+	 * per-packet fast path, a single probe sequence.
+	 *
+	 * @param key   the flow key
+	 * @param hash  the precomputed flow hash
+	 * @param bytes number of bytes to count
+	 * @return the slot index of the flow, or -1 if the table is full
+	 */
+	public int count(Key key, int hash, int bytes) {
+		int slot = findOrInsert(key, hash);
+		if (slot == -1)
+			return -1;
+
+		long base = (long) slot * SLOT_SIZE;
+		table.set(LONG, base + PACKETS, table.get(LONG, base + PACKETS) + 1);
+		table.set(LONG, base + BYTES, table.get(LONG, base + BYTES) + bytes);
+
+		return slot;
+	}
+
+	/**
+	 * Removes a flow.
+	 *
+	 * @param key  the flow key
+	 * @param hash the precomputed flow hash
+	 * @return true, if flow was found and removed
+	 */
+	public boolean remove(Key key, int hash) {
+		int slot = find(key, hash);
+		if (slot == -1)
+			return false;
+
+		removeAt(slot);
+
+		return true;
+	}
+
+	/**
+	 * Removes the flow in the specified slot, shifting back any flows displaced
+	 * by it.
+	 *
+	 * @param slot the slot index
+	 */
+	public void removeAt(int slot) {
+		checkOccupied(slot);
+
+		int i = slot;
+		for (int j = (i + 1) & mask;; i = j, j = (j + 1) & mask) {
+			long from = (long) j * SLOT_SIZE;
+			int resident = table.get(INT, from + HASH);
+
+			if (resident == 0 || distance(j, resident) == 0)
+				break;
+
+			MemorySegment.copy(table, from, table, (long) i * SLOT_SIZE, SLOT_SIZE);
+		}
+
+		table.asSlice((long) i * SLOT_SIZE, SLOT_SIZE).fill((byte) 0);
+		size--;
+	}
+
+	/**
+	 * Checks that a slot holds a flow.
+	 *
+	 * @param slot the slot index
+	 * @throws IllegalArgumentException if the slot is empty
+	 */
+	private void checkOccupied(int slot) throws IllegalArgumentException {
+		if (!isOccupied(slot))
+			throw new IllegalArgumentException("flow slot not occupied [%d]"
+					.formatted(slot));
+	}
+
+	/**
+	 * Checks if a slot contains a flow. Iterating slots from 0 to
+	 * {@link #capacity()} and checking occupancy visits all flows in the table.
+	 *
+	 * @param slot the slot index
+	 * @return true, if occupied
+	 */
+	public boolean isOccupied(int slot) {
+		return table.get(INT, (long) (slot & mask) * SLOT_SIZE + HASH) != 0;
+	}
+
+	/**
+	 * Gets the number of packets counted for a flow.
+	 *
+	 * @param slot the slot index
+	 * @return the packet count
+	 */
+	public long packets(int slot) {
+		return table.get(LONG, (long) slot * SLOT_SIZE + PACKETS);
+	}
+
+	/**
+	 * Gets the number of bytes counted for a flow.
+	 *
+	 * @param slot the slot index
+	 * @return the byte count
+	 */
+	public long bytes(int slot) {
+		return table.get(LONG, (long) slot * SLOT_SIZE + BYTES);
+	}
+
+	/**
+	 * Copies the key of a flow.
+	 *
+	 * @param slot the slot index
+	 * @param dst  the key to copy into
+	 * @return the destination key
+	 */
+	public Key keyAt(int slot, Key dst) {
+		checkOccupied(slot);
+
+		long base = (long) slot * SLOT_SIZE;
+		dst.meta = table.get(INT, base + META);
+		dst.ports = table.get(INT, base + PORTS);
+		dst.tunnel = table.get(INT, base + TUNNEL);
+		dst.src0 = table.get(LONG, base + SRC0);
+		dst.src1 = table.get(LONG, base + SRC1);
+		dst.dst0 = table.get(LONG, base + DST0);
+		dst.dst1 = table.get(LONG, base + DST1);
+
+		return dst;
+	}
+
+	/**
+	 * Gets the number of flows in the table.
+	 *
+	 * @return the number of flows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of slots in the table.
+	 *
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Gets the number of bytes of native memory used by the table.
+	 *
+	 * @return the byte size
+	 */
+	public long byteSize() {
+		return table.byteSize();
+	}
+
+	/**
+	 * Removes all flows.
+	 */
+	public void clear() {
+		table.fill((byte) 0);
+		size = 0;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "FlowTable [size=" + size
+				+ ", capacity=" + capacity()
+				+ ", bytes=" + byteSize()
+				+ "]";
+	}
+}
@@ -20,7 +20,12 @@ package com.slytechs.protocol.runtime.internal.util;
 import com.slytechs.protocol.runtime.NotFound;
 
 /**
- * The Interface HashTable.
+ * A hash table keyed by primitive int keys, with primitive specializations
+ * that avoid boxing of keys and values.
+ * 
+ * @see LongHashTable
+ * @see IntHashTable
+ * @see LongLongHashTable
  *
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
@@ -29,6 +34,148 @@ import com.slytechs.protocol.runtime.NotFound;
  */
 public interface HashTable<T> {
 
+	/**
+	 * A hash table with primitive int keys and int values.
+	 */
+	public interface OfInt extends HashTable<Integer> {
+
+		/**
+		 * Gets the.
+		 *
+		 * @param key the key
+		 * @return the integer
+		 * @throws NotFound the not found
+		 * @see com.slytechs.protocol.runtime.internal.util.HashTable#get(int)
+		 */
+		@Override
+		default Integer get(int key) throws NotFound {
+			return getInt(key);
+		}
+
+		/**
+		 * Gets the int.
+		 *
+		 * @param key the key
+		 * @return the int
+		 * @throws NotFound if key not found
+		 */
+		int getInt(int key) throws NotFound;
+
+		/**
+		 * Peek.
+		 *
+		 * @param key the key
+		 * @return the integer
+		 * @see com.slytechs.protocol.runtime.internal.util.HashTable#peek(int)
+		 */
+		@Override
+		default Integer peek(int key) {
+			return peekInt(key);
+		}
+
+		/**
+		 * Peek int.
+		 *
+		 * @param key the key
+		 * @return the value, or 0 if not found
+		 */
+		int peekInt(int key);
+
+		/**
+		 * Peek int.
+		 *
+		 * @param key          the key
+		 * @param defaultValue the default value
+		 * @return the value, or default value if not found
+		 */
+		int peekInt(int key, int defaultValue);
+
+		/**
+		 * Put.
+		 *
+		 * @param key   the key
+		 * @param value the value
+		 * @return the integer
+		 * @see com.slytechs.protocol.runtime.internal.util.HashTable#put(int,
+		 *      java.lang.Object)
+		 */
+		@Override
+		default Integer put(int key, Integer value) {
+			return putInt(key, value);
+		}
+
+		/**
+		 * Put int.
+		 *
+		 * @param key   the key
+		 * @param value the value
+		 * @return the value
+		 */
+		int putInt(int key, int value);
+	}
+
+	/**
+	 * A hash table with primitive long keys and long values. Since its keys are
+	 * wider than those of a {@code HashTable}, it does not extend it.
+	 */
+	public interface OfLongKey {
+
+		/**
+		 * Gets the long.
+		 *
+		 * @param key the key
+		 * @return the long
+		 * @throws NotFound if key not found
+		 */
+		long getLong(long key) throws NotFound;
+
+		/**
+		 * Peek long.
+		 *
+		 * @param key the key
+		 * @return the value, or 0 if not found
+		 */
+		long peekLong(long key);
+
+		/**
+		 * Peek long.
+		 *
+		 * @param key          the key
+		 * @param defaultValue the default value
+		 * @return the value, or default value if not found
+		 */
+		long peekLong(long key, long defaultValue);
+
+		/**
+		 * Put long.
+		 *
+		 * @param key   the key
+		 * @param value the value
+		 * @return the value
+		 */
+		long putLong(long key, long value);
+
+		/**
+		 * Removes the.
+		 *
+		 * @param key the key
+		 * @return true, if found and removed
+		 */
+		boolean remove(long key);
+
+		/**
+		 * Clear.
+		 */
+		void clear();
+
+		/**
+		 * Size.
+		 *
+		 * @return the number of entries
+		 */
+		int size();
+	}
+
 	/**
 	 * The Interface OfLong.
 	 */
@@ -52,7 +199,7 @@ public interface HashTable<T> {
 		 *
 		 * @param key the key
 		 * @return the long
-		 * @throws NotFound the not found
+		 * @throws NotFound if key not found
 		 */
 		long getLong(int key) throws NotFound;
 
@@ -72,7 +219,7 @@ public interface HashTable<T> {
 		 * Peek long.
 		 *
 		 * @param key the key
-		 * @return the long
+		 * @return the value, or 0 if not found
 		 */
 		long peekLong(int key);
 
@@ -147,4 +294,11 @@ public interface HashTable<T> {
 	 * Clear.
 	 */
 	void clear();
+
+	/**
+	 * Size.
+	 *
+	 * @return the number of entries
+	 */
+	int size();
 }
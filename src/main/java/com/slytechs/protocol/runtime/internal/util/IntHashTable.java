@@ -0,0 +1,240 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import static com.slytechs.protocol.runtime.internal.util.OpenAddressing.*;
+
+import java.util.Arrays;
+
+import com.slytechs.protocol.runtime.NotFound;
+import com.slytechs.protocol.runtime.internal.util.HashTable.OfInt;
+
+/**
+ * A hash table mapping primitive int keys to primitive int values.
+ * 
+ * <p>
+ * Keys, values and slot tokens are stored in flat, parallel arrays using
+ * linear probing. Nothing is boxed and no per-entry objects are allocated.
+ * Deletion is tombstone free and {@link #clear()} is O(1), see
+ * {@link OpenAddressing}. The table grows automatically when more than 3/4
+ * full.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public class IntHashTable implements OfInt {
+
+	/** The keys. */
+	private int[] keys;
+
+	/** The values. */
+	private int[] values;
+
+	/** The slot bookkeeping, tokens, probing and growth. */
+	private final OpenAddressing table;
+
+	/**
+	 * Instantiates a new int hash table.
+	 */
+	public IntHashTable() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Instantiates a new int hash table, sized to hold the expected number of
+	 * entries without growing.
+	 *
+	 * @param expectedSize the expected size
+	 */
+	public IntHashTable(int expectedSize) {
+		this.table = new OpenAddressing(expectedSize, new OpenAddressing.Storage() {
+
+			@Override
+			public int hashOf(int slot) {
+				return mix(keys[slot]);
+			}
+
+			@Override
+			public void move(int from, int to) {
+				keys[to] = keys[from];
+				values[to] = values[from];
+			}
+
+			@Override
+			public void swap(int slot1, int slot2) {
+				int key = keys[slot1];
+				keys[slot1] = keys[slot2];
+				keys[slot2] = key;
+
+				int value = values[slot1];
+				values[slot1] = values[slot2];
+				values[slot2] = value;
+			}
+
+			@Override
+			public void resize(int tableSize) {
+				keys = Arrays.copyOf(keys, tableSize);
+				values = Arrays.copyOf(values, tableSize);
+			}
+		});
+
+		this.keys = new int[table.capacity()];
+		this.values = new int[table.capacity()];
+	}
+
+	private int slotOf(int key) {
+		for (int i = table.home(mix(key)); table.occupied(i); i = table.next(i))
+			if (keys[i] == key)
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Checks if the table contains a key.
+	 *
+	 * @param key the key
+	 * @return true, if found
+	 */
+	public boolean containsKey(int key) {
+		return slotOf(key) != -1;
+	}
+
+	/**
+	 * Gets the int.
+	 *
+	 * @param key the key
+	 * @return the int
+	 * @throws NotFound if key not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfInt#getInt(int)
+	 */
+	@Override
+	public int getInt(int key) throws NotFound {
+		int i = slotOf(key);
+		if (i == -1)
+			throw new NotFound(Integer.toString(key));
+
+		return values[i];
+	}
+
+	/**
+	 * Peek int.
+	 *
+	 * @param key the key
+	 * @return the value, or 0 if not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfInt#peekInt(int)
+	 */
+	@Override
+	public int peekInt(int key) {
+		return peekInt(key, 0);
+	}
+
+	/**
+	 * Peek int.
+	 *
+	 * @param key          the key
+	 * @param defaultValue the default value
+	 * @return the value, or default value if not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfInt#peekInt(int,
+	 *      int)
+	 */
+	@Override
+	public int peekInt(int key, int defaultValue) {
+		int i = slotOf(key);
+
+		return (i == -1) ? defaultValue : values[i];
+	}
+
+	/**
+	 * Put int.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 * @return the value
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfInt#putInt(int,
+	 *      int)
+	 */
+	@Override
+	public int putInt(int key, int value) {
+		int i = table.home(mix(key));
+		for (; table.occupied(i); i = table.next(i)) {
+			if (keys[i] == key) {
+				values[i] = value;
+
+				return value;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		table.occupy(i);
+
+		return value;
+	}
+
+	/**
+	 * Removes the.
+	 *
+	 * @param key the key
+	 * @return true, if found and removed
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#remove(int)
+	 */
+	@Override
+	public boolean remove(int key) {
+		int i = slotOf(key);
+		if (i == -1)
+			return false;
+
+		table.vacate(i);
+
+		return true;
+	}
+
+	/**
+	 * Clear.
+	 *
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#clear()
+	 */
+	@Override
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the number of entries
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#size()
+	 */
+	@Override
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + table.size() + ", capacity=" + keys.length + "]";
+	}
+}
@@ -17,179 +17,104 @@
  */
 package com.slytechs.protocol.runtime.internal.util;
 
+import static com.slytechs.protocol.runtime.internal.util.OpenAddressing.*;
+
+import java.util.Arrays;
+
 import com.slytechs.protocol.runtime.NotFound;
 import com.slytechs.protocol.runtime.internal.util.HashTable.OfLong;
 
 /**
- * The Class LongHashTable.
+ * A hash table mapping primitive int keys to primitive long values.
+ * 
+ * <p>
+ * Keys, values and slot tokens are stored in flat, parallel arrays using
+ * linear probing. Nothing is boxed and no per-entry objects are allocated.
+ * Deletion is tombstone free and {@link #clear()} is O(1), see
+ * {@link OpenAddressing}. The table grows automatically when more than 3/4
+ * full.
+ * </p>
  *
  * @author Sly Technologies Inc
  * @author repos@slytechs.com
  * @author Mark Bednarczyk
  */
-public abstract class LongHashTable implements OfLong {
+public class LongHashTable implements OfLong {
 
-	/**
-	 * The Class LongHash24Table.
-	 */
-	public static class LongHash24Table extends LongHashTable {
-		
-		/** The table. */
-		private final Entry[][][] table = new Entry[256][][];
-
-		/**
-		 * Entry.
-		 *
-		 * @param key the key
-		 * @return the entry
-		 * @see com.slytechs.protocol.runtime.internal.util.LongHashTable#entry(int)
-		 */
-		@Override
-		protected Entry entry(int key) {
-			int idx0 = idx8(key, 0);
-			int idx1 = idx8(key, 1);
-			int idx2 = idx8(key, 2);
-
-			Entry[][] l2 = table[idx0];
-			if (l2 == null)
-				l2 = table[idx0] = new Entry[256][];
-
-			Entry[] l3 = l2[idx1];
-			if (l3 == null)
-				l3 = l2[idx1] = new Entry[256];
-
-			Entry e = l3[idx2];
-			if (e == null)
-				e = l3[idx2] = new Entry();
-
-			return e;
-		}
-	}
-
-	/**
-	 * The Class LongHash16Table.
-	 */
-	public static class LongHash16Table extends LongHashTable {
-		
-		/** The table. */
-		private final Entry[][] table = new Entry[256][];
-
-		/**
-		 * Entry.
-		 *
-		 * @param key the key
-		 * @return the entry
-		 * @see com.slytechs.protocol.runtime.internal.util.LongHashTable#entry(int)
-		 */
-		@Override
-		protected Entry entry(int key) {
-			int idx0 = idx16(key, 0);
-			int idx1 = idx16(key, 1);
-
-			Entry[] l2 = table[idx0];
-			if (l2 == null)
-				l2 = table[idx0] = new Entry[256];
-
-			Entry e = l2[idx1];
-			if (e == null)
-				e = l2[idx1] = new Entry();
-
-			return e;
-		}
-	}
+	/** The keys. */
+	private int[] keys;
 
-	/**
-	 * The Class LongHash8Table.
-	 */
-	public static class LongHash8Table extends LongHashTable {
-		
-		/** The table. */
-		private final Entry[] table = new Entry[256];
-
-		/**
-		 * Entry.
-		 *
-		 * @param key the key
-		 * @return the entry
-		 * @see com.slytechs.protocol.runtime.internal.util.LongHashTable#entry(int)
-		 */
-		@Override
-		protected Entry entry(int key) {
-			int idx0 = idx32(key);
-
-			Entry e = table[idx0];
-			if (e == null)
-				e = table[idx0] = new Entry();
-
-			return e;
-		}
-	}
+	/** The values. */
+	private long[] values;
 
-	/**
-	 * Entry.
-	 *
-	 * @param key the key
-	 * @return the entry
-	 */
-	protected abstract Entry entry(int key);
+	/** The slot bookkeeping, tokens, probing and growth. */
+	private final OpenAddressing table;
 
 	/**
-	 * The Class Entry.
+	 * Instantiates a new long hash table.
 	 */
-	private static class Entry {
-		
-		/** The token. */
-		long token;
-
-		/** The key. */
-		int key;
-		
-		/** The value. */
-		long value;
+	public LongHashTable() {
+		this(DEFAULT_EXPECTED_SIZE);
 	}
 
 	/**
-	 * Idx 32.
+	 * Instantiates a new long hash table, sized to hold the expected number of
+	 * entries without growing.
 	 *
-	 * @param v the v
-	 * @return the int
+	 * @param expectedSize the expected size
 	 */
-	private static int idx32(int v) {
-		return ((v >> 24) ^ (v >> 16) ^ (v >> 8) ^ (v >> 0)) & 0xFF;
+	public LongHashTable(int expectedSize) {
+		this.table = new OpenAddressing(expectedSize, new OpenAddressing.Storage() {
+
+			@Override
+			public int hashOf(int slot) {
+				return mix(keys[slot]);
+			}
+
+			@Override
+			public void move(int from, int to) {
+				keys[to] = keys[from];
+				values[to] = values[from];
+			}
+
+			@Override
+			public void swap(int slot1, int slot2) {
+				int key = keys[slot1];
+				keys[slot1] = keys[slot2];
+				keys[slot2] = key;
+
+				long value = values[slot1];
+				values[slot1] = values[slot2];
+				values[slot2] = value;
+			}
+
+			@Override
+			public void resize(int tableSize) {
+				keys = Arrays.copyOf(keys, tableSize);
+				values = Arrays.copyOf(values, tableSize);
+			}
+		});
+
+		this.keys = new int[table.capacity()];
+		this.values = new long[table.capacity()];
 	}
 
-	/**
-	 * Idx 16.
-	 *
-	 * @param key   the key
-	 * @param depth the depth
-	 * @return the int
-	 */
-	private static int idx16(int key, int depth) {
-		int v = (key >> (depth << 3)) & 0xFFFF;
+	private int slotOf(int key) {
+		for (int i = table.home(mix(key)); table.occupied(i); i = table.next(i))
+			if (keys[i] == key)
+				return i;
 
-		return ((v >> 8) ^ v) & 0xFF;
+		return -1;
 	}
 
 	/**
-	 * Idx 8.
+	 * Checks if the table contains a key.
 	 *
-	 * @param key   the key
-	 * @param depth the depth
-	 * @return the int
-	 */
-	private static int idx8(int key, int depth) {
-		return (key >> (depth << 3)) & 0xFF;
-	}
-
-	/** The token. */
-	private long token = 1;
-
-	/**
-	 * Instantiates a new long hash table.
+	 * @param key the key
+	 * @return true, if found
 	 */
-	public LongHashTable() {
-		clear();
+	public boolean containsKey(int key) {
+		return slotOf(key) != -1;
 	}
 
 	/**
@@ -197,32 +122,44 @@ public abstract class LongHashTable implements OfLong {
 	 *
 	 * @param key the key
 	 * @return the long
-	 * @throws NotFound the not found
+	 * @throws NotFound if key not found
 	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLong#getLong(int)
 	 */
 	@Override
 	public long getLong(int key) throws NotFound {
-		Entry e = entry(key);
-		if ((e.key == key) && e.token == token)
+		int i = slotOf(key);
+		if (i == -1)
 			throw new NotFound(Integer.toString(key));
 
-		return e.value;
+		return values[i];
 	}
 
 	/**
 	 * Peek long.
 	 *
 	 * @param key the key
-	 * @return the long
+	 * @return the value, or 0 if not found
 	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLong#peekLong(int)
 	 */
 	@Override
 	public long peekLong(int key) {
-		Entry e = entry(key);
-		if (e.key == key && e.token == token)
-			return 0;
+		return peekLong(key, 0);
+	}
+
+	/**
+	 * Peek long.
+	 *
+	 * @param key          the key
+	 * @param defaultValue the default value
+	 * @return the value, or default value if not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLong#peekLong(int,
+	 *      long)
+	 */
+	@Override
+	public long peekLong(int key, long defaultValue) {
+		int i = slotOf(key);
 
-		return e.value;
+		return (i == -1) ? defaultValue : values[i];
 	}
 
 	/**
@@ -230,16 +167,24 @@ public abstract class LongHashTable implements OfLong {
 	 *
 	 * @param key   the key
 	 * @param value the value
-	 * @return the long
+	 * @return the value
 	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLong#putLong(int,
 	 *      long)
 	 */
 	@Override
 	public long putLong(int key, long value) {
-		Entry e = entry(key);
-		e.key = key;
-		e.value = value;
-		e.token = token;
+		int i = table.home(mix(key));
+		for (; table.occupied(i); i = table.next(i)) {
+			if (keys[i] == key) {
+				values[i] = value;
+
+				return value;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		table.occupy(i);
 
 		return value;
 	}
@@ -248,47 +193,49 @@ public abstract class LongHashTable implements OfLong {
 	 * Removes the.
 	 *
 	 * @param key the key
-	 * @return true, if successful
+	 * @return true, if found and removed
 	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#remove(int)
 	 */
 	@Override
 	public boolean remove(int key) {
-		boolean found = false;
-		Entry e = entry(key);
-		if ((e.key == key) && e.token == token)
-			found = true;
+		int i = slotOf(key);
+		if (i == -1)
+			return false;
 
-		e.token = 0;
+		table.vacate(i);
 
-		return found;
+		return true;
 	}
 
 	/**
-	 * Peek long.
+	 * Clear.
 	 *
-	 * @param key          the key
-	 * @param defaultValue the default value
-	 * @return the long
-	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLong#peekLong(int,
-	 *      long)
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#clear()
 	 */
 	@Override
-	public long peekLong(int key, long defaultValue) {
-		Entry e = entry(key);
-		if (e.key == key && e.token == token)
-			return e.value;
-
-		return defaultValue;
+	public void clear() {
+		table.clear();
 	}
 
 	/**
-	 * Clear.
+	 * Size.
 	 *
-	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#clear()
+	 * @return the number of entries
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable#size()
 	 */
 	@Override
-	public void clear() {
-		this.token++;
+	public int size() {
+		return table.size();
 	}
 
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + table.size() + ", capacity=" + keys.length + "]";
+	}
 }
@@ -0,0 +1,240 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import static com.slytechs.protocol.runtime.internal.util.OpenAddressing.*;
+
+import java.util.Arrays;
+
+import com.slytechs.protocol.runtime.NotFound;
+import com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey;
+
+/**
+ * A hash table mapping primitive long keys to primitive long values.
+ * 
+ * <p>
+ * Keys, values and slot tokens are stored in flat, parallel arrays using
+ * linear probing. Nothing is boxed and no per-entry objects are allocated.
+ * Deletion is tombstone free and {@link #clear()} is O(1), see
+ * {@link OpenAddressing}. The table grows automatically when more than 3/4
+ * full.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public class LongLongHashTable implements OfLongKey {
+
+	/** The keys. */
+	private long[] keys;
+
+	/** The values. */
+	private long[] values;
+
+	/** The slot bookkeeping, tokens, probing and growth. */
+	private final OpenAddressing table;
+
+	/**
+	 * Instantiates a new long hash table.
+	 */
+	public LongLongHashTable() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Instantiates a new long hash table, sized to hold the expected number of
+	 * entries without growing.
+	 *
+	 * @param expectedSize the expected size
+	 */
+	public LongLongHashTable(int expectedSize) {
+		this.table = new OpenAddressing(expectedSize, new OpenAddressing.Storage() {
+
+			@Override
+			public int hashOf(int slot) {
+				return mix(keys[slot]);
+			}
+
+			@Override
+			public void move(int from, int to) {
+				keys[to] = keys[from];
+				values[to] = values[from];
+			}
+
+			@Override
+			public void swap(int slot1, int slot2) {
+				long key = keys[slot1];
+				keys[slot1] = keys[slot2];
+				keys[slot2] = key;
+
+				long value = values[slot1];
+				values[slot1] = values[slot2];
+				values[slot2] = value;
+			}
+
+			@Override
+			public void resize(int tableSize) {
+				keys = Arrays.copyOf(keys, tableSize);
+				values = Arrays.copyOf(values, tableSize);
+			}
+		});
+
+		this.keys = new long[table.capacity()];
+		this.values = new long[table.capacity()];
+	}
+
+	private int slotOf(long key) {
+		for (int i = table.home(mix(key)); table.occupied(i); i = table.next(i))
+			if (keys[i] == key)
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Checks if the table contains a key.
+	 *
+	 * @param key the key
+	 * @return true, if found
+	 */
+	public boolean containsKey(long key) {
+		return slotOf(key) != -1;
+	}
+
+	/**
+	 * Gets the long.
+	 *
+	 * @param key the key
+	 * @return the long
+	 * @throws NotFound if key not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#getLong(long)
+	 */
+	@Override
+	public long getLong(long key) throws NotFound {
+		int i = slotOf(key);
+		if (i == -1)
+			throw new NotFound(Long.toString(key));
+
+		return values[i];
+	}
+
+	/**
+	 * Peek long.
+	 *
+	 * @param key the key
+	 * @return the value, or 0 if not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#peekLong(long)
+	 */
+	@Override
+	public long peekLong(long key) {
+		return peekLong(key, 0);
+	}
+
+	/**
+	 * Peek long.
+	 *
+	 * @param key          the key
+	 * @param defaultValue the default value
+	 * @return the value, or default value if not found
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#peekLong(long,
+	 *      long)
+	 */
+	@Override
+	public long peekLong(long key, long defaultValue) {
+		int i = slotOf(key);
+
+		return (i == -1) ? defaultValue : values[i];
+	}
+
+	/**
+	 * Put long.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 * @return the value
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#putLong(long,
+	 *      long)
+	 */
+	@Override
+	public long putLong(long key, long value) {
+		int i = table.home(mix(key));
+		for (; table.occupied(i); i = table.next(i)) {
+			if (keys[i] == key) {
+				values[i] = value;
+
+				return value;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		table.occupy(i);
+
+		return value;
+	}
+
+	/**
+	 * Removes the.
+	 *
+	 * @param key the key
+	 * @return true, if found and removed
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#remove(long)
+	 */
+	@Override
+	public boolean remove(long key) {
+		int i = slotOf(key);
+		if (i == -1)
+			return false;
+
+		table.vacate(i);
+
+		return true;
+	}
+
+	/**
+	 * Clear.
+	 *
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#clear()
+	 */
+	@Override
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the number of entries
+	 * @see com.slytechs.protocol.runtime.internal.util.HashTable.OfLongKey#size()
+	 */
+	@Override
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [size=" + table.size() + ", capacity=" + keys.length + "]";
+	}
+}
@@ -0,0 +1,361 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import java.util.Arrays;
+
+/**
+ * Shared support for the flat array, open-addressing hash tables and sets.
+ * 
+ * <p>
+ * The tables use linear probing over power of 2 sized arrays. Instead of
+ * marking empty slots in the key array, each table keeps a parallel array of
+ * tokens: a slot is occupied only when its token equals the table's current
+ * token. Clearing a table is then a single token increment, regardless of its
+ * capacity. Removals shift displaced entries back toward their home slot, so
+ * no tombstones are ever left behind and probe sequences do not degrade over
+ * time.
+ * </p>
+ * 
+ * <p>
+ * An instance manages the slot tokens of one table: probing, occupying and
+ * vacating slots, growing and clearing. The table itself only stores keys and
+ * values in arrays indexed by slot, which it exposes through a
+ * {@link Storage}, so that lookups stay specialized for the primitive key type
+ * while all shared bookkeeping lives here.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class OpenAddressing {
+
+	/** Default number of entries a new table can hold without growing. */
+	public static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	/** Maximum table size, in slots. */
+	public static final int MAX_TABLE_SIZE = 1 << 30;
+
+	/** The token of a slot which is never occupied. */
+	public static final int NO_TOKEN = 0;
+
+	/**
+	 * The keys and values of a table, stored in arrays indexed by slot.
+	 */
+	public interface Storage {
+
+		/**
+		 * Gets the mixed hash of the key stored in a slot.
+		 *
+		 * @param slot the slot
+		 * @return the hash
+		 */
+		int hashOf(int slot);
+
+		/**
+		 * Moves the key and value stored in one slot to another slot.
+		 *
+		 * @param from the source slot
+		 * @param to   the destination slot
+		 */
+		void move(int from, int to);
+
+		/**
+		 * Swaps the keys and values stored in two slots.
+		 *
+		 * @param slot1 the first slot
+		 * @param slot2 the second slot
+		 */
+		void swap(int slot1, int slot2);
+
+		/**
+		 * Resizes the key and value arrays to a larger table size, keeping every
+		 * entry at its current slot.
+		 *
+		 * @param tableSize the new table size in slots
+		 */
+		void resize(int tableSize);
+	}
+
+	/**
+	 * Mixes an int key into a well distributed hash, so that sequential keys do
+	 * not form long probe sequences.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	public static int mix(int key) {
+		int h = key * 0x9E3779B9;
+
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Mixes a long key into a well distributed hash.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	public static int mix(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Computes the table size, in slots, for an expected number of entries at a
+	 * maximum load factor of 3/4.
+	 *
+	 * @param expectedSize the expected number of entries
+	 * @return the table size, a power of 2
+	 * @throws IllegalArgumentException if expected size is negative or too large
+	 */
+	public static int tableSize(int expectedSize) throws IllegalArgumentException {
+		if (expectedSize < 0 || expectedSize > maxSize(MAX_TABLE_SIZE))
+			throw new IllegalArgumentException("invalid hash table size [%d]"
+					.formatted(expectedSize));
+
+		int slots = Math.max(2, Integer.highestOneBit(Math.max(1, expectedSize)) << 1);
+		while (maxSize(slots) < expectedSize)
+			slots <<= 1;
+
+		return slots;
+	}
+
+	/**
+	 * Maximum number of entries before a table grows.
+	 *
+	 * @param tableSize the table size in slots
+	 * @return the maximum number of entries
+	 */
+	public static int maxSize(int tableSize) {
+		return tableSize - (tableSize >>> 2);
+	}
+
+	/**
+	 * Advances the table token, invalidating all occupied slots. When the token
+	 * wraps around, the token array is zeroed so that stale slots can never
+	 * match a reused token.
+	 *
+	 * @param tokens the token array
+	 * @param token  the current token
+	 * @return the new token
+	 */
+	public static int nextToken(int[] tokens, int token) {
+		if (++token == NO_TOKEN) {
+			Arrays.fill(tokens, NO_TOKEN);
+			token = NO_TOKEN + 1;
+		}
+
+		return token;
+	}
+
+	/**
+	 * Checks if an entry in slot {@code j} may be shifted back into the freed
+	 * slot {@code i}, without moving it in front of its home slot.
+	 *
+	 * @param home the home slot of the entry
+	 * @param i    the freed slot
+	 * @param j    the slot of the entry
+	 * @param mask the table mask
+	 * @return true, if the entry can be moved to slot i
+	 */
+	public static boolean canShift(int home, int i, int j, int mask) {
+		return ((j - home) & mask) >= ((j - i) & mask);
+	}
+
+	/** The table's key and value storage. */
+	private final Storage storage;
+
+	/** Slot tokens, a slot is occupied if its token matches the table token. */
+	private int[] tokens;
+
+	/** The current table token. */
+	private int token = NO_TOKEN + 1;
+
+	/** The slot mask. */
+	private int mask;
+
+	/** The number of entries. */
+	private int size;
+
+	/** Number of entries at which the table grows. */
+	private int maxSize;
+
+	/**
+	 * Instantiates the slot tokens of a table, sized to hold the expected number
+	 * of entries without growing. The table allocates its key and value arrays
+	 * with {@link #capacity()} slots.
+	 *
+	 * @param expectedSize the expected number of entries
+	 * @param storage      the table's key and value storage
+	 * @throws IllegalArgumentException if expected size is negative or too large
+	 */
+	public OpenAddressing(int expectedSize, Storage storage) throws IllegalArgumentException {
+		final int tableSize = tableSize(expectedSize);
+
+		this.storage = storage;
+		this.tokens = new int[tableSize];
+		this.mask = tableSize - 1;
+		this.maxSize = maxSize(tableSize);
+	}
+
+	/**
+	 * Gets the home slot of a hash, where probing for its key starts.
+	 *
+	 * @param hash the mixed hash
+	 * @return the home slot
+	 */
+	public int home(int hash) {
+		return hash & mask;
+	}
+
+	/**
+	 * Gets the next slot in probe order.
+	 *
+	 * @param slot the slot
+	 * @return the next slot, wrapping around at the end of the table
+	 */
+	public int next(int slot) {
+		return (slot + 1) & mask;
+	}
+
+	/**
+	 * Checks if a slot is occupied.
+	 *
+	 * @param slot the slot
+	 * @return true, if occupied
+	 */
+	public boolean occupied(int slot) {
+		return tokens[slot] == token;
+	}
+
+	/**
+	 * Marks a free slot occupied, after the table stored its key and value. The
+	 * table grows if it is now more than 3/4 full, which may move any entry.
+	 *
+	 * @param slot the free slot found by probing
+	 */
+	public void occupy(int slot) {
+		tokens[slot] = token;
+
+		if (++size > maxSize)
+			grow();
+	}
+
+	/**
+	 * Vacates an occupied slot, shifting displaced entries that follow it back
+	 * toward their home slots, so that no tombstone is left behind.
+	 *
+	 * @param slot the occupied slot
+	 */
+	public void vacate(int slot) {
+		int i = slot;
+
+		for (int j = next(i); tokens[j] == token; j = next(j)) {
+			if (canShift(home(storage.hashOf(j)), i, j, mask)) {
+				storage.move(j, i);
+				i = j;
+			}
+		}
+
+		tokens[i] = NO_TOKEN;
+		size--;
+	}
+
+	/**
+	 * Doubles the table size and rehashes all entries in place. Entries not yet
+	 * rehashed still carry the old token, while rehashed entries carry the new
+	 * one. Each entry is placed in the first slot from its new home without the
+	 * new token, swapping with a not yet rehashed entry found there.
+	 */
+	private void grow() {
+		if (token + 1 == NO_TOKEN)
+			renumber();
+
+		final int oldTableSize = tokens.length;
+		final int tableSize = oldTableSize << 1;
+		final int oldToken = token;
+		final int newToken = token + 1;
+
+		storage.resize(tableSize);
+		this.tokens = Arrays.copyOf(tokens, tableSize);
+		this.mask = tableSize - 1;
+		this.maxSize = maxSize(tableSize);
+		this.token = newToken;
+
+		for (int j = 0; j < oldTableSize; j++) {
+			while (tokens[j] == oldToken) {
+				int i = home(storage.hashOf(j));
+				while (tokens[i] == newToken)
+					i = next(i);
+
+				if (i == j) {
+					tokens[j] = newToken;
+
+				} else if (tokens[i] == oldToken) {
+					storage.swap(i, j);
+					tokens[i] = newToken;
+
+				} else {
+					storage.move(j, i);
+					tokens[i] = newToken;
+					tokens[j] = NO_TOKEN;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renumbers the tokens before the table token wraps around, so that occupied
+	 * slots carry the first token and all other slots are free.
+	 */
+	private void renumber() {
+		for (int i = 0; i < tokens.length; i++)
+			tokens[i] = (tokens[i] == token) ? NO_TOKEN + 1 : NO_TOKEN;
+
+		this.token = NO_TOKEN + 1;
+	}
+
+	/**
+	 * Removes all entries, in constant time.
+	 */
+	public void clear() {
+		this.token = nextToken(tokens, token);
+		this.size = 0;
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the table size in slots, the length of the table's key and value
+	 * arrays.
+	 *
+	 * @return the table size in slots
+	 */
+	public int capacity() {
+		return tokens.length;
+	}
+}
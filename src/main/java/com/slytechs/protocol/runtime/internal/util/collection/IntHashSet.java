@@ -0,0 +1,425 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util.collection;
+
+import static com.slytechs.protocol.runtime.internal.util.OpenAddressing.*;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import com.slytechs.protocol.runtime.internal.util.OpenAddressing;
+
+/**
+ * A set of primitive int values, stored in a flat open-addressing hash table.
+ * 
+ * <p>
+ * Removal is tombstone free and {@link #clear()} is O(1), see
+ * {@link OpenAddressing}. Iterators do not support removal, use
+ * {@link #removeInt(int)} or {@link #removeIntIf(IntPredicate)} instead.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public class IntHashSet extends AbstractCollection<Integer> implements IntSet {
+
+	/** The elements. */
+	private int[] elements;
+
+	/** The slot bookkeeping, tokens, probing and growth. */
+	private final OpenAddressing table;
+
+	/**
+	 * Instantiates a new int hash set.
+	 */
+	public IntHashSet() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Instantiates a new int hash set, sized to hold the expected number of
+	 * elements without growing.
+	 *
+	 * @param expectedSize the expected size
+	 */
+	public IntHashSet(int expectedSize) {
+		this.table = new OpenAddressing(expectedSize, new OpenAddressing.Storage() {
+
+			@Override
+			public int hashOf(int slot) {
+				return mix(elements[slot]);
+			}
+
+			@Override
+			public void move(int from, int to) {
+				elements[to] = elements[from];
+			}
+
+			@Override
+			public void swap(int slot1, int slot2) {
+				int element = elements[slot1];
+				elements[slot1] = elements[slot2];
+				elements[slot2] = element;
+			}
+
+			@Override
+			public void resize(int tableSize) {
+				elements = Arrays.copyOf(elements, tableSize);
+			}
+		});
+
+		this.elements = new int[table.capacity()];
+	}
+
+	private int slotOf(int e) {
+		for (int i = table.home(mix(e)); table.occupied(i); i = table.next(i))
+			if (elements[i] == e)
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Adds the int.
+	 *
+	 * @param e the e
+	 * @return true, if not already in the set
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#addInt(int)
+	 */
+	@Override
+	public boolean addInt(int e) {
+		int i = table.home(mix(e));
+		for (; table.occupied(i); i = table.next(i))
+			if (elements[i] == e)
+				return false;
+
+		elements[i] = e;
+		table.occupy(i);
+
+		return true;
+	}
+
+	/**
+	 * Adds the.
+	 *
+	 * @param e the e
+	 * @return true, if not already in the set
+	 * @see java.util.AbstractCollection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(Integer e) {
+		return addInt(e);
+	}
+
+	/**
+	 * Adds the all ints.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#addAllInts(com.slytechs.protocol.runtime.internal.util.collection.IntCollection)
+	 */
+	@Override
+	public boolean addAllInts(IntCollection c) {
+		boolean changed = false;
+		for (PrimitiveIterator.OfInt it = c.iterator(); it.hasNext();)
+			changed |= addInt(it.nextInt());
+
+		return changed;
+	}
+
+	/**
+	 * Contains int.
+	 *
+	 * @param e the e
+	 * @return true, if successful
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#containsInt(int)
+	 */
+	@Override
+	public boolean containsInt(int e) {
+		return slotOf(e) != -1;
+	}
+
+	/**
+	 * Contains.
+	 *
+	 * @param o the o
+	 * @return true, if successful
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer e) && containsInt(e);
+	}
+
+	/**
+	 * Contains all ints.
+	 *
+	 * @param c the c
+	 * @return true, if successful
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#containsAllInts(com.slytechs.protocol.runtime.internal.util.collection.IntCollection)
+	 */
+	@Override
+	public boolean containsAllInts(IntCollection c) {
+		for (PrimitiveIterator.OfInt it = c.iterator(); it.hasNext();)
+			if (!containsInt(it.nextInt()))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Removes the int.
+	 *
+	 * @param e the e
+	 * @return true, if found and removed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#removeInt(int)
+	 */
+	@Override
+	public boolean removeInt(int e) {
+		int i = slotOf(e);
+		if (i == -1)
+			return false;
+
+		table.vacate(i);
+
+		return true;
+	}
+
+	/**
+	 * Removes the.
+	 *
+	 * @param o the o
+	 * @return true, if found and removed
+	 * @see java.util.AbstractCollection#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		return (o instanceof Integer e) && removeInt(e);
+	}
+
+	/**
+	 * Removes the all ints.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#removeAllInts(com.slytechs.protocol.runtime.internal.util.collection.IntCollection)
+	 */
+	@Override
+	public boolean removeAllInts(IntCollection c) {
+		boolean changed = false;
+		for (PrimitiveIterator.OfInt it = c.iterator(); it.hasNext();)
+			changed |= removeInt(it.nextInt());
+
+		return changed;
+	}
+
+	/**
+	 * Removes the all.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return removeIntIf(e -> c.contains(e));
+	}
+
+	/**
+	 * Removes the int if.
+	 *
+	 * @param filter the filter
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#removeIntIf(java.util.function.IntPredicate)
+	 */
+	@Override
+	public boolean removeIntIf(IntPredicate filter) {
+		/* Backward shifts move elements, so select first and remove after */
+		int[] matched = intStream().filter(filter).toArray();
+		for (int e : matched)
+			removeInt(e);
+
+		return matched.length > 0;
+	}
+
+	/**
+	 * Removes the if.
+	 *
+	 * @param filter the filter
+	 * @return true, if set changed
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super Integer> filter) {
+		return removeIntIf(filter::test);
+	}
+
+	/**
+	 * Retain all ints.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#retainAllInts(com.slytechs.protocol.runtime.internal.util.collection.IntCollection)
+	 */
+	@Override
+	public boolean retainAllInts(IntCollection c) {
+		return removeIntIf(e -> !c.containsInt(e));
+	}
+
+	/**
+	 * Retain all.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return removeIntIf(e -> !c.contains(e));
+	}
+
+	/**
+	 * Clear.
+	 *
+	 * @see java.util.AbstractCollection#clear()
+	 */
+	@Override
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the int
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * To int array.
+	 *
+	 * @return the int[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#toIntArray()
+	 */
+	@Override
+	public int[] toIntArray() {
+		return toIntArray(new int[table.size()]);
+	}
+
+	/**
+	 * To int array.
+	 *
+	 * @param array the array
+	 * @return the int[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#toIntArray(int[])
+	 */
+	@Override
+	public int[] toIntArray(int[] array) {
+		if (array.length < table.size())
+			array = new int[table.size()];
+
+		int k = 0;
+		for (int i = 0; i < elements.length; i++)
+			if (table.occupied(i))
+				array[k++] = elements[i];
+
+		return array;
+	}
+
+	/**
+	 * To int array.
+	 *
+	 * @param generator the generator
+	 * @return the int[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#toIntArray(java.util.function.IntFunction)
+	 */
+	@Override
+	public int[] toIntArray(IntFunction<int[]> generator) {
+		return toIntArray(generator.apply(table.size()));
+	}
+
+	/**
+	 * Iterator.
+	 *
+	 * @return the primitive iterator. of int
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#iterator()
+	 */
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			int next = advance(0);
+
+			private int advance(int i) {
+				while (i < elements.length && !table.occupied(i))
+					i++;
+
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < elements.length;
+			}
+
+			@Override
+			public int nextInt() {
+				if (next >= elements.length)
+					throw new NoSuchElementException();
+
+				int e = elements[next];
+				next = advance(next + 1);
+
+				return e;
+			}
+		};
+	}
+
+	/**
+	 * Int stream.
+	 *
+	 * @return the int stream
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#intStream()
+	 */
+	@Override
+	public IntStream intStream() {
+		return IntStream.of(toIntArray());
+	}
+
+	/**
+	 * Spliterator.
+	 *
+	 * @return the spliterator. of int
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.IntCollection#spliterator()
+	 */
+	@Override
+	public Spliterator.OfInt spliterator() {
+		return Arrays.spliterator(toIntArray());
+	}
+}
@@ -19,6 +19,8 @@ package com.slytechs.protocol.runtime.internal.util.collection;
 
 /**
  * The Interface IntSet.
+ *
+ * @see IntHashSet
  */
 // @formatter:off
 public interface IntSet extends IntCollection {
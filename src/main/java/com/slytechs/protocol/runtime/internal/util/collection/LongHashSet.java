@@ -0,0 +1,425 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util.collection;
+
+import static com.slytechs.protocol.runtime.internal.util.OpenAddressing.*;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import com.slytechs.protocol.runtime.internal.util.OpenAddressing;
+
+/**
+ * A set of primitive long values, stored in a flat open-addressing hash table.
+ * 
+ * <p>
+ * Removal is tombstone free and {@link #clear()} is O(1), see
+ * {@link OpenAddressing}. Iterators do not support removal, use
+ * {@link #removeLong(long)} or {@link #removeLongIf(LongPredicate)} instead.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public class LongHashSet extends AbstractCollection<Long> implements LongSet {
+
+	/** The elements. */
+	private long[] elements;
+
+	/** The slot bookkeeping, tokens, probing and growth. */
+	private final OpenAddressing table;
+
+	/**
+	 * Instantiates a new long hash set.
+	 */
+	public LongHashSet() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Instantiates a new long hash set, sized to hold the expected number of
+	 * elements without growing.
+	 *
+	 * @param expectedSize the expected size
+	 */
+	public LongHashSet(int expectedSize) {
+		this.table = new OpenAddressing(expectedSize, new OpenAddressing.Storage() {
+
+			@Override
+			public int hashOf(int slot) {
+				return mix(elements[slot]);
+			}
+
+			@Override
+			public void move(int from, int to) {
+				elements[to] = elements[from];
+			}
+
+			@Override
+			public void swap(int slot1, int slot2) {
+				long element = elements[slot1];
+				elements[slot1] = elements[slot2];
+				elements[slot2] = element;
+			}
+
+			@Override
+			public void resize(int tableSize) {
+				elements = Arrays.copyOf(elements, tableSize);
+			}
+		});
+
+		this.elements = new long[table.capacity()];
+	}
+
+	private int slotOf(long e) {
+		for (int i = table.home(mix(e)); table.occupied(i); i = table.next(i))
+			if (elements[i] == e)
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * Adds the long.
+	 *
+	 * @param e the e
+	 * @return true, if not already in the set
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#addLong(long)
+	 */
+	@Override
+	public boolean addLong(long e) {
+		int i = table.home(mix(e));
+		for (; table.occupied(i); i = table.next(i))
+			if (elements[i] == e)
+				return false;
+
+		elements[i] = e;
+		table.occupy(i);
+
+		return true;
+	}
+
+	/**
+	 * Adds the.
+	 *
+	 * @param e the e
+	 * @return true, if not already in the set
+	 * @see java.util.AbstractCollection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(Long e) {
+		return addLong(e);
+	}
+
+	/**
+	 * Adds the all longs.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#addAllLongs(com.slytechs.protocol.runtime.internal.util.collection.LongCollection)
+	 */
+	@Override
+	public boolean addAllLongs(LongCollection c) {
+		boolean changed = false;
+		for (PrimitiveIterator.OfLong it = c.iterator(); it.hasNext();)
+			changed |= addLong(it.nextLong());
+
+		return changed;
+	}
+
+	/**
+	 * Contains long.
+	 *
+	 * @param e the e
+	 * @return true, if successful
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#containsLong(long)
+	 */
+	@Override
+	public boolean containsLong(long e) {
+		return slotOf(e) != -1;
+	}
+
+	/**
+	 * Contains.
+	 *
+	 * @param o the o
+	 * @return true, if successful
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Long e) && containsLong(e);
+	}
+
+	/**
+	 * Contains all longs.
+	 *
+	 * @param c the c
+	 * @return true, if successful
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#containsAllLongs(com.slytechs.protocol.runtime.internal.util.collection.LongCollection)
+	 */
+	@Override
+	public boolean containsAllLongs(LongCollection c) {
+		for (PrimitiveIterator.OfLong it = c.iterator(); it.hasNext();)
+			if (!containsLong(it.nextLong()))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Removes the long.
+	 *
+	 * @param e the e
+	 * @return true, if found and removed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongSet#removeLong(long)
+	 */
+	@Override
+	public boolean removeLong(long e) {
+		int i = slotOf(e);
+		if (i == -1)
+			return false;
+
+		table.vacate(i);
+
+		return true;
+	}
+
+	/**
+	 * Removes the.
+	 *
+	 * @param o the o
+	 * @return true, if found and removed
+	 * @see java.util.AbstractCollection#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		return (o instanceof Long e) && removeLong(e);
+	}
+
+	/**
+	 * Removes the all longs.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#removeAllLongs(com.slytechs.protocol.runtime.internal.util.collection.LongCollection)
+	 */
+	@Override
+	public boolean removeAllLongs(LongCollection c) {
+		boolean changed = false;
+		for (PrimitiveIterator.OfLong it = c.iterator(); it.hasNext();)
+			changed |= removeLong(it.nextLong());
+
+		return changed;
+	}
+
+	/**
+	 * Removes the all.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return removeLongIf(e -> c.contains(e));
+	}
+
+	/**
+	 * Removes the long if.
+	 *
+	 * @param filter the filter
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#removeLongIf(java.util.function.LongPredicate)
+	 */
+	@Override
+	public boolean removeLongIf(LongPredicate filter) {
+		/* Backward shifts move elements, so select first and remove after */
+		long[] matched = longStream().filter(filter).toArray();
+		for (long e : matched)
+			removeLong(e);
+
+		return matched.length > 0;
+	}
+
+	/**
+	 * Removes the if.
+	 *
+	 * @param filter the filter
+	 * @return true, if set changed
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super Long> filter) {
+		return removeLongIf(filter::test);
+	}
+
+	/**
+	 * Retain all longs.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#retainAllLongs(com.slytechs.protocol.runtime.internal.util.collection.LongCollection)
+	 */
+	@Override
+	public boolean retainAllLongs(LongCollection c) {
+		return removeLongIf(e -> !c.containsLong(e));
+	}
+
+	/**
+	 * Retain all.
+	 *
+	 * @param c the c
+	 * @return true, if set changed
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return removeLongIf(e -> !c.contains(e));
+	}
+
+	/**
+	 * Clear.
+	 *
+	 * @see java.util.AbstractCollection#clear()
+	 */
+	@Override
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the int
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * To long array.
+	 *
+	 * @return the long[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#toLongArray()
+	 */
+	@Override
+	public long[] toLongArray() {
+		return toLongArray(new long[table.size()]);
+	}
+
+	/**
+	 * To long array.
+	 *
+	 * @param array the array
+	 * @return the long[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#toLongArray(long[])
+	 */
+	@Override
+	public long[] toLongArray(long[] array) {
+		if (array.length < table.size())
+			array = new long[table.size()];
+
+		int k = 0;
+		for (int i = 0; i < elements.length; i++)
+			if (table.occupied(i))
+				array[k++] = elements[i];
+
+		return array;
+	}
+
+	/**
+	 * To long array.
+	 *
+	 * @param generator the generator
+	 * @return the long[]
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#toLongArray(java.util.function.IntFunction)
+	 */
+	@Override
+	public long[] toLongArray(IntFunction<long[]> generator) {
+		return toLongArray(generator.apply(table.size()));
+	}
+
+	/**
+	 * Iterator.
+	 *
+	 * @return the primitive iterator. of long
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#iterator()
+	 */
+	@Override
+	public PrimitiveIterator.OfLong iterator() {
+		return new PrimitiveIterator.OfLong() {
+			int next = advance(0);
+
+			private int advance(int i) {
+				while (i < elements.length && !table.occupied(i))
+					i++;
+
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < elements.length;
+			}
+
+			@Override
+			public long nextLong() {
+				if (next >= elements.length)
+					throw new NoSuchElementException();
+
+				long e = elements[next];
+				next = advance(next + 1);
+
+				return e;
+			}
+		};
+	}
+
+	/**
+	 * Long stream.
+	 *
+	 * @return the long stream
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#longStream()
+	 */
+	@Override
+	public LongStream longStream() {
+		return LongStream.of(toLongArray());
+	}
+
+	/**
+	 * Spliterator.
+	 *
+	 * @return the spliterator. of long
+	 * @see com.slytechs.protocol.runtime.internal.util.collection.LongCollection#spliterator()
+	 */
+	@Override
+	public Spliterator.OfLong spliterator() {
+		return Arrays.spliterator(toLongArray());
+	}
+}
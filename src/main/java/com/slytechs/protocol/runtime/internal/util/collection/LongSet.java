@@ -19,8 +19,18 @@ package com.slytechs.protocol.runtime.internal.util.collection;
 
 /**
  * The Interface LongSet.
+ *
+ * @see LongHashSet
  */
 // @formatter:off
 public interface LongSet extends LongCollection {
+
+	/**
+	 * Removes the long.
+	 *
+	 * @param e the e
+	 * @return true, if successful
+	 */
+	boolean removeLong(long e);
 }
 // @formatter:on
\ No newline at end of file
@@ -487,16 +487,11 @@ public class HexStrings {
 			int width,
 			IntFunction<String> prefix) {
 
-		for (int i = offset; i < length; i += width) {
-			int len = width;
-
-			if ((i + len) > array.length) {
-				len = array.length - i;
-				width = len;
-			}
+		for (int i = 0; i < length; i += width) {
+			int len = Math.min(width, length - i);
 
 			sb.append(prefix.apply(i));
-			toHexTextDumpLine(sb, array, i, len, Spacer.HEXDUMP_COLUMN);
+			toHexTextDumpLine(sb, array, offset + i, len, Spacer.HEXDUMP_COLUMN);
 			sb.append("\n");
 		}
 
@@ -568,7 +563,7 @@ public class HexStrings {
 	public static StringBuilder toHexTextDump(StringBuilder sb, ByteBuffer buffer, IntFunction<String> prefix) {
 		int length = buffer.remaining();
 		byte[] array = buffer.hasArray() ? buffer.array() : new byte[length];
-		int offset = buffer.hasArray() ? buffer.position() : 0;
+		int offset = buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0;
 
 		if (!buffer.hasArray()) {
 			buffer.get(buffer.position(), array);
@@ -576,7 +571,7 @@ public class HexStrings {
 		}
 
 		return toHexTextDump(sb, array, offset, length,
-				DEFAULT_HEXDUMP_WIDTH, HexStrings.DEFAULT_HEXDUMP_PREFIX);
+				DEFAULT_HEXDUMP_WIDTH, prefix);
 	}
 
 	/**
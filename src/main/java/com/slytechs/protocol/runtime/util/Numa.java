@@ -17,9 +17,33 @@
  */
 package com.slytechs.protocol.runtime.util;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.slytechs.protocol.runtime.internal.foreign.NativeNuma;
+
 /**
  * The Interface for describing NUMA Nodes (Non-Uniform Memory Access) on large
  * systems that are NUMA configured.
+ * 
+ * <p>
+ * The topology is read once from {@code /sys/devices/system/node} on Linux.
+ * Systems without NUMA support, or non-Linux systems, are described by a single
+ * node 0 containing all of the available processors. Binding threads and
+ * memory to nodes uses native system calls, see {@link #isSupported()}.
+ * </p>
+ * 
+ * <p>
+ * A typical pipeline pins each worker thread to the node local to the network
+ * adapter and allocates its buffers there:
+ * </p>
+ * 
+ * <pre>
+ * Numa node = Numa.node(0);
+ * executor.start(node.threadFactory());
+ * ByteBuffer buffer = node.allocateDirect(64 * 1024 * 1024);
+ * </pre>
  *
  * @author Sly Technologies
  * @author repos@slytechs.com
@@ -27,35 +51,224 @@ package com.slytechs.protocol.runtime.util;
 public interface Numa {
 
 	/**
-	 * Node.
+	 * Checks if threads and memory can be bound to NUMA nodes on this platform.
+	 * CPU affinity requires Linux, memory binding additionally requires the
+	 * {@code libnuma} shared library.
+	 *
+	 * @return true, if CPU affinity is supported
+	 */
+	static boolean isSupported() {
+		return NativeNuma.isAffinitySupported();
+	}
+
+	/**
+	 * Gets the number of NUMA nodes on this system.
+	 *
+	 * @return the number of nodes, at least 1
+	 */
+	static int count() {
+		return NumaNode.topology().length;
+	}
+
+	/**
+	 * Gets all of the NUMA nodes on this system.
+	 *
+	 * @return the nodes, in node index order
+	 */
+	static Numa[] all() {
+		return NumaNode.topology().clone();
+	}
+
+	/**
+	 * Gets the NUMA node with the specified index.
+	 *
+	 * @param index the node index
+	 * @return the node
+	 * @throws IllegalArgumentException if no such node exists
+	 */
+	static Numa node(int index) throws IllegalArgumentException {
+		for (NumaNode node : NumaNode.topology())
+			if (node.index() == index)
+				return node;
+
+		throw new IllegalArgumentException("invalid NUMA node index [%d]".formatted(index));
+	}
+
+	/**
+	 * Gets a selection of NUMA nodes.
+	 *
+	 * @param first   the first node index
+	 * @param indexes additional node indexes
+	 * @return the nodes
+	 * @throws IllegalArgumentException if any of the nodes does not exist
+	 */
+	static Numa[] nodes(int first, int... indexes) throws IllegalArgumentException {
+		Numa[] nodes = new Numa[indexes.length + 1];
+
+		nodes[0] = node(first);
+		for (int i = 0; i < indexes.length; i++)
+			nodes[i + 1] = node(indexes[i]);
+
+		return nodes;
+	}
+
+	/**
+	 * Gets a range of consecutive NUMA nodes.
+	 *
+	 * @param start  the first node index
+	 * @param length number of nodes
+	 * @return the nodes
+	 * @throws IllegalArgumentException if any of the nodes does not exist
+	 */
+	static Numa[] range(int start, int length) throws IllegalArgumentException {
+		if (length < 0)
+			throw new IllegalArgumentException("invalid NUMA node range length [%d]".formatted(length));
+
+		Numa[] nodes = new Numa[length];
+		for (int i = 0; i < length; i++)
+			nodes[i] = node(start + i);
+
+		return nodes;
+	}
+
+	/**
+	 * Gets the NUMA node containing the specified CPU.
+	 *
+	 * @param cpu the CPU index
+	 * @return the node
+	 * @throws IllegalArgumentException if CPU is not part of any node
+	 */
+	static Numa ofCpu(int cpu) throws IllegalArgumentException {
+		for (NumaNode node : NumaNode.topology())
+			if (node.containsCpu(cpu))
+				return node;
+
+		throw new IllegalArgumentException("invalid CPU index [%d]".formatted(cpu));
+	}
+
+	/**
+	 * Gets the CPU the calling thread is currently running on.
 	 *
-	 * @param index the index
-	 * @return the numa
+	 * @return the CPU index
+	 * @throws UnsupportedOperationException if not supported on this platform
 	 */
-	static Numa node(int index) {
-		throw new UnsupportedOperationException();
+	static int currentCpu() throws UnsupportedOperationException {
+		if (!isSupported())
+			throw new UnsupportedOperationException("CPU affinity not supported");
+
+		return NativeNuma.currentCpu();
 	}
 
 	/**
-	 * Nodes.
+	 * Gets the NUMA node the calling thread is currently running on.
 	 *
-	 * @param first   the first
-	 * @param indexex the indexex
-	 * @return the numa[]
+	 * @return the node
+	 * @throws UnsupportedOperationException if not supported on this platform
 	 */
-	static Numa[] nodes(int first, int... indexex) {
-		throw new UnsupportedOperationException();
+	static Numa current() throws UnsupportedOperationException {
+		return ofCpu(currentCpu());
 	}
 
 	/**
-	 * Range.
+	 * Pins the calling thread to the specified CPUs.
 	 *
-	 * @param start  the start
-	 * @param length the length
-	 * @return the numa[]
+	 * @param cpus the CPU indexes
+	 * @throws IllegalArgumentException      if no CPUs are specified
+	 * @throws UnsupportedOperationException if not supported on this platform
 	 */
-	static Numa[] range(int start, int length) {
-		throw new UnsupportedOperationException();
+	static void setThreadAffinity(int... cpus) throws IllegalArgumentException, UnsupportedOperationException {
+		if (cpus.length == 0)
+			throw new IllegalArgumentException("empty CPU set");
+
+		if (!isSupported())
+			throw new UnsupportedOperationException("CPU affinity not supported");
+
+		NativeNuma.setAffinity(NumaNode.toMask(cpus));
 	}
 
+	/**
+	 * Gets the node index.
+	 *
+	 * @return the node index
+	 */
+	int index();
+
+	/**
+	 * Gets the CPUs belonging to this node.
+	 *
+	 * @return the CPU indexes, in ascending order
+	 */
+	int[] cpus();
+
+	/**
+	 * Gets the total memory of this node.
+	 *
+	 * @return the total memory in bytes, or 0 if not known
+	 */
+	long memoryTotal();
+
+	/**
+	 * Gets the free memory of this node, read at the time of the call.
+	 *
+	 * @return the free memory in bytes, or 0 if not known
+	 */
+	long memoryFree();
+
+	/**
+	 * Gets the relative access distance from this node to another node, as
+	 * reported by the system firmware. Local access is 10.
+	 *
+	 * @param other the other node
+	 * @return the distance
+	 */
+	int distance(Numa other);
+
+	/**
+	 * Pins the calling thread to the CPUs of this node and sets its memory policy
+	 * to prefer this node for all subsequent allocations. The memory policy is
+	 * only set if {@code libnuma} is available.
+	 *
+	 * @throws UnsupportedOperationException if not supported on this platform
+	 */
+	void bindCurrentThread() throws UnsupportedOperationException;
+
+	/**
+	 * Allocates a direct buffer whose pages are bound to this node. The buffer
+	 * starts on a page boundary. If memory binding is not supported, a plain
+	 * page-aligned direct buffer is returned.
+	 * 
+	 * <p>
+	 * Pages are physically allocated on first touch, the binding ensures they
+	 * are taken from this node regardless of which thread touches them first.
+	 * </p>
+	 *
+	 * @param capacity the capacity in bytes
+	 * @return the direct buffer
+	 */
+	ByteBuffer allocateDirect(int capacity);
+
+	/**
+	 * Creates a thread factory whose threads bind themselves to this node before
+	 * running their task.
+	 *
+	 * @param factory the factory creating the underlying threads
+	 * @return the thread factory
+	 */
+	default ThreadFactory threadFactory(ThreadFactory factory) {
+		return task -> factory.newThread(() -> {
+			bindCurrentThread();
+			task.run();
+		});
+	}
+
+	/**
+	 * Creates a thread factory whose threads bind themselves to this node before
+	 * running their task, using the default thread factory for the underlying
+	 * threads.
+	 *
+	 * @return the thread factory
+	 */
+	default ThreadFactory threadFactory() {
+		return threadFactory(Executors.defaultThreadFactory());
+	}
 }
@@ -0,0 +1,340 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.slytechs.protocol.runtime.internal.foreign.NativeNuma;
+
+/**
+ * A NUMA node whose topology is read from the Linux sysfs node directory.
+ *
+ * @author Sly Technologies
+ * @author repos@slytechs.com
+ */
+final class NumaNode implements Numa {
+
+	/** Lazily read, system wide topology. */
+	private static final class Topology {
+		private static final NumaNode[] NODES = readTopology(Path.of(SYSFS_NODE_DIR));
+	}
+
+	/** The sysfs directory containing the node topology. */
+	private static final String SYSFS_NODE_DIR = "/sys/devices/system/node";
+
+	/** Distance reported for local access. */
+	private static final int LOCAL_DISTANCE = 10;
+
+	/** Page size used for aligning node bound buffers. */
+	private static final int PAGE_SIZE = 4096;
+
+	/**
+	 * Gets the system wide topology.
+	 *
+	 * @return the nodes, in node index order
+	 */
+	static NumaNode[] topology() {
+		return Topology.NODES;
+	}
+
+	/**
+	 * Reads the node topology from a sysfs node directory. If the directory does
+	 * not exist, a single node containing all available processors is returned.
+	 *
+	 * @param dir the sysfs node directory
+	 * @return the nodes, in node index order
+	 */
+	static NumaNode[] readTopology(Path dir) {
+		Path online = dir.resolve("online");
+		if (!Files.isReadable(online))
+			return new NumaNode[] {
+					new NumaNode(null, 0, 0,
+							IntStream.range(0, Runtime.getRuntime().availableProcessors()).toArray(),
+							new int[] { LOCAL_DISTANCE })
+			};
+
+		int[] indexes = parseList(read(online));
+		NumaNode[] nodes = new NumaNode[indexes.length];
+
+		for (int i = 0; i < indexes.length; i++) {
+			Path nodeDir = dir.resolve("node" + indexes[i]);
+
+			int[] cpus = parseList(read(nodeDir.resolve("cpulist")));
+			int[] distances = Arrays.stream(read(nodeDir.resolve("distance")).trim().split("\\s+"))
+					.mapToInt(Integer::parseInt)
+					.toArray();
+
+			nodes[i] = new NumaNode(nodeDir, indexes[i], i, cpus, distances);
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Parses a sysfs list, such as {@code "0-3,8-11"}.
+	 *
+	 * @param list the list
+	 * @return the list values, in ascending order
+	 * @throws IllegalArgumentException if the list is malformed
+	 */
+	static int[] parseList(String list) throws IllegalArgumentException {
+		list = list.trim();
+		if (list.isEmpty())
+			return new int[0];
+
+		try {
+			return Arrays.stream(list.split(","))
+					.flatMapToInt(range -> {
+						int dash = range.indexOf('-');
+						if (dash == -1)
+							return IntStream.of(Integer.parseInt(range));
+
+						return IntStream.rangeClosed(
+								Integer.parseInt(range.substring(0, dash)),
+								Integer.parseInt(range.substring(dash + 1)));
+					})
+					.sorted()
+					.toArray();
+
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("invalid sysfs list [%s]".formatted(list), e);
+		}
+	}
+
+	/**
+	 * Converts bit indexes to a mask of 64-bit words.
+	 *
+	 * @param bits the bit indexes
+	 * @return the mask
+	 * @throws IllegalArgumentException if any bit index is negative
+	 */
+	static long[] toMask(int... bits) throws IllegalArgumentException {
+		int max = Arrays.stream(bits).max().orElse(0);
+		long[] mask = new long[(max >> 6) + 1];
+
+		for (int bit : bits) {
+			if (bit < 0)
+				throw new IllegalArgumentException("invalid mask bit index [%d]".formatted(bit));
+
+			mask[bit >> 6] |= 1L << bit;
+		}
+
+		return mask;
+	}
+
+	private static String read(Path file) {
+		try {
+			return Files.readString(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** The node sysfs directory, or null for the non-NUMA pseudo node. */
+	private final Path dir;
+
+	/** The node index. */
+	private final int index;
+
+	/** Position of this node in the online node list. */
+	private final int position;
+
+	/** The CPUs. */
+	private final int[] cpus;
+
+	/** Distances to each node, in online node list order. */
+	private final int[] distances;
+
+	/** The CPU mask, used for binding threads. */
+	private final long[] cpuMask;
+
+	/** The node mask, used for binding memory. */
+	private final long[] nodeMask;
+
+	/**
+	 * Instantiates a new NUMA node.
+	 *
+	 * @param dir       the node sysfs directory, or null
+	 * @param index     the node index
+	 * @param position  the position in the online node list
+	 * @param cpus      the CPUs
+	 * @param distances the distances, in online node list order
+	 */
+	NumaNode(Path dir, int index, int position, int[] cpus, int[] distances) {
+		this.dir = dir;
+		this.index = index;
+		this.position = position;
+		this.cpus = cpus;
+		this.distances = distances;
+		this.cpuMask = toMask(cpus);
+		this.nodeMask = toMask(index);
+	}
+
+	/**
+	 * Checks if a CPU belongs to this node.
+	 *
+	 * @param cpu the CPU index
+	 * @return true, if CPU belongs to this node
+	 */
+	boolean containsCpu(int cpu) {
+		return Arrays.binarySearch(cpus, cpu) >= 0;
+	}
+
+	/**
+	 * Gets the node index.
+	 *
+	 * @return the node index
+	 * @see com.slytechs.protocol.runtime.util.Numa#index()
+	 */
+	@Override
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * Gets the CPUs belonging to this node.
+	 *
+	 * @return the CPU indexes
+	 * @see com.slytechs.protocol.runtime.util.Numa#cpus()
+	 */
+	@Override
+	public int[] cpus() {
+		return cpus.clone();
+	}
+
+	/**
+	 * Gets the total memory of this node.
+	 *
+	 * @return the total memory in bytes
+	 * @see com.slytechs.protocol.runtime.util.Numa#memoryTotal()
+	 */
+	@Override
+	public long memoryTotal() {
+		return readMemInfo("MemTotal:");
+	}
+
+	/**
+	 * Gets the free memory of this node.
+	 *
+	 * @return the free memory in bytes
+	 * @see com.slytechs.protocol.runtime.util.Numa#memoryFree()
+	 */
+	@Override
+	public long memoryFree() {
+		return readMemInfo("MemFree:");
+	}
+
+	/**
+	 * Reads a value from the node meminfo file, which has lines such as
+	 * {@code "Node 0 MemTotal:       16318212 kB"}.
+	 *
+	 * @param key the key, including the colon
+	 * @return the value in bytes, or 0 if not found
+	 */
+	private long readMemInfo(String key) {
+		if (dir == null)
+			return 0;
+
+		Path meminfo = dir.resolve("meminfo");
+		if (!Files.isReadable(meminfo))
+			return 0;
+
+		for (String line : read(meminfo).split("\n")) {
+			String[] tokens = line.trim().split("\\s+");
+
+			if (tokens.length >= 4 && tokens[2].equals(key))
+				return Long.parseLong(tokens[3]) * 1024;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Gets the distance to another node.
+	 *
+	 * @param other the other node
+	 * @return the distance
+	 * @throws IllegalArgumentException if other node is not part of the topology
+	 * @see com.slytechs.protocol.runtime.util.Numa#distance(com.slytechs.protocol.runtime.util.Numa)
+	 */
+	@Override
+	public int distance(Numa other) {
+		if (!(other instanceof NumaNode node) || node.position >= distances.length)
+			throw new IllegalArgumentException("invalid NUMA node [%s]".formatted(other));
+
+		return distances[node.position];
+	}
+
+	/**
+	 * Binds the calling thread to this node.
+	 *
+	 * @throws UnsupportedOperationException if not supported on this platform
+	 * @see com.slytechs.protocol.runtime.util.Numa#bindCurrentThread()
+	 */
+	@Override
+	public void bindCurrentThread() throws UnsupportedOperationException {
+		if (!NativeNuma.isAffinitySupported())
+			throw new UnsupportedOperationException("CPU affinity not supported");
+
+		NativeNuma.setAffinity(cpuMask);
+
+		if (NativeNuma.isMemoryPolicySupported())
+			NativeNuma.setMemoryPolicy(nodeMask, NativeNuma.MPOL_PREFERRED);
+	}
+
+	/**
+	 * Allocates a direct buffer bound to this node.
+	 *
+	 * @param capacity the capacity in bytes
+	 * @return the direct buffer
+	 * @see com.slytechs.protocol.runtime.util.Numa#allocateDirect(int)
+	 */
+	@Override
+	public ByteBuffer allocateDirect(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("invalid buffer capacity [%d]".formatted(capacity));
+
+		int pages = (capacity + PAGE_SIZE - 1) / PAGE_SIZE;
+		ByteBuffer buffer = ByteBuffer.allocateDirect((pages + 1) * PAGE_SIZE)
+				.alignedSlice(PAGE_SIZE)
+				.limit(pages * PAGE_SIZE)
+				.slice();
+
+		if (pages > 0 && NativeNuma.isMemoryPolicySupported())
+			NativeNuma.bindMemory(buffer, nodeMask, NativeNuma.MPOL_BIND, NativeNuma.MPOL_MF_MOVE);
+
+		return buffer.limit(capacity).slice();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "Numa [index=" + index + ", cpus=" + Arrays.toString(cpus) + "]";
+	}
+}
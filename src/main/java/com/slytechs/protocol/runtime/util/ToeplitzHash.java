@@ -0,0 +1,261 @@
+/*
+ * Sly Technologies Free License
+ *
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.slytechs.com/free-license-text
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Table driven Toeplitz hash, as used by network adapters for Receive Side
+ * Scaling (RSS).
+ *
+ * <p>
+ * For every input bit which is set, the Toeplitz hash XORs in the 32 bits of
+ * the key starting at that bit position. Since the key is fixed, the
+ * contribution of each possible byte value at each input byte position is
+ * precomputed into a lookup table when the hash is created. Hashing then costs
+ * a single table lookup and XOR per input byte.
+ * </p>
+ *
+ * <p>
+ * Given the same key and the same input, in the same order as the network
+ * adapter (source address, destination address, source port, destination
+ * port, all in network byte order), the result is identical to the hardware
+ * RSS hash. Inputs longer than {@code key.length - 4} bytes are hashed with the
+ * key repeated cyclically, which has no hardware equivalent but keeps the
+ * symmetric key symmetric.
+ * </p>
+ *
+ * <p>
+ * With the {@link #KEY_SYMMETRIC} key, which repeats the 16-bit pattern
+ * {@code 0x6d5a}, swapping source and destination addresses and ports produces
+ * the same hash. Both directions of a flow then land on the same queue or
+ * worker without having to sort the tuple first.
+ * </p>
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+public final class ToeplitzHash {
+
+	/** The default 40 byte Microsoft RSS key, used by most network adapters. */
+	public static final byte[] KEY_MICROSOFT = {
+			(byte) 0x6d, (byte) 0x5a, (byte) 0x56, (byte) 0xda, (byte) 0x25, (byte) 0x5b, (byte) 0x0e, (byte) 0xc2,
+			(byte) 0x41, (byte) 0x67, (byte) 0x25, (byte) 0x3d, (byte) 0x43, (byte) 0xa3, (byte) 0x8f, (byte) 0xb0,
+			(byte) 0xd0, (byte) 0xca, (byte) 0x2b, (byte) 0xcb, (byte) 0xae, (byte) 0x7b, (byte) 0x30, (byte) 0xb4,
+			(byte) 0x77, (byte) 0xcb, (byte) 0x2d, (byte) 0xa3, (byte) 0x80, (byte) 0x30, (byte) 0xf2, (byte) 0x0c,
+			(byte) 0x6a, (byte) 0x42, (byte) 0xb7, (byte) 0x3b, (byte) 0xbe, (byte) 0xac, (byte) 0x01, (byte) 0xfa,
+	};
+
+	/** The 40 byte symmetric RSS key, the 16-bit pattern 0x6d5a repeated. */
+	public static final byte[] KEY_SYMMETRIC = repeatKey(0x6d5a, 40);
+
+	/** Number of possible byte values, per input byte position. */
+	private static final int BYTE_VALUES = 256;
+
+	/**
+	 * Creates a key of the specified length by repeating a 16-bit pattern.
+	 *
+	 * @param pattern16 the 16-bit pattern
+	 * @param length    the key length in bytes
+	 * @return the key
+	 */
+	public static byte[] repeatKey(int pattern16, int length) {
+		byte[] key = new byte[length];
+
+		for (int i = 0; i < length; i++)
+			key[i] = (byte) (((i & 1) == 0) ? (pattern16 >> 8) : pattern16);
+
+		return key;
+	}
+
+	/**
+	 * Creates a new Toeplitz hash using the default Microsoft RSS key.
+	 *
+	 * @return the toeplitz hash
+	 */
+	public static ToeplitzHash microsoft() {
+		return new ToeplitzHash(KEY_MICROSOFT);
+	}
+
+	/**
+	 * Creates a new Toeplitz hash using the symmetric 0x6d5a RSS key.
+	 *
+	 * @return the toeplitz hash
+	 */
+	public static ToeplitzHash symmetric() {
+		return new ToeplitzHash(KEY_SYMMETRIC);
+	}
+
+	/** The key. */
+	private final byte[] key;
+
+	/** Precomputed table, 256 entries per key byte position. */
+	private final int[] table;
+
+	/**
+	 * Instantiates a new Toeplitz hash for the specified key. The key must be at
+	 * least 4 bytes long. A hardware compatible key is 40 bytes long, or 52 bytes
+	 * on some adapters.
+	 *
+	 * @param key the hash key
+	 * @throws IllegalArgumentException if key is shorter than 4 bytes
+	 */
+	public ToeplitzHash(byte[] key) throws IllegalArgumentException {
+		if (key.length < 4)
+			throw new IllegalArgumentException("toeplitz key too short [%d bytes]"
+					.formatted(key.length));
+
+		this.key = key.clone();
+		this.table = new int[key.length * BYTE_VALUES];
+
+		for (int i = 0; i < key.length; i++) {
+			/* 40 bits of key covering all 8 bit positions of input byte i */
+			long window = 0;
+			for (int j = 0; j < 5; j++)
+				window = (window << 8) | Byte.toUnsignedLong(this.key[(i + j) % key.length]);
+
+			final int base = i * BYTE_VALUES;
+			for (int value = 1; value < BYTE_VALUES; value++) {
+				int h = 0;
+
+				for (int bit = 0; bit < 8; bit++)
+					if ((value & (0x80 >> bit)) != 0)
+						h ^= (int) (window >>> (8 - bit));
+
+				table[base + value] = h;
+			}
+		}
+	}
+
+	/**
+	 * Hashes bytes from an array.
+	 *
+	 * @param data   the data
+	 * @param offset the offset into the array
+	 * @param length number of bytes to hash
+	 * @return the 32-bit hash
+	 */
+	public int hash(byte[] data, int offset, int length) {
+		final int[] table = this.table;
+		final int keyLength = key.length;
+		int h = 0;
+
+		for (int i = 0, k = 0; i < length; i++) {
+			h ^= table[(k * BYTE_VALUES) + Byte.toUnsignedInt(data[offset + i])];
+
+			if (++k == keyLength)
+				k = 0;
+		}
+
+		return h;
+	}
+
+	/**
+	 * Hashes the remaining bytes of a buffer, without changing its position.
+	 *
+	 * @param data the data
+	 * @return the 32-bit hash
+	 */
+	public int hash(ByteBuffer data) {
+		final int[] table = this.table;
+		final int keyLength = key.length;
+		final int limit = data.limit();
+		int h = 0;
+
+		for (int i = data.position(), k = 0; i < limit; i++) {
+			h ^= table[(k * BYTE_VALUES) + Byte.toUnsignedInt(data.get(i))];
+
+			if (++k == keyLength)
+				k = 0;
+		}
+
+		return h;
+	}
+
+	/**
+	 * Hashes 32-bit words, each word in network (big endian) byte order. This is
+	 * the natural form for IP addresses and port pairs, such as those read from
+	 * packet headers using network order accessors.
+	 *
+	 * @param words the words
+	 * @param count number of words to hash
+	 * @return the 32-bit hash
+	 */
+	public int hash(int[] words, int count) {
+		final int[] table = this.table;
+		final int keyLength = key.length;
+		int h = 0;
+
+		for (int i = 0, k = 0; i < count; i++) {
+			final int w = words[i];
+
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				h ^= table[(k * BYTE_VALUES) + ((w >>> shift) & 0xFF)];
+
+				if (++k == keyLength)
+					k = 0;
+			}
+		}
+
+		return h;
+	}
+
+	/**
+	 * Gets a copy of the hash key.
+	 *
+	 * @return the key
+	 */
+	public byte[] key() {
+		return key.clone();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ToeplitzHash [key=" + HexStrings.toHexString(key) + "]";
+	}
+
+	/**
+	 * Hash code.
+	 *
+	 * @return the int
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(key);
+	}
+
+	/**
+	 * Equals.
+	 *
+	 * @param obj the obj
+	 * @return true, if successful
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return (obj instanceof ToeplitzHash other) && Arrays.equals(key, other.key);
+	}
+}
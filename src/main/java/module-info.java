@@ -54,6 +54,7 @@ module com.slytechs.protocol {
 	exports com.slytechs.protocol.pack.core.constants;
 	exports com.slytechs.protocol.descriptor;
 	exports com.slytechs.protocol.meta;
+	exports com.slytechs.protocol.pcap;
 	exports com.slytechs.protocol.runtime;
 	exports com.slytechs.protocol.runtime.time;
 	exports com.slytechs.protocol.runtime.util;
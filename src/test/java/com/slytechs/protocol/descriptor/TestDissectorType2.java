@@ -32,6 +32,8 @@ import org.junit.jupiter.api.TestInfo;
 import com.slytechs.protocol.Packet;
 import com.slytechs.protocol.descriptor.PacketDissector;
 import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.PackId;
+import com.slytechs.protocol.pack.ProtocolPackTable;
 import com.slytechs.protocol.pack.core.Ethernet;
 import com.slytechs.protocol.pack.core.Ip4;
 import com.slytechs.protocol.pack.core.Ip4Option.Ip4RouterOption;
@@ -230,6 +232,247 @@ class TestDissectorType2 {
 		}
 	}
 
+	@Test
+	void type2BatchDissectionToContiguousDescriptors() {
+		final int COUNT = 3;
+		byte[][] PACKETS = {
+				PACKET_IP4,
+				PACKET_IP4_TCP,
+				PACKET_IP4_TCP_W_IP_OPTS
+		};
+
+		/* Pack all packets back-to-back into a single capture segment */
+		ByteBuffer segment = ByteBuffer.allocate(PACKETS[0].length + PACKETS[1].length + PACKETS[2].length);
+		int[] offsets = new int[COUNT];
+		int[] lengths = new int[COUNT];
+		long[] timestamps = new long[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			offsets[i] = segment.position();
+			lengths[i] = PACKETS[i].length;
+			timestamps[i] = System.currentTimeMillis() + i;
+			segment.put(PACKETS[i]);
+		}
+
+		ByteBuffer dsc = ByteBuffer.allocate(COUNT * CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		int count = dissector.dissectPackets(segment, offsets, lengths, lengths, timestamps, COUNT, dsc);
+		assertEquals(COUNT, count, "count");
+
+		Type2Descriptor type2 = new Type2Descriptor();
+		Ip4 ip4 = new Ip4();
+
+		int offset = 0;
+		for (int i = 0; i < COUNT; i++) {
+			type2.bind(dsc.slice(offset, CoreConstants.DESC_TYPE2_BYTE_SIZE_MIN).order(ByteOrder.nativeOrder()));
+			int byteSize = type2.byteSize();
+			type2.bind(dsc.slice(offset, byteSize).order(ByteOrder.nativeOrder()));
+
+			log("[%d] %s%n", i, type2);
+
+			assertEquals(timestamps[i], type2.timestamp(), "timestamp");
+			assertEquals(lengths[i], type2.captureLength(), "captureLength");
+			assertEquals(lengths[i], type2.wireLength(), "wireLength");
+
+			Packet packet = new Packet(type2)
+					.withBinding(segment.slice(offsets[i], lengths[i]));
+
+			assertTrue(packet.hasHeader(ip4), "ip4");
+			assertEquals(CoreConstants.ETHER_HEADER_LEN, ip4.headerOffset(), "ip4.offset");
+
+			offset += byteSize;
+		}
+
+		assertEquals(offset, dsc.position(), "descriptor position");
+	}
+
+	@Test
+	void type2SegmentDissectorMatchesBufferDissector() {
+		byte[] PACKET = PACKET_IP4_TCP_W_IP_OPTS;
+		ByteBuffer desc1 = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		ByteBuffer desc2 = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		final long TIMESTAMP = System.currentTimeMillis();
+
+		PacketDissector segmentDissector = PacketDissector.segmentDissector(PacketDescriptorType.TYPE2);
+
+		dissector.dissectPacket(ByteBuffer.wrap(PACKET), TIMESTAMP, PACKET.length, PACKET.length);
+		int len1 = dissector.writeDescriptor(desc1);
+
+		segmentDissector.dissectPacket(MemorySegment.ofArray(PACKET), TIMESTAMP, PACKET.length, PACKET.length);
+		int len2 = segmentDissector.writeDescriptor(desc2);
+
+		assertEquals(len1, len2, "descriptor length");
+		assertEquals(desc1.flip(), desc2.flip(), "descriptor contents");
+	}
+
+	@Test
+	void type2SegmentBatchMatchesBufferBatch() {
+		final int COUNT = 3;
+		byte[][] PACKETS = {
+				PACKET_IP4_TCP_W_IP_OPTS,
+				PACKET_IP4,
+				PACKET_IP4_TCP
+		};
+
+		/* Packets back-to-back, so each one is followed by another in the segment */
+		ByteBuffer segment = ByteBuffer.allocate(PACKETS[0].length + PACKETS[1].length + PACKETS[2].length);
+		int[] offsets = new int[COUNT];
+		int[] lengths = new int[COUNT];
+		long[] timestamps = new long[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			offsets[i] = segment.position();
+			lengths[i] = PACKETS[i].length;
+			timestamps[i] = i;
+			segment.put(PACKETS[i]);
+		}
+
+		ByteBuffer dsc1 = ByteBuffer.allocate(COUNT * CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		ByteBuffer dsc2 = ByteBuffer.allocate(COUNT * CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		PacketDissector segmentDissector = PacketDissector.segmentDissector(PacketDescriptorType.TYPE2);
+
+		assertEquals(COUNT, dissector.dissectPackets(segment, offsets, lengths, lengths, timestamps, COUNT, dsc1));
+		assertEquals(COUNT, segmentDissector.dissectPackets(MemorySegment.ofBuffer(segment.clear()),
+				offsets, lengths, lengths, timestamps, COUNT, dsc2));
+
+		assertEquals(dsc1.flip(), dsc2.flip(), "descriptor contents");
+	}
+
+	@Test
+	void type2SegmentPacketOutOfBoundsThrows() {
+		byte[] PACKET = PACKET_IP4_TCP;
+		MemorySegment segment = MemorySegment.ofArray(PACKET);
+		ByteBuffer dsc = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		PacketDissector segmentDissector = PacketDissector.segmentDissector(PacketDescriptorType.TYPE2);
+
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> segmentDissector.dissectPacket(segment, 0, PACKET.length + 1, PACKET.length + 1));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> segmentDissector.dissectPackets(segment, new int[] { 1 }, new int[] { PACKET.length },
+						new int[] { PACKET.length }, new long[1], 1, dsc));
+	}
+
+	@Test
+	void type2IndexedLookupMatchesRecords() {
+		byte[] PACKET = PACKET_IP4_TCP_W_IP_OPTS;
+		ByteBuffer dsc = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		dissector.dissectPacket(ByteBuffer.wrap(PACKET), 0, PACKET.length, PACKET.length);
+		dissector.writeDescriptor(dsc);
+		dsc.clear();
+
+		Type2Descriptor type2 = new Type2Descriptor().withBinding(dsc);
+		long[] headers = type2.listHeaders();
+
+		assertEquals(headers.length, type2.headerCount(), "headerCount");
+
+		int parentId = 0;
+		for (int i = 0; i < type2.headerCount(); i++) {
+			long compact = type2.headerAt(i);
+			int id = CompactDescriptor.decodeId(compact);
+
+			assertEquals(headers[i], compact, "headerAt(" + i + ")");
+
+			long found = (PackId.decodePackId(id) == ProtocolPackTable.PACK_ID_OPTIONS)
+					? type2.lookupHeaderExtension(parentId, id, 0, 0)
+					: type2.lookupHeader(id, 0);
+
+			if (PackId.decodePackId(id) != ProtocolPackTable.PACK_ID_OPTIONS)
+				parentId = id;
+
+			assertEquals(CompactDescriptor.decodeOffset(compact), CompactDescriptor.decodeOffset(found), "offset");
+			assertEquals(CompactDescriptor.decodeLength(compact), CompactDescriptor.decodeLength(found), "length");
+			assertEquals(i, CompactDescriptor.decodeMeta(found), "record index");
+		}
+
+		assertEquals(CompactDescriptor.ID_NOT_FOUND, type2.lookupHeader(CoreIdTable.CORE_ID_IPv4, 1), "ip4 depth 1");
+		assertEquals(CompactDescriptor.ID_NOT_FOUND, type2.lookupHeader(CoreIdTable.CORE_ID_IPv6, 0), "ip6");
+	}
+
+	@Test
+	void type2SortedTuple5HashIsSymmetric() {
+		byte[] forward = PACKET_IP4_TCP_W_IP_OPTS;
+		byte[] reverse = forward.clone();
+
+		final int ip = CoreConstants.ETHER_HEADER_LEN;
+		final int tcp = ip + ((forward[ip] & 0x0F) << 2);
+
+		/* Swap IPv4 addresses and TCP ports to produce the reverse direction */
+		System.arraycopy(forward, ip + CoreConstants.IPv4_FIELD_SRC, reverse, ip + CoreConstants.IPv4_FIELD_DST, 4);
+		System.arraycopy(forward, ip + CoreConstants.IPv4_FIELD_DST, reverse, ip + CoreConstants.IPv4_FIELD_SRC, 4);
+		System.arraycopy(forward, tcp + 0, reverse, tcp + 2, 2);
+		System.arraycopy(forward, tcp + 2, reverse, tcp + 0, 2);
+
+		ByteBuffer desc = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		Type2Descriptor type2 = new Type2Descriptor();
+
+		dissector.setHashType(HashType.TUPLE5_SORTED);
+
+		dissector.dissectPacket(ByteBuffer.wrap(forward), 0, forward.length, forward.length);
+		dissector.writeDescriptor(desc.clear());
+		int forwardHash = type2.withBinding(desc.flip()).hash24();
+
+		assertEquals(HashType.TUPLE5_SORTED.getAsInt(), type2.hashType(), "hash type");
+
+		dissector.dissectPacket(ByteBuffer.wrap(reverse), 0, reverse.length, reverse.length);
+		dissector.writeDescriptor(desc.clear());
+		int reverseHash = type2.withBinding(desc.flip()).hash24();
+
+		assertEquals(forwardHash, reverseHash, "sorted hash");
+
+		dissector.setHashType(HashType.TUPLE5);
+
+		dissector.dissectPacket(ByteBuffer.wrap(forward), 0, forward.length, forward.length);
+		dissector.writeDescriptor(desc.clear());
+		forwardHash = type2.withBinding(desc.flip()).hash24();
+
+		dissector.dissectPacket(ByteBuffer.wrap(reverse), 0, reverse.length, reverse.length);
+		dissector.writeDescriptor(desc.clear());
+		reverseHash = type2.withBinding(desc.flip()).hash24();
+
+		assertNotEquals(forwardHash, reverseHash, "unsorted hash");
+	}
+
+	@Test
+	void type2ToeplitzHashMatchesRssVerificationSuite() {
+		byte[] packet = PACKET_IP4_TCP_W_IP_OPTS.clone();
+
+		final int ip = CoreConstants.ETHER_HEADER_LEN;
+		final int tcp = ip + ((packet[ip] & 0x0F) << 2);
+
+		/* Microsoft RSS verification suite, 66.9.149.187:2794 -> 161.142.100.80:1766 */
+		ByteBuffer.wrap(packet)
+				.put(ip + CoreConstants.IPv4_FIELD_SRC, new byte[] { 66, 9, (byte) 149, (byte) 187 })
+				.put(ip + CoreConstants.IPv4_FIELD_DST, new byte[] { (byte) 161, (byte) 142, 100, 80 })
+				.putShort(tcp + 0, (short) 2794)
+				.putShort(tcp + 2, (short) 1766);
+
+		ByteBuffer desc = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		Type2Descriptor type2 = new Type2Descriptor();
+
+		dissector.setHashType(HashType.TUPLE2, FlowHashFunction.toeplitz());
+		dissector.dissectPacket(ByteBuffer.wrap(packet), 0, packet.length, packet.length);
+		dissector.writeDescriptor(desc.clear());
+
+		assertEquals(0x323e8fc2 & 0xFFFFFF, type2.withBinding(desc.flip()).hash24(), "IPv4 RSS hash");
+
+		dissector.setHashType(HashType.TUPLE5, FlowHashFunction.toeplitz());
+		dissector.dissectPacket(ByteBuffer.wrap(packet), 0, packet.length, packet.length);
+		dissector.writeDescriptor(desc.clear());
+
+		assertEquals(0x51ccc178 & 0xFFFFFF, type2.withBinding(desc.flip()).hash24(), "IPv4/TCP RSS hash");
+	}
+
 	@Test
 //	@Disabled
 	void speedTestJava() {
@@ -0,0 +1,274 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDistributor.Handoff;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.HashType;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.Backpressure;
+
+/**
+ * Packet distributor tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestPacketDistributor {
+
+	static final int FLOWS = 2000;
+
+	/** Builds an Ethernet/IPv4/UDP packet. */
+	static ByteBuffer udp(int src, int dst, int srcPort, int dstPort) {
+		ByteBuffer b = ByteBuffer.allocate(14 + 20 + 8 + 4);
+
+		b.put(new byte[] { 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 6 });
+		b.putShort((short) CoreConstants.ETHER_TYPE_IPv4);
+
+		b.put((byte) 0x45).put((byte) 0).putShort((short) (20 + 8 + 4));
+		b.putShort((short) 0).putShort((short) 0x4000);
+		b.put((byte) 64).put((byte) 17).putShort((short) 0);
+		b.putInt(src).putInt(dst);
+
+		b.putShort((short) srcPort).putShort((short) dstPort);
+		b.putShort((short) 12).putShort((short) 0);
+		b.putInt(0xCAFEBABE);
+
+		return b.flip();
+	}
+
+	static Packet packet(ByteBuffer data, HashType hashType) {
+		PacketDissector dissector = PacketDissector.dissector(PacketDescriptorType.TYPE2);
+		if (hashType != HashType.NONE)
+			dissector.setHashType(hashType);
+
+		ByteBuffer desc = ByteBuffer
+				.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		dissector.dissectPacket(data, 0, data.limit(), data.limit());
+		data.rewind();
+		dissector.writeDescriptor(desc);
+
+		var type2 = new Type2Descriptor();
+		type2.bind(desc.clear());
+
+		return new Packet(data, type2);
+	}
+
+	static Packet flow(int i, boolean reverse, HashType hashType) {
+		int a = 0x0A000000 | i, b = 0xC0A80001;
+		int pa = 1024 + i, pb = 443;
+
+		return reverse
+				? packet(udp(b, a, pb, pa), hashType)
+				: packet(udp(a, b, pa, pb), hashType);
+	}
+
+	@Test
+	void test_PacketDistributor_bothDirectionsOfFlowGoToSameWorker() {
+		PacketDistributor distributor = new PacketDistributor(4, 8192);
+
+		for (int i = 0; i < FLOWS; i++) {
+			int w1 = distributor.distribute(flow(i, false, HashType.TUPLE5_SORTED));
+			int w2 = distributor.distribute(flow(i, true, HashType.TUPLE5_SORTED));
+
+			assertNotEquals(-1, w1);
+			assertEquals(w1, w2);
+		}
+
+		assertEquals(0, distributor.computedHashCount());
+
+		for (int w = 0; w < 4; w++)
+			assertTrue(distributor.distributedCount(w) > FLOWS / 4, distributor.toString());
+	}
+
+	@Test
+	void test_PacketDistributor_missingHashIsComputedAndMatchesDissector() {
+		PacketDistributor distributor = new PacketDistributor(8, 16)
+				.setHashType(HashType.TUPLE5_SORTED);
+
+		for (int i = 0; i < 100; i++) {
+			Packet withHash = flow(i, false, HashType.TUPLE5_SORTED);
+			Packet withoutHash = flow(i, true, HashType.NONE);
+
+			assertEquals(HashType.NONE.ordinal(), withoutHash.<Type2Descriptor>descriptor().hashType());
+			assertEquals(distributor.hashOf(withHash), distributor.hashOf(withoutHash));
+
+			/* Computed hash is written back to the descriptor */
+			assertEquals(HashType.TUPLE5_SORTED.ordinal(), withoutHash.<Type2Descriptor>descriptor().hashType());
+		}
+
+		assertEquals(100, distributor.computedHashCount());
+	}
+
+	@Test
+	void test_PacketDistributor_weightsSkewTableProportionally() {
+		PacketDistributor distributor = new PacketDistributor(3, 16)
+				.setWeights(1, 2, 5);
+
+		int[] entries = new int[3];
+		for (int h = 0; h < PacketDistributor.TABLE_SIZE; h++)
+			entries[distributor.workerOf(h)]++;
+
+		assertEquals(PacketDistributor.TABLE_SIZE / 8, entries[0], 1);
+		assertEquals(PacketDistributor.TABLE_SIZE * 2 / 8, entries[1], 1);
+		assertEquals(PacketDistributor.TABLE_SIZE * 5 / 8, entries[2], 1);
+	}
+
+	@Test
+	void test_PacketDistributor_consistentHashingOnlyMovesFlowsOfDisabledWorker() {
+		PacketDistributor distributor = new PacketDistributor(8, 16)
+				.setConsistentHashing(true);
+
+		int[] before = new int[PacketDistributor.TABLE_SIZE];
+		for (int h = 0; h < before.length; h++)
+			before[h] = distributor.workerOf(h);
+
+		distributor.setWorkerEnabled(3, false);
+
+		int moved = 0;
+		for (int h = 0; h < before.length; h++) {
+			int after = distributor.workerOf(h);
+			assertNotEquals(3, after);
+
+			if (before[h] != 3)
+				assertEquals(before[h], after);
+			else
+				moved++;
+		}
+
+		/* Roughly 1/8th of the table moved */
+		assertTrue(moved > PacketDistributor.TABLE_SIZE / 16 && moved < PacketDistributor.TABLE_SIZE / 4,
+				"moved " + moved);
+
+		distributor.setWorkerEnabled(3, true);
+		for (int h = 0; h < before.length; h++)
+			assertEquals(before[h], distributor.workerOf(h));
+	}
+
+	@Test
+	void test_PacketDistributor_lastWorkerCannotBeDisabled() {
+		PacketDistributor distributor = new PacketDistributor(1, 16);
+
+		assertThrows(IllegalStateException.class, () -> distributor.setWorkerEnabled(0, false));
+		assertEquals(0, distributor.workerOf(123));
+	}
+
+	@Test
+	void test_PacketDistributor_copyHandoffIsIndependentOfSource() {
+		PacketDistributor distributor = new PacketDistributor(2, 16)
+				.setHandoff(Handoff.COPY);
+
+		Packet packet = flow(7, false, HashType.TUPLE5);
+		int worker = distributor.distribute(packet);
+
+		Packet copy = distributor.poll(worker);
+		assertNotSame(packet, copy);
+		assertEquals(packet.captureLength(), copy.captureLength());
+		assertEquals(packet.<Type2Descriptor>descriptor().hash24(), copy.<Type2Descriptor>descriptor().hash24());
+
+		packet.buffer().put(30, (byte) 0);
+		assertEquals(0xC0, copy.buffer().get(30) & 0xFF);
+		assertNull(distributor.poll(worker));
+	}
+
+	@Test
+	void test_PacketDistributor_copyHandoffOfPcapPacket() {
+		PacketDistributor distributor = new PacketDistributor(2, 16)
+				.setHandoff(Handoff.COPY);
+
+		ByteBuffer data = udp(0x0A000007, 0xC0A80001, 1031, 443);
+		ByteOrder swapped = (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN)
+				? ByteOrder.LITTLE_ENDIAN
+				: ByteOrder.BIG_ENDIAN;
+		ByteBuffer record = ByteBuffer.allocate(16).order(swapped)
+				.putInt(0, 1_000)
+				.putInt(4, 250)
+				.putInt(8, data.limit())
+				.putInt(12, data.limit() + 4);
+
+		var pcap = new PcapDescriptor();
+		pcap.bind(record);
+		pcap.frameNo(42);
+
+		Packet packet = new Packet(data, pcap);
+		int worker = distributor.distribute(packet);
+
+		Packet copy = distributor.poll(worker);
+		assertNotSame(packet, copy);
+		assertNotSame(pcap, copy.descriptor());
+		assertEquals(data.limit(), copy.captureLength());
+		assertEquals(data.limit() + 4, copy.wireLength());
+		assertEquals(pcap.timestamp(), copy.<PcapDescriptor>descriptor().timestamp());
+		assertEquals(42, copy.<PcapDescriptor>descriptor().frameNo());
+
+		record.putInt(8, 0);
+		data.put(30, (byte) 0);
+		assertEquals(data.limit(), copy.captureLength());
+		assertEquals(0xC0, copy.buffer().get(30) & 0xFF);
+	}
+
+	@Test
+	void test_PacketDistributor_blockWaitsForSpace() throws InterruptedException {
+		PacketDistributor distributor = new PacketDistributor(1, 4)
+				.setBackpressure(Backpressure.BLOCK);
+
+		for (int i = 0; i < 4; i++)
+			distributor.distribute(flow(i, false, HashType.TUPLE5));
+
+		Thread consumer = new Thread(() -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				return;
+			}
+			distributor.poll(0);
+		});
+		consumer.start();
+
+		assertEquals(0, distributor.distribute(flow(4, false, HashType.TUPLE5)));
+		consumer.join();
+
+		assertEquals(5, distributor.distributedCount(0));
+		assertEquals(0, distributor.droppedCount(0));
+	}
+
+	@Test
+	void test_PacketDistributor_fullRingDropsPackets() {
+		PacketDistributor distributor = new PacketDistributor(1, 4);
+
+		for (int i = 0; i < 6; i++)
+			distributor.distribute(flow(i, false, HashType.TUPLE5));
+
+		assertEquals(4, distributor.distributedCount(0));
+		assertEquals(2, distributor.droppedCount(0));
+
+		Packet[] batch = new Packet[8];
+		assertEquals(4, distributor.poll(0, batch, 0, batch.length));
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.descriptor;
+
+import static com.slytechs.protocol.pack.core.constants.CoreConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.PacketProjector;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.CoreIdTable;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.util.HexStrings;
+
+/**
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestType2DescriptorColumns {
+
+	private static final String ETH = "0026622f4787001d60b301840800";
+	private static final String TCP = "e14e00508e5019010000000050%s16d08f470000";
+	private static final String UDP = "ebd800a1000c0000deadbeef";
+
+	/* TCP SYN from 192.168.1.140 */
+	private static final String TCP_SYN_192 = ETH
+			+ "4500002ccb5b4000400628e4c0a8018cae8fd5b8"
+			+ TCP.formatted("02");
+
+	/* TCP SYN from 10.1.2.3 */
+	private static final String TCP_SYN_10 = ETH
+			+ "4500002ccb5b4000400628e40a010203ae8fd5b8"
+			+ TCP.formatted("02");
+
+	/* TCP ACK from 10.1.2.4 */
+	private static final String TCP_ACK_10 = ETH
+			+ "4500002ccb5b4000400628e40a010204ae8fd5b8"
+			+ TCP.formatted("10");
+
+	/* UDP from 10.1.2.5 */
+	private static final String UDP_10 = ETH
+			+ "450000205c650000801100000a010205c0a81da0"
+			+ UDP;
+
+	private PacketDissector dissector;
+	private ByteBuffer descBuffer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dissector = PacketDissector.dissector(PacketDescriptorType.TYPE2);
+		descBuffer = ByteBuffer
+				.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+	}
+
+	private void add(Type2DescriptorColumns columns, String hex) {
+		var packet = new Packet(ByteBuffer.wrap(HexStrings.parseHexString(hex)));
+		packet.descriptor().bind(descBuffer.clear());
+
+		dissector.reset();
+		dissector.dissectPacket(packet);
+		dissector.writeDescriptor(packet.descriptor());
+
+		assertTrue(columns.add(packet));
+	}
+
+	private Type2DescriptorColumns fill() {
+		var columns = new Type2DescriptorColumns(16, PacketProjector.of("ip4.src", "tcp.flags"));
+
+		add(columns, TCP_SYN_192);
+		add(columns, TCP_SYN_10);
+		add(columns, TCP_ACK_10);
+		add(columns, UDP_10);
+
+		return columns;
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_addFillsColumns() {
+		var columns = fill();
+
+		assertEquals(4, columns.size());
+		assertEquals(54, columns.captureLengths()[0]);
+		assertEquals(54, columns.wireLengths()[0]);
+		assertEquals(46, columns.captureLengths()[3]);
+		assertEquals(3, columns.recordCounts()[0]);
+		assertEquals(0x0A010203L, columns.field(0)[1]);
+		assertEquals(TCP_FLAG_ACK, columns.field(1)[2]);
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_missingFieldNotPresent() {
+		var columns = fill();
+
+		assertTrue(columns.isPresent(1, 0));
+		assertFalse(columns.isPresent(1, 3));
+		assertEquals(0, columns.field(1)[3]);
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_filterHeader() {
+		var columns = fill();
+		int[] sel = new int[columns.capacity()];
+
+		assertEquals(3, columns.filterHeader(CoreIdTable.CORE_ID_TCP, sel));
+		assertArrayEquals(new int[] {
+				0,
+				1,
+				2
+		}, Arrays.copyOf(sel, 3));
+
+		assertEquals(1, columns.filterHeader(CoreIdTable.CORE_ID_UDP, sel));
+		assertEquals(3, sel[0]);
+
+		assertEquals(0, columns.filterHeader(CoreIdTable.CORE_ID_IPv6, sel));
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_filterTcpSynFromSubnet() {
+		var columns = fill();
+		int[] sel = new int[columns.capacity()];
+
+		int count = columns.filterHeader(CoreIdTable.CORE_ID_TCP, sel);
+		count = columns.filterField(0, 0xFF000000L, 0x0A000000L, sel, count);
+		count = columns.filterField(1, TCP_FLAG_SYN, TCP_FLAG_SYN, sel, count);
+
+		assertEquals(1, count);
+		assertEquals(1, sel[0]);
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_filterFieldIgnoresMissingHeaders() {
+		var columns = fill();
+		int[] sel = new int[columns.capacity()];
+
+		/* UDP row has tcp.flags written as 0, but is not present, only the ACK matches */
+		assertEquals(1, columns.filterField(1, TCP_FLAG_SYN, 0, sel));
+		assertEquals(2, sel[0]);
+		assertEquals(3, columns.filterField(0, 0xFF000000L, 0x0A000000L, sel));
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_filterFieldRangeAndSum() {
+		var columns = fill();
+		int[] sel = new int[columns.capacity()];
+
+		int count = columns.selectAll(sel);
+		count = columns.filterFieldRange(0, 0x0A010203L, 0x0A010204L, sel, count);
+
+		assertEquals(2, count);
+		assertEquals(108, columns.sumCaptureLength(sel, count));
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_fullAndClear() {
+		var columns = new Type2DescriptorColumns(1);
+
+		add(columns, TCP_SYN_192);
+
+		assertTrue(columns.isFull());
+		assertFalse(columns.add(new Packet(ByteBuffer.wrap(HexStrings.parseHexString(TCP_SYN_192)),
+				PacketDescriptorType.TYPE2)));
+
+		columns.clear();
+
+		assertEquals(0, columns.size());
+	}
+
+	@Test
+	void test_Type2DescriptorColumns_invalidCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new Type2DescriptorColumns(0));
+	}
+}
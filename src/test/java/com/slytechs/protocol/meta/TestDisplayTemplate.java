@@ -0,0 +1,146 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.meta;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.Ip4;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.util.Detail;
+import com.slytechs.protocol.runtime.util.HexStrings;
+
+/**
+ * Compares compiled display templates against the legacy display argument
+ * builder and {@code String.formatted}.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+class TestDisplayTemplate {
+
+	private static final byte[] PACKET_ETH = HexStrings.parseHexString(""
+			+ "0026622f4787 001d60b30184 0800"
+			+ "4500003c cb5b4000 400628e4 c0a8018c ae8fd5b8"
+			+ "e14e00508e50190100000000a00216d08f470000020405b40402080a0021d25a0000000001030307");
+
+	private PacketFormat format;
+	private MetaHeader header;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ByteBuffer descriptorData = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		ByteBuffer packetData = ByteBuffer.wrap(PACKET_ETH);
+
+		PacketDissector dissector = PacketDissector.javaDissector(PacketDescriptorType.TYPE2);
+		dissector.dissectPacket(packetData, 0, PACKET_ETH.length, PACKET_ETH.length);
+		dissector.writeDescriptor(descriptorData);
+		descriptorData.clear();
+
+		Packet packet = new Packet(new Type2Descriptor().withBinding(descriptorData))
+				.withBinding(packetData);
+
+		format = new PacketFormat(Detail.HIGH);
+		header = new MetaHeader(format, packet.getHeader(new Ip4()));
+	}
+
+	private String legacy(MetaElement element, String display) {
+		Object[] args = format.buildDisplayArgs(header, element, display);
+
+		return format.rewriteDisplayArgs(display).formatted(args);
+	}
+
+	private String compiled(MetaElement element, String display) {
+		DisplayTemplate template = DisplayTemplate.compile(display);
+		assertNotNull(template, display);
+
+		return template.format(header, element, new StringBuilder("prefix:"))
+				.substring("prefix:".length());
+	}
+
+	@Test
+	void headerDisplayMatchesLegacy() {
+		String[] displays = {
+				"",
+				"no arguments",
+				"%{ttl}d",
+				"ttl=%{ttl}5d|%{ttl}-5d|%{ttl}05d|%{identification}x|%{identification}08X",
+				"%{identification},d [0x%{identification}04X] %1$d %<x",
+				"%{src:F}s > %{dst:F}s, %{protocol:R}s",
+				"%{src:F}20s|%{dst:F}-20s|%{ttl}.1s",
+				"%%%n%{ttl}s%%",
+				"%{unknown}s",
+		};
+
+		for (String display : displays)
+			assertEquals(legacy(header, display), compiled(header, display), display);
+	}
+
+	@Test
+	void fieldDisplayMatchesLegacy() {
+		String[] displays = {
+				"%{}d",
+				"%{:F}s",
+				"%{}d [%{}d*4 = %{hdrLenBytes}d bytes]",
+				"%{}04X (%{:R1}s) [%1$d]",
+		};
+
+		for (String name : new String[] { "ttl", "hdrLen", "protocol" }) {
+			MetaField field = header.searchForField(new MetaPath(name)).orElseThrow();
+			assertTrue(field.getValueType().isPrimitive(), name);
+
+			for (String display : displays)
+				assertEquals(legacy(field, display), compiled(field, display), name + ": " + display);
+		}
+	}
+
+	@Test
+	void selfReferenceRequiresField() {
+		assertFalse(DisplayTemplate.compile("%{}d").canFormat(header));
+		assertTrue(DisplayTemplate.compile("%{ttl}d").canFormat(header));
+	}
+
+	@Test
+	void invalidDisplayNotCompiled() {
+		String[] displays = {
+				"%{:ETHER_TYPE}s",
+				"%d",
+				"%{ttl}d %2$d",
+				"%{ttl}q",
+				"100%",
+		};
+
+		for (String display : displays)
+			assertNull(DisplayTemplate.compile(display), display);
+	}
+
+	@Test
+	void nullDisplayNotCompiled() {
+		assertNull(DisplayTemplate.compile(null));
+	}
+}
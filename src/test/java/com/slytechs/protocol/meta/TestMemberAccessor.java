@@ -0,0 +1,173 @@
+/*
+ * Sly Technologies Free License
+ *
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.slytechs.com/free-license-text
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.meta;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Member accessor tests, for lambda bound instance getters, method handle
+ * getters used for static members and inaccessible classes, and fields.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+class TestMemberAccessor {
+
+	@SuppressWarnings("unused")
+	private static class Target {
+
+		private static int staticCount = 7;
+
+		private static long staticTotal() {
+			return 1L << 40;
+		}
+
+		private final byte b = (byte) 0xF0;
+		private final short s = (short) 0x8001;
+		private final char c = 'x';
+		private final int i = -5;
+		private final long l = 0x1_0000_0001L;
+		private final boolean flag = true;
+		private final String name = "target";
+
+		private byte b() {
+			return b;
+		}
+
+		private short s() {
+			return s;
+		}
+
+		private char c() {
+			return c;
+		}
+
+		private int i() {
+			return i;
+		}
+
+		private long l() {
+			return l;
+		}
+
+		private boolean flag() {
+			return flag;
+		}
+
+		private String name() {
+			return name;
+		}
+
+		private int fail() {
+			throw new IllegalStateException("getter failed");
+		}
+
+		private int plus(int n) {
+			return i + n;
+		}
+	}
+
+	private static final Target TARGET = new Target();
+
+	private static MemberAccessor method(String name) throws Exception {
+		return MemberAccessor.ofMethod(Target.class.getDeclaredMethod(name));
+	}
+
+	private static MemberAccessor field(String name) throws Exception {
+		return MemberAccessor.ofField(Target.class.getDeclaredField(name));
+	}
+
+	/** Checks an integral accessor's boxed, int and long values. */
+	private static void assertIntegral(MemberAccessor accessor, Object boxed, long value) {
+		assertEquals(boxed, accessor.get(TARGET));
+		assertEquals((int) value, accessor.getInt(TARGET));
+		assertEquals(value, accessor.getLong(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_lambdaInstanceGetters() throws Exception {
+		assertIntegral(method("b"), (byte) 0xF0, (byte) 0xF0);
+		assertIntegral(method("s"), (short) 0x8001, (short) 0x8001);
+		assertIntegral(method("c"), 'x', 'x');
+		assertIntegral(method("i"), -5, -5);
+		assertIntegral(method("l"), 0x1_0000_0001L, 0x1_0000_0001L);
+
+		assertEquals(Boolean.TRUE, method("flag").get(TARGET));
+		assertEquals("target", method("name").get(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_fieldGetters() throws Exception {
+		assertIntegral(field("b"), (byte) 0xF0, (byte) 0xF0);
+		assertIntegral(field("s"), (short) 0x8001, (short) 0x8001);
+		assertIntegral(field("c"), 'x', 'x');
+		assertIntegral(field("i"), -5, -5);
+		assertIntegral(field("l"), 0x1_0000_0001L, 0x1_0000_0001L);
+
+		assertEquals(Boolean.TRUE, field("flag").get(TARGET));
+		assertEquals("target", field("name").get(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_staticMembersIgnoreTarget() throws Exception {
+		MemberAccessor total = method("staticTotal");
+		assertEquals(1L << 40, total.get(null));
+		assertEquals(1L << 40, total.getLong(TARGET));
+
+		MemberAccessor count = field("staticCount");
+		assertEquals(7, count.get(null));
+		assertEquals(7, count.getInt(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_methodHandleFallback() throws Exception {
+
+		/* java.lang is not open to this module, so no private lookup is possible */
+		MemberAccessor length = MemberAccessor.ofMethod(String.class.getMethod("length"));
+		assertEquals(5, length.get("hello"));
+		assertEquals(5, length.getInt("hello"));
+		assertEquals(5L, length.getLong("hello"));
+
+		MemberAccessor isEmpty = MemberAccessor.ofMethod(String.class.getMethod("isEmpty"));
+		assertEquals(Boolean.FALSE, isEmpty.get("hello"));
+	}
+
+	@Test
+	void test_MemberAccessor_nonNumericValue() throws Exception {
+		MemberAccessor name = method("name");
+
+		assertThrows(ClassCastException.class, () -> name.getInt(TARGET));
+		assertThrows(ClassCastException.class, () -> name.getLong(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_getterExceptionPropagates() throws Exception {
+		MemberAccessor fail = method("fail");
+
+		assertThrows(IllegalStateException.class, () -> fail.get(TARGET));
+		assertThrows(IllegalStateException.class, () -> fail.getInt(TARGET));
+	}
+
+	@Test
+	void test_MemberAccessor_methodWithParameters() {
+		assertThrows(MetaException.class,
+				() -> MemberAccessor.ofMethod(Target.class.getDeclaredMethod("plus", int.class)));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.meta;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.util.Detail;
+import com.slytechs.protocol.runtime.util.HexStrings;
+
+/**
+ * Meta packets rebound to new packets and reused by a packet format.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+class TestMetaPacket {
+
+	private static final String TCP_PACKET = ""
+			+ "0026622f4787 001d60b30184 0800"
+			+ "4500003c cb5b4000 400628e4 c0a8018c ae8fd5b8"
+			+ "e14e00508e50190100000000a00216d08f470000020405b40402080a0021d25a0000000001030307";
+
+	private static final String UDP_PACKET = ""
+			+ "001d60b30184 0026622f4787 0800"
+			+ "45000024 12344000 40110000 0a000001 0a000002"
+			+ "d43100350010 0000 6669727374000000";
+
+	private static Packet packet(String hex) {
+		byte[] array = HexStrings.parseHexString(hex);
+		ByteBuffer descriptorData = ByteBuffer.allocate(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+		ByteBuffer packetData = ByteBuffer.wrap(array);
+
+		PacketDissector dissector = PacketDissector.javaDissector(PacketDescriptorType.TYPE2);
+		dissector.dissectPacket(packetData, 0, array.length, array.length);
+		dissector.writeDescriptor(descriptorData);
+		descriptorData.clear();
+
+		return new Packet(new Type2Descriptor().withBinding(descriptorData))
+				.withBinding(packetData);
+	}
+
+	@Test
+	void test_MetaPacket_reusedFormatMatchesNewFormat() {
+		Packet tcp = packet(TCP_PACKET);
+		Packet udp = packet(UDP_PACKET);
+
+		String expectedTcp = new PacketFormat(Detail.HIGH).format(tcp);
+		String expectedUdp = new PacketFormat(Detail.HIGH).format(udp);
+
+		PacketFormat format = new PacketFormat(Detail.HIGH);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expectedTcp, format.format(tcp));
+			assertEquals(expectedUdp, format.format(udp));
+		}
+	}
+
+	@Test
+	void test_MetaPacket_bindReusesMetaHeaders() {
+		Packet tcp1 = packet(TCP_PACKET);
+		Packet tcp2 = packet(TCP_PACKET);
+
+		MetaPacket meta = new MetaPacket(tcp1);
+		List<MetaHeader> first = List.copyOf(meta.listHeaders());
+
+		meta.bind(tcp2);
+		List<MetaHeader> second = meta.listHeaders();
+
+		assertEquals(first.size(), second.size());
+		for (int i = 0; i < first.size(); i++)
+			assertSame(first.get(i), second.get(i));
+	}
+
+	@Test
+	void test_MetaPacket_bindRebindsFieldValues() {
+		MetaPacket meta = new MetaPacket(packet(TCP_PACKET));
+		MetaHeader ip4 = meta.findHeader("IPv4").orElseThrow();
+		assertEquals(6, (int) ip4.getField("protocol").get());
+
+		meta.bind(packet(UDP_PACKET));
+		assertSame(ip4, meta.findHeader("IPv4").orElseThrow());
+		assertEquals(17, (int) ip4.getField("protocol").get());
+	}
+}
@@ -0,0 +1,522 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.Ip6Option.Ip6FragmentOption;
+import com.slytechs.protocol.pack.core.Ip6Option.Ip6HopByHopOption;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+
+/**
+ * IPv4 and IPv6 fragment reassembly tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+@Tag("osi-layer3")
+@Tag("ipv4")
+@Tag("ipv6")
+@Tag("ipf")
+class TestIpfReassembler {
+
+	static final int ETH_LEN = 14;
+	static final int IP_LEN = 20;
+	static final int UDP_LEN = 8;
+	static final int IP6_LEN = 40;
+	static final int FRAG6_LEN = 8;
+	static final int IDENT = 0x1234;
+
+	static final PacketDissector DISSECTOR = PacketDissector
+			.dissector(PacketDescriptorType.TYPE2);
+
+	private IpfReassembler reassembler;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		DISSECTOR.reset();
+
+		reassembler = new IpfReassembler(4);
+	}
+
+	/**
+	 * Builds a complete, unfragmented Ethernet/IPv4/UDP datagram payload (UDP
+	 * header and data), which is then split into fragments.
+	 */
+	static byte[] udpPayload(int dataLength) {
+		ByteBuffer b = ByteBuffer.allocate(UDP_LEN + dataLength);
+		b.putShort((short) 1234);
+		b.putShort((short) 5678);
+		b.putShort((short) (UDP_LEN + dataLength));
+		b.putShort((short) 0);
+
+		for (int i = 0; i < dataLength; i++)
+			b.put((byte) i);
+
+		return b.array();
+	}
+
+	/**
+	 * Builds a single Ethernet/IPv4 fragment.
+	 */
+	static ByteBuffer fragment(byte[] payload, int offset, int length, boolean more) {
+		ByteBuffer b = ByteBuffer.allocate(ETH_LEN + IP_LEN + length);
+
+		b.put(new byte[] { 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 6 });
+		b.putShort((short) CoreConstants.ETHER_TYPE_IPv4);
+
+		b.put((byte) 0x45);
+		b.put((byte) 0);
+		b.putShort((short) (IP_LEN + length));
+		b.putShort((short) IDENT);
+		b.putShort((short) ((more ? CoreConstants.IPv4_FLAG16_MF : 0) | (offset >> 3)));
+		b.put((byte) 64);
+		b.put((byte) 17);
+		b.putShort((short) 0);
+		b.putInt(0xC0A80001);
+		b.putInt(0xC0A80002);
+
+		b.putShort(ETH_LEN + 10, (short) IpfReassembler.ipChecksum(b, ETH_LEN, IP_LEN));
+
+		b.put(payload, offset, length);
+
+		return b.flip();
+	}
+
+	/**
+	 * Builds a single Ethernet/IPv6 fragment, optionally with a hop-by-hop
+	 * header in the unfragmentable part and optionally tunneled inside an
+	 * unfragmented IPv4 header.
+	 */
+	static ByteBuffer fragment6(byte[] payload, int offset, int length, boolean more, boolean hopByHop,
+			boolean tunnel) {
+		int unfragLen = IP6_LEN + (hopByHop ? 8 : 0);
+		int ip6Len = unfragLen + FRAG6_LEN + length;
+		ByteBuffer b = ByteBuffer.allocate(ETH_LEN + (tunnel ? IP_LEN : 0) + ip6Len);
+
+		b.put(new byte[] { 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 6 });
+		b.putShort((short) (tunnel ? CoreConstants.ETHER_TYPE_IPv4 : CoreConstants.ETHER_TYPE_IPv6));
+
+		if (tunnel) {
+			b.put((byte) 0x45);
+			b.put((byte) 0);
+			b.putShort((short) (IP_LEN + ip6Len));
+			b.putShort((short) 0);
+			b.putShort((short) 0);
+			b.put((byte) 64);
+			b.put((byte) CoreConstants.IP_TYPE_IPv6_IN_IP);
+			b.putShort((short) 0);
+			b.putInt(0xC0A80001);
+			b.putInt(0xC0A80002);
+		}
+
+		b.putInt(0x60000000);
+		b.putShort((short) (ip6Len - IP6_LEN));
+		b.put((byte) (hopByHop ? 0 : CoreConstants.IP_TYPE_IPv6_FRAGMENT_HEADER));
+		b.put((byte) 64);
+		b.putLong(0x20010db800000000L);
+		b.putLong(1);
+		b.putLong(0x20010db800000000L);
+		b.putLong(2);
+
+		if (hopByHop) {
+			b.put((byte) CoreConstants.IP_TYPE_IPv6_FRAGMENT_HEADER);
+			b.put((byte) 0);
+			b.put(new byte[] { 1, 4, 0, 0, 0, 0 }); // PadN
+		}
+
+		b.put((byte) 17);
+		b.put((byte) 0);
+		b.putShort((short) (offset | (more ? 1 : 0)));
+		b.putInt(0xCAFE0001);
+
+		b.put(payload, offset, length);
+
+		return b.flip();
+	}
+
+	static List<ByteBuffer> fragments6(byte[] payload, int fragSize, boolean hopByHop, boolean tunnel) {
+		List<ByteBuffer> list = new ArrayList<>();
+
+		for (int off = 0; off < payload.length; off += fragSize) {
+			int len = Math.min(fragSize, payload.length - off);
+			list.add(fragment6(payload, off, len, off + len < payload.length, hopByHop, tunnel));
+		}
+
+		return list;
+	}
+
+	/**
+	 * Tunnels an Ethernet/IP frame inside an unfragmented outer IP header of the
+	 * same version, so that the fragmented header is not the first one.
+	 */
+	static ByteBuffer tunnel(ByteBuffer frame, boolean ip6) {
+		int innerLength = frame.limit() - ETH_LEN;
+		ByteBuffer b = ByteBuffer.allocate(ETH_LEN + (ip6 ? IP6_LEN : IP_LEN) + innerLength);
+
+		b.put(new byte[] { 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 6 });
+
+		if (ip6) {
+			b.putShort((short) CoreConstants.ETHER_TYPE_IPv6);
+			b.putInt(0x60000000);
+			b.putShort((short) innerLength);
+			b.put((byte) CoreConstants.IP_TYPE_IPv6_IN_IP);
+			b.put((byte) 64);
+			b.putLong(0x20010db8ffff0000L);
+			b.putLong(1);
+			b.putLong(0x20010db8ffff0000L);
+			b.putLong(2);
+
+		} else {
+			b.putShort((short) CoreConstants.ETHER_TYPE_IPv4);
+			b.put((byte) 0x45);
+			b.put((byte) 0);
+			b.putShort((short) (IP_LEN + innerLength));
+			b.putShort((short) 0);
+			b.putShort((short) 0);
+			b.put((byte) 64);
+			b.put((byte) CoreConstants.IP_TYPE_IPv4_IN_IP);
+			b.putShort((short) 0);
+			b.putInt(0x0A000001);
+			b.putInt(0x0A000002);
+		}
+
+		b.put(frame.slice(ETH_LEN, innerLength));
+
+		return b.flip();
+	}
+
+	/**
+	 * Splits the payload into fragments of fragSize bytes.
+	 */
+	static List<ByteBuffer> fragments(byte[] payload, int fragSize) {
+		List<ByteBuffer> list = new ArrayList<>();
+
+		for (int off = 0; off < payload.length; off += fragSize) {
+			int len = Math.min(fragSize, payload.length - off);
+			list.add(fragment(payload, off, len, off + len < payload.length));
+		}
+
+		return list;
+	}
+
+	/**
+	 * Dissects a fragment into a new type 2 packet.
+	 */
+	static Packet toPacket(ByteBuffer data, long seconds, long frameNo) {
+		ByteBuffer desc = ByteBuffer
+				.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		long ts = seconds << 32;
+		DISSECTOR.dissectPacket(data, ts, data.limit(), data.limit());
+		data.rewind();
+		DISSECTOR.writeDescriptor(desc);
+
+		var type2 = new Type2Descriptor();
+		type2.bind(desc.clear());
+		type2.frameNo(frameNo);
+
+		return new Packet(data, type2);
+	}
+
+	private Packet feed(List<ByteBuffer> fragments) {
+		Packet result = null;
+
+		long frameNo = 0;
+		for (ByteBuffer fragment : fragments) {
+			Packet p = reassembler.reassemble(toPacket(fragment, 1000, frameNo++));
+			if (p != null) {
+				assertNull(result, "only one datagram expected");
+				result = p;
+			}
+		}
+
+		return result;
+	}
+
+	private static void assertDatagram(byte[] payload, Packet packet) {
+		assertNotNull(packet);
+
+		var ip4 = packet.peekHeader(new Ip4(), 0);
+		assertNotNull(ip4);
+		assertEquals(IP_LEN + payload.length, ip4.totalLength());
+		assertEquals(0, ip4.flagsMf());
+		assertEquals(0, ip4.fragOffset());
+		assertEquals(0, IpfReassembler.ipChecksum(packet.buffer(), ETH_LEN, IP_LEN));
+		assertTrue(ip4.isReassembled());
+
+		var udp = packet.peekHeader(new Udp(), 0);
+		assertNotNull(udp, "udp header in reassembled datagram");
+		assertEquals(1234, udp.srcPort());
+		assertEquals(payload.length, udp.length());
+
+		byte[] actual = new byte[payload.length];
+		packet.buffer().get(ETH_LEN + IP_LEN, actual);
+		assertArrayEquals(payload, actual);
+	}
+
+	@Test
+	void test_IpfReassembler_notFragmentedPassesThrough() {
+		byte[] payload = udpPayload(100);
+		Packet packet = toPacket(fragment(payload, 0, payload.length, false), 1000, 0);
+
+		assertSame(packet, reassembler.reassemble(packet));
+		assertEquals(0, reassembler.size());
+	}
+
+	@Test
+	void test_IpfReassembler_inOrder() {
+		byte[] payload = udpPayload(3000);
+		Packet packet = feed(fragments(payload, 1480));
+
+		assertDatagram(payload, packet);
+
+		IpfDescriptor ipf = packet.peekHeader(new Ip4(), 0).ipfDescriptor();
+		assertTrue(ipf.isComplete());
+		assertFalse(ipf.isOverlap());
+		assertEquals(payload.length, ipf.assembledBytes());
+		assertEquals(0, ipf.remainingBytes());
+		assertEquals(0, ipf.fragmentFrameNo());
+		assertEquals(0, ipf.prevFrameNo());
+		assertEquals(2, ipf.nextFrameNo());
+		assertEquals(1, reassembler.reassembledCount());
+		assertEquals(0, reassembler.size());
+	}
+
+	@Test
+	void test_IpfReassembler_outOfOrder() {
+		byte[] payload = udpPayload(4000);
+		List<ByteBuffer> fragments = fragments(payload, 504);
+		Collections.reverse(fragments);
+
+		Packet packet = feed(fragments);
+
+		assertDatagram(payload, packet);
+		assertEquals(fragments.size() - 1, packet.peekHeader(new Ip4(), 0).ipfDescriptor().fragmentFrameNo());
+	}
+
+	@Test
+	void test_IpfReassembler_overlapping() {
+		byte[] payload = udpPayload(2000);
+		List<ByteBuffer> fragments = new ArrayList<>();
+		fragments.add(fragment(payload, 0, 1000, true));
+		fragments.add(fragment(payload, 504, 1000, true));
+		fragments.add(fragment(payload, 1000, payload.length - 1000, false));
+
+		Packet packet = feed(fragments);
+
+		assertDatagram(payload, packet);
+
+		IpfDescriptor ipf = packet.peekHeader(new Ip4(), 0).ipfDescriptor();
+		assertTrue(ipf.isOverlap());
+		assertEquals(payload.length, ipf.assembledBytes());
+		assertEquals(1000 - 504 + 504, ipf.duplicateBytes());
+	}
+
+	@Test
+	void test_IpfReassembler_retainFragments() {
+		reassembler.setRetainFragments(true);
+
+		byte[] payload = udpPayload(3000);
+		Packet packet = feed(fragments(payload, 1480));
+
+		var ip4 = packet.peekHeader(new Ip4(), 0);
+		Packet[] fragments = ip4.reassembledFragments();
+
+		assertEquals(3, fragments.length);
+		assertEquals(2, fragments[2].descriptor().frameNo());
+		assertNotNull(fragments[1].peekHeader(new Ip4(), 0));
+	}
+
+	@Test
+	void test_IpfReassembler_timeoutEvictsIncomplete() {
+		reassembler.setTimeout(5, TimeUnit.SECONDS);
+
+		byte[] payload = udpPayload(3000);
+		List<ByteBuffer> fragments = fragments(payload, 1480);
+
+		assertNull(reassembler.reassemble(toPacket(fragments.get(0), 1000, 0)));
+		assertEquals(1, reassembler.size());
+
+		assertNull(reassembler.reassemble(toPacket(fragments.get(1), 1006, 1)));
+		assertEquals(1, reassembler.timeoutCount());
+
+		/* Datagram restarted from fragment 1, missing fragment 0 */
+		assertNull(reassembler.reassemble(toPacket(fragments.get(2), 1006, 2)));
+		assertEquals(0, reassembler.reassembledCount());
+	}
+
+	@Test
+	void test_IpfReassembler_poolExhaustionEvictsOldest() {
+		byte[] payload = udpPayload(3000);
+
+		for (int i = 0; i < 5; i++) {
+			ByteBuffer first = fragment(payload, 0, 1480, true);
+			first.putShort(ETH_LEN + 4, (short) (IDENT + i));
+
+			assertNull(reassembler.reassemble(toPacket(first, 1000, i)));
+		}
+
+		assertEquals(4, reassembler.size());
+		assertEquals(1, reassembler.droppedCount());
+	}
+
+	@Test
+	void test_IpfReassembler_misalignedFragmentDropped() {
+		byte[] payload = udpPayload(3000);
+
+		assertNull(reassembler.reassemble(toPacket(fragment(payload, 0, 1001, true), 1000, 0)));
+		assertEquals(0, reassembler.size());
+		assertEquals(1, reassembler.droppedCount());
+	}
+
+	private static void assertDatagram6(byte[] payload, Packet packet, int ip6Offset, int unfragLen) {
+		assertNotNull(packet);
+
+		var ip6 = packet.peekHeader(new Ip6(), 0);
+		assertNotNull(ip6);
+		assertEquals(ip6Offset, ip6.headerOffset());
+		assertEquals(unfragLen - IP6_LEN + payload.length, ip6.payloadLength());
+		assertFalse(ip6.hasExtension(new Ip6FragmentOption()));
+		assertTrue(ip6.isReassembled());
+		assertTrue((ip6.ipfDescriptor().ipfFlags() & IpfDescriptor.IPF_FLAG_IPv6) != 0);
+		assertEquals(payload.length, ip6.ipfDescriptor().assembledBytes());
+
+		var udp = packet.peekHeader(new Udp(), 0);
+		assertNotNull(udp, "udp header in reassembled datagram");
+		assertEquals(1234, udp.srcPort());
+		assertEquals(payload.length, udp.length());
+
+		byte[] actual = new byte[payload.length];
+		packet.buffer().get(ip6Offset + unfragLen, actual);
+		assertArrayEquals(payload, actual);
+	}
+
+	@Test
+	void test_IpfReassembler_ip6InOrder() {
+		byte[] payload = udpPayload(3000);
+		Packet packet = feed(fragments6(payload, 1232, false, false));
+
+		assertDatagram6(payload, packet, ETH_LEN, IP6_LEN);
+		assertEquals(17, packet.peekHeader(new Ip6(), 0).nextHeader());
+	}
+
+	@Test
+	void test_IpfReassembler_ip6OutOfOrderWithHopByHop() {
+		byte[] payload = udpPayload(3000);
+		List<ByteBuffer> fragments = fragments6(payload, 1232, true, false);
+		Collections.reverse(fragments);
+
+		Packet packet = feed(fragments);
+
+		assertDatagram6(payload, packet, ETH_LEN, IP6_LEN + 8);
+		assertTrue(packet.peekHeader(new Ip6(), 0).hasExtension(new Ip6HopByHopOption()));
+		assertEquals(17, packet.buffer().get(ETH_LEN + IP6_LEN));
+	}
+
+	@Test
+	void test_IpfReassembler_ip6TunneledInIp4() {
+		byte[] payload = udpPayload(3000);
+		Packet packet = feed(fragments6(payload, 1232, false, true));
+
+		assertDatagram6(payload, packet, ETH_LEN + IP_LEN, IP6_LEN);
+		assertNotNull(packet.peekHeader(new Ip4(), 0));
+	}
+
+	@Test
+	void test_IpfReassembler_ip6AtomicFragmentPassesThrough() {
+		byte[] payload = udpPayload(100);
+		Packet packet = toPacket(fragment6(payload, 0, payload.length, false, false, false), 1000, 0);
+
+		assertSame(packet, reassembler.reassemble(packet));
+		assertEquals(0, reassembler.size());
+	}
+
+	@Test
+	void test_IpfReassembler_ip6AndIp4KeysDoNotCollide() {
+		byte[] payload = udpPayload(3000);
+		List<ByteBuffer> v4 = fragments(payload, 1480);
+		List<ByteBuffer> v6 = fragments6(payload, 1480, false, false);
+
+		assertNull(reassembler.reassemble(toPacket(v4.get(0), 1000, 0)));
+		assertNull(reassembler.reassemble(toPacket(v6.get(0), 1000, 1)));
+		assertEquals(2, reassembler.size());
+	}
+
+	@Test
+	void test_IpfReassembler_ip4TunneledInIp4() {
+		byte[] payload = udpPayload(3000);
+		List<ByteBuffer> fragments = new ArrayList<>();
+		for (ByteBuffer fragment : fragments(payload, 1480))
+			fragments.add(tunnel(fragment, false));
+
+		Packet packet = feed(fragments);
+		assertNotNull(packet, "inner IPv4 fragments reassembled");
+
+		var inner = packet.peekHeader(new Ip4(), 1);
+		assertNotNull(inner);
+		assertEquals(ETH_LEN + IP_LEN, inner.headerOffset());
+		assertEquals(IP_LEN + payload.length, inner.totalLength());
+		assertEquals(0, inner.flagsMf());
+		assertEquals(0, inner.fragOffset());
+		assertTrue(inner.isReassembled());
+
+		byte[] actual = new byte[payload.length];
+		packet.buffer().get(ETH_LEN + IP_LEN + IP_LEN, actual);
+		assertArrayEquals(payload, actual);
+	}
+
+	@Test
+	void test_IpfReassembler_ip6TunneledInIp6() {
+		byte[] payload = udpPayload(3000);
+		List<ByteBuffer> fragments = new ArrayList<>();
+		for (ByteBuffer fragment : fragments6(payload, 1232, false, false))
+			fragments.add(tunnel(fragment, true));
+
+		Packet packet = feed(fragments);
+		assertNotNull(packet, "inner IPv6 fragments reassembled");
+
+		var inner = packet.peekHeader(new Ip6(), 1);
+		assertNotNull(inner);
+		assertEquals(ETH_LEN + IP6_LEN, inner.headerOffset());
+		assertEquals(payload.length, inner.payloadLength());
+		assertFalse(inner.hasExtension(new Ip6FragmentOption()));
+		assertTrue(inner.isReassembled());
+
+		byte[] actual = new byte[payload.length];
+		packet.buffer().get(ETH_LEN + IP6_LEN + IP6_LEN, actual);
+		assertArrayEquals(payload, actual);
+	}
+}
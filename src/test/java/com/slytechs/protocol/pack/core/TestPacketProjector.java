@@ -0,0 +1,275 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import com.slytechs.protocol.HeaderNotFound;
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.PacketProjector;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.internal.Benchmark;
+
+/**
+ * Packet projector tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ * @author Mark Bednarczyk
+ *
+ */
+@Tag("projection")
+class TestPacketProjector {
+
+	static final PacketDissector DISSECTOR = PacketDissector
+			.dissector(PacketDescriptorType.TYPE2);
+
+	static final ByteBuffer DESC_BUFFER = ByteBuffer
+			.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+			.order(ByteOrder.nativeOrder());
+
+	static final String[] FIVE_TUPLE = {
+			"ip4.src",
+			"ip4.dst",
+			"tcp.srcPort",
+			"tcp.dstPort",
+			"tcp.flags"
+	};
+
+	private static final long BENCHMARK_COUNT = 5_000_000;
+
+	private String testName;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeEach
+	void setUp(TestInfo info) throws Exception {
+		testName = info.getTestMethod().get().getName();
+
+		DISSECTOR.reset();
+
+		DESC_BUFFER.clear();
+		while (DESC_BUFFER.remaining() > 0)
+			DESC_BUFFER.put((byte) 0);
+
+		DESC_BUFFER.clear();
+	}
+
+	private Packet dissect(CorePackets source) {
+		var packet = source.toPacket();
+		packet.descriptor().bind(DESC_BUFFER);
+
+		DISSECTOR.dissectPacket(packet);
+		DISSECTOR.writeDescriptor(packet.descriptor());
+
+		return packet;
+	}
+
+	private void logPacketsPerSecond(double tsecs, double pps, long total) {
+		System.out.printf("> %s: duration=%,.1fsec rate=%,.0fpps total=%,d%n",
+				testName,
+				tsecs,
+				pps,
+				total);
+	}
+
+	@Test
+	void test_Projector_matchesHeaderAccessors() throws HeaderNotFound {
+		var packet = dissect(CorePackets.ETH_IPv4_TCP_WCALEOPT);
+		var ip4 = packet.getHeader(new Ip4());
+		var tcp = packet.getHeader(new Tcp());
+
+		var projector = PacketProjector.of(
+				"ip4.version",
+				"ip4.hdrLen",
+				"ip4.totalLength",
+				"ip4.identification",
+				"ip4.ttl",
+				"ip4.protocol",
+				"ip4.src",
+				"ip4.dst",
+				"tcp.srcPort",
+				"tcp.dstPort",
+				"tcp.seq",
+				"tcp.ack",
+				"tcp.dataOffset",
+				"tcp.flags",
+				"tcp.windowSize");
+		long[] row = new long[projector.fieldCount()];
+
+		long present = projector.project(packet, row);
+
+		assertEquals((1L << projector.fieldCount()) - 1, present);
+		assertEquals(ip4.version(), row[0]);
+		assertEquals(ip4.hdrLen(), row[1]);
+		assertEquals(ip4.totalLength(), row[2]);
+		assertEquals(ip4.identification(), row[3]);
+		assertEquals(ip4.ttl(), row[4]);
+		assertEquals(ip4.protocol(), row[5]);
+		assertEquals(Integer.toUnsignedLong(ip4.srcGetAsInt()), row[6]);
+		assertEquals(Integer.toUnsignedLong(ip4.dstAsInt()), row[7]);
+		assertEquals(tcp.srcPort(), row[8]);
+		assertEquals(tcp.dstPort(), row[9]);
+		assertEquals(tcp.seq(), row[10]);
+		assertEquals(tcp.ack(), row[11]);
+		assertEquals(tcp.dataOffset(), row[12]);
+		assertEquals(tcp.flags(), row[13]);
+		assertEquals(tcp.windowSize(), row[14]);
+	}
+
+	@Test
+	void test_Projector_missingHeaderIsZeroAndNotPresent() throws HeaderNotFound {
+		var packet = dissect(CorePackets.ETH_IPv4_UDP_SNMP);
+		var udp = packet.getHeader(new Udp());
+
+		var projector = PacketProjector.of("tcp.srcPort", "udp.srcPort", "udp.dstPort");
+		long[] row = {
+				-1,
+				-1,
+				-1
+		};
+
+		long present = projector.project(packet, row);
+
+		assertEquals(0b110, present);
+		assertEquals(0, row[0]);
+		assertEquals(udp.srcPort(), row[1]);
+		assertEquals(udp.dstPort(), row[2]);
+	}
+
+	@Test
+	void test_Projector_intRowAndColumns() {
+		var packet = dissect(CorePackets.ETH_IPv4_TCP_WCALEOPT);
+		var projector = PacketProjector.of(FIVE_TUPLE);
+
+		long[] row = new long[projector.fieldCount()];
+		int[] intRow = new int[projector.fieldCount() + 1];
+		long[][] columns = new long[projector.fieldCount()][4];
+
+		projector.project(packet, row);
+		projector.project(packet, intRow, 1);
+		projector.project(packet, columns, 2);
+
+		for (int i = 0; i < projector.fieldCount(); i++) {
+			assertEquals((int) row[i], intRow[i + 1]);
+			assertEquals(row[i], columns[i][2]);
+			assertEquals(0, columns[i][1]);
+		}
+	}
+
+	@Test
+	void test_Projector_intRowFromBufferAndLookup() {
+		var packet = dissect(CorePackets.ETH_IPv4_UDP_SNMP);
+		var projector = PacketProjector.of("tcp.srcPort", "ip4.src", "udp.srcPort", "udp.dstPort");
+
+		long[] row = new long[projector.fieldCount()];
+		int[] intRow = {
+				-1,
+				-1,
+				-1,
+				-1,
+				-1
+		};
+		long[][] columns = new long[projector.fieldCount()][2];
+		for (long[] column : columns)
+			column[1] = -1;
+
+		long present = projector.project(packet, row);
+
+		assertEquals(present, projector.project(packet.buffer(), packet.descriptor(), intRow, 1));
+		assertEquals(present, projector.project(packet.buffer(), packet.descriptor(), columns, 1));
+		assertEquals(0b1110, present);
+		assertEquals(-1, intRow[0]);
+
+		for (int i = 0; i < projector.fieldCount(); i++) {
+			assertEquals((int) row[i], intRow[i + 1]);
+			assertEquals(row[i], columns[i][1]);
+		}
+
+		assertEquals(0, intRow[1], "missing header written as 0");
+		assertEquals(0, columns[0][1], "missing header written as 0");
+	}
+
+	@Test
+	void test_Projector_indexOf() {
+		var projector = PacketProjector.of(FIVE_TUPLE);
+
+		assertEquals(3, projector.indexOf("tcp.dstPort"));
+		assertEquals(-1, projector.indexOf("udp.dstPort"));
+		assertSame(CoreProjectionField.TCP_DST_PORT, projector.field(3));
+	}
+
+	@Test
+	void test_Projector_invalidPath() {
+		assertThrows(IllegalArgumentException.class, () -> PacketProjector.of("tcp.nosuchfield"));
+	}
+
+	@Test
+	void test_Projector_benchmarkHeaderBinding() throws HeaderNotFound {
+		var packet = dissect(CorePackets.ETH_IPv4_TCP_WCALEOPT);
+		var ip4 = new Ip4();
+		var tcp = new Tcp();
+		long sum = 0;
+
+		Benchmark benchmark = Benchmark.setup()
+				.reportRate(BENCHMARK_COUNT, this::logPacketsPerSecond);
+
+		for (long count = BENCHMARK_COUNT; count > 0; count--) {
+			packet.getHeader(ip4);
+			packet.getHeader(tcp);
+
+			sum += ip4.srcGetAsInt() + ip4.dstAsInt() + tcp.srcPort() + tcp.dstPort() + tcp.flags();
+		}
+
+		benchmark.complete();
+
+		assertNotEquals(0, sum);
+	}
+
+	@Test
+	void test_Projector_benchmarkProjection() {
+		var packet = dissect(CorePackets.ETH_IPv4_TCP_WCALEOPT);
+		var projector = PacketProjector.of(FIVE_TUPLE);
+		long[] row = new long[projector.fieldCount()];
+		long sum = 0;
+
+		Benchmark benchmark = Benchmark.setup()
+				.reportRate(BENCHMARK_COUNT, this::logPacketsPerSecond);
+
+		for (long count = BENCHMARK_COUNT; count > 0; count--) {
+			projector.project(packet, row);
+
+			sum += row[0] + row[1] + row[2] + row[3] + row[4];
+		}
+
+		benchmark.complete();
+
+		assertNotEquals(0, sum);
+	}
+}
@@ -118,4 +118,23 @@ class TestTcpHeader {
 		assertEquals(5840 << 7, tcp.windowSizeScaled());
 	}
 
+	@Test
+	void test_Tcp_sharedHeaderBinding() throws HeaderNotFound {
+		var packet = CorePackets.ETH_IPv4_TCP_WCALEOPT.toPacket();
+		packet.descriptor().bind(DESC_BUFFER);
+		packet.setSharedHeaderBinding(true);
+
+		DISSECTOR.dissectPacket(packet);
+		DISSECTOR.writeDescriptor(packet.descriptor());
+
+		var tcp = packet.getHeader(new Tcp());
+		var wscale = tcp.getExtension(new TcpWindowScaleOption());
+
+		assertSame(packet.buffer(), tcp.buffer());
+		assertEquals(tcp.headerOffset(), tcp.bufferOffset());
+		assertEquals(80, tcp.dstPort());
+		assertEquals(7, wscale.shiftCount());
+		assertEquals(5840 << 7, tcp.windowSizeScaled());
+	}
+
 }
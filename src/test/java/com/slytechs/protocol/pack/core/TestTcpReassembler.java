@@ -0,0 +1,344 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pack.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.TcpStream.State;
+import com.slytechs.protocol.pack.core.constants.CoreConstants;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+
+/**
+ * TCP stream reassembly tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+@Tag("osi-layer4")
+@Tag("tcp")
+class TestTcpReassembler {
+
+	static final int FIN = CoreConstants.TCP_FLAG_FIN;
+	static final int SYN = CoreConstants.TCP_FLAG_SYN;
+	static final int RST = CoreConstants.TCP_FLAG_RST;
+	static final int ACK = CoreConstants.TCP_FLAG_ACK;
+
+	static final int CLIENT_ISN = 1000;
+	static final int SERVER_ISN = 50000;
+
+	static final PacketDissector DISSECTOR = PacketDissector
+			.dissector(PacketDescriptorType.TYPE2);
+
+	/** Collects delivered stream data, per direction. */
+	static class Collector implements TcpStreamHandler {
+		final ByteArrayOutputStream client = new ByteArrayOutputStream();
+		final ByteArrayOutputStream server = new ByteArrayOutputStream();
+		final List<TcpStream> closed = new ArrayList<>();
+		long gaps;
+
+		@Override
+		public void onData(TcpStream stream, ByteBuffer data) {
+			byte[] b = new byte[data.remaining()];
+			data.get(b);
+
+			(stream.srcPort() == 40000 ? client : server).writeBytes(b);
+		}
+
+		@Override
+		public void onGap(TcpStream stream, long length) {
+			gaps += length;
+		}
+
+		@Override
+		public void onClose(TcpStream stream) {
+			closed.add(stream);
+		}
+	}
+
+	private Collector collector;
+	private TcpReassembler reassembler;
+	private long frameNo;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		DISSECTOR.reset();
+
+		collector = new Collector();
+		reassembler = new TcpReassembler(collector, 16, 1 << 20);
+		frameNo = 0;
+	}
+
+	static byte[] data(int length) {
+		byte[] b = new byte[length];
+		for (int i = 0; i < length; i++)
+			b[i] = (byte) (i * 7);
+
+		return b;
+	}
+
+	/**
+	 * Builds an Ethernet/IPv4/TCP segment, optionally with a window scale option.
+	 */
+	static ByteBuffer segment(boolean fromClient, int seq, int ack, int flags, int window, int wscale,
+			byte[] payload, int offset, int length) {
+		int tcpLen = 20 + ((wscale >= 0) ? 4 : 0);
+		ByteBuffer b = ByteBuffer.allocate(14 + 20 + tcpLen + length);
+
+		b.put(new byte[] { 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 6 });
+		b.putShort((short) CoreConstants.ETHER_TYPE_IPv4);
+
+		b.put((byte) 0x45);
+		b.put((byte) 0);
+		b.putShort((short) (20 + tcpLen + length));
+		b.putShort((short) 0);
+		b.putShort((short) 0x4000);
+		b.put((byte) 64);
+		b.put((byte) 6);
+		b.putShort((short) 0);
+		b.putInt(fromClient ? 0x0A000001 : 0x0A000002);
+		b.putInt(fromClient ? 0x0A000002 : 0x0A000001);
+
+		b.putShort((short) (fromClient ? 40000 : 80));
+		b.putShort((short) (fromClient ? 80 : 40000));
+		b.putInt(seq);
+		b.putInt(ack);
+		b.putShort((short) (((tcpLen / 4) << 12) | flags));
+		b.putShort((short) window);
+		b.putShort((short) 0);
+		b.putShort((short) 0);
+
+		if (wscale >= 0) {
+			b.put((byte) 1);
+			b.put((byte) 3);
+			b.put((byte) 3);
+			b.put((byte) wscale);
+		}
+
+		if (length > 0)
+			b.put(payload, offset, length);
+
+		return b.flip();
+	}
+
+	Packet toPacket(ByteBuffer data, long seconds) {
+		ByteBuffer desc = ByteBuffer
+				.allocateDirect(CoreConstants.DESC_TYPE2_BYTE_SIZE_MAX)
+				.order(ByteOrder.nativeOrder());
+
+		DISSECTOR.dissectPacket(data, seconds << 32, data.limit(), data.limit());
+		data.rewind();
+		DISSECTOR.writeDescriptor(desc);
+
+		var type2 = new Type2Descriptor();
+		type2.bind(desc.clear());
+		type2.frameNo(frameNo++);
+
+		return new Packet(data, type2);
+	}
+
+	Packet feed(ByteBuffer segment) {
+		Packet packet = toPacket(segment, 1000);
+		reassembler.reassemble(packet);
+
+		return packet;
+	}
+
+	void handshake(int clientScale, int serverScale, int serverWindow) {
+		feed(segment(true, CLIENT_ISN, 0, SYN, 65535, clientScale, null, 0, 0));
+		feed(segment(false, SERVER_ISN, CLIENT_ISN + 1, SYN | ACK, 65535, serverScale, null, 0, 0));
+		feed(segment(true, CLIENT_ISN + 1, SERVER_ISN + 1, ACK, 65535, -1, null, 0, 0));
+		feed(segment(false, SERVER_ISN + 1, CLIENT_ISN + 1, ACK, serverWindow, -1, null, 0, 0));
+	}
+
+	ByteBuffer clientData(byte[] payload, int offset, int length) {
+		return segment(true, CLIENT_ISN + 1 + offset, SERVER_ISN + 1, ACK, 65535, -1, payload, offset, length);
+	}
+
+	@Test
+	void test_TcpReassembler_inOrderWithFin() {
+		byte[] payload = data(3000);
+
+		handshake(-1, -1, 65535);
+		feed(clientData(payload, 0, 1000));
+		Packet p = feed(clientData(payload, 1000, 1000));
+
+		Tcp tcp = p.peekHeader(new Tcp(), 0);
+		assertTrue(tcp.isReassembled());
+		assertEquals(1000, tcp.tcpDescriptor().streamOffset());
+		assertEquals(1000, tcp.tcpDescriptor().deliveredBytes());
+		assertTrue((tcp.tcpDescriptor().tcpFlags() & TcpDescriptor.TCP_FLAG_CLIENT) != 0);
+
+		feed(clientData(payload, 2000, 1000));
+		assertArrayEquals(payload, collector.client.toByteArray());
+
+		feed(segment(true, CLIENT_ISN + 3001, SERVER_ISN + 1, FIN | ACK, 65535, -1, null, 0, 0));
+		assertEquals(1, collector.closed.size());
+		assertEquals(State.FINISHED, collector.closed.get(0).state());
+		assertTrue(collector.closed.get(0).isClient());
+
+		feed(segment(false, SERVER_ISN + 1, CLIENT_ISN + 3002, FIN | ACK, 65535, -1, null, 0, 0));
+		assertEquals(2, collector.closed.size());
+		assertEquals(0, reassembler.size());
+	}
+
+	@Test
+	void test_TcpReassembler_outOfOrderBufferedAndReleased() {
+		reassembler.setRetainSegments(true);
+
+		byte[] payload = data(5000);
+		handshake(-1, -1, 65535);
+
+		Packet p3 = feed(clientData(payload, 3000, 2000));
+		assertFalse(p3.peekHeader(new Tcp(), 0).isReassembled());
+		assertTrue((p3.peekHeader(new Tcp(), 0).tcpDescriptor().tcpFlags() & TcpDescriptor.TCP_FLAG_BUFFERED) != 0);
+
+		feed(clientData(payload, 1000, 2000));
+		assertEquals(0, collector.client.size());
+		assertEquals(2 * TcpReassembler.CHUNK_SIZE, reassembler.bufferedBytes());
+
+		Packet p1 = feed(clientData(payload, 0, 1000));
+
+		assertArrayEquals(payload, collector.client.toByteArray());
+		assertEquals(0, reassembler.bufferedBytes());
+
+		Tcp tcp = p1.peekHeader(new Tcp(), 0);
+		assertTrue(tcp.isReassembled());
+		assertEquals(4000, tcp.tcpDescriptor().releasedBytes());
+		assertEquals(2, tcp.tcpDescriptor().releasedSegments());
+		assertEquals(2, tcp.reaseembledSegments().length);
+	}
+
+	@Test
+	void test_TcpReassembler_retransmissionsDeliveredOnce() {
+		byte[] payload = data(3000);
+		handshake(-1, -1, 65535);
+
+		feed(clientData(payload, 0, 1000));
+		Packet dup = feed(clientData(payload, 0, 1000));
+		feed(clientData(payload, 500, 1500));
+		feed(clientData(payload, 2500, 500));
+		feed(clientData(payload, 1500, 1500));
+
+		assertArrayEquals(payload, collector.client.toByteArray());
+		assertTrue((dup.peekHeader(new Tcp(), 0).tcpDescriptor().tcpFlags()
+				& TcpDescriptor.TCP_FLAG_RETRANSMIT) != 0);
+	}
+
+	@Test
+	void test_TcpReassembler_resetClosesBothStreams() {
+		handshake(-1, -1, 65535);
+		feed(clientData(data(100), 50, 50)); // Buffered out of order
+
+		feed(segment(false, SERVER_ISN + 1, 0, RST, 0, -1, null, 0, 0));
+
+		assertEquals(2, collector.closed.size());
+		assertEquals(State.RESET, collector.closed.get(0).state());
+		assertEquals(0, reassembler.size());
+		assertEquals(0, reassembler.bufferedBytes());
+	}
+
+	@Test
+	void test_TcpReassembler_flowBufferLimitSkipsGap() {
+		reassembler.setMaxFlowBuffer(4096);
+
+		byte[] payload = data(10000);
+		handshake(-1, -1, 65535);
+
+		/* First 1000 bytes are never received */
+		feed(clientData(payload, 1000, 2000));
+		feed(clientData(payload, 3000, 2000));
+		feed(clientData(payload, 5000, 2000)); // Over the flow limit
+
+		assertEquals(1000, collector.gaps);
+		assertEquals(6000, collector.client.size());
+		assertEquals(1, reassembler.gapCount());
+	}
+
+	@Test
+	void test_TcpReassembler_windowScaleAppliedToReceiveWindow() {
+		byte[] payload = data(2000);
+
+		/* Unscaled 100 byte window, data 1000 bytes ahead is out of window */
+		handshake(0, 0, 100);
+		Packet p = feed(clientData(payload, 1000, 1000));
+
+		assertEquals(1, reassembler.droppedCount());
+		assertTrue((p.peekHeader(new Tcp(), 0).tcpDescriptor().tcpFlags()
+				& TcpDescriptor.TCP_FLAG_OUT_OF_WINDOW) != 0);
+
+		/* Same raw window, scaled by 2^7 by the server's option */
+		reassembler.flush();
+		handshake(0, 7, 100);
+		p = feed(clientData(payload, 1000, 1000));
+
+		assertEquals(1, reassembler.droppedCount());
+		assertTrue((p.peekHeader(new Tcp(), 0).tcpDescriptor().tcpFlags()
+				& TcpDescriptor.TCP_FLAG_BUFFERED) != 0);
+	}
+
+	@Test
+	void test_TcpReassembler_sequenceWraparound() {
+		byte[] payload = data(3000);
+		int isn = 0xFFFFF000;
+
+		feed(segment(true, isn, 0, SYN, 65535, -1, null, 0, 0));
+		for (int off = 0; off < payload.length; off += 1000)
+			feed(segment(true, isn + 1 + off, 0, ACK, 65535, -1, payload, off, 1000));
+
+		assertArrayEquals(payload, collector.client.toByteArray());
+	}
+
+	@Test
+	void test_TcpReassembler_midstreamPickup() {
+		byte[] payload = data(2000);
+
+		feed(segment(true, 123456, 0, ACK, 65535, -1, payload, 0, 1000));
+		Packet p = feed(segment(true, 123456 + 1000, 0, ACK, 65535, -1, payload, 1000, 1000));
+
+		assertArrayEquals(payload, collector.client.toByteArray());
+		assertEquals(1000, p.peekHeader(new Tcp(), 0).tcpDescriptor().streamOffset());
+	}
+
+	@Test
+	void test_TcpReassembler_idleTimeoutExpiresFlow() {
+		reassembler.setTimeout(10, TimeUnit.SECONDS);
+		handshake(-1, -1, 65535);
+
+		assertEquals(1, reassembler.size());
+		reassembler.reassemble(toPacket(segment(true, 1, 0, SYN, 65535, -1, null, 0, 0).putShort(34, (short) 1),
+				1011));
+
+		assertEquals(1, reassembler.timeoutCount());
+		assertEquals(State.EXPIRED, collector.closed.get(0).state());
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.pcap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.slytechs.protocol.HeaderNotFound;
+import com.slytechs.protocol.Packet;
+import com.slytechs.protocol.descriptor.PacketDissector;
+import com.slytechs.protocol.descriptor.PcapDescriptor;
+import com.slytechs.protocol.descriptor.Type2Descriptor;
+import com.slytechs.protocol.pack.core.CorePackets;
+import com.slytechs.protocol.pack.core.Tcp;
+import com.slytechs.protocol.pack.core.constants.PacketDescriptorType;
+import com.slytechs.protocol.runtime.time.TimestampUnit;
+
+/**
+ * Memory mapped pcap reader tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ */
+@Tag("pcap")
+class TestPcapReader {
+
+	@TempDir
+	Path tempDir;
+
+	static final byte[] PACKET = CorePackets.ETH_IPv4_TCP_WCALEOPT.toArray();
+
+	/**
+	 * Writes a pcap file containing count copies of the test packet. Record i has
+	 * a timestamp of {@code 1000 + i} seconds and {@code i} fractional units.
+	 */
+	private Path writePcap(String name, int magic, ByteOrder order, int count, int truncateLast) throws IOException {
+		int recordLength = PcapReader.RECORD_HEADER_LENGTH + PACKET.length;
+		ByteBuffer b = ByteBuffer.allocate(PcapReader.FILE_HEADER_LENGTH + recordLength * count)
+				.order(order);
+
+		b.putInt(magic)
+				.putShort((short) 2)
+				.putShort((short) 4)
+				.putInt(0)
+				.putInt(0)
+				.putInt(65535)
+				.putInt(1);
+
+		for (int i = 0; i < count; i++) {
+			b.putInt(1000 + i)
+					.putInt(i)
+					.putInt(PACKET.length)
+					.putInt(PACKET.length + 4)
+					.put(PACKET);
+		}
+
+		Path file = tempDir.resolve(name);
+		Files.write(file, Arrays.copyOf(b.array(), b.capacity() - truncateLast));
+
+		return file;
+	}
+
+	@Test
+	void test_PcapReader_readMicroLittleEndian() throws IOException {
+		Path file = writePcap("le.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, 10, 0);
+
+		try (var reader = PcapReader.open(file)) {
+			assertEquals(ByteOrder.LITTLE_ENDIAN, reader.order());
+			assertEquals(TimestampUnit.PCAP_MICRO, reader.timestampUnit());
+			assertEquals(2, reader.majorVersion());
+			assertEquals(4, reader.minorVersion());
+			assertEquals(65535, reader.snaplen());
+			assertEquals(1, reader.linkType());
+
+			for (int i = 0; i < 10; i++) {
+				Packet packet = reader.nextPacket();
+				assertNotNull(packet);
+
+				PcapDescriptor pcap = packet.descriptor();
+				assertEquals(PACKET.length, pcap.captureLength());
+				assertEquals(PACKET.length + 4, pcap.wireLength());
+				assertEquals(TimestampUnit.PCAP_MICRO.ofSecond(1000 + i, i), pcap.timestamp());
+				assertEquals(i, pcap.frameNo());
+				assertEquals(PACKET.length, packet.captureLength());
+				assertEquals(PACKET[12], packet.buffer().get(12));
+			}
+
+			assertNull(reader.nextPacket());
+		}
+	}
+
+	@Test
+	void test_PcapReader_readNanoBigEndian() throws IOException {
+		Path file = writePcap("be.pcap", PcapReader.MAGIC_NANO, ByteOrder.BIG_ENDIAN, 3, 0);
+
+		try (var reader = PcapReader.open(file)) {
+			assertEquals(ByteOrder.BIG_ENDIAN, reader.order());
+			assertEquals(TimestampUnit.PCAP_NANO, reader.timestampUnit());
+
+			long count = reader.dispatch(-1, packet -> {
+				assertEquals(PACKET.length, packet.captureLength());
+				assertEquals(TimestampUnit.PCAP_NANO, packet.timestampUnit());
+			});
+
+			assertEquals(3, count);
+		}
+	}
+
+	@Test
+	void test_PcapReader_readAcrossMappedWindows() throws IOException {
+		int count = (2 * PcapReader.MIN_WINDOW_SIZE) / PACKET.length + 10;
+		Path file = writePcap("windows.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, count, 0);
+
+		try (var reader = PcapReader.open(file, PcapReader.MIN_WINDOW_SIZE)) {
+			long read = reader.dispatch(-1, packet -> {
+				assertEquals(PACKET.length, packet.captureLength());
+				assertEquals(PACKET[PACKET.length - 1], packet.buffer().get(PACKET.length - 1));
+			});
+
+			assertEquals(count, read);
+			assertEquals(reader.fileSize(), reader.position());
+		}
+	}
+
+	@Test
+	void test_PcapReader_truncatedLastRecordIsIgnored() throws IOException {
+		Path file = writePcap("truncated.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, 5, 7);
+
+		try (var reader = PcapReader.open(file)) {
+			assertEquals(4, reader.dispatch(-1, packet -> {}));
+		}
+	}
+
+	@Test
+	void test_PcapReader_dissectWhileReading() throws IOException, HeaderNotFound {
+		Path file = writePcap("dissect.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, 4, 0);
+
+		try (var reader = PcapReader.open(file)
+				.setDissector(PacketDissector.dissector(PacketDescriptorType.TYPE2))) {
+
+			for (int i = 0; i < 4; i++) {
+				Packet packet = reader.nextPacket();
+
+				Type2Descriptor type2 = packet.descriptor();
+				assertEquals(i, type2.frameNo());
+				assertEquals(TimestampUnit.PCAP_MICRO.ofSecond(1000 + i, i), type2.timestamp());
+				assertEquals(80, packet.getHeader(new Tcp()).dstPort());
+			}
+		}
+	}
+
+	@Test
+	void test_PcapSpliterator_parallelStreamInFrameOrder() throws IOException {
+		int count = (1 << 20) / PACKET.length;
+		Path file = writePcap("parallel.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, count, 0);
+
+		try (var reader = PcapReader.open(file)) {
+			var spliterator = new PcapSpliterator(reader, reader.position(), reader.fileSize(), 0,
+					() -> PacketDissector.dissector(PacketDescriptorType.TYPE2), 64 * 1024);
+
+			long[] frames = StreamSupport.stream(spliterator, true)
+					.mapToLong(packet -> {
+						long frameNo = packet.descriptor().frameNo();
+
+						assertEquals(TimestampUnit.PCAP_MICRO.ofSecond(1000 + frameNo, frameNo), packet.timestamp());
+						assertTrue(packet.hasHeader(new Tcp()));
+
+						return frameNo;
+					})
+					.toArray();
+
+			assertEquals(count, frames.length);
+			for (int i = 0; i < count; i++)
+				assertEquals(i, frames[i]);
+		}
+	}
+
+	@Test
+	void test_PcapSpliterator_splitAtRecordBoundaries() throws IOException {
+		int count = (1 << 20) / PACKET.length;
+		Path file = writePcap("split.pcap", PcapReader.MAGIC_NANO, ByteOrder.BIG_ENDIAN, count, 0);
+
+		try (var reader = PcapReader.open(file)) {
+			var suffix = new PcapSpliterator(reader, reader.position(), reader.fileSize(), 0, null, 64 * 1024);
+			var prefix = suffix.trySplit();
+			var middle = suffix.trySplit();
+
+			assertNotNull(prefix);
+			assertNotNull(middle);
+
+			/* Traverse out of order, so the frame numbers of preceding chunks are counted */
+			List<Long> frames = new ArrayList<>();
+			for (var chunk : List.of(suffix, middle, prefix))
+				chunk.forEachRemaining(packet -> {
+					long frameNo = packet.descriptor().frameNo();
+
+					assertEquals(TimestampUnit.PCAP_NANO.ofSecond(1000 + frameNo, frameNo), packet.timestamp());
+					frames.add(frameNo);
+				});
+
+			Collections.sort(frames);
+			assertEquals(count, frames.size());
+			for (int i = 0; i < count; i++)
+				assertEquals(i, frames.get(i));
+		}
+	}
+
+	@Test
+	void test_PcapSpliterator_splitPrefixAgainAfterSplit() throws IOException {
+		int count = (1 << 20) / PACKET.length;
+		Path file = writePcap("resplit.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, count, 0);
+
+		for (int order = 0; order < 2; order++) {
+			try (var reader = PcapReader.open(file)) {
+				var suffix = new PcapSpliterator(reader, reader.position(), reader.fileSize(), 0, null, 64 * 1024);
+				var prefix = suffix.trySplit();
+
+				/* The suffix still refers to the prefix chunk, which is split again */
+				var prefixHead = prefix.trySplit();
+				assertNotNull(prefixHead);
+
+				var chunks = (order == 0)
+						? List.of(prefixHead, prefix, suffix)
+						: List.of(suffix, prefix, prefixHead);
+
+				List<Long> frames = new ArrayList<>();
+				for (var chunk : chunks)
+					chunk.forEachRemaining(packet -> frames.add(packet.descriptor().frameNo()));
+
+				Collections.sort(frames);
+				assertEquals(count, frames.size());
+				for (int i = 0; i < count; i++)
+					assertEquals(i, frames.get(i), "order " + order);
+			}
+		}
+	}
+
+	@Test
+	void test_PcapSpliterator_chunkWindowLimitedToChunk() throws IOException {
+		int count = (1 << 20) / PACKET.length;
+		Path file = writePcap("window.pcap", PcapReader.MAGIC_MICRO, ByteOrder.LITTLE_ENDIAN, count, 0);
+		int recordLength = PcapReader.RECORD_HEADER_LENGTH + PACKET.length;
+
+		try (var reader = PcapReader.open(file)) {
+			long start = PcapReader.FILE_HEADER_LENGTH + 100L * recordLength;
+			long end = start + 10L * recordLength;
+
+			var chunk = new PcapReader(reader);
+			chunk.range(start, end);
+
+			int records = 0;
+			while (chunk.nextRecord())
+				records++;
+
+			assertEquals(10, records);
+			assertTrue(chunk.mappedLength() <= 4096 + (end - start), "mapped " + chunk.mappedLength());
+			assertTrue(chunk.mappedLength() < reader.fileSize() / 2);
+		}
+	}
+
+	@Test
+	void test_PcapReader_invalidMagicNumber() throws IOException {
+		Path file = tempDir.resolve("invalid.pcap");
+		Files.write(file, new byte[PcapReader.FILE_HEADER_LENGTH]);
+
+		assertThrows(IOException.class, () -> PcapReader.open(file));
+	}
+}
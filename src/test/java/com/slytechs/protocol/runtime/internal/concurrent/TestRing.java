@@ -0,0 +1,257 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lock-free ring tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestRing {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	/**
+	 * Moves {@code perProducer} values from each producer to the consumers, and
+	 * checks that every value was received exactly once.
+	 */
+	private static void transfer(IntRing ring, int producers, int consumers, int perProducer, int batch)
+			throws InterruptedException {
+		final int total = producers * perProducer;
+		final AtomicIntegerArray seen = new AtomicIntegerArray(total);
+		final AtomicIntegerArray received = new AtomicIntegerArray(1);
+		final Thread[] threads = new Thread[producers + consumers];
+
+		for (int p = 0; p < producers; p++) {
+			final int base = p * perProducer;
+
+			threads[p] = new Thread(() -> {
+				int[] values = new int[batch];
+				int next = 0;
+
+				while (next < perProducer) {
+					int len = Math.min(batch, perProducer - next);
+					for (int i = 0; i < len; i++)
+						values[i] = base + next + i;
+
+					int n = ring.burstEnqueue(values, 0, len);
+					if (n == 0)
+						Thread.yield();
+
+					next += n;
+				}
+			});
+		}
+
+		for (int c = 0; c < consumers; c++) {
+			threads[producers + c] = new Thread(() -> {
+				int[] values = new int[batch];
+				int last = -1;
+
+				while (received.get(0) < total) {
+					int n = ring.burstDequeue(values, 0, batch);
+					if (n == 0) {
+						Thread.yield();
+						continue;
+					}
+
+					for (int i = 0; i < n; i++) {
+						seen.incrementAndGet(values[i]);
+
+						/* A single producer and consumer must preserve order */
+						if (producers == 1 && consumers == 1) {
+							assertEquals(last + 1, values[i]);
+							last = values[i];
+						}
+					}
+
+					received.addAndGet(0, n);
+				}
+			});
+		}
+
+		for (Thread t : threads)
+			t.start();
+
+		for (Thread t : threads)
+			t.join(TIMEOUT.toMillis());
+
+		for (Thread t : threads)
+			assertFalse(t.isAlive(), "transfer did not complete in " + TIMEOUT);
+
+		assertEquals(total, received.get(0));
+		for (int i = 0; i < total; i++)
+			assertEquals(1, seen.get(i), "value " + i);
+
+		assertTrue(ring.isEmpty());
+	}
+
+	@Test
+	void test_IntRing_spscTransfer() throws InterruptedException {
+		transfer(new IntRing(1024, Ring.SP_ENQ | Ring.SC_DEQ), 1, 1, 200_000, 32);
+	}
+
+	@Test
+	void test_IntRing_mpmcTransfer2P2C() throws InterruptedException {
+		transfer(new IntRing(256), 2, 2, 50_000, 16);
+	}
+
+	@Test
+	void test_IntRing_mpmcTransfer4P4C() throws InterruptedException {
+		transfer(new IntRing(256), 4, 4, 25_000, 8);
+	}
+
+	@Test
+	void test_IntRing_mpmcTransferSingleEntries() throws InterruptedException {
+		transfer(new IntRing(16), 4, 4, 10_000, 1);
+	}
+
+	@Test
+	void test_IntRing_bulkIsAllOrNothing() {
+		var ring = new IntRing(8);
+
+		assertTrue(ring.bulkEnqueue(1, 2, 3, 4, 5, 6));
+		assertFalse(ring.bulkEnqueue(7, 8, 9));
+		assertEquals(6, ring.size());
+
+		int[] dst = new int[8];
+		assertFalse(ring.bulkDequeue(7, dst));
+		assertEquals(6, ring.size());
+
+		assertTrue(ring.bulkDequeue(6, dst));
+		assertArrayEquals(new int[] {
+				1,
+				2,
+				3,
+				4,
+				5,
+				6,
+				0,
+				0
+		}, dst);
+		assertTrue(ring.isEmpty());
+	}
+
+	@Test
+	void test_IntRing_burstIsPartial() {
+		var ring = new IntRing(8);
+
+		assertEquals(6, ring.burstEnqueue(1, 2, 3, 4, 5, 6));
+		assertEquals(2, ring.burstEnqueue(7, 8, 9));
+		assertEquals(0, ring.burstEnqueue(10));
+		assertTrue(ring.isFull());
+
+		int[] dst = new int[16];
+		assertEquals(8, ring.burstDequeue(16, dst));
+		assertEquals(8, dst[7]);
+		assertEquals(0, ring.burstDequeue(16, dst));
+	}
+
+	@Test
+	void test_IntRing_indexWrapAround() {
+		var ring = new IntRing(8);
+		ring.initIndices(Integer.MAX_VALUE - 5);
+
+		int[] dst = new int[8];
+		int next = 0, expected = 0;
+
+		/* Cross Integer.MAX_VALUE several times over, in uneven steps */
+		for (int round = 0; round < 20; round++) {
+			int n = ring.burstEnqueue(next, next + 1, next + 2, next + 3, next + 4);
+			next += n;
+
+			assertEquals(next - expected, ring.size());
+
+			int m = ring.burstDequeue(3, dst);
+			for (int i = 0; i < m; i++)
+				assertEquals(expected++, dst[i]);
+		}
+
+		while (!ring.isEmpty()) {
+			int m = ring.burstDequeue(8, dst);
+			for (int i = 0; i < m; i++)
+				assertEquals(expected++, dst[i]);
+		}
+
+		assertEquals(next, expected);
+		assertEquals(8, ring.remainingCapacity());
+	}
+
+	@Test
+	void test_IntRing_bulkAcrossWrapAround() {
+		var ring = new IntRing(4, Ring.SP_ENQ | Ring.SC_DEQ);
+		ring.initIndices(-2);
+
+		assertTrue(ring.bulkEnqueue(1, 2, 3, 4));
+		assertFalse(ring.bulkEnqueue(5));
+
+		int[] dst = new int[4];
+		assertTrue(ring.bulkDequeue(4, dst));
+		assertArrayEquals(new int[] {
+				1,
+				2,
+				3,
+				4
+		}, dst);
+	}
+
+	@Test
+	void test_ObjRing_dequeueClearsSlots() {
+		var ring = new ObjRing<String>(4, String[]::new);
+		ring.initIndices(Integer.MAX_VALUE - 1);
+
+		assertTrue(ring.enqueue("a"));
+		assertEquals("a", ring.dequeue());
+
+		assertEquals(3, ring.burstEnqueue("b", "c", "d"));
+		String[] dst = ring.newArray(4);
+		assertTrue(ring.bulkDequeue(2, dst));
+		assertEquals("c", dst[1]);
+
+		assertTrue(ring.bulkEnqueue("e", "f"));
+		assertEquals(3, ring.burstDequeue(4, dst));
+		assertArrayEquals(new String[] {
+				"d",
+				"e",
+				"f",
+				null
+		}, dst);
+
+		assertNull(ring.dequeue());
+		for (int i = 0; i < ring.capacity(); i++)
+			assertNull(ring.slot(i), "slot " + i);
+	}
+
+	@Test
+	void test_Ring_alignCapacity() {
+		assertEquals(1, Ring.alignCapacity(1));
+		assertEquals(8, Ring.alignCapacity(5));
+		assertEquals(8, Ring.alignCapacity(8));
+		assertThrows(IllegalArgumentException.class, () -> Ring.alignCapacity(0));
+		assertThrows(IllegalArgumentException.class, () -> new IntRing(6));
+	}
+}
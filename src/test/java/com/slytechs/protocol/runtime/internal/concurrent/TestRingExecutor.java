@@ -0,0 +1,295 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.Backpressure;
+import com.slytechs.protocol.runtime.internal.concurrent.RingExecutor.Slot;
+
+/**
+ * Ring executor tests, synchronous and threaded modes
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestRingExecutor {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	/** A slot which delegates processing to a predicate. */
+	private static class TestSlot extends Slot<Integer> {
+
+		private final Predicate<Integer> action;
+
+		TestSlot(Predicate<Integer> action) {
+			this.action = action;
+		}
+
+		@Override
+		protected boolean process(Integer resource) {
+			return action.test(resource);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void test_RingExecutor_inlineWhenNotStarted() {
+		List<Integer> seen = new ArrayList<>();
+		List<Integer> released = new ArrayList<>();
+
+		var executor = new RingExecutor<Integer>("inline", 8,
+				new TestSlot(seen::add),
+				new TestSlot(i -> i % 2 == 0))
+				.setReleaseHandler(released::add);
+
+		for (int i = 0; i < 10; i++)
+			assertTrue(executor.accept(i));
+
+		assertFalse(executor.isStarted());
+		assertEquals(10, seen.size());
+		assertEquals(10, released.size());
+		assertEquals(10, executor.slot(1).processedCount());
+	}
+
+	@Test
+	void test_RingExecutor_startStop() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+			AtomicInteger released = new AtomicInteger();
+
+			var executor = new RingExecutor<Integer>("start-stop", 16,
+					new TestSlot(i -> true),
+					new TestSlot(seen::add))
+					.setReleaseHandler(i -> released.incrementAndGet());
+
+			for (int round = 0; round < 2; round++) {
+				executor.start();
+				assertTrue(executor.isStarted());
+				assertThrows(IllegalStateException.class, executor::start);
+
+				for (int i = 0; i < 1000; i++)
+					assertTrue(executor.accept(i));
+
+				executor.stop();
+				assertFalse(executor.isStarted());
+			}
+
+			assertEquals(2000, seen.size());
+			assertEquals(2000, released.get());
+
+			/* Second slot is single consumer, so order is preserved within a round */
+			for (int i = 0; i < 1000; i++)
+				assertEquals(i, seen.get(i));
+
+			assertEquals(2000, executor.slot(0).acceptedCount());
+			assertEquals(2000, executor.slot(1).processedCount());
+			assertEquals(0, executor.slot(1).droppedCount());
+		});
+	}
+
+	@Test
+	void test_RingExecutor_blockDropsNothing() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			AtomicInteger released = new AtomicInteger();
+
+			var executor = new RingExecutor<Integer>("block", 4, Backpressure.BLOCK,
+					new TestSlot(i -> true),
+					new TestSlot(i -> {
+						Thread.yield();
+						return true;
+					}))
+					.setBatchSize(2)
+					.setReleaseHandler(i -> released.incrementAndGet())
+					.start();
+
+			Integer[] resources = new Integer[5000];
+			for (int i = 0; i < resources.length; i++)
+				resources[i] = i;
+
+			for (int i = 0; i < resources.length; i += 100)
+				assertEquals(100, executor.acceptAll(resources, i, 100));
+
+			executor.stop();
+
+			assertEquals(5000, released.get());
+			assertEquals(0, executor.slot(0).droppedCount());
+			assertEquals(0, executor.slot(1).droppedCount());
+			assertEquals(5000, executor.slot(1).processedCount());
+		});
+	}
+
+	@Test
+	void test_RingExecutor_dropCountsDropped() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			CountDownLatch gate = new CountDownLatch(1);
+			AtomicInteger released = new AtomicInteger();
+
+			var executor = new RingExecutor<Integer>("drop", 4, Backpressure.DROP,
+					new TestSlot(i -> true),
+					new TestSlot(i -> {
+						await(gate);
+						return true;
+					}))
+					.setBatchSize(1)
+					.setReleaseHandler(i -> released.incrementAndGet())
+					.start();
+
+			int accepted = 0;
+			for (int i = 0; i < 100; i++)
+				if (executor.accept(i))
+					accepted++;
+
+			/* Wait for slot 0 to push everything it accepted at the stalled slot 1 */
+			while (executor.slot(0).processedCount() < accepted)
+				Thread.yield();
+
+			gate.countDown();
+			executor.stop();
+
+			Slot<Integer> first = executor.slot(0);
+			Slot<Integer> second = executor.slot(1);
+
+			assertEquals(100, first.acceptedCount() + first.droppedCount());
+			assertEquals(accepted, first.acceptedCount());
+			assertEquals(accepted, second.acceptedCount() + second.droppedCount());
+			assertTrue(first.droppedCount() + second.droppedCount() > 0);
+			assertEquals(second.acceptedCount(), second.processedCount());
+
+			/* Resources dropped by accept remain with the caller, others are released */
+			assertEquals(accepted, released.get());
+		});
+	}
+
+	@Test
+	void test_RingExecutor_stopDrainsRings() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			CountDownLatch gate = new CountDownLatch(1);
+			AtomicInteger released = new AtomicInteger();
+
+			var executor = new RingExecutor<Integer>("drain", 256,
+					new TestSlot(i -> {
+						await(gate);
+						return true;
+					}),
+					new TestSlot(i -> true))
+					.setReleaseHandler(i -> released.incrementAndGet())
+					.start();
+
+			for (int i = 0; i < 200; i++)
+				assertTrue(executor.accept(i));
+
+			assertTrue(executor.slot(0).backlog() > 0);
+
+			/* Open the gate only once stop has begun, so stop must drain the backlog */
+			Thread opener = new Thread(() -> {
+				while (executor.isStarted())
+					Thread.yield();
+
+				gate.countDown();
+			});
+			opener.start();
+
+			executor.stop();
+			opener.join();
+
+			assertEquals(200, released.get());
+			assertEquals(0, executor.slot(0).backlog());
+			assertEquals(0, executor.slot(1).backlog());
+			assertEquals(200, executor.slot(1).processedCount());
+		});
+	}
+
+	@Test
+	void test_RingExecutor_exceptionDoesNotKillWorker() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			AtomicInteger released = new AtomicInteger();
+			AtomicInteger reported = new AtomicInteger();
+			AtomicInteger reachedLast = new AtomicInteger();
+
+			var executor = new RingExecutor<Integer>("errors", 4, Backpressure.BLOCK,
+					new TestSlot(i -> {
+						if (i % 2 == 1)
+							throw new IllegalStateException("odd " + i);
+
+						return true;
+					}),
+					new TestSlot(i -> reachedLast.incrementAndGet() > 0))
+					.setErrorHandler((i, e) -> {
+						assertEquals(1, i % 2);
+						reported.incrementAndGet();
+
+						throw new IllegalArgumentException("handler failure is suppressed");
+					})
+					.setReleaseHandler(i -> released.incrementAndGet())
+					.start();
+
+			for (int i = 0; i < 1000; i++)
+				assertTrue(executor.accept(i));
+
+			executor.stop();
+
+			assertEquals(500, executor.slot(0).failedCount());
+			assertEquals(1000, executor.slot(0).processedCount());
+			assertEquals(0, executor.slot(1).failedCount());
+			assertEquals(500, reported.get());
+			assertEquals(500, reachedLast.get());
+			assertEquals(1000, released.get());
+		});
+	}
+
+	@Test
+	void test_RingExecutor_idleCountIsCapped() {
+		int idle = 0;
+		for (int i = 0; i < 1000; i++)
+			idle = RingExecutor.idle(idle);
+
+		/* Once parking, the count stays put instead of overflowing back to spinning */
+		assertEquals(idle, RingExecutor.idle(idle));
+		assertEquals(idle, RingExecutor.idle(Integer.MAX_VALUE));
+	}
+
+	@Test
+	void test_RingExecutor_exceptionPropagatesWhenNotStarted() {
+		var executor = new RingExecutor<Integer>("inline-error", 8,
+				new TestSlot(i -> {
+					throw new IllegalStateException();
+				}));
+
+		assertThrows(IllegalStateException.class, () -> executor.accept(1));
+		assertEquals(0, executor.slot(0).failedCount());
+	}
+}
@@ -0,0 +1,360 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import com.slytechs.protocol.runtime.MemoryBinding;
+import com.slytechs.protocol.runtime.internal.Benchmark;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int8;
+import com.slytechs.protocol.runtime.util.HexStrings;
+
+/**
+ * Tests and benchmarks for cached bit fields.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestBitFieldCache {
+
+	private static final String IP4_HEX_STRING = "4500003c cb5b4000 400628e4 c0a8018c ae8fd5b8";
+	private static final byte[] IP4_HEADER = HexStrings.parseHexString(IP4_HEX_STRING);
+
+	private static final BinaryLayout IP4_STRUCT = structLayout(
+			structLayout(
+					structLayout(
+							Int8.BITS_04.withName("ip.hdr_len"),
+							Int8.BITS_04.withName("ip.version")),
+					Int8.BITS_08.withName("ip.dsfield"),
+					Int16be.BITS_16.withName("ip.len")),
+			Int32be.BITS_32.withName("ip.word1"),
+			Int32be.BITS_32.withName("ip.word2"),
+			Int32be.BITS_32.withName("ip.src"),
+			Int32be.BITS_32.withName("ip.dst"));
+
+	private static final long BENCHMARK_COUNT = 10_000_000;
+
+	/** A plain binding, used to rebind data the way headers and packets do. */
+	private static class TestBinding extends MemoryBinding {
+	}
+
+	private String testName;
+
+	private BitField version;
+	private BitField hdrLen;
+	private BitField len;
+	private BitField src;
+	private BitField dst;
+
+	private void logReadsPerSecond(double tsecs, double rps, long total) {
+		System.out.printf("> %s: duration=%,.1fsec rate=%,.0frps total=%,d%n",
+				testName,
+				tsecs,
+				rps,
+				total);
+	}
+
+	@BeforeEach
+	void setUp(TestInfo info) throws Exception {
+		testName = info.getTestMethod().get().getName();
+
+		version = IP4_STRUCT.bitField("ip.version");
+		hdrLen = IP4_STRUCT.bitField("ip.hdr_len");
+		len = IP4_STRUCT.bitField("ip.len");
+		src = IP4_STRUCT.bitField("ip.src");
+		dst = IP4_STRUCT.bitField("ip.dst");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		BitField.invalidateCaches();
+	}
+
+	@Test
+	void test_BitFieldCache_cachedReadsMatchUncachedReads() {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		BitField[] fields = {
+				version,
+				hdrLen,
+				len,
+				src,
+				dst
+		};
+
+		for (BitField field : fields) {
+			BitField cached = field.cache();
+
+			assertEquals(field.getLong(buf), cached.getLong(buf));
+			assertEquals(field.getLong(buf), cached.getLong(buf), "cache hit");
+		}
+	}
+
+	@Test
+	void test_BitFieldCache_cacheOfCachedFieldIsSame() {
+		BitField cached = len.cache();
+
+		assertSame(cached, cached.cache());
+	}
+
+	@Test
+	void test_BitFieldCache_invalidateCachesRefreshesModifiedData() {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		BitField cached = len.cache();
+
+		assertEquals(60, cached.getInt(buf));
+
+		len.setInt(1500, buf); // Uncached, in-place modification
+		BitField.invalidateCaches();
+
+		assertEquals(1500, cached.getInt(buf));
+	}
+
+	@Test
+	void test_BitFieldCache_cachedReadAfterInPlaceRebindIsFresh() {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		TestBinding binding = new TestBinding();
+		BitField cached = len.cache();
+
+		binding.bind(buf);
+		assertEquals(60, cached.getInt(binding.buffer()));
+
+		/* Reuse the same buffer for new data, then rebind it in place */
+		buf.putShort(2, (short) 1500);
+		binding.bind(buf);
+
+		assertSame(buf, binding.buffer());
+		assertEquals(1500, cached.getInt(binding.buffer()));
+	}
+
+	@Test
+	void test_BitFieldCache_cachedReadAfterRebindOnAnotherThreadIsFresh() throws InterruptedException {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		TestBinding binding = new TestBinding();
+		BitField cached = len.cache();
+		int[] read = new int[1];
+
+		binding.bind(buf);
+		Thread reader = new Thread(() -> read[0] = cached.getInt(buf));
+		reader.start();
+		reader.join();
+		assertEquals(60, read[0]);
+
+		buf.putShort(2, (short) 1500);
+		binding.bind(buf);
+
+		reader = new Thread(() -> read[0] = cached.getInt(buf));
+		reader.start();
+		reader.join();
+		assertEquals(1500, read[0]);
+	}
+
+	@Test
+	void test_BitFieldCache_threadsKeepSeparateCaches() throws InterruptedException {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		BitField cached = len.cache();
+		int[] read = new int[1];
+
+		assertEquals(60, cached.getInt(buf));
+		len.setInt(1500, buf); // Uncached, in-place modification
+
+		/* The reader starts with its own empty cache, not this thread's slots */
+		Thread reader = new Thread(() -> read[0] = cached.getInt(buf));
+		reader.start();
+		reader.join();
+		assertEquals(1500, read[0]);
+
+		BitField.invalidateCaches();
+		assertEquals(1500, cached.getInt(buf));
+	}
+
+	@Test
+	void test_BitFieldCache_concurrentRebindsOfSharedField() throws InterruptedException {
+		BitField cached = len.cache();
+		AtomicInteger mismatches = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+
+		for (int t = 0; t < threads.length; t++) {
+			int base = t * 1000;
+
+			threads[t] = new Thread(() -> {
+				ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+				TestBinding binding = new TestBinding();
+
+				for (int i = 0; i < 100_000; i++) {
+					int value = base + (i % 1000);
+
+					len.setInt(value, buf);
+					binding.bind(buf);
+
+					if (cached.getInt(binding.buffer()) != value)
+						mismatches.incrementAndGet();
+				}
+			});
+		}
+
+		for (Thread thread : threads)
+			thread.start();
+
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(0, mismatches.get());
+	}
+
+	@Test
+	void test_BitFieldCache_cacheOwnedByCreatingThread() throws InterruptedException {
+		AbstractFieldCache cache = new AbstractFieldCache(16);
+		boolean[] owner = new boolean[1];
+
+		assertTrue(cache.isOwner());
+
+		Thread other = new Thread(() -> owner[0] = cache.isOwner());
+		other.start();
+		other.join();
+		assertFalse(owner[0]);
+	}
+
+	@Test
+	void test_BitFieldCache_rebindWithoutCachedReadsSkipsInvalidation() {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		TestBinding binding = new TestBinding();
+		BitField cached = len.cache();
+
+		assertEquals(60, cached.getInt(buf));
+		binding.bind(buf);
+
+		/* No cached value was saved since the last rebind, nothing to invalidate */
+		for (int i = 0; i < 10; i++)
+			binding.bind(buf);
+
+		buf.putShort(2, (short) 1500);
+		binding.bind(buf);
+
+		assertEquals(1500, cached.getInt(buf));
+		assertEquals(1500, cached.getInt(buf), "cache hit");
+	}
+
+	@Test
+	void test_BitFieldCache_cachedSetWritesThroughToSiblingFields() {
+		ByteBuffer buf = ByteBuffer.wrap(IP4_HEADER.clone());
+		BitField cachedVersion = version.cache();
+		BitField cachedHdrLen = hdrLen.cache();
+
+		assertEquals(4, cachedVersion.getInt(buf));
+		assertEquals(5, cachedHdrLen.getInt(buf));
+
+		cachedHdrLen.setInt(6, buf);
+
+		assertEquals(6, hdrLen.getInt(buf));
+		assertEquals(6, cachedHdrLen.getInt(buf));
+		assertEquals(4, cachedVersion.getInt(buf));
+		assertEquals(0x46, buf.get(0));
+	}
+
+	@Test
+	void test_BitFieldCache_cacheDistinguishesDataSources() {
+		byte[] other = IP4_HEADER.clone();
+		other[3] = 0x40; // len=64
+		ByteBuffer buf1 = ByteBuffer.wrap(IP4_HEADER.clone());
+		ByteBuffer buf2 = ByteBuffer.wrap(other);
+		BitField cached = len.cache();
+
+		assertEquals(60, cached.getInt(buf1));
+		assertEquals(64, cached.getInt(buf2));
+		assertEquals(60, cached.getInt(buf1));
+	}
+
+	@Test
+	void test_BitFieldCache_lookupSlotIsNeverNegative() {
+		AbstractFieldCache cache = new AbstractFieldCache(100);
+		long[] offsets = {
+				0,
+				1,
+				-1,
+				Integer.MAX_VALUE,
+				Integer.MIN_VALUE,
+				Long.MAX_VALUE,
+				Long.MIN_VALUE
+		};
+
+		assertEquals(128, cache.size());
+
+		for (int i = 0; i < 1000; i++) {
+			Object source = new Object();
+
+			for (long offset : offsets) {
+				int slot = cache.lookup(source, offset);
+
+				assertTrue((slot >= 0) && (slot < cache.size()), "slot " + slot);
+			}
+		}
+	}
+
+	@Test
+	void test_BitFieldCache_invalidCacheSizeThrows() {
+		assertThrows(IllegalArgumentException.class, () -> new AbstractFieldCache(0));
+	}
+
+	@Test
+	void test_BitFieldCache_benchmarkUncachedByteBufferReads() {
+		benchmarkReads(ByteBuffer.wrap(IP4_HEADER.clone()), len, src, dst);
+	}
+
+	@Test
+	void test_BitFieldCache_benchmarkCachedByteBufferReads() {
+		benchmarkReads(ByteBuffer.wrap(IP4_HEADER.clone()), len.cache(), src.cache(), dst.cache());
+	}
+
+	@Test
+	void test_BitFieldCache_benchmarkUncachedMemorySegmentReads() {
+		benchmarkReads(MemorySegment.ofArray(IP4_HEADER.clone()), len, src, dst);
+	}
+
+	@Test
+	void test_BitFieldCache_benchmarkCachedMemorySegmentReads() {
+		benchmarkReads(MemorySegment.ofArray(IP4_HEADER.clone()), len.cache(), src.cache(), dst.cache());
+	}
+
+	private void benchmarkReads(Object data, BitField f1, BitField f2, BitField f3) {
+		long expected = f1.getLong(data) + f2.getLong(data) + f3.getLong(data);
+
+		Benchmark benchmark = Benchmark.setup()
+				.reportRate(BENCHMARK_COUNT * 3, this::logReadsPerSecond);
+
+		long sum = 0;
+		for (long count = BENCHMARK_COUNT; count > 0; count--)
+			sum += f1.getLong(data) + f2.getLong(data) + f3.getLong(data);
+
+		benchmark.complete();
+
+		assertEquals(expected * BENCHMARK_COUNT, sum);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int8;
+
+/**
+ * Tests that carrier specialized, generated bit fields read and write exactly
+ * the same values as the generic bit fields they are generated from.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestBitFieldGenerator {
+
+	private static final BinaryLayout LAYOUT = structLayout(
+			Int8.BITS_08.withName("u8"),
+			structLayout(
+					Int8.BITS_04.withName("u8.lo"),
+					Int8.BITS_04.withName("u8.hi")),
+			Int16be.BITS_16.withName("u16be"),
+			Int16le.BITS_16.withName("u16le"),
+			structLayout(
+					Int16be.BITS_04.withName("u16be.lo"),
+					Int16be.BITS_12.withName("u16be.hi")),
+			Int32be.BITS_32.withName("u32be"),
+			Int32le.BITS_32.withName("u32le"),
+			structLayout(
+					Int32le.BITS_04.withName("u32le.lo"),
+					Int32le.BITS_28.withName("u32le.hi")),
+			Int64be.BITS_64.withName("u64be"),
+			Int64le.BITS_64.withName("u64le"));
+
+	private static final String[] FIELDS = {
+			"u8",
+			"u8.lo",
+			"u8.hi",
+			"u16be",
+			"u16le",
+			"u16be.lo",
+			"u16be.hi",
+			"u32be",
+			"u32le",
+			"u32le.lo",
+			"u32le.hi",
+			"u64be",
+			"u64le",
+	};
+
+	private static final int LENGTH = 64;
+
+	/** Applies an accessor, returning either its result or the exception class. */
+	private static Object outcome(BitField field, Function<BitField, Object> accessor) {
+		try {
+			return accessor.apply(field);
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private static void assertReadsMatch(String name, BitField generic, BitField generated, Object data) {
+		assertEquals(outcome(generic, f -> f.getByte(data)), outcome(generated, f -> f.getByte(data)), name);
+		assertEquals(outcome(generic, f -> f.getShort(data)), outcome(generated, f -> f.getShort(data)), name);
+		assertEquals(outcome(generic, f -> f.getInt(data)), outcome(generated, f -> f.getInt(data)), name);
+		assertEquals(outcome(generic, f -> f.getLong(data)), outcome(generated, f -> f.getLong(data)), name);
+		assertEquals(outcome(generic, f -> f.getUnsignedByte(data)),
+				outcome(generated, f -> f.getUnsignedByte(data)), name);
+		assertEquals(outcome(generic, f -> f.getUnsignedShort(data)),
+				outcome(generated, f -> f.getUnsignedShort(data)), name);
+		assertEquals(outcome(generic, f -> f.getUnsignedInt(data)),
+				outcome(generated, f -> f.getUnsignedInt(data)), name);
+		assertEquals(outcome(generic, f -> f.getBit(data)), outcome(generated, f -> f.getBit(data)), name);
+
+		for (long offset : new long[] { 1, 7, 16 }) {
+			assertEquals(outcome(generic, f -> f.getLongAt(offset, data)),
+					outcome(generated, f -> f.getLongAt(offset, data)), name + "@" + offset);
+			assertEquals(outcome(generic, f -> f.getIntAt(offset, data)),
+					outcome(generated, f -> f.getIntAt(offset, data)), name + "@" + offset);
+		}
+	}
+
+	private static byte[] randomBytes(long seed) {
+		byte[] bytes = new byte[LENGTH];
+		new Random(seed).nextBytes(bytes);
+
+		return bytes;
+	}
+
+	private static void assertGeneratedMatchesGeneric(Class<?> carrierType, Function<byte[], Object> wrap) {
+		for (String name : FIELDS) {
+			BitField generic = LAYOUT.bitField(name);
+			BitField generated = generic.generate(carrierType);
+
+			assertInstanceOf(GeneratedBitField.class, generated, name);
+
+			for (long seed = 0; seed < 16; seed++) {
+				byte[] bytes = randomBytes(seed);
+				assertReadsMatch(name, generic, generated, wrap.apply(bytes));
+
+				long value = new Random(~seed).nextLong();
+
+				byte[] expected = bytes.clone();
+				byte[] actual = bytes.clone();
+				generic.setLong(value, wrap.apply(expected));
+				generated.setLong(value, wrap.apply(actual));
+				assertArrayEquals(expected, actual, name + " setLong");
+
+				generic.setIntAt((int) value, 3, wrap.apply(expected));
+				generated.setIntAt((int) value, 3, wrap.apply(actual));
+				assertArrayEquals(expected, actual, name + " setIntAt");
+			}
+		}
+	}
+
+	@Test
+	void test_generate_byteBufferMatchesGeneric() {
+		assertGeneratedMatchesGeneric(ByteBuffer.class, ByteBuffer::wrap);
+	}
+
+	@Test
+	void test_generate_byteArrayMatchesGeneric() {
+		assertGeneratedMatchesGeneric(byte[].class, bytes -> bytes);
+	}
+
+	@Test
+	void test_generate_unsupportedCarrierType() {
+		BitField field = LAYOUT.bitField("u32be");
+
+		assertThrows(IllegalArgumentException.class, () -> field.generate(String.class));
+	}
+
+	@Test
+	void test_generate_cachedFieldIsNotGenerated() {
+		BitField cached = LAYOUT.bitField("u16be").cache();
+
+		assertSame(cached, cached.generate(ByteBuffer.class));
+	}
+}
@@ -0,0 +1,396 @@
+/*
+ * Sly Technologies Free License
+ *
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.slytechs.com/free-license-text
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.layout;
+
+import static com.slytechs.protocol.runtime.internal.layout.BinaryLayout.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int16le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int32le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64be;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int64le;
+import com.slytechs.protocol.runtime.internal.layout.PredefinedLayout.Int8;
+
+/**
+ * Tests that carrier fields, for every carrier size and byte order, read and
+ * write exactly the same values as the generic bit fields they are created
+ * from.
+ *
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+@SuppressWarnings("preview")
+class TestCarrierField {
+
+	private static final BinaryLayout LAYOUT = structLayout(
+			Int8.BITS_08.withName("u8"),
+			structLayout(
+					Int8.BITS_03.withName("u8.lo"),
+					Int8.BITS_05.withName("u8.hi")),
+			Int16be.BITS_16.withName("u16be"),
+			Int16le.BITS_16.withName("u16le"),
+			structLayout(
+					Int16be.BITS_04.withName("u16be.lo"),
+					Int16be.BITS_12.withName("u16be.hi")),
+			structLayout(
+					Int16le.BITS_03.withName("u16le.lo"),
+					Int16le.BITS_13.withName("u16le.hi")),
+			Int32be.BITS_32.withName("u32be"),
+			Int32le.BITS_32.withName("u32le"),
+			structLayout(
+					Int32be.BITS_05.withName("u32be.lo"),
+					Int32be.BITS_27.withName("u32be.hi")),
+			structLayout(
+					Int32le.BITS_04.withName("u32le.lo"),
+					Int32le.BITS_28.withName("u32le.hi")),
+			Int64be.BITS_64.withName("u64be"),
+			Int64le.BITS_64.withName("u64le"),
+			structLayout(
+					Int64be.BITS_12.withName("u64be.lo"),
+					Int64be.BITS_52.withName("u64be.hi")),
+			structLayout(
+					Int64le.BITS_07.withName("u64le.lo"),
+					Int64le.BITS_57.withName("u64le.hi")));
+
+	private static final String[] FIELDS = {
+			"u8",
+			"u8.lo",
+			"u8.hi",
+			"u16be",
+			"u16le",
+			"u16be.lo",
+			"u16be.hi",
+			"u16le.lo",
+			"u16le.hi",
+			"u32be",
+			"u32le",
+			"u32be.lo",
+			"u32be.hi",
+			"u32le.lo",
+			"u32le.hi",
+			"u64be",
+			"u64le",
+			"u64be.lo",
+			"u64be.hi",
+			"u64le.lo",
+			"u64le.hi",
+	};
+
+	private static final int LENGTH = 128;
+
+	private static final long[] OFFSETS = { 0, 1, 7, 16, 33 };
+
+	/**
+	 * Uniform view of a carrier field, so that all three carrier types are
+	 * checked by the same code.
+	 */
+	private interface Accessor {
+		Object wrap(byte[] bytes);
+
+		boolean getBit(Object data);
+
+		byte getByteAt(long offset, Object data);
+
+		short getShortAt(long offset, Object data);
+
+		int getIntAt(long offset, Object data);
+
+		long getLongAt(long offset, Object data);
+
+		int getUnsignedByteAt(long offset, Object data);
+
+		int getUnsignedShortAt(long offset, Object data);
+
+		long getUnsignedIntAt(long offset, Object data);
+
+		byte setByteAt(byte value, long offset, Object data);
+
+		short setShortAt(short value, long offset, Object data);
+
+		int setIntAt(int value, long offset, Object data);
+
+		long setLongAt(long value, long offset, Object data);
+	}
+
+	private static Accessor ofArray(CarrierField.OfArray f) {
+		return new Accessor() {
+
+			@Override
+			public Object wrap(byte[] bytes) {
+				return bytes;
+			}
+
+			// @formatter:off
+			@Override public boolean getBit(Object d) { return f.getBit((byte[]) d); }
+			@Override public byte  getByteAt (long o, Object d) { return f.getByteAt (o, (byte[]) d); }
+			@Override public short getShortAt(long o, Object d) { return f.getShortAt(o, (byte[]) d); }
+			@Override public int   getIntAt  (long o, Object d) { return f.getIntAt  (o, (byte[]) d); }
+			@Override public long  getLongAt (long o, Object d) { return f.getLongAt (o, (byte[]) d); }
+			@Override public int   getUnsignedByteAt (long o, Object d) { return f.getUnsignedByteAt (o, (byte[]) d); }
+			@Override public int   getUnsignedShortAt(long o, Object d) { return f.getUnsignedShortAt(o, (byte[]) d); }
+			@Override public long  getUnsignedIntAt  (long o, Object d) { return f.getUnsignedIntAt  (o, (byte[]) d); }
+			@Override public byte  setByteAt (byte  v, long o, Object d) { return f.setByteAt (v, o, (byte[]) d); }
+			@Override public short setShortAt(short v, long o, Object d) { return f.setShortAt(v, o, (byte[]) d); }
+			@Override public int   setIntAt  (int   v, long o, Object d) { return f.setIntAt  (v, o, (byte[]) d); }
+			@Override public long  setLongAt (long  v, long o, Object d) { return f.setLongAt (v, o, (byte[]) d); }
+			// @formatter:on
+		};
+	}
+
+	private static Accessor ofByteBuffer(CarrierField.OfByteBuffer f) {
+		return new Accessor() {
+
+			@Override
+			public Object wrap(byte[] bytes) {
+				return ByteBuffer.wrap(bytes);
+			}
+
+			// @formatter:off
+			@Override public boolean getBit(Object d) { return f.getBit((ByteBuffer) d); }
+			@Override public byte  getByteAt (long o, Object d) { return f.getByteAt (o, (ByteBuffer) d); }
+			@Override public short getShortAt(long o, Object d) { return f.getShortAt(o, (ByteBuffer) d); }
+			@Override public int   getIntAt  (long o, Object d) { return f.getIntAt  (o, (ByteBuffer) d); }
+			@Override public long  getLongAt (long o, Object d) { return f.getLongAt (o, (ByteBuffer) d); }
+			@Override public int   getUnsignedByteAt (long o, Object d) { return f.getUnsignedByteAt (o, (ByteBuffer) d); }
+			@Override public int   getUnsignedShortAt(long o, Object d) { return f.getUnsignedShortAt(o, (ByteBuffer) d); }
+			@Override public long  getUnsignedIntAt  (long o, Object d) { return f.getUnsignedIntAt  (o, (ByteBuffer) d); }
+			@Override public byte  setByteAt (byte  v, long o, Object d) { return f.setByteAt (v, o, (ByteBuffer) d); }
+			@Override public short setShortAt(short v, long o, Object d) { return f.setShortAt(v, o, (ByteBuffer) d); }
+			@Override public int   setIntAt  (int   v, long o, Object d) { return f.setIntAt  (v, o, (ByteBuffer) d); }
+			@Override public long  setLongAt (long  v, long o, Object d) { return f.setLongAt (v, o, (ByteBuffer) d); }
+			// @formatter:on
+		};
+	}
+
+	private static Accessor ofSegment(CarrierField.OfSegment f) {
+		return new Accessor() {
+
+			@Override
+			public Object wrap(byte[] bytes) {
+				return MemorySegment.ofArray(bytes);
+			}
+
+			// @formatter:off
+			@Override public boolean getBit(Object d) { return f.getBit((MemorySegment) d); }
+			@Override public byte  getByteAt (long o, Object d) { return f.getByteAt (o, (MemorySegment) d); }
+			@Override public short getShortAt(long o, Object d) { return f.getShortAt(o, (MemorySegment) d); }
+			@Override public int   getIntAt  (long o, Object d) { return f.getIntAt  (o, (MemorySegment) d); }
+			@Override public long  getLongAt (long o, Object d) { return f.getLongAt (o, (MemorySegment) d); }
+			@Override public int   getUnsignedByteAt (long o, Object d) { return f.getUnsignedByteAt (o, (MemorySegment) d); }
+			@Override public int   getUnsignedShortAt(long o, Object d) { return f.getUnsignedShortAt(o, (MemorySegment) d); }
+			@Override public long  getUnsignedIntAt  (long o, Object d) { return f.getUnsignedIntAt  (o, (MemorySegment) d); }
+			@Override public byte  setByteAt (byte  v, long o, Object d) { return f.setByteAt (v, o, (MemorySegment) d); }
+			@Override public short setShortAt(short v, long o, Object d) { return f.setShortAt(v, o, (MemorySegment) d); }
+			@Override public int   setIntAt  (int   v, long o, Object d) { return f.setIntAt  (v, o, (MemorySegment) d); }
+			@Override public long  setLongAt (long  v, long o, Object d) { return f.setLongAt (v, o, (MemorySegment) d); }
+			// @formatter:on
+		};
+	}
+
+	private static List<Object> signedReads(Accessor a, long offset, Object data) {
+		return Arrays.asList(
+				a.getByteAt(offset, data),
+				a.getShortAt(offset, data),
+				a.getIntAt(offset, data),
+				a.getLongAt(offset, data));
+	}
+
+	private static List<Object> signedReads(BitField f, long offset, Object data) {
+		return Arrays.asList(
+				f.getByteAt(offset, data),
+				f.getShortAt(offset, data),
+				f.getIntAt(offset, data),
+				f.getLongAt(offset, data));
+	}
+
+	private static List<Object> unsignedReads(Accessor a, long offset, Object data) {
+		return Arrays.asList(
+				a.getUnsignedByteAt(offset, data),
+				a.getUnsignedShortAt(offset, data),
+				a.getUnsignedIntAt(offset, data));
+	}
+
+	private static List<Object> unsignedReads(BitField f, long offset, Object data) {
+		return Arrays.asList(
+				f.getUnsignedByteAt(offset, data),
+				f.getUnsignedShortAt(offset, data),
+				f.getUnsignedIntAt(offset, data));
+	}
+
+	/** Applies every setter in turn, recording each result and the bytes after. */
+	private static List<Object> writes(Accessor a, long offset, long value, byte[] bytes) {
+		List<Object> list = new ArrayList<>();
+
+		list.add(a.setByteAt((byte) value, offset, a.wrap(bytes)));
+		list.add(bytes.clone());
+		list.add(a.setShortAt((short) (value >> 8), offset, a.wrap(bytes)));
+		list.add(bytes.clone());
+		list.add(a.setIntAt((int) (value >> 16), offset, a.wrap(bytes)));
+		list.add(bytes.clone());
+		list.add(a.setLongAt(Long.rotateLeft(value, 24), offset, a.wrap(bytes)));
+		list.add(bytes.clone());
+
+		return list;
+	}
+
+	private static List<Object> writes(BitField f, Function<byte[], Object> wrap, long offset, long value,
+			byte[] bytes) {
+		List<Object> list = new ArrayList<>();
+
+		list.add(f.setByteAt((byte) value, offset, wrap.apply(bytes)));
+		list.add(bytes.clone());
+		list.add(f.setShortAt((short) (value >> 8), offset, wrap.apply(bytes)));
+		list.add(bytes.clone());
+		list.add(f.setIntAt((int) (value >> 16), offset, wrap.apply(bytes)));
+		list.add(bytes.clone());
+		list.add(f.setLongAt(Long.rotateLeft(value, 24), offset, wrap.apply(bytes)));
+		list.add(bytes.clone());
+
+		return list;
+	}
+
+	private static byte[] randomBytes(long seed) {
+		byte[] bytes = new byte[LENGTH];
+		new Random(seed).nextBytes(bytes);
+
+		return bytes;
+	}
+
+	private static void assertCarrierMatchesGeneric(Function<BitField, Accessor> factory) {
+		for (String name : FIELDS) {
+			BitField generic = LAYOUT.bitField(name);
+			Accessor carrier = factory.apply(generic);
+
+			for (long seed = 0; seed < 16; seed++) {
+				byte[] bytes = randomBytes(seed);
+				Object data = carrier.wrap(bytes);
+
+				assertEquals(generic.getBit(data), carrier.getBit(data), name);
+
+				for (long offset : OFFSETS) {
+					assertEquals(signedReads(generic, offset, data), signedReads(carrier, offset, data),
+							name + " signed @" + offset);
+					assertEquals(unsignedReads(generic, offset, data), unsignedReads(carrier, offset, data),
+							name + " unsigned @" + offset);
+
+					long value = new Random(~seed).nextLong();
+					List<Object> expected = writes(generic, carrier::wrap, offset, value, bytes.clone());
+					List<Object> actual = writes(carrier, offset, value, bytes.clone());
+
+					assertEquals(expected.size(), actual.size(), name);
+					for (int i = 0; i < expected.size(); i++) {
+						if (expected.get(i) instanceof byte[] e)
+							assertArrayEquals(e, (byte[]) actual.get(i), name + " set bytes @" + offset);
+						else
+							assertEquals(expected.get(i), actual.get(i), name + " set result @" + offset);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void test_CarrierField_arrayMatchesGeneric() {
+		assertCarrierMatchesGeneric(f -> ofArray(f.forArray()));
+	}
+
+	@Test
+	void test_CarrierField_byteBufferMatchesGeneric() {
+		assertCarrierMatchesGeneric(f -> ofByteBuffer(f.forByteBuffer()));
+	}
+
+	@Test
+	void test_CarrierField_segmentMatchesGeneric() {
+		assertCarrierMatchesGeneric(f -> ofSegment(f.forSegment()));
+	}
+
+	@Test
+	void test_CarrierField_signedAndUnsignedGetters() {
+		byte[] bytes = new byte[LENGTH];
+		Arrays.fill(bytes, (byte) 0xFF);
+
+		for (Function<BitField, Accessor> factory : List.<Function<BitField, Accessor>>of(
+				f -> ofArray(f.forArray()),
+				f -> ofByteBuffer(f.forByteBuffer()),
+				f -> ofSegment(f.forSegment()))) {
+
+			Accessor u8 = factory.apply(LAYOUT.bitField("u8"));
+			Object data = u8.wrap(bytes);
+			assertEquals((byte) -1, u8.getByteAt(0, data));
+			assertEquals(0xFF, u8.getUnsignedByteAt(0, data));
+
+			Accessor u8hi = factory.apply(LAYOUT.bitField("u8.hi"));
+			assertEquals(0x1F, u8hi.getByteAt(0, data));
+			assertEquals(0x1F, u8hi.getUnsignedByteAt(0, data));
+
+			Accessor u16 = factory.apply(LAYOUT.bitField("u16le"));
+			assertEquals((short) -1, u16.getShortAt(0, data));
+			assertEquals(0xFFFF, u16.getUnsignedShortAt(0, data));
+
+			Accessor u32 = factory.apply(LAYOUT.bitField("u32be"));
+			assertEquals(-1, u32.getIntAt(0, data));
+			assertEquals(0xFFFFFFFFL, u32.getUnsignedIntAt(0, data));
+
+			Accessor u32hi = factory.apply(LAYOUT.bitField("u32le.hi"));
+			assertEquals(0x0FFFFFFF, u32hi.getIntAt(0, data));
+			assertEquals(0x0FFFFFFFL, u32hi.getUnsignedIntAt(0, data));
+
+			Accessor u64 = factory.apply(LAYOUT.bitField("u64be"));
+			assertEquals(-1L, u64.getLongAt(0, data));
+		}
+	}
+
+	@Test
+	void test_CarrierField_byteOrderAndBufferUntouched() {
+		ByteBuffer buf = ByteBuffer.allocate(LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+		buf.put(LAYOUT.bitField("u16be").forByteBuffer().byteOffset(), (byte) 0x12);
+		buf.put(LAYOUT.bitField("u16be").forByteBuffer().byteOffset() + 1, (byte) 0x34);
+		buf.position(5);
+
+		CarrierField.OfByteBuffer be = LAYOUT.bitField("u16be").forByteBuffer();
+		CarrierField.OfByteBuffer le = LAYOUT.bitField("u16le").forByteBuffer();
+
+		assertTrue(be.big());
+		assertFalse(le.big());
+		assertEquals(ByteOrder.BIG_ENDIAN, be.order());
+		assertEquals(0x1234, be.getUnsignedShort(buf));
+		assertEquals(ByteOrder.LITTLE_ENDIAN, buf.order());
+		assertEquals(5, buf.position());
+	}
+
+	@Test
+	void test_CarrierField_invalidCarrier() {
+		assertThrows(IllegalArgumentException.class, () -> new CarrierField.OfArray(0, 0, 0xFF, 24, true));
+		assertThrows(IllegalArgumentException.class, () -> new CarrierField.OfByteBuffer(-1, 0, 0xFF, 8, true));
+		assertThrows(IllegalArgumentException.class, () -> new CarrierField.OfSegment(0, 16, 0xFF, 16, true));
+	}
+}
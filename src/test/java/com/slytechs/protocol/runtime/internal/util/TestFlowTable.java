@@ -0,0 +1,264 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.runtime.internal.util.FlowTable.Key;
+
+/**
+ * Flow table tests, with colliding hashes and a table filled to its load
+ * limit.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestFlowTable {
+
+	/** Packet and byte counts of a flow in the model. */
+	private record Counts(long packets, long bytes) {
+		Counts add(int length) {
+			return new Counts(packets + 1, bytes + length);
+		}
+	}
+
+	private static Key key(Key key, int id) {
+		return key.clear()
+				.ip4(0x0A00_0000 | id, 0xC0A8_0001)
+				.ports(1024 + id, 80)
+				.protocol(6);
+	}
+
+	/**
+	 * Hashes which collide heavily in a 64 slot table. Homes are limited to slots
+	 * 60 to 63, 0 and 1 so clusters wrap around the end of the table, ids
+	 * congruent mod 42 share the full hash, and hash 0 is stored as 1, same as
+	 * the real hash 1.
+	 */
+	private static int collidingHash(int id) {
+		if (id % 11 == 0)
+			return (id % 2 == 0) ? 0 : 1;
+
+		return ((id % 7) << 20) | ((60 + id % 6) & 63);
+	}
+
+	/**
+	 * Hashes which spread flows over the 64 slot table, with neighbouring homes,
+	 * so that many flows sit in their home slot right behind another cluster.
+	 */
+	private static int spreadHash(int id) {
+		return (id << 16) | ((id * 3) & 63);
+	}
+
+	private static void assertMatchesModel(FlowTable table, Map<Integer, Counts> model, int universe,
+			IntUnaryOperator hash) {
+		Key key = new Key();
+		Key copy = new Key();
+
+		assertEquals(model.size(), table.size());
+
+		for (int id = 0; id < universe; id++) {
+			int slot = table.find(key(key, id), hash.applyAsInt(id));
+			Counts expected = model.get(id);
+
+			if (expected == null) {
+				assertEquals(-1, slot, "flow " + id + " must not be found");
+				continue;
+			}
+
+			assertNotEquals(-1, slot, "flow " + id + " must be found");
+			assertEquals(expected.packets(), table.packets(slot), "packets " + id);
+			assertEquals(expected.bytes(), table.bytes(slot), "bytes " + id);
+			assertEquals(key.toString(), table.keyAt(slot, copy).toString());
+		}
+
+		int occupied = 0;
+		for (int slot = 0; slot < table.capacity(); slot++)
+			if (table.isOccupied(slot))
+				occupied++;
+
+		assertEquals(model.size(), occupied);
+	}
+
+	/**
+	 * Runs random count, find, remove and removeAt operations on a 64 slot table
+	 * and checks the table against a model.
+	 */
+	private static void interleaved(int universe, IntUnaryOperator hashFunction) {
+		FlowTable table = new FlowTable(64);
+		Map<Integer, Counts> model = new HashMap<>();
+		Random random = new Random(0xF10E);
+		Key key = new Key();
+
+		for (int op = 0; op < 20_000; op++) {
+			int id = random.nextInt(universe);
+			int hash = hashFunction.applyAsInt(id);
+			int length = 60 + random.nextInt(1400);
+
+			switch (random.nextInt(4)) {
+			case 0, 1 -> {
+				int slot = table.count(key(key, id), hash, length);
+
+				if (!model.containsKey(id) && model.size() == 56) {
+					assertEquals(-1, slot, "full table must refuse flow " + id);
+				} else {
+					assertNotEquals(-1, slot);
+					model.merge(id, new Counts(1, length), (c, n) -> c.add(length));
+				}
+			}
+			case 2 -> assertEquals(model.remove(id) != null, table.remove(key(key, id), hash));
+			default -> {
+				int slot = table.find(key(key, id), hash);
+				assertEquals(model.containsKey(id), slot != -1);
+
+				/* Remove by slot, which shifts back the rest of the cluster */
+				if (slot != -1 && random.nextBoolean()) {
+					table.removeAt(slot);
+					model.remove(id);
+				}
+			}
+			}
+
+			if (op % 500 == 0)
+				assertMatchesModel(table, model, universe, hashFunction);
+		}
+
+		assertMatchesModel(table, model, universe, hashFunction);
+	}
+
+	@Test
+	void test_FlowTable_collidingHashesInterleaved() {
+		interleaved(80, TestFlowTable::collidingHash);
+	}
+
+	@Test
+	void test_FlowTable_spreadHashesInterleaved() {
+		interleaved(40, TestFlowTable::spreadHash);
+	}
+
+	@Test
+	void test_FlowTable_removeStopsAtFlowInHomeSlot() {
+		FlowTable table = new FlowTable(16);
+		Key key = new Key();
+
+		/* Flow 0 and 1 both want slot 15, flow 2 sits in its home slot 0 */
+		int[] hashes = { 15, 0x100F, 0x2000 };
+		for (int id = 0; id < hashes.length; id++)
+			table.count(key(key, id), hashes[id], id + 1);
+
+		assertEquals(15, table.find(key(key, 0), hashes[0]));
+		assertEquals(0, table.find(key(key, 1), hashes[1]));
+		assertEquals(1, table.find(key(key, 2), hashes[2]));
+
+		/* Flow 1 shifts back to 15, flow 2 moves back into its home slot 0 */
+		assertTrue(table.remove(key(key, 0), hashes[0]));
+		assertEquals(15, table.find(key(key, 1), hashes[1]));
+		assertEquals(0, table.find(key(key, 2), hashes[2]));
+		assertEquals(3, table.bytes(0));
+
+		/* Flow 2 is home, removing flow 1 must not move it */
+		assertTrue(table.remove(key(key, 1), hashes[1]));
+		assertEquals(0, table.find(key(key, 2), hashes[2]));
+		assertFalse(table.isOccupied(15));
+		assertEquals(1, table.size());
+	}
+
+	@Test
+	void test_FlowTable_identicalHashes() {
+		FlowTable table = new FlowTable(16);
+		Key key = new Key();
+
+		for (int id = 0; id < 14; id++)
+			assertNotEquals(-1, table.count(key(key, id), 0x1234_5678, id));
+
+		for (int id = 0; id < 14; id++)
+			assertEquals(id, table.bytes(table.find(key(key, id), 0x1234_5678)));
+
+		/* Remove from the front, middle and back of the probe sequence */
+		for (int id : new int[] { 0, 7, 13 }) {
+			assertTrue(table.remove(key(key, id), 0x1234_5678));
+			assertFalse(table.remove(key(key, id), 0x1234_5678));
+		}
+
+		assertEquals(11, table.size());
+		for (int id = 0; id < 14; id++) {
+			int slot = table.find(key(key, id), 0x1234_5678);
+
+			if (id == 0 || id == 7 || id == 13)
+				assertEquals(-1, slot);
+			else
+				assertEquals(id, table.bytes(slot));
+		}
+	}
+
+	@Test
+	void test_FlowTable_countRefusesInsertAtMaxSize() {
+		FlowTable table = new FlowTable(8);
+		Key key = new Key();
+		int maxSize = 7; // 7/8 of 8 slots
+
+		for (int id = 0; id < maxSize; id++)
+			assertNotEquals(-1, table.count(key(key, id), key.hash(), 100));
+
+		assertEquals(maxSize, table.size());
+
+		/* New flows are refused, whether they land in an empty slot or displace */
+		for (int id = maxSize; id < maxSize + 20; id++) {
+			assertEquals(-1, table.count(key(key, id), key.hash(), 100), "flow " + id);
+			assertEquals(-1, table.findOrInsert(key(key, id), key.hash()));
+			assertEquals(-1, table.find(key, key.hash()));
+		}
+
+		assertEquals(maxSize, table.size());
+
+		/* Existing flows are still counted */
+		for (int id = 0; id < maxSize; id++) {
+			int slot = table.count(key(key, id), key.hash(), 50);
+
+			assertNotEquals(-1, slot);
+			assertEquals(2, table.packets(slot));
+			assertEquals(150, table.bytes(slot));
+		}
+
+		/* Removing a flow makes room for exactly one more */
+		assertTrue(table.remove(key(key, 3), key.hash()));
+		assertNotEquals(-1, table.count(key(key, 100), key.hash(), 1));
+		assertEquals(-1, table.count(key(key, 101), key.hash(), 1));
+		assertEquals(maxSize, table.size());
+
+		table.clear();
+		assertEquals(0, table.size());
+		assertNotEquals(-1, table.count(key(key, 101), key.hash(), 1));
+	}
+
+	@Test
+	void test_FlowTable_invalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new FlowTable(0));
+		assertThrows(IllegalArgumentException.class, () -> new FlowTable(FlowTable.MAX_CAPACITY + 1));
+		assertThrows(IllegalArgumentException.class, () -> new FlowTable(8).removeAt(0));
+		assertEquals(16, new FlowTable(9).capacity());
+	}
+}
@@ -0,0 +1,490 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import com.slytechs.protocol.runtime.NotFound;
+import com.slytechs.protocol.runtime.internal.Benchmark;
+
+/**
+ * Tests for the primitive open addressing hash tables, {@link IntHashTable},
+ * {@link LongHashTable} and {@link LongLongHashTable}. Each table is exercised
+ * through a common adapter and checked against a {@link HashMap} model.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestHashTable {
+
+	/** Common view of the three table types, with long keys and values. */
+	private interface Table {
+		void put(long key, long value);
+
+		/** Returns null when getX throws NotFound. */
+		Long get(long key);
+
+		long peek(long key, long defaultValue);
+
+		long peek(long key);
+
+		boolean remove(long key);
+
+		boolean containsKey(long key);
+
+		void clear();
+
+		int size();
+
+		/** Home slot of a key in a table with the given mask. */
+		int home(long key, int mask);
+	}
+
+	private static Table intTable(int expectedSize) {
+		IntHashTable table = new IntHashTable(expectedSize);
+
+		return new Table() {
+			// @formatter:off
+			@Override public void put(long key, long value) { table.putInt((int) key, (int) value); }
+			@Override public Long get(long key) {
+				try { return (long) table.getInt((int) key); } catch (NotFound e) { return null; }
+			}
+			@Override public long peek(long key, long defaultValue) { return table.peekInt((int) key, (int) defaultValue); }
+			@Override public long peek(long key) { return table.peekInt((int) key); }
+			@Override public boolean remove(long key) { return table.remove((int) key); }
+			@Override public boolean containsKey(long key) { return table.containsKey((int) key); }
+			@Override public void clear() { table.clear(); }
+			@Override public int size() { return table.size(); }
+			@Override public int home(long key, int mask) { return OpenAddressing.mix((int) key) & mask; }
+			// @formatter:on
+		};
+	}
+
+	private static Table longTable(int expectedSize) {
+		LongHashTable table = new LongHashTable(expectedSize);
+
+		return new Table() {
+			// @formatter:off
+			@Override public void put(long key, long value) { table.putLong((int) key, value); }
+			@Override public Long get(long key) {
+				try { return table.getLong((int) key); } catch (NotFound e) { return null; }
+			}
+			@Override public long peek(long key, long defaultValue) { return table.peekLong((int) key, defaultValue); }
+			@Override public long peek(long key) { return table.peekLong((int) key); }
+			@Override public boolean remove(long key) { return table.remove((int) key); }
+			@Override public boolean containsKey(long key) { return table.containsKey((int) key); }
+			@Override public void clear() { table.clear(); }
+			@Override public int size() { return table.size(); }
+			@Override public int home(long key, int mask) { return OpenAddressing.mix((int) key) & mask; }
+			// @formatter:on
+		};
+	}
+
+	private static Table longLongTable(int expectedSize) {
+		LongLongHashTable table = new LongLongHashTable(expectedSize);
+
+		return new Table() {
+			// @formatter:off
+			@Override public void put(long key, long value) { table.putLong(key, value); }
+			@Override public Long get(long key) {
+				try { return table.getLong(key); } catch (NotFound e) { return null; }
+			}
+			@Override public long peek(long key, long defaultValue) { return table.peekLong(key, defaultValue); }
+			@Override public long peek(long key) { return table.peekLong(key); }
+			@Override public boolean remove(long key) { return table.remove(key); }
+			@Override public boolean containsKey(long key) { return table.containsKey(key); }
+			@Override public void clear() { table.clear(); }
+			@Override public int size() { return table.size(); }
+			@Override public int home(long key, int mask) { return OpenAddressing.mix(key) & mask; }
+			// @formatter:on
+		};
+	}
+
+	/** Table size used by the collision tests, no growth below 3/4 of it. */
+	private static final int SLOTS = 32;
+
+	/** Number of distinct keys in the benchmarks. */
+	private static final int BENCHMARK_KEYS = 1_000_000;
+
+	/** Number of reads of each key in the benchmarks, after it is put. */
+	private static final int BENCHMARK_READS = 4;
+
+	private String testName;
+
+	@BeforeEach
+	void setUp(TestInfo info) {
+		testName = info.getTestMethod().get().getName();
+	}
+
+	private void logOpsPerSecond(double tsecs, double ops, long total) {
+		System.out.printf("> %s: duration=%,.1fsec rate=%,.0fops latency=%,.1fns total=%,d%n",
+				testName,
+				tsecs,
+				ops,
+				1e9 / ops,
+				total);
+	}
+
+	private static void assertMatchesModel(Table table, Map<Long, Long> model, long[] universe) {
+		assertEquals(model.size(), table.size());
+
+		for (long key : universe) {
+			Long expected = model.get(key);
+
+			assertEquals(expected, table.get(key), "get " + key);
+			assertEquals(expected != null, table.containsKey(key), "containsKey " + key);
+			assertEquals(expected == null ? -7 : expected, table.peek(key, -7), "peek " + key);
+		}
+	}
+
+	/**
+	 * Finds keys whose home slot, in a table of {@link #SLOTS} slots, is the given
+	 * slot.
+	 */
+	private static long[] keysWithHome(Table table, int home, int count, long start) {
+		long[] keys = new long[count];
+		int n = 0;
+
+		for (long key = start; n < count; key++)
+			if (table.home(key, SLOTS - 1) == home)
+				keys[n++] = key;
+
+		return keys;
+	}
+
+	private static void getAndPeekFoundAndNotFound(Supplier<Table> factory) {
+		Table table = factory.get();
+
+		assertNull(table.get(1), "not found must throw NotFound");
+		assertEquals(0, table.peek(1));
+		assertEquals(-1, table.peek(1, -1));
+
+		table.put(1, 100);
+		table.put(2, 0);
+
+		assertEquals(100L, table.get(1), "found must return the value");
+		assertEquals(100, table.peek(1));
+		assertEquals(100, table.peek(1, -1), "found must not return the default");
+		assertEquals(0L, table.get(2), "a zero value is found, not missing");
+		assertEquals(0, table.peek(2, -1));
+		assertNull(table.get(3));
+		assertEquals(-1, table.peek(3, -1));
+
+		table.put(1, 200);
+		assertEquals(200L, table.get(1), "put replaces value");
+		assertEquals(2, table.size());
+	}
+
+	private static void backwardShiftRemoval(Supplier<Table> factory) {
+		/* Wrap around the end of the table: homes 30, 31 and 0 */
+		int[] homes = { 30, 30, 30, 31, 31, 0, 0, 30 };
+
+		for (int victim = 0; victim < homes.length; victim++) {
+			Table table = factory.get();
+			Map<Long, Long> model = new HashMap<>();
+			long[] keys = new long[homes.length];
+
+			for (int i = 0; i < homes.length; i++) {
+				keys[i] = keysWithHome(table, homes[i], 1, (i + 1) * 1_000_000L)[0];
+				table.put(keys[i], i);
+				model.put(keys[i], (long) i);
+			}
+
+			assertMatchesModel(table, model, keys);
+
+			/* Remove one key from the middle of the cluster, then the rest in order */
+			assertTrue(table.remove(keys[victim]));
+			assertFalse(table.remove(keys[victim]));
+			model.remove(keys[victim]);
+			assertMatchesModel(table, model, keys);
+
+			for (long key : keys) {
+				assertEquals(model.remove(key) != null, table.remove(key));
+				assertMatchesModel(table, model, keys);
+			}
+		}
+	}
+
+	private static void interleavedOperationsMatchModel(Supplier<Table> factory) {
+		Random random = new Random(0xC0FFEE);
+		Table table = factory.get();
+		Map<Long, Long> model = new HashMap<>();
+
+		/* Small key space, so that removes hit and clusters form */
+		long[] universe = new long[256];
+		for (int i = 0; i < universe.length; i++)
+			universe[i] = (i * 7919L) - 1000;
+
+		for (int op = 0; op < 50_000; op++) {
+			long key = universe[random.nextInt(universe.length)];
+
+			switch (random.nextInt(3)) {
+			case 0 -> {
+				table.put(key, op);
+				model.put(key, (long) op);
+			}
+			case 1 -> assertEquals(model.remove(key) != null, table.remove(key));
+			default -> assertEquals(model.get(key), table.get(key));
+			}
+
+			if (op % 5_000 == 0)
+				assertMatchesModel(table, model, universe);
+		}
+
+		assertMatchesModel(table, model, universe);
+	}
+
+	private static void clearReusesSlotsAndGrows(Supplier<Table> factory) {
+		Table table = factory.get();
+		long[] keys = new long[10_000];
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = i * 31L;
+
+		for (int round = 0; round < 3; round++) {
+			/* Each round grows past the initial table size */
+			for (int i = 0; i < keys.length; i++)
+				table.put(keys[i], i + round);
+
+			assertEquals(keys.length, table.size());
+			for (int i = 0; i < keys.length; i++)
+				assertEquals((long) (i + round), table.get(keys[i]));
+
+			table.clear();
+			assertEquals(0, table.size());
+
+			for (long key : keys)
+				assertFalse(table.containsKey(key), "cleared " + key);
+		}
+
+		/* After clear, stale slots are reused for new keys */
+		table.put(1, 1);
+		table.put(2, 2);
+		assertTrue(table.remove(1));
+		assertEquals(1, table.size());
+		assertNull(table.get(1));
+		assertEquals(2L, table.get(2));
+	}
+
+	@Test
+	void test_IntHashTable_getAndPeek() {
+		getAndPeekFoundAndNotFound(() -> intTable(16));
+	}
+
+	@Test
+	void test_LongHashTable_getAndPeek() {
+		getAndPeekFoundAndNotFound(() -> longTable(16));
+	}
+
+	@Test
+	void test_LongLongHashTable_getAndPeek() {
+		getAndPeekFoundAndNotFound(() -> longLongTable(16));
+	}
+
+	@Test
+	void test_IntHashTable_backwardShiftRemoval() {
+		backwardShiftRemoval(() -> intTable(16));
+	}
+
+	@Test
+	void test_LongHashTable_backwardShiftRemoval() {
+		backwardShiftRemoval(() -> longTable(16));
+	}
+
+	@Test
+	void test_LongLongHashTable_backwardShiftRemoval() {
+		backwardShiftRemoval(() -> longLongTable(16));
+	}
+
+	@Test
+	void test_IntHashTable_interleavedOperations() {
+		interleavedOperationsMatchModel(() -> intTable(4));
+	}
+
+	@Test
+	void test_LongHashTable_interleavedOperations() {
+		interleavedOperationsMatchModel(() -> longTable(4));
+	}
+
+	@Test
+	void test_LongLongHashTable_interleavedOperations() {
+		interleavedOperationsMatchModel(() -> longLongTable(4));
+	}
+
+	@Test
+	void test_IntHashTable_clearAndGrow() {
+		clearReusesSlotsAndGrows(() -> intTable(16));
+	}
+
+	@Test
+	void test_LongHashTable_clearAndGrow() {
+		clearReusesSlotsAndGrows(() -> longTable(16));
+	}
+
+	@Test
+	void test_LongLongHashTable_clearAndGrow() {
+		clearReusesSlotsAndGrows(() -> longLongTable(16));
+	}
+
+	@Test
+	void test_OpenAddressing_tableSize() {
+		assertEquals(SLOTS, OpenAddressing.tableSize(16));
+		assertEquals(2, OpenAddressing.tableSize(0));
+		assertTrue(OpenAddressing.maxSize(OpenAddressing.tableSize(1000)) >= 1000);
+		assertThrows(IllegalArgumentException.class, () -> OpenAddressing.tableSize(-1));
+	}
+
+	@Test
+	void test_OpenAddressing_nextTokenWrapAround() {
+		int[] tokens = { 5, -1, 7, -1 };
+
+		assertEquals(6, OpenAddressing.nextToken(tokens, 5));
+		assertArrayEquals(new int[] { 5, -1, 7, -1 }, tokens, "no reset before wrap around");
+
+		/* Wrapping to NO_TOKEN resets all slots, so no stale slot can match again */
+		assertEquals(OpenAddressing.NO_TOKEN + 1, OpenAddressing.nextToken(tokens, -1));
+		assertArrayEquals(new int[4], tokens);
+	}
+
+	@Test
+	void test_OpenAddressing_growRehashesCollidingKeys() {
+		Table table = intTable(16);
+		Map<Long, Long> model = new HashMap<>();
+
+		/* Keys sharing a home slot at the initial size, spread by each growth */
+		long[] keys = keysWithHome(table, 5, 200, 0);
+		for (int i = 0; i < keys.length; i++) {
+			table.put(keys[i], i);
+			model.put(keys[i], (long) i);
+
+			if ((i % 7) == 3) {
+				assertTrue(table.remove(keys[i - 2]));
+				model.remove(keys[i - 2]);
+			}
+		}
+
+		assertMatchesModel(table, model, keys);
+	}
+
+	@Test
+	void test_OpenAddressing_clearAtTokenWrapAround() throws ReflectiveOperationException {
+		int[] keys = new int[OpenAddressing.tableSize(4)];
+		OpenAddressing slots = new OpenAddressing(4, new OpenAddressing.Storage() {
+			// @formatter:off
+			@Override public int hashOf(int slot) { return OpenAddressing.mix(keys[slot]); }
+			@Override public void move(int from, int to) { keys[to] = keys[from]; }
+			@Override public void swap(int a, int b) { int k = keys[a]; keys[a] = keys[b]; keys[b] = k; }
+			@Override public void resize(int tableSize) { throw new AssertionError("test storage does not grow"); }
+			// @formatter:on
+		});
+
+		Field token = OpenAddressing.class.getDeclaredField("token");
+		token.setAccessible(true);
+		token.setInt(slots, -1);
+
+		slots.occupy(1);
+		assertTrue(slots.occupied(1));
+		assertEquals(1, slots.size());
+
+		/* The next token wraps around, so clear must not leave slot 1 occupied */
+		slots.clear();
+		assertFalse(slots.occupied(1));
+		assertEquals(0, slots.size());
+	}
+
+	@Test
+	void test_OpenAddressing_growRenumbersBeforeTokenWrapAround() throws ReflectiveOperationException, NotFound {
+		LongLongHashTable table = new LongLongHashTable(4);
+
+		Field slotsField = LongLongHashTable.class.getDeclaredField("table");
+		slotsField.setAccessible(true);
+		Field token = OpenAddressing.class.getDeclaredField("token");
+		token.setAccessible(true);
+		token.setInt(slotsField.get(table), -1);
+
+		for (long key = 0; key < 100; key++)
+			table.putLong(key, ~key);
+
+		assertEquals(100, table.size());
+		for (long key = 0; key < 100; key++)
+			assertEquals(~key, table.getLong(key));
+	}
+
+	@Test
+	@Tag("benchmark")
+	void test_LongHashTable_benchmarkPutAndGet() {
+		int[] keys = new Random(1).ints(BENCHMARK_KEYS).toArray();
+		LongHashTable table = new LongHashTable();
+
+		Benchmark benchmark = Benchmark.setup()
+				.reportRate(BENCHMARK_KEYS * (1L + BENCHMARK_READS), this::logOpsPerSecond);
+
+		long sum = 0;
+		for (int key : keys) {
+			table.putLong(key, key);
+
+			for (int r = 0; r < BENCHMARK_READS; r++)
+				sum += table.peekLong(key);
+		}
+
+		benchmark.complete();
+
+		assertExpectedSum(keys, sum);
+	}
+
+	@Test
+	@Tag("benchmark")
+	void test_HashMap_benchmarkPutAndGet() {
+		int[] keys = new Random(1).ints(BENCHMARK_KEYS).toArray();
+		Map<Integer, Long> map = new HashMap<>();
+
+		Benchmark benchmark = Benchmark.setup()
+				.reportRate(BENCHMARK_KEYS * (1L + BENCHMARK_READS), this::logOpsPerSecond);
+
+		long sum = 0;
+		for (int key : keys) {
+			map.put(key, (long) key);
+
+			for (int r = 0; r < BENCHMARK_READS; r++)
+				sum += map.getOrDefault(key, 0L);
+		}
+
+		benchmark.complete();
+
+		assertExpectedSum(keys, sum);
+	}
+
+	private static void assertExpectedSum(int[] keys, long sum) {
+		long expected = 0;
+		for (int key : keys)
+			expected += (long) key * BENCHMARK_READS;
+
+		assertEquals(expected, sum);
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.internal.util.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.slytechs.protocol.runtime.internal.util.OpenAddressing;
+
+/**
+ * Tests for the primitive open addressing hash sets, {@link IntHashSet} and
+ * {@link LongHashSet}. Both sets are exercised through a common adapter and
+ * checked against a {@link TreeSet} model.
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestPrimitiveHashSet {
+
+	/** Common view of the two set types, with long elements. */
+	private interface PrimitiveSet {
+		boolean add(long e);
+
+		boolean remove(long e);
+
+		boolean contains(long e);
+
+		boolean removeIf(LongPredicate filter);
+
+		void clear();
+
+		int size();
+
+		/** The elements, in ascending order, read through the iterator. */
+		long[] sorted();
+
+		/** Home slot of an element in a set with the given mask. */
+		int home(long e, int mask);
+	}
+
+	private static PrimitiveSet intSet(int expectedSize) {
+		IntHashSet set = new IntHashSet(expectedSize);
+
+		return new PrimitiveSet() {
+			// @formatter:off
+			@Override public boolean add(long e) { return set.addInt((int) e); }
+			@Override public boolean remove(long e) { return set.removeInt((int) e); }
+			@Override public boolean contains(long e) { return set.containsInt((int) e); }
+			@Override public boolean removeIf(LongPredicate filter) { return set.removeIntIf(filter::test); }
+			@Override public void clear() { set.clear(); }
+			@Override public int size() { return set.size(); }
+			@Override public long[] sorted() { return set.intStream().asLongStream().sorted().toArray(); }
+			@Override public int home(long e, int mask) { return OpenAddressing.mix((int) e) & mask; }
+			// @formatter:on
+		};
+	}
+
+	private static PrimitiveSet longSet(int expectedSize) {
+		LongHashSet set = new LongHashSet(expectedSize);
+
+		return new PrimitiveSet() {
+			// @formatter:off
+			@Override public boolean add(long e) { return set.addLong(e); }
+			@Override public boolean remove(long e) { return set.removeLong(e); }
+			@Override public boolean contains(long e) { return set.containsLong(e); }
+			@Override public boolean removeIf(LongPredicate filter) { return set.removeLongIf(filter); }
+			@Override public void clear() { set.clear(); }
+			@Override public int size() { return set.size(); }
+			@Override public long[] sorted() { return set.longStream().sorted().toArray(); }
+			@Override public int home(long e, int mask) { return OpenAddressing.mix(e) & mask; }
+			// @formatter:on
+		};
+	}
+
+	private static final List<Supplier<PrimitiveSet>> SETS = List.of(
+			() -> intSet(16),
+			() -> longSet(16));
+
+	/** Table size for an expected size of 16, no growth below 3/4 of it. */
+	private static final int SLOTS = 32;
+
+	private static void assertMatchesModel(PrimitiveSet set, Set<Long> model, long[] universe) {
+		assertEquals(model.size(), set.size());
+		assertArrayEquals(model.stream().mapToLong(Long::longValue).toArray(), set.sorted());
+
+		for (long e : universe)
+			assertEquals(model.contains(e), set.contains(e), "contains " + e);
+	}
+
+	private static long withHome(PrimitiveSet set, int home, long start) {
+		for (long e = start;; e++)
+			if (set.home(e, SLOTS - 1) == home)
+				return e;
+	}
+
+	private static void backwardShiftRemoval(Supplier<PrimitiveSet> factory) {
+		/* Wrap around the end of the table: homes 30, 31 and 0 */
+		int[] homes = { 30, 30, 31, 30, 0, 31, 0, 1 };
+
+		for (int victim = 0; victim < homes.length; victim++) {
+			PrimitiveSet set = factory.get();
+			Set<Long> model = new TreeSet<>();
+			long[] elements = new long[homes.length];
+
+			for (int i = 0; i < homes.length; i++) {
+				elements[i] = withHome(set, homes[i], (i + 1) * 1_000_000L);
+				assertTrue(set.add(elements[i]));
+				assertFalse(set.add(elements[i]), "duplicate");
+				model.add(elements[i]);
+			}
+
+			assertMatchesModel(set, model, elements);
+
+			assertTrue(set.remove(elements[victim]));
+			assertFalse(set.remove(elements[victim]));
+			model.remove(elements[victim]);
+			assertMatchesModel(set, model, elements);
+
+			for (long e : elements) {
+				assertEquals(model.remove(e), set.remove(e));
+				assertMatchesModel(set, model, elements);
+			}
+		}
+	}
+
+	@Test
+	void test_HashSet_backwardShiftRemoval() {
+		for (Supplier<PrimitiveSet> factory : SETS)
+			backwardShiftRemoval(factory);
+	}
+
+	@Test
+	void test_HashSet_interleavedOperations() {
+		for (Supplier<PrimitiveSet> factory : SETS) {
+			Random random = new Random(0xBEEF);
+			PrimitiveSet set = factory.get();
+			Set<Long> model = new TreeSet<>();
+
+			long[] universe = new long[200];
+			for (int i = 0; i < universe.length; i++)
+				universe[i] = (i * 104729L) - 5000;
+
+			for (int op = 0; op < 50_000; op++) {
+				long e = universe[random.nextInt(universe.length)];
+
+				switch (random.nextInt(3)) {
+				case 0 -> assertEquals(model.add(e), set.add(e));
+				case 1 -> assertEquals(model.remove(e), set.remove(e));
+				default -> assertEquals(model.contains(e), set.contains(e));
+				}
+			}
+
+			assertMatchesModel(set, model, universe);
+		}
+	}
+
+	@Test
+	void test_HashSet_removeIf() {
+		for (Supplier<PrimitiveSet> factory : SETS) {
+			PrimitiveSet set = factory.get();
+			Set<Long> model = new TreeSet<>();
+
+			long[] universe = new long[5000];
+			for (int i = 0; i < universe.length; i++) {
+				universe[i] = i;
+				set.add(i);
+				model.add((long) i);
+			}
+
+			/* Removes move later elements of a cluster backwards, none may be skipped */
+			assertTrue(set.removeIf(e -> e % 3 == 0));
+			model.removeIf(e -> e % 3 == 0);
+			assertMatchesModel(set, model, universe);
+
+			assertFalse(set.removeIf(e -> e % 3 == 0), "nothing left to remove");
+			assertMatchesModel(set, model, universe);
+
+			assertTrue(set.removeIf(e -> true));
+			assertEquals(0, set.size());
+			assertFalse(set.removeIf(e -> true));
+		}
+	}
+
+	@Test
+	void test_HashSet_clearAndGrow() {
+		for (Supplier<PrimitiveSet> factory : SETS) {
+			PrimitiveSet set = factory.get();
+
+			for (int round = 0; round < 3; round++) {
+				for (int i = 0; i < 10_000; i++)
+					assertTrue(set.add(i * 17L + round));
+
+				assertEquals(10_000, set.size());
+				assertTrue(set.contains(9_999 * 17L + round));
+
+				set.clear();
+				assertEquals(0, set.size());
+				assertEquals(0, set.sorted().length);
+				assertFalse(set.contains(round));
+			}
+
+			/* Stale slots from before clear are reused */
+			assertTrue(set.add(2));
+			assertTrue(set.add(19));
+			assertTrue(set.remove(2));
+			assertArrayEquals(new long[] { 19 }, set.sorted());
+		}
+	}
+
+	@Test
+	void test_IntHashSet_boxedCollectionView() {
+		IntHashSet set = new IntHashSet();
+		set.addAll(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+		assertTrue(set.contains(3));
+		assertFalse(set.contains(3L), "different boxed type");
+		assertTrue(set.removeIf(e -> e > 4));
+		assertTrue(set.retainAll(Set.of(1, 2, 3)));
+		assertTrue(set.removeAll(Set.of(1)));
+		assertArrayEquals(new int[] { 2, 3 }, set.intStream().sorted().toArray());
+	}
+
+	@Test
+	void test_LongHashSet_boxedCollectionView() {
+		LongHashSet set = new LongHashSet();
+		set.addAll(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L));
+
+		assertTrue(set.contains(3L));
+		assertFalse(set.contains(3), "different boxed type");
+		assertTrue(set.removeIf(e -> e > 4));
+		assertTrue(set.retainAll(Set.of(1L, 2L, 3L)));
+		assertTrue(set.removeAll(Set.of(1L)));
+		assertArrayEquals(new long[] { 2, 3 }, set.longStream().sorted().toArray());
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Sly Technologies Free License
+ * 
+ * Copyright 2023 Sly Technologies Inc.
+ *
+ * Licensed under the Sly Technologies Free License (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.slytechs.com/free-license-text
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.slytechs.protocol.runtime.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * NUMA node mask and sysfs topology parsing tests
+ * 
+ * @author Sly Technologies Inc
+ * @author repos@slytechs.com
+ *
+ */
+class TestNumaNode {
+
+	@TempDir
+	Path sysfs;
+
+	private void write(String file, String content) throws IOException {
+		Path path = sysfs.resolve(file);
+		Files.createDirectories(path.getParent());
+		Files.writeString(path, content);
+	}
+
+	@Test
+	void test_toMask_singleWord() {
+		assertArrayEquals(new long[] { 0b1 }, NumaNode.toMask(0));
+		assertArrayEquals(new long[] { 0b1011 }, NumaNode.toMask(0, 1, 3));
+		assertArrayEquals(new long[] { 1L << 63 }, NumaNode.toMask(63));
+	}
+
+	@Test
+	void test_toMask_multiWord() {
+		assertArrayEquals(new long[] { 0, 1 }, NumaNode.toMask(64));
+		assertArrayEquals(new long[] { 1L << 63 | 1, 0, 1L << 2 }, NumaNode.toMask(130, 0, 63));
+	}
+
+	@Test
+	void test_toMask_empty() {
+		assertArrayEquals(new long[] { 0 }, NumaNode.toMask());
+	}
+
+	@Test
+	void test_toMask_negativeBit() {
+		assertThrows(IllegalArgumentException.class, () -> NumaNode.toMask(1, -1));
+	}
+
+	@Test
+	void test_parseList_rangesAndSingles() {
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 8, 9, 10, 11 }, NumaNode.parseList("0-3,8-11\n"));
+		assertArrayEquals(new int[] { 0, 2, 5, 6, 7 }, NumaNode.parseList("5-7,0,2"));
+		assertArrayEquals(new int[] { 4 }, NumaNode.parseList(" 4 "));
+		assertArrayEquals(new int[0], NumaNode.parseList("\n"));
+	}
+
+	@Test
+	void test_parseList_malformed() {
+		assertThrows(IllegalArgumentException.class, () -> NumaNode.parseList("0-x"));
+		assertThrows(IllegalArgumentException.class, () -> NumaNode.parseList("1,,2"));
+	}
+
+	@Test
+	void test_readTopology_twoNodes() throws IOException {
+		write("online", "0-1\n");
+		write("node0/cpulist", "0-3,8-11\n");
+		write("node0/distance", "10 21\n");
+		write("node0/meminfo", """
+				Node 0 MemTotal:       16318212 kB
+				Node 0 MemFree:         1024 kB
+				""");
+		write("node1/cpulist", "4-7,12-15\n");
+		write("node1/distance", "21 10\n");
+
+		NumaNode[] nodes = NumaNode.readTopology(sysfs);
+		assertEquals(2, nodes.length);
+
+		assertEquals(0, nodes[0].index());
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 8, 9, 10, 11 }, nodes[0].cpus());
+		assertEquals(1, nodes[1].index());
+		assertArrayEquals(new int[] { 4, 5, 6, 7, 12, 13, 14, 15 }, nodes[1].cpus());
+
+		assertTrue(nodes[0].containsCpu(9));
+		assertFalse(nodes[0].containsCpu(4));
+
+		assertEquals(10, nodes[0].distance(nodes[0]));
+		assertEquals(21, nodes[0].distance(nodes[1]));
+		assertEquals(21, nodes[1].distance(nodes[0]));
+
+		assertEquals(16318212L * 1024, nodes[0].memoryTotal());
+		assertEquals(1024L * 1024, nodes[0].memoryFree());
+		assertEquals(0, nodes[1].memoryTotal());
+	}
+
+	@Test
+	void test_readTopology_sparseNodeIndexes() throws IOException {
+		write("online", "0,2\n");
+		write("node0/cpulist", "0-1\n");
+		write("node0/distance", "10 20\n");
+		write("node2/cpulist", "2-3\n");
+		write("node2/distance", "20 10\n");
+
+		NumaNode[] nodes = NumaNode.readTopology(sysfs);
+		assertEquals(2, nodes.length);
+		assertEquals(2, nodes[1].index());
+
+		/* Distances are indexed by position in the online list, not node index */
+		assertEquals(20, nodes[0].distance(nodes[1]));
+		assertEquals(10, nodes[1].distance(nodes[1]));
+	}
+
+	@Test
+	void test_readTopology_missingDirectory() {
+		NumaNode[] nodes = NumaNode.readTopology(sysfs.resolve("missing"));
+
+		assertEquals(1, nodes.length);
+		assertEquals(0, nodes[0].index());
+		assertEquals(Runtime.getRuntime().availableProcessors(), nodes[0].cpus().length);
+		assertEquals(10, nodes[0].distance(nodes[0]));
+		assertEquals(0, nodes[0].memoryTotal());
+	}
+}